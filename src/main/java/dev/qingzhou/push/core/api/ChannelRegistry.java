@@ -0,0 +1,117 @@
+package dev.qingzhou.push.core.api;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 通道注册表：type -> 通道实例
+ * 同一 type 有多个实现时保留 weight 较大的，weight 相同按类名决定
+ */
+@Slf4j
+class ChannelRegistry {
+
+    private final Map<String, IPushChannel> channels = new ConcurrentHashMap<>();
+
+    /**
+     * 通过 SPI 加载全部通道，每次调用都会创建新的实例
+     * 单个实现加载失败只记录日志，不影响其他通道
+     */
+    static List<IPushChannel> loadProviders(ClassLoader classLoader) {
+        List<IPushChannel> providers = new ArrayList<>();
+        try {
+            ServiceLoader<IPushChannel> loader = ServiceLoader.load(IPushChannel.class, classLoader);
+            var iterator = loader.iterator();
+            while (true) {
+                try {
+                    if (!iterator.hasNext()) {
+                        break;
+                    }
+                } catch (Throwable t) {
+                    log.warn("Failed to iterate channel providers", t);
+                    break;
+                }
+
+                try {
+                    providers.add(iterator.next());
+                } catch (Throwable t) {
+                    log.warn("Failed to load channel provider", t);
+                }
+            }
+        } catch (Throwable t) {
+            log.error("Failed to load channel providers", t);
+        }
+        return providers;
+    }
+
+    IPushChannel get(String type) {
+        IPushChannel channel = channels.get(normalizeType(type));
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel not found: " + type);
+        }
+        return channel;
+    }
+
+    Collection<IPushChannel> all() {
+        return channels.values();
+    }
+
+    void register(String type, IPushChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel cannot be null");
+        }
+        String normalizedType = normalizeType(type);
+        String channelType = normalizeType(channel.type());
+        if (!normalizedType.equals(channelType)) {
+            throw new IllegalArgumentException("Channel type mismatch: " + type + " vs " + channel.type());
+        }
+        register(channel);
+    }
+
+    void register(IPushChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel cannot be null");
+        }
+        String normalizedType = normalizeType(channel.type());
+        channels.compute(normalizedType, (key, existing) -> {
+            if (existing == null) {
+                return channel;
+            }
+            int existingWeight = existing.weight();
+            int newWeight = channel.weight();
+            if (newWeight > existingWeight) {
+                return channel;
+            }
+            if (newWeight == existingWeight) {
+                String existingName = existing.getClass().getName();
+                String incomingName = channel.getClass().getName();
+                if (existingName.compareTo(incomingName) <= 0) {
+                    log.warn("Duplicate channel provider with same weight; keeping existing by class name. type={}, existing={}, incoming={}",
+                            normalizedType, existingName, incomingName);
+                    return existing;
+                }
+                log.warn("Duplicate channel provider with same weight; replacing by class name. type={}, existing={}, incoming={}",
+                        normalizedType, existingName, incomingName);
+                return channel;
+            }
+            return existing;
+        });
+    }
+
+    static String normalizeType(String type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Channel type cannot be null");
+        }
+        String normalized = type.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Channel type cannot be blank");
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,56 @@
+package dev.qingzhou.push.core.api;
+
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.template.MessageTemplate;
+
+import java.util.Map;
+
+/**
+ * 绑定了一份 {@link PushConfig} 的通道会话
+ * <p>
+ * 通过 {@link IPushChannel#bind(PushConfig)} 获得：配置只校验一次，token 缓存 Key、发送地址、请求头等在绑定时预先构建，
+ * 之后每次发送不再做字符串拼接与哈希。会话线程安全，建议按配置长期持有复用。
+ * 绑定后修改 PushConfig 不会影响已有会话。
+ */
+public interface ChannelSession {
+
+    String type();
+
+    PushConfig config();
+
+    PushResult send(PushMessage message);
+
+    /**
+     * 按模板发送，见 {@link IPushChannel#send(MessageTemplate, String, Map, PushConfig)}
+     */
+    default PushResult send(MessageTemplate template, String target, Map<String, ?> values) {
+        return send(template, target, values, template != null ? template.expireAt() : null);
+    }
+
+    /**
+     * 按模板发送，使用调用方算好的截止时间
+     * @param expireAt 本次发送的截止时间 (epoch 毫秒)，为 null 表示不过期
+     */
+    default PushResult send(MessageTemplate template, String target, Map<String, ?> values, Long expireAt) {
+        if (template == null) {
+            return PushResult.fail("Template cannot be null");
+        }
+        PushMessage message;
+        try {
+            message = template.render(target, values, expireAt);
+        } catch (IllegalArgumentException e) {
+            return PushResult.fail(e.getMessage());
+        }
+        return send(message);
+    }
+
+    /**
+     * 预热：提前获取 token、建立到平台的连接，之后的首条消息不再承担这些开销
+     * token 在有效期内一直可用；HTTP 连接只在空闲超时内保留，需要保活时见 {@link PushClient.Builder#keepAlive}
+     * @throws RuntimeException 预热失败 (如凭证错误、网络不通)
+     */
+    default void warmUp() {
+    }
+}
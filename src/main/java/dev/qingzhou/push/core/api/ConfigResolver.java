@@ -0,0 +1,18 @@
+package dev.qingzhou.push.core.api;
+
+import dev.qingzhou.push.core.model.PushConfig;
+
+/**
+ * 按引用名解析推送配置
+ * <p>
+ * 需要落盘的场景 (如持久化的定时发送) 只保存引用名，不保存 appSecret 等凭证，
+ * 发送前再通过解析器取回实际配置 (可来自配置中心、数据库或密钥管理服务)。
+ */
+@FunctionalInterface
+public interface ConfigResolver {
+
+    /**
+     * @return 对应的配置，不存在时返回 null
+     */
+    PushConfig resolve(String ref);
+}
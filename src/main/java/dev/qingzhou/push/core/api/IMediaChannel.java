@@ -0,0 +1,15 @@
+package dev.qingzhou.push.core.api;
+
+import dev.qingzhou.push.core.model.MediaResult;
+import dev.qingzhou.push.core.model.MediaSource;
+import dev.qingzhou.push.core.model.PushConfig;
+
+/**
+ * 支持素材上传的通道
+ * <p>
+ * 上传结果按内容哈希缓存，相同内容在有效期内只会上传一次。
+ */
+public interface IMediaChannel {
+
+    MediaResult upload(MediaSource source, PushConfig config);
+}
@@ -3,6 +3,9 @@ package dev.qingzhou.push.core.api;
 import dev.qingzhou.push.core.model.PushConfig;
 import dev.qingzhou.push.core.model.PushMessage;
 import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.template.MessageTemplate;
+
+import java.util.Map;
 
 public interface IPushChannel {
     String type();
@@ -12,4 +15,58 @@ public interface IPushChannel {
     }
 
     PushResult send(PushMessage message, PushConfig config);
+
+    /**
+     * 按模板发送，默认渲染成普通消息发送；支持预编译的通道直接把变量写入缓存的请求体骨架
+     * @param values 模板变量
+     */
+    default PushResult send(MessageTemplate template, String target, Map<String, ?> values, PushConfig config) {
+        return send(template, target, values, config, template != null ? template.expireAt() : null);
+    }
+
+    /**
+     * 按模板发送，使用调用方算好的截止时间 (如 {@link PushClient} 在等待并发名额前就已按模板 ttl 计算)
+     * @param expireAt 本次发送的截止时间 (epoch 毫秒)，为 null 表示不过期
+     */
+    default PushResult send(MessageTemplate template, String target, Map<String, ?> values, PushConfig config,
+                            Long expireAt) {
+        if (template == null) {
+            return PushResult.fail("Template cannot be null");
+        }
+        PushMessage message;
+        try {
+            message = template.render(target, values, expireAt);
+        } catch (IllegalArgumentException e) {
+            return PushResult.fail(e.getMessage());
+        }
+        return send(message, config);
+    }
+
+    /**
+     * 绑定配置得到可复用的会话，默认实现每次发送仍走 {@link #send(PushMessage, PushConfig)}
+     * @throws IllegalArgumentException 配置不合法
+     */
+    default ChannelSession bind(PushConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("Config cannot be null");
+        }
+        IPushChannel channel = this;
+        PushConfig bound = config.toBuilder().build();
+        return new ChannelSession() {
+            @Override
+            public String type() {
+                return channel.type();
+            }
+
+            @Override
+            public PushConfig config() {
+                return bound;
+            }
+
+            @Override
+            public PushResult send(PushMessage message) {
+                return channel.send(message, bound);
+            }
+        };
+    }
 }
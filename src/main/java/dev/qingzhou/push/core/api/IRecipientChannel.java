@@ -0,0 +1,29 @@
+package dev.qingzhou.push.core.api;
+
+import dev.qingzhou.push.core.model.PushConfig;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 支持按邮箱、手机号查询平台用户 ID 的通道
+ * <p>
+ * 一般不直接调用，由 {@link dev.qingzhou.push.core.recipient.RecipientResolver} 合并批量查询并缓存结果。
+ */
+public interface IRecipientChannel {
+
+    /**
+     * 查询联系方式对应的用户 ID (可直接作为该通道应用消息的 target)
+     * @param contacts 邮箱或手机号，含 @ 的视为邮箱，最多 {@link #lookupBatchSize()} 个
+     * @return 联系方式 -> 用户 ID；值为 null 表示平台确认不存在，缺少的联系方式表示查询失败 (不应缓存)
+     * @throws RuntimeException 鉴权或请求整体失败
+     */
+    Map<String, String> lookupUserIds(List<String> contacts, PushConfig config);
+
+    /**
+     * 单次查询的联系方式上限
+     */
+    default int lookupBatchSize() {
+        return 50;
+    }
+}
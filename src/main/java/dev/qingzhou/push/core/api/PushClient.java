@@ -0,0 +1,654 @@
+package dev.qingzhou.push.core.api;
+
+import dev.qingzhou.push.core.audit.AuditSink;
+import dev.qingzhou.push.core.channel.AbstractChannel;
+import dev.qingzhou.push.core.channel.ChannelContext;
+import dev.qingzhou.push.core.deadletter.DeadLetter;
+import dev.qingzhou.push.core.deadletter.DeadLetterSink;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.model.WarmUpReport;
+import dev.qingzhou.push.core.template.MessageTemplate;
+import dev.qingzhou.push.core.utils.AdaptiveLimiter;
+import dev.qingzhou.push.core.utils.HttpTransport;
+import dev.qingzhou.push.core.utils.Json;
+import dev.qingzhou.push.core.utils.TokenStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.ProxySelector;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 推送客户端实例：独立持有通道注册表、HTTP 传输层、Token 缓存与执行器
+ * <p>
+ * 不同客户端之间不共享连接池、超时、Token 与限流状态，可按租户/子系统隔离，
+ * 用完后 {@link #close()} 释放资源。
+ * <pre>
+ * try (PushClient client = PushClient.builder()
+ *         .name("billing")
+ *         .requestTimeout(Duration.ofSeconds(3))
+ *         .maxConcurrentSends(32)
+ *         .build()) {
+ *     client.send(ChannelIds.WECOM, message, config);
+ * }
+ * </pre>
+ * {@link PushChannelFactory} 的静态方法委托给 {@link #defaultClient()}。
+ */
+@Slf4j
+public class PushClient implements AutoCloseable {
+
+    private final String name;
+    private final ChannelRegistry registry = new ChannelRegistry();
+    private final ChannelContext context;
+    private final HttpTransport transport;
+    private final TokenStore tokenStore;
+    private final ExecutorService executor;
+    private final boolean ownsTransport;
+    private final boolean ownsExecutor;
+    private final boolean ownsTokenStore;
+    // 进程级默认客户端不允许关闭
+    private final boolean shared;
+    // 为 null 表示不限制并发
+    private final Semaphore permits;
+    private final Duration closeTimeout;
+    // 为 null 表示预热的连接不保活
+    private final ScheduledExecutorService keepAliveTimer;
+    private final ConfigResolver configResolver;
+    // 为 null 表示失败消息不落死信
+    private final DeadLetterSink deadLetterSink;
+    // SPI 扫描推迟到第一次查找通道时，为 null 表示不扫描
+    private final ClassLoader serviceLoader;
+    private volatile boolean servicesLoaded;
+    private volatile boolean closed;
+
+    private PushClient(Builder builder, boolean shared) {
+        this.name = builder.name;
+        this.shared = shared;
+        this.ownsTransport = builder.transport == null && !shared;
+        this.transport = builder.transport != null ? builder.transport
+                : shared ? HttpTransport.shared()
+                : new HttpTransport(builder.connectTimeout, builder.requestTimeout, builder.uploadTimeout, builder.proxy,
+                        builder.endpointLimit);
+        this.ownsTokenStore = builder.tokenStore == null && !shared;
+        this.tokenStore = builder.tokenStore != null ? builder.tokenStore
+                : shared ? TokenStore.shared() : new TokenStore();
+        this.context = shared && builder.transport == null && builder.tokenStore == null
+                ? ChannelContext.shared() : new ChannelContext(transport, tokenStore, builder.auditSink);
+        this.ownsExecutor = builder.executor == null;
+        this.executor = builder.executor != null ? builder.executor
+                : Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("push-" + name + "-", 0).factory());
+        this.permits = builder.maxConcurrentSends > 0 ? new Semaphore(builder.maxConcurrentSends) : null;
+        this.closeTimeout = builder.closeTimeout;
+        this.configResolver = builder.configResolver;
+        this.deadLetterSink = builder.deadLetterSink;
+        this.keepAliveTimer = builder.keepAlive != null ? startKeepAlive(builder.keepAlive) : null;
+
+        this.serviceLoader = !builder.loadServices ? null
+                : builder.classLoader != null ? builder.classLoader
+                : Thread.currentThread().getContextClassLoader();
+        this.servicesLoaded = serviceLoader == null;
+
+        // 手动注册与 SPI 扫描的先后不影响结果：同 type 始终按 weight、类名取舍
+        for (IPushChannel channel : builder.channels) {
+            register(channel);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 定期对预热过的主机发送 HEAD，在 HttpClient 空闲超时前刷新连接，直到 {@link #close()}
+     */
+    private ScheduledExecutorService startKeepAlive(Duration interval) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("push-" + name + "-keep-alive").daemon().factory());
+        long millis = interval.toMillis();
+        timer.scheduleWithFixedDelay(() -> {
+            try {
+                transport.keepAlive();
+            } catch (RuntimeException e) {
+                log.warn("Keep alive fail: client={}", name, e);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+        return timer;
+    }
+
+    /**
+     * 进程级默认客户端，使用共享的传输层与 Token 缓存，首次调用时创建 (通道在首次查找时才加载)
+     */
+    public static PushClient defaultClient() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public IPushChannel getChannel(String type) {
+        ensureOpen();
+        loadServices();
+        return registry.get(type);
+    }
+
+    /**
+     * 注册通道，通道实例归属本客户端并随其关闭
+     */
+    public void register(IPushChannel channel) {
+        ensureOpen();
+        attach(channel);
+        registry.register(channel);
+    }
+
+    public void register(String type, IPushChannel channel) {
+        ensureOpen();
+        attach(channel);
+        registry.register(type, channel);
+    }
+
+    public PushResult send(String channelType, PushMessage message, PushConfig config) {
+        return send(channelType, message, config, null);
+    }
+
+    /**
+     * 按配置引用名发送，配置通过 {@link Builder#configResolver(ConfigResolver)} 解析；
+     * 失败进入死信时记录引用名，之后可以重放
+     */
+    public PushResult send(String channelType, PushMessage message, String configRef) {
+        if (configResolver == null) {
+            throw new IllegalStateException("ConfigResolver is required for sending by config ref");
+        }
+        PushConfig config = configResolver.resolve(configRef);
+        if (config == null) {
+            return deadLetter(channelType, message, configRef, PushResult.fail("Config not found for ref: " + configRef));
+        }
+        return send(channelType, message, config, configRef);
+    }
+
+    /**
+     * 使用已解析的配置发送，configRef 仅用于死信记录 (如定时任务按引用名解析后发送)
+     */
+    public PushResult send(String channelType, PushMessage message, PushConfig config, String configRef) {
+        IPushChannel channel = getChannel(channelType);
+        PushResult result = withPermit(message != null ? message.getExpireAt() : null,
+                () -> channel.send(message, config));
+        return deadLetter(channelType, message, configRef, result);
+    }
+
+    /**
+     * 按模板发送，见 {@link IPushChannel#send(MessageTemplate, String, Map, PushConfig)}
+     * 失败进入死信时记录渲染后的消息
+     */
+    public PushResult send(String channelType, MessageTemplate template, String target, Map<String, ?> values,
+                           PushConfig config) {
+        IPushChannel channel = getChannel(channelType);
+        // 截止时间从调用时起算，等待并发名额的时间也计入 ttl
+        Long expireAt = template != null ? template.expireAt() : null;
+        PushResult result = withPermit(expireAt, () -> channel.send(template, target, values, config, expireAt));
+        if (deadLetterSink != null && !result.isSuccess() && !result.isExpired() && template != null) {
+            try {
+                return deadLetter(channelType, template.render(target, values, expireAt), null, result);
+            } catch (IllegalArgumentException e) {
+                return result;
+            }
+        }
+        return result;
+    }
+
+    private PushResult withPermit(Long expireAt, Supplier<PushResult> send) {
+        if (permits == null) {
+            return send.get();
+        }
+        try {
+            // 带截止时间的消息最多等到过期
+            if (expireAt == null) {
+                permits.acquire();
+            } else if (!permits.tryAcquire(Math.max(0, expireAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                return PushResult.expired("Message expired while waiting for send permit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return PushResult.fail("Interrupted while waiting for send permit");
+        }
+        try {
+            return send.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 绑定配置得到可复用的会话，见 {@link IPushChannel#bind(PushConfig)}
+     * 会话直接发送，不占用 maxConcurrentSends 名额
+     */
+    public ChannelSession bind(String channelType, PushConfig config) {
+        return getChannel(channelType).bind(config);
+    }
+
+    /**
+     * 在本客户端的执行器上异步发送，受 maxConcurrentSends 限制
+     */
+    public CompletableFuture<PushResult> sendAsync(String channelType, PushMessage message, PushConfig config) {
+        ensureOpen();
+        try {
+            return CompletableFuture.supplyAsync(() -> send(channelType, message, config), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(PushResult.fail("Push client closed: " + name));
+        }
+    }
+
+    /**
+     * 预热：并行初始化 Jackson，并为每个配置获取 token、建立到平台的连接 (DNS、TLS 握手)，
+     * 之后发往这些配置的首条消息不再承担冷启动开销。返回后可按 {@link WarmUpReport#ready()} 决定是否放行流量。
+     * 单个配置失败不影响其他配置，timeout 内未完成的记为失败。
+     * <p>
+     * token 与 Jackson 初始化的效果一直保留；连接只在 HttpClient 空闲超时 (JDK 21 默认 30 秒) 内有效，
+     * 配置了 {@link Builder#keepAlive(Duration)} 时由后台定期刷新，直到客户端关闭。
+     * @param configs 通道类型 -> 将要使用的配置
+     */
+    public WarmUpReport warmUp(Map<String, ? extends Collection<PushConfig>> configs, Duration timeout) {
+        ensureOpen();
+        if (timeout == null || timeout.isNegative()) {
+            throw new IllegalArgumentException("Timeout cannot be null or negative");
+        }
+        long start = System.nanoTime();
+        List<WarmUpReport.Entry> pending = new ArrayList<>();
+        List<Future<WarmUpReport.Entry>> futures = new ArrayList<>();
+        ExecutorService warmUpExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("push-warm-up-", 0).factory());
+        try {
+            pending.add(new WarmUpReport.Entry(WarmUpReport.JSON, 0, false, null, 0));
+            futures.add(warmUpExecutor.submit(() -> warmUpOne(WarmUpReport.JSON, 0, Json::warmUp)));
+            if (configs != null) {
+                configs.forEach((type, list) -> {
+                    int index = 0;
+                    for (PushConfig config : list) {
+                        int i = index++;
+                        pending.add(new WarmUpReport.Entry(type, i, false, null, 0));
+                        futures.add(warmUpExecutor.submit(() -> warmUpOne(type, i, () -> bind(type, config).warmUp())));
+                    }
+                });
+            }
+
+            long deadline = start + timeout.toNanos();
+            List<WarmUpReport.Entry> entries = new ArrayList<>(futures.size());
+            for (int i = 0; i < futures.size(); i++) {
+                WarmUpReport.Entry placeholder = pending.get(i);
+                try {
+                    entries.add(futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    futures.get(i).cancel(true);
+                    entries.add(new WarmUpReport.Entry(placeholder.channelType(), placeholder.index(), false,
+                            "Warm up timed out", timeout.toMillis()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    entries.add(new WarmUpReport.Entry(placeholder.channelType(), placeholder.index(), false,
+                            "Warm up interrupted", (System.nanoTime() - start) / 1_000_000));
+                } catch (ExecutionException e) {
+                    entries.add(new WarmUpReport.Entry(placeholder.channelType(), placeholder.index(), false,
+                            String.valueOf(e.getCause()), (System.nanoTime() - start) / 1_000_000));
+                }
+            }
+            WarmUpReport report = new WarmUpReport(List.copyOf(entries), (System.nanoTime() - start) / 1_000_000);
+            log.info("Push client warm up finished: client={}, ready={}, entries={}, failures={}, elapsed={}ms",
+                    name, report.ready(), entries.size(), report.failures().size(), report.elapsedMillis());
+            return report;
+        } finally {
+            // 超时的任务已被中断，不等待其结束
+            warmUpExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 在后台虚拟线程上执行 {@link #warmUp(Map, Duration)}，完成后可在回调中放行流量
+     */
+    public CompletableFuture<WarmUpReport> warmUpAsync(Map<String, ? extends Collection<PushConfig>> configs,
+                                                       Duration timeout) {
+        return CompletableFuture.supplyAsync(() -> warmUp(configs, timeout),
+                task -> Thread.ofVirtual().name("push-warm-up").start(task));
+    }
+
+    private static WarmUpReport.Entry warmUpOne(String channelType, int index, Runnable task) {
+        long start = System.nanoTime();
+        try {
+            task.run();
+            return new WarmUpReport.Entry(channelType, index, true, null, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            Throwable root = e;
+            while (root.getCause() != null && root.getCause() != root) {
+                root = root.getCause();
+            }
+            String error = root == e ? e.getMessage() : e.getMessage() + " (" + root + ")";
+            log.warn("Warm up failed: channel={}, index={}, error={}", channelType, index, error);
+            return new WarmUpReport.Entry(channelType, index, false, error, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    public HttpTransport transport() {
+        return transport;
+    }
+
+    public TokenStore tokenStore() {
+        return tokenStore;
+    }
+
+    public ConfigResolver configResolver() {
+        return configResolver;
+    }
+
+    public DeadLetterSink deadLetterSink() {
+        return deadLetterSink;
+    }
+
+    public AuditSink auditSink() {
+        return context.audit();
+    }
+
+    /**
+     * 各上游端点的自适应并发指标，见 {@link HttpTransport#limiterMetrics()}
+     */
+    public Map<String, AdaptiveLimiter.Metrics> endpointMetrics() {
+        return transport.limiterMetrics();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 停止接收新任务，等待进行中的异步发送结束，再关闭通道与自有的传输层
+     * 外部传入的 executor / transport / tokenStore 由调用方负责关闭
+     */
+    @Override
+    public void close() {
+        if (shared) {
+            log.warn("Default push client cannot be closed, ignored");
+            return;
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+
+        if (keepAliveTimer != null) {
+            keepAliveTimer.shutdownNow();
+        }
+        if (ownsExecutor) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(closeTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    log.warn("Push client [{}] close timeout, cancel pending sends", name);
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        for (IPushChannel channel : registry.all()) {
+            if (channel instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Close channel fail: {}", channel.getClass().getName(), e);
+                }
+            }
+        }
+        if (ownsTransport) {
+            transport.close();
+        }
+        if (ownsTokenStore) {
+            tokenStore.clear();
+        }
+    }
+
+    /**
+     * 失败 (过期除外) 的消息写入死信；写入失败只记录日志，不影响返回结果
+     */
+    private PushResult deadLetter(String channelType, PushMessage message, String configRef, PushResult result) {
+        if (deadLetterSink == null || result == null || result.isSuccess() || result.isExpired() || message == null) {
+            return result;
+        }
+        try {
+            deadLetterSink.write(DeadLetter.of(channelType, message, configRef, result));
+        } catch (Exception e) {
+            log.warn("Write dead letter fail: channel={}, target={}", channelType, message.getTarget(), e);
+        }
+        return result;
+    }
+
+    private void attach(IPushChannel channel) {
+        if (channel instanceof AbstractChannel abstractChannel) {
+            abstractChannel.init(context);
+        }
+    }
+
+    /**
+     * 首次查找通道时通过 SPI 加载全部通道
+     * 通道构造只创建轻量状态，ObjectMapper、HttpClient 等到真正发送时才初始化
+     */
+    private void loadServices() {
+        if (servicesLoaded) {
+            return;
+        }
+        synchronized (this) {
+            if (servicesLoaded) {
+                return;
+            }
+            for (IPushChannel channel : ChannelRegistry.loadProviders(serviceLoader)) {
+                try {
+                    attach(channel);
+                    registry.register(channel);
+                } catch (Throwable t) {
+                    log.warn("Failed to register channel provider: {}", channel.getClass().getName(), t);
+                }
+            }
+            servicesLoaded = true;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Push client closed: " + name);
+        }
+    }
+
+    public static final class Builder {
+
+        private String name = "default";
+        private Duration connectTimeout = HttpTransport.DEFAULT_CONNECT_TIMEOUT;
+        private Duration requestTimeout = HttpTransport.DEFAULT_REQUEST_TIMEOUT;
+        private Duration uploadTimeout = HttpTransport.DEFAULT_UPLOAD_TIMEOUT;
+        private Duration closeTimeout = Duration.ofSeconds(30);
+        private ProxySelector proxy;
+        private AdaptiveLimiter.Settings endpointLimit = AdaptiveLimiter.Settings.defaults();
+        private HttpTransport transport;
+        private TokenStore tokenStore;
+        private ExecutorService executor;
+        private int maxConcurrentSends;
+        private Duration keepAlive;
+        private boolean loadServices = true;
+        private ClassLoader classLoader;
+        private ConfigResolver configResolver;
+        private DeadLetterSink deadLetterSink;
+        private AuditSink auditSink;
+        private final List<IPushChannel> channels = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * 客户端名称，用于线程名与日志
+         */
+        public Builder name(String name) {
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("Client name cannot be blank");
+            }
+            this.name = name;
+            return this;
+        }
+
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = requirePositive(connectTimeout, "connectTimeout");
+            return this;
+        }
+
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requirePositive(requestTimeout, "requestTimeout");
+            return this;
+        }
+
+        public Builder uploadTimeout(Duration uploadTimeout) {
+            this.uploadTimeout = requirePositive(uploadTimeout, "uploadTimeout");
+            return this;
+        }
+
+        /**
+         * close() 等待进行中异步发送的最长时间
+         */
+        public Builder closeTimeout(Duration closeTimeout) {
+            this.closeTimeout = requirePositive(closeTimeout, "closeTimeout");
+            return this;
+        }
+
+        public Builder proxy(ProxySelector proxy) {
+            this.proxy = proxy;
+            return this;
+        }
+
+        /**
+         * 每个上游端点的自适应并发限制参数，默认 {@link AdaptiveLimiter.Settings#defaults()}，null 表示不限制
+         */
+        public Builder endpointLimit(AdaptiveLimiter.Settings endpointLimit) {
+            this.endpointLimit = endpointLimit;
+            return this;
+        }
+
+        /**
+         * 使用外部传输层 (超时、代理与端点限流设置将被忽略)，关闭客户端时不会关闭它
+         */
+        public Builder transport(HttpTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * 按引用名发送时解析配置，见 {@link PushClient#send(String, PushMessage, String)}
+         */
+        public Builder configResolver(ConfigResolver configResolver) {
+            this.configResolver = configResolver;
+            return this;
+        }
+
+        /**
+         * 发送失败 (过期除外) 的消息写入死信，由调用方负责关闭
+         */
+        public Builder deadLetterSink(DeadLetterSink deadLetterSink) {
+            this.deadLetterSink = deadLetterSink;
+            return this;
+        }
+
+        /**
+         * 通道每次发送完成后记录审计，见 {@link AuditSink}；由调用方负责关闭 (在客户端关闭之后)
+         */
+        public Builder auditSink(AuditSink auditSink) {
+            this.auditSink = auditSink;
+            return this;
+        }
+
+        public Builder tokenStore(TokenStore tokenStore) {
+            this.tokenStore = tokenStore;
+            return this;
+        }
+
+        /**
+         * 异步发送使用的执行器，默认每个任务一个虚拟线程；外部传入的执行器由调用方关闭
+         */
+        public Builder executor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * 本客户端同时进行的发送上限 (同步 + 异步)，0 表示不限制
+         */
+        public Builder maxConcurrentSends(int maxConcurrentSends) {
+            if (maxConcurrentSends < 0) {
+                throw new IllegalArgumentException("maxConcurrentSends cannot be negative");
+            }
+            this.maxConcurrentSends = maxConcurrentSends;
+            return this;
+        }
+
+        /**
+         * 预热过的主机每隔 interval 发送一次 HEAD 保持连接，直到客户端关闭；默认不保活
+         * interval 应小于 HttpClient 的空闲超时 (JDK 21 默认 30 秒)，如 20 秒
+         */
+        public Builder keepAlive(Duration interval) {
+            if (interval != null && (interval.isNegative() || interval.toMillis() == 0)) {
+                throw new IllegalArgumentException("Keep alive interval must be positive");
+            }
+            this.keepAlive = interval;
+            return this;
+        }
+
+        /**
+         * 是否通过 SPI 自动加载通道，默认 true
+         */
+        public Builder loadServices(boolean loadServices) {
+            this.loadServices = loadServices;
+            return this;
+        }
+
+        public Builder classLoader(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+            return this;
+        }
+
+        /**
+         * 额外注册的通道 (与 SPI 加载的同 type 通道按 weight 取舍)
+         */
+        public Builder channel(IPushChannel channel) {
+            if (channel == null) {
+                throw new IllegalArgumentException("Channel cannot be null");
+            }
+            this.channels.add(channel);
+            return this;
+        }
+
+        public PushClient build() {
+            return new PushClient(this, false);
+        }
+
+        private static Duration requirePositive(Duration value, String field) {
+            if (value == null || value.isNegative() || value.isZero()) {
+                throw new IllegalArgumentException(field + " must be positive");
+            }
+            return value;
+        }
+    }
+
+    private static final class DefaultHolder {
+        private static final PushClient INSTANCE = new PushClient(new Builder(), true);
+    }
+}
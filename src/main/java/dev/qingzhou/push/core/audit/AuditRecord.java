@@ -0,0 +1,46 @@
+package dev.qingzhou.push.core.audit;
+
+import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.model.enums.MessageType;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * 一次发送的审计记录
+ * <p>
+ * 在发送线程上只做字段赋值；消息哈希由 sink 的后台线程计算，title 与 content 只参与哈希，不落盘。
+ * @param timestamp 发送完成时间 (epoch 毫秒)
+ * @param type 消息类型
+ * @param title 标题，按模板发送时为渲染后的标题，因此与发送同一条普通消息的哈希一致；缺少变量时为模板原型的标题
+ * @param content 正文，同 title
+ * @param latencyNanos 从进入通道到得到结果的耗时
+ */
+public record AuditRecord(long timestamp, String channel, String target, MessageType type, String title,
+                          String content, String msgId, Outcome outcome, String errorCode, long latencyNanos) {
+
+    public static AuditRecord of(String channel, String target, MessageType type, String title, String content,
+                                 PushResult result, long startNanos) {
+        return new AuditRecord(System.currentTimeMillis(), channel, target, type, title, content,
+                result.getMsgId(), Outcome.of(result), result.getErrorCode(), System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 消息内容的 SHA-256，用于核对某条消息是否发出而不保存消息原文
+     */
+    public String messageHash() {
+        return DigestUtils.sha256Hex(String.join("\0", String.valueOf(type), String.valueOf(title),
+                String.valueOf(content)));
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        FAILED,
+        /**
+         * 超过消息截止时间而未发送或发送中超时
+         */
+        EXPIRED;
+
+        public static Outcome of(PushResult result) {
+            return result.isSuccess() ? SUCCESS : result.isExpired() ? EXPIRED : FAILED;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package dev.qingzhou.push.core.audit;
+
+/**
+ * 发送审计：{@link dev.qingzhou.push.core.api.PushClient} 配置后，通道每次发送 (同步、异步、会话、模板) 完成时记录一条
+ * <p>
+ * {@link #record(AuditRecord)} 在发送线程上调用，实现不得阻塞，写不下时丢弃并计数；
+ * 默认实现为本地滚动文件 {@link FileAuditSink}。
+ */
+public interface AuditSink extends AutoCloseable {
+
+    /**
+     * 记录一次发送结果，立即返回
+     * @return 是否已接收，缓冲区已满或已关闭时返回 false
+     */
+    boolean record(AuditRecord record);
+
+    /**
+     * 累计丢弃的记录数 (缓冲区满、写入失败、关闭后提交)
+     */
+    long dropped();
+
+    @Override
+    default void close() {
+    }
+}
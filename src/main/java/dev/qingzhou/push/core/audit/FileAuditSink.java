@@ -0,0 +1,456 @@
+package dev.qingzhou.push.core.audit;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import dev.qingzhou.push.core.utils.Json;
+import dev.qingzhou.push.core.utils.LogThrottle;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * 写入本地滚动文件的 {@link AuditSink}
+ * <p>
+ * 发送线程只把记录放进定长的无锁环形缓冲区 (多生产者 CAS 占位，单消费者)，缓冲区满时丢弃并计数，从不等待磁盘。
+ * 后台写线程每轮取出一批记录，计算消息哈希并序列化成 JSONL 后一次写入，按 fsyncInterval 合并刷盘 (group commit)。
+ * 文件按大小与日期滚动，只保留最近 maxFiles 个。
+ * <pre>
+ * FileAuditSink audit = FileAuditSink.builder()
+ *         .directory(Path.of("/var/log/push-audit"))
+ *         .fsyncInterval(Duration.ofMillis(200))
+ *         .build();
+ * PushClient client = PushClient.builder().auditSink(audit).build();
+ * </pre>
+ * 每行格式：{"ts":..,"channel":..,"target":..,"type":..,"hash":..,"msgId":..,"outcome":..,"errorCode":..,"latencyMs":..}
+ */
+@Slf4j
+public class FileAuditSink implements AuditSink {
+
+    private static final String SUFFIX = ".jsonl";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss.SSS");
+
+    private final Path directory;
+    private final String prefix;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    // null 不主动刷盘，ZERO 每批刷盘
+    private final Duration fsyncInterval;
+    private final int batchSize;
+    private final long lingerNanos;
+
+    // Vyukov 有界队列：sequences[i] == 位置时槽位可写，== 位置 + 1 时可读
+    private final AtomicReferenceArray<AuditRecord> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // 只由写线程修改
+    private volatile long head;
+
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed;
+    // 写线程已退出，之后进入缓冲区的记录不会再写入
+    private volatile boolean terminated;
+
+    // 以下只由写线程访问
+    private FileChannel channel;
+    private Path file;
+    private LocalDate fileDate;
+    private long fileSize;
+
+    private FileAuditSink(Builder builder) {
+        if (builder.directory == null) {
+            throw new IllegalArgumentException("Audit directory is required");
+        }
+        this.directory = builder.directory;
+        this.prefix = builder.prefix;
+        this.maxFileBytes = builder.maxFileBytes;
+        this.maxFiles = builder.maxFiles;
+        this.fsyncInterval = builder.fsyncInterval;
+        this.batchSize = builder.batchSize;
+        this.lingerNanos = builder.linger.toNanos();
+
+        int capacity = Integer.highestOneBit(builder.bufferSize - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+        this.writer = Thread.ofPlatform().name("push-audit-writer").daemon().unstarted(this::run);
+        writer.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public boolean record(AuditRecord record) {
+        if (record == null) {
+            return false;
+        }
+        if (closed || !offer(record)) {
+            dropped.increment();
+            return false;
+        }
+        if (terminated) {
+            // 检查 closed 之后写线程已经退出：由发送线程把残留记录计入丢弃
+            discardPending();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * 已写入文件的记录数
+     */
+    public long written() {
+        return written.get();
+    }
+
+    /**
+     * 缓冲区中等待写入的记录数 (近似值)
+     */
+    public int pending() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * 拒绝新记录，等待写线程写完缓冲区中的记录并刷盘
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean offer(AuditRecord record) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, record);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (available < 0) {
+                // 写线程还没取走一圈之前的记录
+                return false;
+            }
+            // available > 0：其他生产者已占用该位置，重读 tail
+        }
+    }
+
+    private AuditRecord poll() {
+        long position = head;
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        AuditRecord record = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, position + mask + 1);
+        head = position + 1;
+        return record;
+    }
+
+    private void run() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+        long lastSync = System.nanoTime();
+        boolean unsynced = false;
+        while (true) {
+            boolean stopping = closed;
+            int count = drain(buffer);
+            if (count > 0 && write(buffer, count)) {
+                unsynced = true;
+            }
+            if (unsynced && fsyncInterval != null
+                    && (stopping || System.nanoTime() - lastSync >= fsyncInterval.toNanos())) {
+                sync();
+                lastSync = System.nanoTime();
+                unsynced = false;
+            }
+            if (count < batchSize) {
+                if (stopping && count == 0 && pending() == 0) {
+                    break;
+                }
+                // 攒批：缓冲区空闲时等待一小段时间，让一次写入与刷盘覆盖更多记录
+                LockSupport.parkNanos(stopping ? 1_000_000L : lingerNanos);
+            }
+        }
+        closeFile();
+        terminated = true;
+        discardPending();
+    }
+
+    /**
+     * 写线程退出后，把缓冲区中的残留记录计入丢弃
+     * <p>
+     * 发送线程可能在读到 closed 为 false 之后、写线程退出之后才放入记录；写线程退出时清理一次，
+     * 之后放入记录的发送线程会读到 terminated 并自行清理，因此每条记录要么已写入、要么计入 dropped。
+     */
+    private synchronized void discardPending() {
+        long count = 0;
+        while (poll() != null) {
+            count++;
+        }
+        dropped.add(count);
+    }
+
+    /**
+     * 取出至多 batchSize 条记录并序列化到 buffer
+     */
+    private int drain(ByteArrayOutputStream buffer) {
+        buffer.reset();
+        int count = 0;
+        try (JsonGenerator generator = Json.mapper().getFactory().createGenerator(buffer)) {
+            generator.setRootValueSeparator(null);
+            AuditRecord record;
+            while (count < batchSize && (record = poll()) != null) {
+                writeLine(generator, record);
+                count++;
+            }
+        } catch (IOException e) {
+            // 写入内存不会失败
+            throw new IllegalStateException(e);
+        }
+        return count;
+    }
+
+    private static void writeLine(JsonGenerator generator, AuditRecord record) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("ts", record.timestamp());
+        generator.writeStringField("channel", record.channel());
+        generator.writeStringField("target", record.target());
+        generator.writeStringField("type", record.type() != null ? record.type().name() : null);
+        generator.writeStringField("hash", record.messageHash());
+        generator.writeStringField("msgId", record.msgId());
+        generator.writeStringField("outcome", record.outcome() != null ? record.outcome().name() : null);
+        generator.writeStringField("errorCode", record.errorCode());
+        generator.writeNumberField("latencyMs", Math.round(record.latencyNanos() / 1_000.0) / 1_000.0);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private boolean write(ByteArrayOutputStream buffer, int count) {
+        try {
+            rollIfNeeded();
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            fileSize += buffer.size();
+            written.addAndGet(count);
+            return true;
+        } catch (IOException e) {
+            dropped.add(count);
+            LogThrottle.shared().warn(log, "audit|" + directory, "Write audit records fail: dir={}, dropped={}, error={}",
+                    directory, count, e.toString());
+            // 下一批重新打开新文件
+            closeFile();
+            return false;
+        }
+    }
+
+    private void rollIfNeeded() throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        if (channel != null && fileSize < maxFileBytes && now.toLocalDate().equals(fileDate)) {
+            return;
+        }
+        closeFile();
+        Files.createDirectories(directory);
+        file = directory.resolve(prefix + "-" + FILE_TIME.format(now) + SUFFIX);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileDate = now.toLocalDate();
+        fileSize = channel.size();
+        purge();
+    }
+
+    /**
+     * 按文件名 (即创建时间) 删除超出 maxFiles 的旧文件
+     */
+    private void purge() {
+        if (maxFiles <= 0) {
+            return;
+        }
+        try (Stream<Path> stream = Files.list(directory)) {
+            List<Path> files = stream
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(prefix + "-") && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+            for (int i = 0; i < files.size() - maxFiles; i++) {
+                Files.deleteIfExists(files.get(i));
+            }
+        } catch (IOException e) {
+            log.warn("Purge audit files fail: dir={}", directory, e);
+        }
+    }
+
+    private void sync() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            LogThrottle.shared().warn(log, "audit-sync|" + directory, "Fsync audit file fail: file={}, error={}",
+                    file, e.toString());
+        }
+    }
+
+    private void closeFile() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Close audit file fail: {}", file, e);
+        }
+        channel = null;
+    }
+
+    public static final class Builder {
+
+        private Path directory;
+        private String prefix = "push-audit";
+        private int bufferSize = 65536;
+        private long maxFileBytes = 64L * 1024 * 1024;
+        private int maxFiles = 30;
+        private Duration fsyncInterval = Duration.ofSeconds(1);
+        private int batchSize = 4096;
+        private Duration linger = Duration.ofMillis(10);
+
+        private Builder() {
+        }
+
+        /**
+         * 审计文件所在目录，不存在时创建
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * 文件名前缀，默认 push-audit，文件名为 前缀-yyyyMMdd-HHmmss.SSS.jsonl
+         */
+        public Builder prefix(String prefix) {
+            if (prefix == null || prefix.isBlank()) {
+                throw new IllegalArgumentException("Prefix cannot be blank");
+            }
+            this.prefix = prefix;
+            return this;
+        }
+
+        /**
+         * 环形缓冲区容量，向上取整为 2 的幂，默认 65536；写线程跟不上时超出部分被丢弃
+         */
+        public Builder bufferSize(int bufferSize) {
+            if (bufferSize < 2 || bufferSize > (1 << 30)) {
+                throw new IllegalArgumentException("bufferSize must be between 2 and 2^30");
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * 单个文件达到该大小后滚动，默认 64MB；日期变化时同样滚动
+         */
+        public Builder maxFileBytes(long maxFileBytes) {
+            if (maxFileBytes <= 0) {
+                throw new IllegalArgumentException("maxFileBytes must be positive");
+            }
+            this.maxFileBytes = maxFileBytes;
+            return this;
+        }
+
+        /**
+         * 最多保留的文件数，默认 30，0 表示不删除
+         */
+        public Builder maxFiles(int maxFiles) {
+            if (maxFiles < 0) {
+                throw new IllegalArgumentException("maxFiles cannot be negative");
+            }
+            this.maxFiles = maxFiles;
+            return this;
+        }
+
+        /**
+         * 刷盘间隔，默认 1 秒：ZERO 每批写入后刷盘，null 只写入页缓存、由操作系统决定刷盘时机
+         */
+        public Builder fsyncInterval(Duration fsyncInterval) {
+            if (fsyncInterval != null && fsyncInterval.isNegative()) {
+                throw new IllegalArgumentException("fsyncInterval cannot be negative");
+            }
+            this.fsyncInterval = fsyncInterval;
+            return this;
+        }
+
+        /**
+         * 每次写入最多合并的记录数，默认 4096
+         */
+        public Builder batchSize(int batchSize) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("batchSize must be positive");
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * 缓冲区未攒满一批时写线程的等待时间，默认 10 毫秒，即记录最多延迟这么久写入
+         */
+        public Builder linger(Duration linger) {
+            if (linger == null || linger.isNegative() || linger.isZero()) {
+                throw new IllegalArgumentException("linger must be positive");
+            }
+            this.linger = linger;
+            return this;
+        }
+
+        public FileAuditSink build() {
+            return new FileAuditSink(this);
+        }
+    }
+}
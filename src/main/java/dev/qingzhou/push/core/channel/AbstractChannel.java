@@ -1,17 +1,82 @@
 package dev.qingzhou.push.core.channel;
 
+import dev.qingzhou.push.core.api.ChannelSession;
 import dev.qingzhou.push.core.api.IPushChannel;
+import dev.qingzhou.push.core.audit.AuditRecord;
+import dev.qingzhou.push.core.audit.AuditSink;
+import dev.qingzhou.push.core.model.MediaResult;
+import dev.qingzhou.push.core.model.MediaSource;
 import dev.qingzhou.push.core.model.PushConfig;
 import dev.qingzhou.push.core.model.PushMessage;
 import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.model.enums.MessageType;
+import dev.qingzhou.push.core.template.JsonSkeleton;
+import dev.qingzhou.push.core.template.MessageTemplate;
+import dev.qingzhou.push.core.utils.Deadline;
+import dev.qingzhou.push.core.utils.HttpTransport;
+import dev.qingzhou.push.core.utils.LogThrottle;
+import dev.qingzhou.push.core.utils.LruCache;
+import dev.qingzhou.push.core.utils.TokenStore;
 import lombok.extern.slf4j.Slf4j;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
 @Slf4j
 public abstract class AbstractChannel implements IPushChannel {
 
+    private static final int MEDIA_CACHE_SIZE = 4096;
+    private static final int MAX_TEMPLATES = 1024;
+    private static final int MAX_SESSIONS = 256;
+
+    // 素材上传结果缓存: scope + 内容哈希 -> media_id
+    private final LruCache<String, String> mediaCache = new LruCache<>(MEDIA_CACHE_SIZE);
+    // 同一内容并发上传时只发起一次请求
+    private final Map<String, CompletableFuture<MediaResult>> uploading = new ConcurrentHashMap<>();
+    // 模板 id + 会话范围 -> 编译结果，超出容量时淘汰最久未用的
+    private final LruCache<String, CompiledTemplate> templates = new LruCache<>(MAX_TEMPLATES);
+    // 未绑定调用 (send(message, config)、上传、查询) 按配置内容复用会话，不必每次哈希凭证、新建 token 持有者
+    private final LruCache<SessionKey, BoundSession> sessions = new LruCache<>(MAX_SESSIONS);
+
+    // 未被 PushClient 接管时使用进程级默认的传输层与 Token 缓存
+    private volatile ChannelContext context = ChannelContext.shared();
+    private volatile boolean bound;
+
     @Override
     public abstract String type();
 
+    /**
+     * 由 {@link dev.qingzhou.push.core.api.PushClient} 注册时调用，注入该客户端的传输层与 Token 缓存
+     * 一个通道实例只能归属一个客户端
+     */
+    public void init(ChannelContext context) {
+        if (context == null) {
+            throw new IllegalArgumentException("Channel context cannot be null");
+        }
+        synchronized (this) {
+            if (bound && this.context != context) {
+                throw new IllegalStateException("Channel already bound to another client: " + getClass().getName());
+            }
+            this.context = context;
+            this.bound = true;
+            // 之前缓存的会话持有旧的 Token 缓存
+            sessions.clear();
+        }
+    }
+
+    protected HttpTransport http() {
+        return context.transport();
+    }
+
+    protected TokenStore tokens() {
+        return context.tokens();
+    }
+
     @Override
     public PushResult send(PushMessage message, PushConfig config) {
         // 1. ????
@@ -21,28 +86,469 @@ public abstract class AbstractChannel implements IPushChannel {
         if (config == null) {
             return PushResult.fail("Config cannot be null");
         }
-        if (message.getType() == null) {
-            return PushResult.fail("Message type cannot be null");
-        }
-        String target = message.getTarget();
-        if (!allowEmptyTarget() && (target == null || target.isBlank())) {
-            return PushResult.fail("Target cannot be blank");
+        long start = System.nanoTime();
+        BoundSession session;
+        try {
+            session = session(config, false);
+        } catch (Exception e) {
+            LogThrottle.shared().error(log, type(), e, "Send Error: channel={}", type());
+            return audit(message.getTarget(), message.getType(), message.getTitle(), message.getContent(),
+                    PushResult.fail(e.getMessage()), start);
         }
+        return session.send(message);
+    }
 
+    @Override
+    public PushResult send(MessageTemplate template, String target, Map<String, ?> values, PushConfig config,
+                           Long expireAt) {
+        if (template == null) {
+            return PushResult.fail("Template cannot be null");
+        }
+        if (config == null) {
+            return PushResult.fail("Config cannot be null");
+        }
+        long start = System.nanoTime();
+        BoundSession session;
         try {
-            log.debug("Start sending message to target: {}", message.getTarget());
-            checkConfig(config);
+            session = session(config, false);
+        } catch (Exception e) {
+            LogThrottle.shared().error(log, type(), e, "Send Error: channel={}", type());
+            return audit(template, target, values, null, PushResult.fail(e.getMessage()), start);
+        }
+        return session.send(template, target, values, expireAt);
+    }
+
+    /**
+     * 绑定配置：只校验一次，并由子类预先构建 token Key、URI 等
+     * 会话持有配置的副本，之后修改传入的 config 不影响会话
+     */
+    @Override
+    public ChannelSession bind(PushConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("Config cannot be null");
+        }
+        return open(config.toBuilder().build());
+    }
+
+    /**
+     * 应用模式会话 (忽略 webhookUrl)，按配置内容缓存复用；供上传素材、查询用户等只需要 token 的调用
+     * 不调用 {@link #checkConfig(PushConfig)}，由调用方校验自己需要的字段
+     */
+    protected final BoundSession appSession(PushConfig config) {
+        return session(config, true);
+    }
+
+    /**
+     * 按配置内容查找缓存的会话，未命中时以配置副本创建；之后修改传入的 config 不影响已缓存的会话
+     */
+    private BoundSession session(PushConfig config, boolean app) {
+        BoundSession session = sessions.get(new SessionKey(config, app));
+        if (session != null) {
+            return session;
+        }
+        PushConfig copy = config.toBuilder().build();
+        // 在锁外创建，并发创建时以先放入的为准
+        BoundSession created = app ? createSession(copy) : open(copy);
+        return sessions.computeIfAbsent(new SessionKey(copy, app), k -> created, Long.MAX_VALUE, null);
+    }
+
+    private BoundSession open(PushConfig config) {
+        // 配置了 webhookUrl 且通道支持时走群机器人模式，不需要应用凭证与 token
+        if (supportsWebhook() && config.getWebhookUrl() != null && !config.getWebhookUrl().isBlank()) {
+            return new BoundSession(config, true);
+        }
+        checkConfig(config);
+        return createSession(config);
+    }
+
+    /**
+     * 创建应用模式会话，此时 config 已通过 {@link #checkConfig(PushConfig)} (经 {@link #appSession(PushConfig)} 创建时除外)
+     * 子类可返回预编译的会话，默认每次发送调用 {@link #doSend(PushMessage, PushConfig)}
+     */
+    protected BoundSession createSession(PushConfig config) {
+        return new BoundSession(config, false);
+    }
+
+    /**
+     * 应用模式的 API 地址，会话预热时预先建立连接；为 null 时不预连接
+     * @param config 已通过 {@link #checkConfig(PushConfig)}
+     */
+    protected URI apiEndpoint(PushConfig config) {
+        return null;
+    }
+
+    /**
+     * 通道会话基类：消息校验与异常处理在这里统一完成，子类只覆盖 {@link #deliver(PushMessage)}
+     */
+    protected class BoundSession implements ChannelSession {
+
+        protected final PushConfig config;
+        private final boolean webhook;
+
+        protected BoundSession(PushConfig config) {
+            this(config, false);
+        }
+
+        private BoundSession(PushConfig config, boolean webhook) {
+            this.config = config;
+            this.webhook = webhook;
+        }
+
+        @Override
+        public String type() {
+            return AbstractChannel.this.type();
+        }
+
+        @Override
+        public PushConfig config() {
+            return config;
+        }
+
+        /**
+         * 校验并发送，结果写入审计 (如已配置)
+         */
+        @Override
+        public final PushResult send(PushMessage message) {
+            long start = System.nanoTime();
+            PushResult result = check(message);
+            if (message == null) {
+                return result;
+            }
+            return audit(message.getTarget(), message.getType(), message.getTitle(), message.getContent(), result, start);
+        }
+
+        private PushResult check(PushMessage message) {
+            if (message == null) {
+                return PushResult.fail("Content cannot be empty");
+            }
+            if (message.getType() == null) {
+                return PushResult.fail("Message type cannot be null");
+            }
+            String target = message.getTarget();
+            if (!webhook && !allowEmptyTarget() && (target == null || target.isBlank())) {
+                return PushResult.fail("Target cannot be blank");
+            }
+
+            // 超长正文在本地拦截，不再等平台返回错误
+            ContentLimit limit = contentLimit(message.getType(), webhook);
+            if (limit != null && message.getContent() != null) {
+                int length = limit.measure(message);
+                if (length > limit.max()) {
+                    if (autoSplit(message)) {
+                        return sendParts(message, limit);
+                    }
+                    return PushResult.fail(type() + " " + message.getType() + " content too long: "
+                            + length + " " + limit.unit() + " (max " + limit.max() + ")");
+                }
+            }
+            return dispatch(message);
+        }
+
+        /**
+         * 机器人模式预连接 webhook 所在主机，应用模式调用 {@link #prepare()}
+         */
+        @Override
+        public void warmUp() {
+            if (webhook) {
+                http().preconnect(URI.create(config.getWebhookUrl().trim()));
+                return;
+            }
+            try {
+                prepare();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(type() + " warm up failed: " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * 应用模式预热，默认预连接 {@link #apiEndpoint(PushConfig)}；持有 token 的会话覆盖为获取 token (同时建立了连接)
+         */
+        protected void prepare() throws Exception {
+            URI endpoint = apiEndpoint(config);
+            if (endpoint != null) {
+                http().preconnect(endpoint);
+            }
+        }
+
+        /**
+         * 按模板发送：模板首次在该通道、该会话范围内使用时编译成请求体骨架并缓存，之后只写入变量值；
+         * 不支持预编译时渲染成普通消息发送。通道有长度限制时先渲染 title 与 content 校验，超长则同样渲染发送
+         * (由 {@link #send(PushMessage)} 拦截或自动拆分)
+         */
+        @Override
+        public final PushResult send(MessageTemplate template, String target, Map<String, ?> values, Long expireAt) {
+            if (template == null) {
+                return PushResult.fail("Template cannot be null");
+            }
+            long start = System.nanoTime();
+            PushMessage shape = template.prototype();
+            if (!webhook && !allowEmptyTarget() && (target == null || target.isBlank())) {
+                return audit(template, target, values, null, PushResult.fail("Target cannot be blank"), start);
+            }
+            ContentLimit limit = contentLimit(shape.getType(), webhook);
+            PushMessage text = null;
+            String body;
+            try {
+                JsonSkeleton skeleton = skeleton(template);
+                if (limit != null || context.audit() != null) {
+                    text = template.renderText(target, values);
+                }
+                if (skeleton == null || (limit != null && text.getContent() != null
+                        && limit.measure(text) > limit.max())) {
+                    // 渲染后经 send(PushMessage) 发送 (超长时拦截或拆分) 并记录审计
+                    return ChannelSession.super.send(template, target, values, expireAt);
+                }
+                body = skeleton.render(target, values);
+            } catch (IllegalArgumentException e) {
+                return audit(template, target, values, text, PushResult.fail(e.getMessage()), start);
+            }
+            return audit(template, target, values, text,
+                    dispatch(expireAt, target, () -> sendBody(shape, body)), start);
+        }
+
+        private JsonSkeleton skeleton(MessageTemplate template) {
+            String key = template.id() + "|" + templateScope();
+            CompiledTemplate cached = templates.get(key);
+            if (cached != null && (cached.template() == template || cached.template().equals(template))) {
+                return cached.skeleton();
+            }
+            JsonSkeleton skeleton;
+            try {
+                skeleton = JsonSkeleton.compile(template, this::templateBody);
+            } catch (IllegalArgumentException e) {
+                throw e;
+            } catch (Exception e) {
+                log.warn("Compile template fail, fall back to rendering: channel={}, template={}", type(), template.id(), e);
+                skeleton = null;
+            }
+            templates.put(key, new CompiledTemplate(template, skeleton), Long.MAX_VALUE);
+            return skeleton;
+        }
+
+        /**
+         * 编译结果依赖的会话配置，不同范围的会话不共用骨架；默认区分机器人与应用模式
+         */
+        protected String templateScope() {
+            return webhook ? "webhook" : "app";
+        }
+
+        /**
+         * 按正常流程构建请求体 JSON，用于模板预编译 (message 中的变量为哨兵值)；返回 null 表示不支持
+         * 只能对消息字段做拼接与 JSON 序列化，不能拆分或改写字段值
+         */
+        protected String templateBody(PushMessage message) throws Exception {
+            return webhook ? webhookTemplateBody(message, config) : null;
+        }
+
+        /**
+         * 发送由骨架渲染好的请求体
+         * @param shape 模板原型，供通道读取 extras 中的路由参数 (如 receive_id_type)
+         */
+        protected PushResult sendBody(PushMessage shape, String body) throws Exception {
+            if (webhook) {
+                return sendWebhookBody(body, config);
+            }
+            throw new UnsupportedOperationException(type() + " does not support template body");
+        }
+
+        /**
+         * 过期消息不发起请求；发送期间的 HTTP 超时收紧到剩余时间
+         */
+        private PushResult dispatch(PushMessage message) {
+            return dispatch(message.getExpireAt(), message.getTarget(),
+                    () -> webhook ? doSendWebhook(message, config) : deliver(message));
+        }
+
+        private PushResult dispatch(Long expireAt, String target, SendCall call) {
+            if (Deadline.passed(expireAt)) {
+                return PushResult.expired(type() + " message expired before send");
+            }
+            try (Deadline.Scope ignored = Deadline.enter(expireAt)) {
+                log.debug("Start sending message to target: {}", target);
+                return call.send();
+            } catch (Exception e) {
+                if (Deadline.passed(expireAt)) {
+                    return PushResult.expired(type() + " message expired during send: " + e.getMessage());
+                }
+                LogThrottle.shared().error(log, type(), e, "Send Error: channel={}", type());
+                return PushResult.fail(e.getMessage());
+            }
+        }
+
+        /**
+         * 按块拆分后逐段发送，前一段成功才发送下一段，保证顺序
+         */
+        private PushResult sendParts(PushMessage message, ContentLimit limit) {
+            int budget = limit.max() - limit.titleOverhead(message);
+            if (budget <= 0) {
+                return PushResult.fail(type() + " " + message.getType() + " title too long to split content");
+            }
+            List<String> contents = ContentSplitter.split(message.getContent(),
+                    message.getType() == MessageType.MARKDOWN, budget, limit);
+            List<PushResult> results = new ArrayList<>(contents.size());
+            for (String content : contents) {
+                PushResult result = dispatch(message.toBuilder().content(content).build());
+                results.add(result);
+                if (!result.isSuccess()) {
+                    break;
+                }
+            }
+            return PushResult.composite(results, contents.size());
+        }
+
+        /**
+         * 应用模式发送，config 已校验
+         */
+        protected PushResult deliver(PushMessage message) throws Exception {
             return doSend(message, config);
+        }
+    }
+
+    /**
+     * 配置了审计时记录一次发送结果；sink 不应抛出异常，抛出时只记录日志
+     */
+    private PushResult audit(String target, MessageType messageType, String title, String content, PushResult result,
+                             long startNanos) {
+        AuditSink sink = context.audit();
+        if (sink == null || result == null) {
+            return result;
+        }
+        try {
+            sink.record(AuditRecord.of(type(), target, messageType, title, content, result, startNanos));
+        } catch (RuntimeException e) {
+            LogThrottle.shared().error(log, type() + ":audit", e, "Audit Error: channel={}", type());
+        }
+        return result;
+    }
+
+    /**
+     * 按模板发送的审计：与普通发送一样按渲染后的 title、content 计算哈希；缺少变量无法渲染时退回模板原型
+     * @param text 已渲染的 title 与 content，为 null 时按需渲染
+     */
+    private PushResult audit(MessageTemplate template, String target, Map<String, ?> values, PushMessage text,
+                             PushResult result, long startNanos) {
+        if (context.audit() == null) {
+            return result;
+        }
+        if (text == null) {
+            try {
+                text = template.renderText(target, values);
+            } catch (IllegalArgumentException e) {
+                text = template.prototype();
+            }
+        }
+        return audit(target, text.getType(), text.getTitle(), text.getContent(), result, startNanos);
+    }
+
+    @FunctionalInterface
+    private interface SendCall {
+        PushResult send() throws Exception;
+    }
+
+    private record CompiledTemplate(MessageTemplate template, JsonSkeleton skeleton) {
+    }
+
+    private record SessionKey(PushConfig config, boolean app) {
+    }
+
+    /**
+     * 带缓存的素材上传，供实现了 {@link dev.qingzhou.push.core.api.IMediaChannel} 的通道复用
+     * @param scope 素材归属范围 (如 CorpId / AppId)，不同范围的素材不能互用
+     * @param ttlMillis 平台侧素材有效期
+     * @param uploader 实际上传逻辑，仅在缓存未命中时调用
+     */
+    protected MediaResult uploadCached(String scope, MediaSource source, long ttlMillis,
+                                       Function<MediaSource, MediaResult> uploader) {
+        if (source == null) {
+            return MediaResult.fail("Media source cannot be null");
+        }
+        String cacheKey;
+        try {
+            cacheKey = type() + ":" + scope + ":" + source.contentHash();
+        } catch (Exception e) {
+            log.error("Read Media Error", e);
+            return MediaResult.fail(e.getMessage());
+        }
+
+        String mediaId = mediaCache.get(cacheKey);
+        if (mediaId != null) {
+            return MediaResult.cached(mediaId);
+        }
+
+        CompletableFuture<MediaResult> mine = new CompletableFuture<>();
+        CompletableFuture<MediaResult> inflight = uploading.putIfAbsent(cacheKey, mine);
+        if (inflight != null) {
+            MediaResult shared = inflight.join();
+            return shared.isSuccess() ? MediaResult.cached(shared.getMediaId()) : shared;
+        }
+
+        MediaResult result = MediaResult.fail("Upload aborted");
+        try {
+            result = uploader.apply(source);
+            if (result.isSuccess()) {
+                mediaCache.put(cacheKey, result.getMediaId(), ttlMillis);
+            }
         } catch (Exception e) {
-            log.error("Send Error", e);
-            return PushResult.fail(e.getMessage());
+            LogThrottle.shared().error(log, type() + ":upload", e, "Upload Error: channel={}", type());
+            result = MediaResult.fail(e.getMessage());
+        } finally {
+            uploading.remove(cacheKey);
+            mine.complete(result);
         }
+        return result;
     }
 
     protected boolean allowEmptyTarget() {
         return false;
     }
 
+    /**
+     * 平台对该类型消息正文的长度限制，发送前在本地校验；返回 null 表示不校验
+     * @param webhook 是否为群机器人模式 (部分平台两种模式的上限不同)
+     */
+    protected ContentLimit contentLimit(MessageType type, boolean webhook) {
+        return null;
+    }
+
+    private static boolean autoSplit(PushMessage message) {
+        if (message.getType() != MessageType.TEXT && message.getType() != MessageType.MARKDOWN) {
+            return false;
+        }
+        Object flag = message.getExtras() != null ? message.getExtras().get(PushMessage.EXTRA_AUTO_SPLIT) : null;
+        return Boolean.TRUE.equals(flag) || "true".equalsIgnoreCase(String.valueOf(flag));
+    }
+
+    /**
+     * 是否支持 Webhook (群机器人) 模式
+     */
+    protected boolean supportsWebhook() {
+        return false;
+    }
+
+    /**
+     * Webhook 模式发送，仅在 {@link #supportsWebhook()} 为 true 且配置了 webhookUrl 时调用；
+     * 此时 target 可为空，含义由各通道自行定义 (通常是要 @ 的成员)
+     */
+    protected PushResult doSendWebhook(PushMessage message, PushConfig config) throws Exception {
+        throw new UnsupportedOperationException(type() + " does not support webhook mode");
+    }
+
+    /**
+     * 机器人模式的模板请求体，见 {@link BoundSession#templateBody(PushMessage)}；默认不支持
+     */
+    protected String webhookTemplateBody(PushMessage message, PushConfig config) throws Exception {
+        return null;
+    }
+
+    /**
+     * 机器人模式发送骨架渲染好的请求体，仅在 {@link #webhookTemplateBody(PushMessage, PushConfig)} 返回非 null 时调用
+     */
+    protected PushResult sendWebhookBody(String body, PushConfig config) throws Exception {
+        throw new UnsupportedOperationException(type() + " does not support template body");
+    }
+
     protected abstract void checkConfig(PushConfig config);
     protected abstract PushResult doSend(PushMessage message, PushConfig config) throws Exception;
     protected abstract PushResult parseResult(String rawJson);
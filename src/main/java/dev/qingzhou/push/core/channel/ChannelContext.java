@@ -0,0 +1,31 @@
+package dev.qingzhou.push.core.channel;
+
+import dev.qingzhou.push.core.audit.AuditSink;
+import dev.qingzhou.push.core.utils.HttpTransport;
+import dev.qingzhou.push.core.utils.TokenStore;
+
+import java.util.Objects;
+
+/**
+ * 通道运行时依赖：HTTP 传输层、Token 缓存与可选的发送审计 (audit 为 null 时不记录)
+ * 由 {@link dev.qingzhou.push.core.api.PushClient} 在注册通道时注入，未注入时使用进程级默认实例
+ */
+public record ChannelContext(HttpTransport transport, TokenStore tokens, AuditSink audit) {
+
+    public ChannelContext {
+        Objects.requireNonNull(transport, "transport");
+        Objects.requireNonNull(tokens, "tokens");
+    }
+
+    public ChannelContext(HttpTransport transport, TokenStore tokens) {
+        this(transport, tokens, null);
+    }
+
+    public static ChannelContext shared() {
+        return Holder.SHARED;
+    }
+
+    private static final class Holder {
+        private static final ChannelContext SHARED = new ChannelContext(HttpTransport.shared(), TokenStore.shared());
+    }
+}
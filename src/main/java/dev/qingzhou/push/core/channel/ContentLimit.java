@@ -0,0 +1,92 @@
+package dev.qingzhou.push.core.channel;
+
+import dev.qingzhou.push.core.model.PushMessage;
+
+/**
+ * 平台对消息正文的长度限制，由 {@link AbstractChannel#contentLimit} 按消息类型返回，发送前在本地校验
+ * @param max 上限
+ * @param unit 计量单位 (企业微信、飞书按 UTF-8 字节，Telegram 按字符)
+ * @param includeTitle 标题是否拼接进正文 (如文本消息的 "title\ncontent")，为 true 时一并计入
+ */
+public record ContentLimit(int max, Unit unit, boolean includeTitle) {
+
+    public ContentLimit {
+        if (max <= 0) {
+            throw new IllegalArgumentException("Content limit must be positive");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("Content limit unit cannot be null");
+        }
+    }
+
+    public static ContentLimit bytes(int max) {
+        return new ContentLimit(max, Unit.UTF8_BYTES, false);
+    }
+
+    public static ContentLimit chars(int max) {
+        return new ContentLimit(max, Unit.CHARS, false);
+    }
+
+    public ContentLimit withTitle() {
+        return new ContentLimit(max, unit, true);
+    }
+
+    public int measure(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        return unit == Unit.UTF8_BYTES ? utf8Length(text) : text.length();
+    }
+
+    /**
+     * 消息实际占用的长度
+     */
+    public int measure(PushMessage message) {
+        return titleOverhead(message) + measure(message.getContent());
+    }
+
+    /**
+     * 标题在每一段中占用的长度 (含换行)，不计标题时为 0
+     */
+    int titleOverhead(PushMessage message) {
+        String title = message.getTitle();
+        return includeTitle && title != null && !title.isBlank() ? measure(title) + 1 : 0;
+    }
+
+    /**
+     * 不分配字节数组计算 UTF-8 编码长度
+     */
+    public static int utf8Length(CharSequence text) {
+        int length = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    public enum Unit {
+        UTF8_BYTES("bytes"),
+        CHARS("chars");
+
+        private final String label;
+
+        Unit(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package dev.qingzhou.push.core.channel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 超长正文拆分：尽量在自然边界处断开，每段不超过预算
+ * <p>
+ * 文本按行拆分；Markdown 按空行分隔的块拆分，代码块 (``` / ~~~) 整体保留，
+ * 单个代码块超长时按行拆开并在每段补上开闭围栏。单行仍超长时按码点硬切，不会切断代理对。
+ */
+final class ContentSplitter {
+
+    private ContentSplitter() {
+    }
+
+    /**
+     * @param budget 每段正文可用长度 (已扣除标题)
+     */
+    static List<String> split(String content, boolean markdown, int budget, ContentLimit limit) {
+        Packer packer = new Packer(budget, limit, markdown);
+        for (String block : markdown ? markdownBlocks(content) : lines(content)) {
+            packer.add(block);
+        }
+        return packer.finish();
+    }
+
+    /**
+     * 按行切分，每行保留结尾换行
+     */
+    private static List<String> lines(String text) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines.add(text.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < text.length()) {
+            lines.add(text.substring(start));
+        }
+        return lines;
+    }
+
+    /**
+     * Markdown 块：空行结束一个块 (空行归入前一块)，代码块单独成块
+     */
+    private static List<String> markdownBlocks(String text) {
+        List<String> blocks = new ArrayList<>();
+        StringBuilder block = new StringBuilder();
+        String fence = null;
+        for (String line : lines(text)) {
+            String marker = fenceMarker(line);
+            if (fence == null && marker != null) {
+                flush(blocks, block);
+                fence = marker;
+                block.append(line);
+            } else if (fence != null) {
+                block.append(line);
+                if (marker != null && line.strip().equals(fence)) {
+                    fence = null;
+                    flush(blocks, block);
+                }
+            } else {
+                block.append(line);
+                if (line.isBlank()) {
+                    flush(blocks, block);
+                }
+            }
+        }
+        flush(blocks, block);
+        return blocks;
+    }
+
+    private static void flush(List<String> blocks, StringBuilder block) {
+        if (!block.isEmpty()) {
+            blocks.add(block.toString());
+            block.setLength(0);
+        }
+    }
+
+    private static String fenceMarker(String line) {
+        String stripped = line.strip();
+        if (stripped.startsWith("```")) {
+            return "```";
+        }
+        if (stripped.startsWith("~~~")) {
+            return "~~~";
+        }
+        return null;
+    }
+
+    private static final class Packer {
+
+        private final int budget;
+        private final ContentLimit limit;
+        private final boolean markdown;
+        private final List<String> parts = new ArrayList<>();
+        private final StringBuilder current = new StringBuilder();
+        private int size;
+
+        Packer(int budget, ContentLimit limit, boolean markdown) {
+            this.budget = budget;
+            this.limit = limit;
+            this.markdown = markdown;
+        }
+
+        void add(String piece) {
+            int pieceSize = limit.measure(piece);
+            if (size + pieceSize <= budget) {
+                append(piece, pieceSize);
+                return;
+            }
+            flush();
+            if (pieceSize <= budget) {
+                append(piece, pieceSize);
+                return;
+            }
+            if (markdown && fenceMarker(piece) != null && splitFence(piece)) {
+                return;
+            }
+            int newline = piece.indexOf('\n');
+            if (newline >= 0 && newline < piece.length() - 1) {
+                for (String line : lines(piece)) {
+                    add(line);
+                }
+                return;
+            }
+            hardCut(piece);
+        }
+
+        List<String> finish() {
+            flush();
+            return parts;
+        }
+
+        /**
+         * 超长代码块按行拆开，每段补上开闭围栏；围栏本身放不下时返回 false 退化为普通按行拆分
+         */
+        private boolean splitFence(String block) {
+            List<String> lines = lines(block);
+            String open = lines.get(0).endsWith("\n") ? lines.get(0) : lines.get(0) + "\n";
+            String marker = fenceMarker(open);
+            boolean closed = lines.size() > 1 && marker.equals(lines.get(lines.size() - 1).strip());
+            String close = marker + "\n";
+            // 每段内容末尾补一个换行
+            int inner = budget - limit.measure(open) - limit.measure(close) - 1;
+            if (inner <= 0) {
+                return false;
+            }
+            List<String> body = lines.subList(1, closed ? lines.size() - 1 : lines.size());
+            Packer chunks = new Packer(inner, limit, false);
+            for (String line : body) {
+                chunks.add(line);
+            }
+            for (String chunk : chunks.finish()) {
+                add(open + chunk + "\n" + close);
+            }
+            return true;
+        }
+
+        private void hardCut(String text) {
+            int start = 0;
+            int chunkSize = 0;
+            for (int i = 0; i < text.length(); ) {
+                int cp = text.codePointAt(i);
+                int next = i + Character.charCount(cp);
+                int cpSize = limit.measure(text.substring(i, next));
+                if (chunkSize + cpSize > budget && i > start) {
+                    append(text.substring(start, i), chunkSize);
+                    flush();
+                    start = i;
+                    chunkSize = 0;
+                }
+                chunkSize += cpSize;
+                i = next;
+            }
+            if (start < text.length()) {
+                append(text.substring(start), chunkSize);
+            }
+        }
+
+        private void append(String piece, int pieceSize) {
+            current.append(piece);
+            size += pieceSize;
+        }
+
+        private void flush() {
+            int end = current.length();
+            while (end > 0 && (current.charAt(end - 1) == '\n' || current.charAt(end - 1) == '\r')) {
+                end--;
+            }
+            if (end > 0 && !current.substring(0, end).isBlank()) {
+                parts.add(current.substring(0, end));
+            }
+            current.setLength(0);
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package dev.qingzhou.push.core.channel.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.qingzhou.push.core.api.ChannelIds;
+import dev.qingzhou.push.core.channel.AbstractChannel;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.utils.HmacSigner;
+import dev.qingzhou.push.core.utils.Json;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 钉钉自定义机器人
+ * <p>
+ * 使用 {@link PushConfig#getWebhookUrl()} 作为机器人地址；配置了 appSecret 时按"加签"方式签名。
+ * target 可为空 (直接发到群)，也可填写逗号分隔的手机号用于 @，填写 @all 表示 @所有人。
+ */
+public class DingTalkChannel extends AbstractChannel {
+
+    private static final String AT_ALL = "@all";
+
+    @Override
+    public String type() {
+        return ChannelIds.DINGTALK;
+    }
+
+    @Override
+    public int weight() {
+        return 100;
+    }
+
+    @Override
+    protected boolean allowEmptyTarget() {
+        return true;
+    }
+
+    @Override
+    protected void checkConfig(PushConfig config) {
+        if (config.getWebhookUrl() == null || config.getWebhookUrl().isBlank()) {
+            throw new IllegalArgumentException("DingTalk webhookUrl cannot be empty");
+        }
+    }
+
+    @Override
+    protected URI apiEndpoint(PushConfig config) {
+        return URI.create(config.getWebhookUrl().trim());
+    }
+
+    @Override
+    protected PushResult doSend(PushMessage message, PushConfig config) throws Exception {
+        Map<String, Object> body = new HashMap<>();
+
+        switch (message.getType()) {
+            case TEXT:
+                buildText(body, message);
+                break;
+            case MARKDOWN:
+                buildMarkdown(body, message);
+                break;
+            case TEXT_CARD:
+                buildActionCard(body, message);
+                break;
+            case IMAGE:
+                buildImage(body, message);
+                break;
+            case NEWS:
+                buildFeedCard(body, message);
+                break;
+            default:
+                buildText(body, message);
+        }
+
+        String result = http().post(signedUrl(config), body);
+        return parseResult(result);
+    }
+
+    /**
+     * 成功示例: {"errcode":0,"errmsg":"ok"}
+     * 失败示例: {"errcode":310000,"errmsg":"sign not match"}
+     */
+    @Override
+    protected PushResult parseResult(String rawJson) {
+        try {
+            JsonNode node = Json.mapper().readTree(rawJson);
+            if (node.path("errcode").asInt(-1) == 0) {
+                // 机器人接口不返回消息ID
+                return PushResult.success(null, rawJson);
+            }
+            String errorMsg = node.has("errmsg") ? node.get("errmsg").asText() : rawJson;
+            return PushResult.failWithCode(node.path("errcode").asText(null), "DingTalk Error: " + errorMsg, rawJson);
+        } catch (JsonProcessingException e) {
+            return PushResult.fail("Parse DingTalk Response Fail", rawJson);
+        }
+    }
+
+    private String signedUrl(PushConfig config) {
+        String url = config.getWebhookUrl();
+        String secret = config.getAppSecret();
+        if (secret == null || secret.isBlank()) {
+            return url;
+        }
+        long timestamp = System.currentTimeMillis();
+        String sign = HmacSigner.of(secret).signWithTimestamp(timestamp);
+        return url + (url.contains("?") ? "&" : "?") + "timestamp=" + timestamp + "&sign=" + sign;
+    }
+
+    // --- Message Builders ---
+
+    private void buildText(Map<String, Object> body, PushMessage message) {
+        body.put("msgtype", "text");
+        String textContent = message.getContent();
+        if (textContent == null) {
+            throw new IllegalArgumentException("Text message content cannot be null");
+        }
+        StringBuilder content = new StringBuilder();
+        if (message.getTitle() != null && !message.getTitle().isBlank()) {
+            content.append(message.getTitle()).append("\n");
+        }
+        content.append(textContent);
+        body.put("text", Map.of("content", content.toString()));
+        putAt(body, message.getTarget());
+    }
+
+    private void buildMarkdown(Map<String, Object> body, PushMessage message) {
+        body.put("msgtype", "markdown");
+        String markdownContent = message.getContent();
+        if (markdownContent == null) {
+            throw new IllegalArgumentException("Markdown content cannot be null");
+        }
+        // 钉钉 Markdown 的 title 用于会话列表展示，必填
+        Map<String, String> markdown = new HashMap<>();
+        markdown.put("title", titleOrFirstLine(message.getTitle(), markdownContent));
+        markdown.put("text", markdownContent);
+        body.put("markdown", markdown);
+        putAt(body, message.getTarget());
+    }
+
+    private void buildActionCard(Map<String, Object> body, PushMessage message) {
+        body.put("msgtype", "actionCard");
+        String title = message.getTitle();
+        if (title == null || title.isBlank()) {
+            throw new IllegalArgumentException("TextCard title cannot be blank");
+        }
+        String description = message.getContent();
+        if (description == null || description.isBlank()) {
+            throw new IllegalArgumentException("TextCard description cannot be blank");
+        }
+        Object url = message.getExtras() != null ? message.getExtras().get("url") : null;
+        if (url == null || url.toString().isBlank()) {
+            throw new IllegalArgumentException("TextCard message must have 'url' in extras");
+        }
+        Map<String, String> card = new HashMap<>();
+        card.put("title", title);
+        card.put("text", "### " + title + "\n" + description);
+        card.put("singleTitle", "详情");
+        card.put("singleURL", url.toString());
+        body.put("actionCard", card);
+    }
+
+    private void buildImage(Map<String, Object> body, PushMessage message) {
+        // 钉钉机器人不支持 media_id，图片以 Markdown 图片语法发送
+        Map<String, Object> extras = message.getExtras();
+        Object picUrl = extras != null ? extras.get("pic_url") : null;
+        if (picUrl == null) {
+            throw new IllegalArgumentException("DingTalk image message must have 'pic_url' in extras");
+        }
+        body.put("msgtype", "markdown");
+        String title = message.getTitle() != null && !message.getTitle().isBlank() ? message.getTitle() : "图片";
+        body.put("markdown", Map.of("title", title, "text", "![" + title + "](" + picUrl + ")"));
+    }
+
+    private void buildFeedCard(Map<String, Object> body, PushMessage message) {
+        body.put("msgtype", "feedCard");
+        List<PushMessage.Article> articles = message.getArticles();
+        if (articles == null || articles.isEmpty()) {
+            throw new IllegalArgumentException("News message must have at least one article");
+        }
+        List<Map<String, String>> links = new ArrayList<>(articles.size());
+        for (PushMessage.Article art : articles) {
+            Map<String, String> link = new HashMap<>();
+            link.put("title", art.getTitle());
+            link.put("messageURL", art.getUrl());
+            link.put("picURL", art.getPicUrl());
+            links.add(link);
+        }
+        body.put("feedCard", Map.of("links", links));
+    }
+
+    private void putAt(Map<String, Object> body, String target) {
+        if (target == null || target.isBlank()) {
+            return;
+        }
+        Map<String, Object> at = new HashMap<>();
+        if (AT_ALL.equalsIgnoreCase(target.trim())) {
+            at.put("isAtAll", true);
+        } else {
+            List<String> mobiles = new ArrayList<>();
+            for (String mobile : target.split(",")) {
+                if (!mobile.isBlank()) {
+                    mobiles.add(mobile.trim());
+                }
+            }
+            at.put("atMobiles", mobiles);
+        }
+        body.put("at", at);
+    }
+
+    private static String titleOrFirstLine(String title, String content) {
+        if (title != null && !title.isBlank()) {
+            return title;
+        }
+        int newline = content.indexOf('\n');
+        String firstLine = newline >= 0 ? content.substring(0, newline) : content;
+        firstLine = firstLine.replaceFirst("^#+\\s*", "").trim();
+        return firstLine.isEmpty() ? "通知" : firstLine;
+    }
+}
@@ -0,0 +1,291 @@
+package dev.qingzhou.push.core.channel.impl;
+
+import dev.qingzhou.push.core.api.ChannelIds;
+import dev.qingzhou.push.core.channel.AbstractChannel;
+import dev.qingzhou.push.core.channel.impl.smtp.MarkdownHtml;
+import dev.qingzhou.push.core.channel.impl.smtp.MimeWriter;
+import dev.qingzhou.push.core.channel.impl.smtp.SmtpConnection;
+import dev.qingzhou.push.core.channel.impl.smtp.SmtpDelivery;
+import dev.qingzhou.push.core.channel.impl.smtp.SmtpException;
+import dev.qingzhou.push.core.channel.impl.smtp.SmtpPool;
+import dev.qingzhou.push.core.channel.impl.smtp.SmtpServer;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.utils.LruCache;
+import dev.qingzhou.push.core.utils.TokenStore;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 邮件通道 (SMTP)
+ * <p>
+ * 配置映射：
+ * <ul>
+ *     <li>webhookUrl: SMTP 服务器，如 smtps://smtp.example.com:465、smtp://smtp.example.com:587 (STARTTLS)</li>
+ *     <li>appKey / appSecret: 登录账号与密码 (授权码)，账号为空时不认证</li>
+ *     <li>agentId: 发件人地址 (可选，默认使用 appKey)</li>
+ * </ul>
+ * target 为收件人，多个用逗号分隔；title 为邮件主题。
+ * 每个服务器 + 账号 + 密码维护一个已认证的连接池 (最多 {@value #MAX_POOLS} 个，超出时关闭最久未用的)，
+ * 同一会话连续投递多封邮件，并在服务器支持时使用 PIPELINING。
+ * 部分收件人被服务器拒绝时其余收件人照常投递，结果为失败并列出被拒绝的收件人。
+ */
+public class EmailChannel extends AbstractChannel implements AutoCloseable {
+
+    private static final int MAX_POOLS = 64;
+
+    private final SmtpPool.Settings settings;
+    private final LruCache<String, SmtpPool> pools = new LruCache<>(MAX_POOLS);
+
+    public EmailChannel() {
+        this(SmtpPool.Settings.defaults());
+    }
+
+    public EmailChannel(SmtpPool.Settings settings) {
+        this.settings = Objects.requireNonNull(settings, "settings");
+    }
+
+    @Override
+    public String type() {
+        return ChannelIds.EMAIL;
+    }
+
+    @Override
+    public int weight() {
+        return 100;
+    }
+
+    @Override
+    protected void checkConfig(PushConfig config) {
+        if (config.getWebhookUrl() == null || config.getWebhookUrl().isBlank()) {
+            throw new IllegalArgumentException("Email SMTP server (webhookUrl) cannot be empty");
+        }
+        String sender = sender(config);
+        if (sender == null) {
+            throw new IllegalArgumentException("Email sender (agentId or appKey) cannot be empty");
+        }
+        SmtpConnection.checkAddress(sender);
+    }
+
+    @Override
+    protected BoundSession createSession(PushConfig config) {
+        return new EmailSession(config);
+    }
+
+    /**
+     * 预热时建立一条已认证的 SMTP 连接放入连接池
+     */
+    private final class EmailSession extends BoundSession {
+
+        private EmailSession(PushConfig config) {
+            super(config);
+        }
+
+        @Override
+        protected void prepare() throws IOException, InterruptedException {
+            poolFor(config).warmUp();
+        }
+    }
+
+    @Override
+    protected PushResult doSend(PushMessage message, PushConfig config) throws Exception {
+        List<String> recipients = new ArrayList<>();
+        for (String rcpt : message.getTarget().split(",")) {
+            if (!rcpt.isBlank()) {
+                recipients.add(SmtpConnection.checkAddress(rcpt.trim()));
+            }
+        }
+        if (recipients.isEmpty()) {
+            throw new IllegalArgumentException("Email recipients cannot be empty");
+        }
+
+        String from = sender(config);
+        String messageId = UUID.randomUUID() + "@" + domainOf(from);
+        byte[] mime = MimeWriter.write(messageId, from, recipients, subjectOf(message), textOf(message), htmlOf(message));
+
+        try {
+            SmtpDelivery delivery = poolFor(config).send(from, recipients, mime);
+            if (delivery.partial()) {
+                // 其余收件人已投递，重试前应只保留被拒绝的收件人
+                String rejected = delivery.rejected().entrySet().stream()
+                        .map(e -> e.getKey() + " (" + e.getValue() + ")")
+                        .collect(Collectors.joining(", "));
+                String code = delivery.rejected().values().iterator().next().split(" ", 2)[0];
+                int delivered = recipients.size() - delivery.rejected().size();
+                return PushResult.failWithCode(code, "Email Error: recipients rejected: " + rejected
+                        + "; delivered to the other " + delivered, delivery.reply());
+            }
+            return PushResult.success(messageId, delivery.reply());
+        } catch (SmtpException e) {
+            return PushResult.failWithCode(String.valueOf(e.getCode()), "Email Error: " + e.getMessage()
+                    + " (code: " + e.getCode() + ")", null);
+        }
+    }
+
+    /**
+     * SMTP 没有 JSON 响应，这里只把服务器应答作为原始结果
+     */
+    @Override
+    protected PushResult parseResult(String rawJson) {
+        return PushResult.success(null, rawJson);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(SmtpPool::close);
+        pools.clear();
+    }
+
+    /**
+     * 按服务器、账号与密码取连接池：密码轮换后使用新池重新认证，旧池在被淘汰时关闭
+     */
+    private SmtpPool poolFor(PushConfig config) {
+        String key = TokenStore.key("smtp_", config.getWebhookUrl().trim(), String.valueOf(config.getAppKey()),
+                String.valueOf(config.getAppSecret()));
+        return pools.computeIfAbsent(key, k -> new SmtpPool(SmtpServer.parse(config.getWebhookUrl()),
+                config.getAppKey(), config.getAppSecret(), settings), Long.MAX_VALUE, SmtpPool::close);
+    }
+
+    private static String sender(PushConfig config) {
+        if (config.getAgentId() != null && !config.getAgentId().isBlank()) {
+            return config.getAgentId().trim();
+        }
+        if (config.getAppKey() != null && config.getAppKey().contains("@")) {
+            return config.getAppKey().trim();
+        }
+        return null;
+    }
+
+    private static String domainOf(String address) {
+        int at = address.lastIndexOf('@');
+        return at >= 0 ? address.substring(at + 1) : "push-core";
+    }
+
+    // --- 渲染 ---
+
+    private static String subjectOf(PushMessage message) {
+        if (message.getTitle() != null && !message.getTitle().isBlank()) {
+            return message.getTitle();
+        }
+        if (message.getArticles() != null && !message.getArticles().isEmpty()) {
+            return message.getArticles().get(0).getTitle();
+        }
+        String content = message.getContent();
+        if (content == null || content.isBlank()) {
+            return "通知";
+        }
+        String firstLine = content.strip().lines().findFirst().orElse("");
+        return firstLine.length() > 78 ? firstLine.substring(0, 78) : firstLine;
+    }
+
+    private static String textOf(PushMessage message) {
+        switch (message.getType()) {
+            case NEWS: {
+                StringBuilder text = new StringBuilder();
+                for (PushMessage.Article article : articlesOf(message)) {
+                    text.append(article.getTitle()).append('\n');
+                    if (article.getDescription() != null) {
+                        text.append(article.getDescription()).append('\n');
+                    }
+                    text.append(article.getUrl()).append("\n\n");
+                }
+                return text.toString();
+            }
+            case TEXT_CARD:
+                return nullToEmpty(message.getContent()) + "\n\n" + urlOf(message);
+            case IMAGE:
+                return imageOf(message);
+            default:
+                if (message.getContent() == null) {
+                    throw new IllegalArgumentException("Email content cannot be null");
+                }
+                return message.getContent();
+        }
+    }
+
+    /**
+     * TEXT 发送纯文本邮件，其余类型渲染为 HTML
+     */
+    private static String htmlOf(PushMessage message) {
+        StringBuilder html = new StringBuilder("<html><body>");
+        String title = message.getTitle();
+        switch (message.getType()) {
+            case TEXT:
+                return null;
+            case MARKDOWN:
+                if (title != null && !title.isBlank()) {
+                    html.append("<h2>").append(MarkdownHtml.escape(title)).append("</h2>");
+                }
+                html.append(MarkdownHtml.render(message.getContent()));
+                break;
+            case TEXT_CARD:
+                if (title == null || title.isBlank()) {
+                    throw new IllegalArgumentException("TextCard title cannot be blank");
+                }
+                html.append("<h2>").append(MarkdownHtml.escape(title)).append("</h2>")
+                        .append("<p>").append(MarkdownHtml.text(nullToEmpty(message.getContent()))).append("</p>")
+                        .append("<p><a href=\"").append(MarkdownHtml.escape(urlOf(message))).append("\">详情</a></p>");
+                break;
+            case NEWS:
+                for (PushMessage.Article article : articlesOf(message)) {
+                    String url = MarkdownHtml.escape(article.getUrl());
+                    html.append("<div style=\"margin-bottom:16px\">");
+                    if (article.getPicUrl() != null && !article.getPicUrl().isBlank()) {
+                        html.append("<a href=\"").append(url).append("\"><img src=\"")
+                                .append(MarkdownHtml.escape(article.getPicUrl()))
+                                .append("\" style=\"max-width:100%\"/></a>");
+                    }
+                    html.append("<h3><a href=\"").append(url).append("\">")
+                            .append(MarkdownHtml.escape(article.getTitle())).append("</a></h3>");
+                    if (article.getDescription() != null) {
+                        html.append("<p>").append(MarkdownHtml.text(article.getDescription())).append("</p>");
+                    }
+                    html.append("</div>");
+                }
+                break;
+            case IMAGE:
+                html.append("<img src=\"").append(MarkdownHtml.escape(imageOf(message)))
+                        .append("\" style=\"max-width:100%\"/>");
+                break;
+            default:
+                return null;
+        }
+        return html.append("</body></html>").toString();
+    }
+
+    private static List<PushMessage.Article> articlesOf(PushMessage message) {
+        List<PushMessage.Article> articles = message.getArticles();
+        if (articles == null || articles.isEmpty()) {
+            throw new IllegalArgumentException("News message must have at least one article");
+        }
+        return articles;
+    }
+
+    private static String urlOf(PushMessage message) {
+        Object url = message.getExtras() != null ? message.getExtras().get("url") : null;
+        if (url == null || url.toString().isBlank()) {
+            throw new IllegalArgumentException("TextCard message must have 'url' in extras");
+        }
+        return url.toString();
+    }
+
+    private static String imageOf(PushMessage message) {
+        Map<String, Object> extras = message.getExtras();
+        Object url = extras != null ? extras.getOrDefault("pic_url", extras.get("media_id")) : null;
+        if (url == null) {
+            throw new IllegalArgumentException("Email image message must have 'pic_url' in extras");
+        }
+        return url.toString();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -2,35 +2,120 @@ package dev.qingzhou.push.core.channel.impl;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import dev.qingzhou.push.core.api.ChannelIds;
+import dev.qingzhou.push.core.api.IMediaChannel;
+import dev.qingzhou.push.core.api.IRecipientChannel;
 import dev.qingzhou.push.core.channel.AbstractChannel;
+import dev.qingzhou.push.core.channel.ContentLimit;
+import dev.qingzhou.push.core.model.MediaResult;
+import dev.qingzhou.push.core.model.MediaSource;
 import dev.qingzhou.push.core.model.PushConfig;
 import dev.qingzhou.push.core.model.PushMessage;
 import dev.qingzhou.push.core.model.PushResult;
-import dev.qingzhou.push.core.utils.HttpUtils;
-import dev.qingzhou.push.core.utils.TokenCache;
+import dev.qingzhou.push.core.model.enums.FeishuReceiveIdType;
+import dev.qingzhou.push.core.model.enums.MessageType;
+import dev.qingzhou.push.core.utils.Deadline;
+import dev.qingzhou.push.core.utils.HmacSigner;
+import dev.qingzhou.push.core.utils.HttpTransport;
+import dev.qingzhou.push.core.utils.Json;
+import dev.qingzhou.push.core.utils.LogThrottle;
+import dev.qingzhou.push.core.utils.LruCache;
+import dev.qingzhou.push.core.utils.MultipartBody;
+import dev.qingzhou.push.core.utils.SlidingWindowLimiter;
+import dev.qingzhou.push.core.utils.TokenHolder;
+import dev.qingzhou.push.core.utils.TokenStore;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.event.Level;
 
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.net.URI;
-import java.net.http.HttpClient;
+import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
-public class FeishuChannel extends AbstractChannel {
+public class FeishuChannel extends AbstractChannel implements IMediaChannel, IRecipientChannel {
 
     private static final String AUTH_URL = "https://open.feishu.cn/open-apis/auth/v3/tenant_access_token/internal";
     private static final String SEND_URL = "https://open.feishu.cn/open-apis/im/v1/messages";
+    private static final String IMAGE_UPLOAD_URL = "https://open.feishu.cn/open-apis/im/v1/images";
+    // 返回 open_id，与默认的 receive_id_type 一致
+    private static final URI USER_ID_URI =
+            URI.create("https://open.feishu.cn/open-apis/contact/v3/users/batch_get_id?user_id_type=open_id");
+
+    // 各 receive_id_type 对应的发送地址，只构建一次
+    private static final Map<String, URI> SEND_URIS = new HashMap<>();
+
+    static {
+        for (FeishuReceiveIdType idType : FeishuReceiveIdType.values()) {
+            SEND_URIS.put(idType.getValue(), URI.create(SEND_URL + "?receive_id_type=" + idType.getValue()));
+        }
+    }
+
+    // image_key 长期有效，这里只是给缓存一个上限
+    private static final long IMAGE_TTL_MILLIS = Duration.ofDays(30).toMillis();
+
+    /**
+     * 图文消息 extras 开关：为 true 时把 Article.picUrl 解析成 image_key 并在卡片中展示图片
+     */
+    public static final String EXTRA_RESOLVE_PIC_URL = "resolve_pic_url";
+
+    /**
+     * 告警卡片 extras：相同 alert_key 发往同一接收者的 Markdown / 文本卡片 / 图文卡片原地更新 (仅应用模式)
+     * 首次发送创建卡片并记住 message_id，之后内容变化时调用消息更新接口，内容不变时不发请求
+     */
+    public static final String EXTRA_ALERT_KEY = "alert_key";
+
+    // 飞书只能更新 14 天内发送的卡片；过期或已撤回时更新失败，重新创建
+    private static final long ALERT_CARD_TTL_MILLIS = Duration.ofDays(14).toMillis();
+    private static final int ALERT_CARD_CACHE_SIZE = 4096;
+    // 频率限制时不重新创建卡片，避免刷屏
+    private static final Set<String> RATE_LIMIT_CODES = Set.of("99991400", "230020");
+
+    // 飞书图片上传上限 10MB
+    private static final long MAX_PIC_BYTES = 10L * 1024 * 1024;
+    private static final Duration PIC_RESOLVE_TIMEOUT = Duration.ofSeconds(15);
+    private static final int PIC_KEY_CACHE_SIZE = 2048;
+
+    // picUrl -> image_key，相同 URL 只下载上传一次 (内容相同的不同 URL 由上传缓存兜底)
+    private final LruCache<String, String> picKeyCache = new LruCache<>(PIC_KEY_CACHE_SIZE);
+
+    // appKey|receive_id_type|target|alert_key -> 已发送的卡片
+    private final LruCache<String, AlertCard> alertCards = new LruCache<>(ALERT_CARD_CACHE_SIZE);
+    // 同一告警的发送串行化，避免并发首发时创建两张卡片；按 key 分段加锁
+    private final ReentrantLock[] alertLocks = new ReentrantLock[64];
+
+    {
+        for (int i = 0; i < alertLocks.length; i++) {
+            alertLocks[i] = new ReentrantLock();
+        }
+    }
 
-    private static final ObjectMapper MAPPER = new ObjectMapper();
     private static final String CACHE_KEY_PREFIX = "feishu_token_";
+    // tenant_access_token 无效、已过期
+    private static final Set<String> TOKEN_REJECTED_CODES = Set.of("99991663", "99991668");
+
+    // 请求体上限：文本 150KB，卡片 30KB；正文上限预留 JSON 包装与转义的余量 (UTF-8 字节)
+    private static final ContentLimit TEXT_LIMIT = ContentLimit.bytes(140 * 1024).withTitle();
+    private static final ContentLimit CARD_LIMIT = ContentLimit.bytes(28 * 1024);
+
+    // 自定义机器人限制：每个 webhook 5 次/秒且 100 次/分钟，两条都有余量才占用名额
+    private final SlidingWindowLimiter botLimiter = new SlidingWindowLimiter(5, Duration.ofSeconds(1))
+            .and(100, Duration.ofMinutes(1));
 
     @Override
     public String type() {
@@ -42,6 +127,24 @@ public class FeishuChannel extends AbstractChannel {
         return 100;
     }
 
+    @Override
+    protected boolean supportsWebhook() {
+        return true;
+    }
+
+    @Override
+    protected ContentLimit contentLimit(MessageType type, boolean webhook) {
+        switch (type) {
+            case TEXT:
+                return TEXT_LIMIT;
+            case MARKDOWN:
+            case TEXT_CARD:
+                return CARD_LIMIT;
+            default:
+                return null;
+        }
+    }
+
     @Override
     protected void checkConfig(PushConfig config) {
         if (config.getAppKey() == null || config.getAppKey().isBlank()) {
@@ -54,79 +157,438 @@ public class FeishuChannel extends AbstractChannel {
 
     @Override
     protected PushResult doSend(PushMessage message, PushConfig config) throws Exception {
-        String token = getAccessToken(config.getAppKey(), config.getAppSecret());
+        return feishuSession(config).deliver(message);
+    }
 
+    @Override
+    protected BoundSession createSession(PushConfig config) {
+        return new FeishuSession(config);
+    }
+
+    private FeishuSession feishuSession(PushConfig config) {
+        return (FeishuSession) appSession(config);
+    }
+
+    /**
+     * 应用消息会话：token 缓存 Key 在绑定时哈希一次，Authorization 头随 token 刷新预先构建
+     */
+    private final class FeishuSession extends BoundSession {
+
+        private final TokenHolder<Map<String, String>> authorization;
+
+        private FeishuSession(PushConfig config) {
+            super(config);
+            String appId = config.getAppKey();
+            String appSecret = config.getAppSecret();
+            this.authorization = new TokenHolder<>(tokens(), TokenStore.key(CACHE_KEY_PREFIX, appId, appSecret),
+                    () -> fetchToken(appId, appSecret),
+                    token -> Map.of("Authorization", "Bearer " + token));
+        }
+
+        /**
+         * 获取 tenant_access_token，同时建立到开放平台的连接
+         */
+        @Override
+        protected void prepare() {
+            authorization.get();
+        }
+
+        @Override
+        protected PushResult deliver(PushMessage message) throws Exception {
+            Map<String, String> headers = authorization.get();
+            URI uri = sendUriOf(message);
+
+            String alertKey = alertKeyOf(message);
+            if (alertKey != null) {
+                // 卡片更新与新建不重发，只作废 token 供下次重新申请
+                PushResult result = upsertCard(message, uri, headers, alertKey);
+                if (tokenRejected(result.getErrorCode())) {
+                    authorization.invalidate(headers);
+                }
+                return result;
+            }
+
+            String jsonBody = Json.mapper().writeValueAsString(buildBody(message));
+
+            return post(uri, jsonBody, headers);
+        }
+
+        /**
+         * 告警卡片需要按 key 查找已发送的卡片，解析图片需要上传，这两类不预编译
+         */
+        @Override
+        protected String templateBody(PushMessage message) throws JsonProcessingException {
+            Map<String, Object> extras = message.getExtras();
+            if (alertKeyOf(message) != null || (message.getType() == MessageType.NEWS && extras != null
+                    && Boolean.parseBoolean(String.valueOf(extras.get(EXTRA_RESOLVE_PIC_URL))))) {
+                return null;
+            }
+            return Json.mapper().writeValueAsString(buildBody(message));
+        }
+
+        @Override
+        protected PushResult sendBody(PushMessage shape, String body) {
+            return post(sendUriOf(shape), body, authorization.get());
+        }
+
+        /**
+         * token 被平台判定无效时作废并重新申请，重发一次 (该请求未被平台接收)
+         */
+        private PushResult post(URI uri, String jsonBody, Map<String, String> headers) {
+            PushResult result = executeRequest(uri, jsonBody, headers);
+            if (tokenRejected(result.getErrorCode())) {
+                authorization.invalidate(headers);
+                result = executeRequest(uri, jsonBody, authorization.get());
+            }
+            return result;
+        }
+
+        private Map<String, Object> buildBody(PushMessage message) throws JsonProcessingException {
+            Map<String, Object> body = new HashMap<>();
+            body.put("receive_id", message.getTarget());
+
+            switch (message.getType()) {
+                case TEXT:
+                    buildText(body, message);
+                    break;
+                case MARKDOWN:
+                    buildMarkdown(body, message);
+                    break;
+                case TEXT_CARD:
+                    buildTextCard(body, message);
+                    break;
+                case IMAGE:
+                    buildImage(body, message);
+                    break;
+                case NEWS:
+                    buildNews(body, message, resolvePicKeys(message, config));
+                    break;
+                default:
+                    buildText(body, message);
+            }
+            return body;
+        }
+
+        /**
+         * 按告警 key 创建或原地更新卡片；内容与上次相同时直接返回上次的 message_id (rawResult 为 null)
+         */
+        private PushResult upsertCard(PushMessage message, URI uri, Map<String, String> headers, String alertKey)
+                throws JsonProcessingException {
+            ObjectNode card = switch (message.getType()) {
+                case MARKDOWN -> markdownCard(message);
+                case TEXT_CARD -> textCard(message);
+                default -> newsCard(message, resolvePicKeys(message, config));
+            };
+            // 共享卡片才能通过更新接口对所有人生效
+            ((ObjectNode) card.get("config")).put("update_multi", true);
+            String content = Json.mapper().writeValueAsString(card);
+            String contentHash = DigestUtils.sha256Hex(content);
+            String cacheKey = String.join("|", config.getAppKey(), uri.getRawQuery(),
+                    String.valueOf(message.getTarget()), alertKey);
+
+            ReentrantLock lock = alertLocks[Math.floorMod(cacheKey.hashCode(), alertLocks.length)];
+            lock.lock();
+            try {
+                AlertCard current = alertCards.get(cacheKey);
+                if (current != null) {
+                    if (current.contentHash().equals(contentHash)) {
+                        log.debug("Feishu alert card unchanged, skip: key={}", alertKey);
+                        return PushResult.success(current.messageId(), null);
+                    }
+                    PushResult updated = patchCard(current.messageId(), content, headers);
+                    if (updated.isSuccess()) {
+                        alertCards.put(cacheKey, new AlertCard(current.messageId(), contentHash), ALERT_CARD_TTL_MILLIS);
+                        return updated;
+                    }
+                    // 响应无法解析时更新可能已生效，频率限制时新建也会失败，这两种情况不新建卡片
+                    if (updated.getErrorCode() == null || RATE_LIMIT_CODES.contains(updated.getErrorCode())) {
+                        return updated;
+                    }
+                    // 卡片批量过期 (如 14 天后) 时每条告警都会走到这里，按错误码限流
+                    LogThrottle.shared().log(log, Level.INFO, type() + ":alert-update|" + updated.getErrorCode(), null,
+                            "Feishu alert card update failed, send a new one: key={}, error={}",
+                            alertKey, updated.getErrorMsg());
+                    alertCards.remove(cacheKey);
+                }
+
+                Map<String, Object> body = new HashMap<>();
+                body.put("receive_id", message.getTarget());
+                body.put("msg_type", "interactive");
+                body.put("content", content);
+                PushResult created = executeRequest(uri, Json.mapper().writeValueAsString(body), headers);
+                if (created.isSuccess() && created.getMsgId() != null && !created.getMsgId().isEmpty()) {
+                    alertCards.put(cacheKey, new AlertCard(created.getMsgId(), contentHash), ALERT_CARD_TTL_MILLIS);
+                }
+                return created;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private record AlertCard(String messageId, String contentHash) {
+    }
+
+    private static URI sendUriOf(PushMessage message) {
         // Default receive_id_type is open_id
         // See dev.qingzhou.push.core.model.enums.FeishuReceiveIdType
-        String receiveIdType = "open_id";
+        URI uri = SEND_URIS.get(FeishuReceiveIdType.OPEN_ID.getValue());
         if (message.getExtras() != null && message.getExtras().containsKey("receive_id_type")) {
-            receiveIdType = message.getExtras().get("receive_id_type").toString();
+            String receiveIdType = message.getExtras().get("receive_id_type").toString();
+            uri = SEND_URIS.get(receiveIdType);
+            if (uri == null) {
+                uri = URI.create(SEND_URL + "?receive_id_type=" + receiveIdType);
+            }
         }
+        return uri;
+    }
 
-        String url = SEND_URL + "?receive_id_type=" + receiveIdType;
+    /**
+     * 只有卡片类消息支持原地更新
+     */
+    private static String alertKeyOf(PushMessage message) {
+        Map<String, Object> extras = message.getExtras();
+        Object alertKey = extras != null ? extras.get(EXTRA_ALERT_KEY) : null;
+        if (alertKey == null || alertKey.toString().isBlank()) {
+            return null;
+        }
+        MessageType type = message.getType();
+        return type == MessageType.MARKDOWN || type == MessageType.TEXT_CARD || type == MessageType.NEWS
+                ? alertKey.toString() : null;
+    }
 
-        Map<String, Object> body = new HashMap<>();
-        body.put("receive_id", message.getTarget());
+    /**
+     * 请求异常直接抛出，由 {@link AbstractChannel} 统一区分超时过期与失败；此时更新可能已生效，不会新建卡片
+     */
+    private PushResult patchCard(String messageId, String content, Map<String, String> headers) {
+        String result = http().patch(URI.create(SEND_URL + "/" + messageId), Map.of("content", content), headers);
+        PushResult parsed = parseResult(result);
+        // 更新接口的响应不含 message_id
+        return parsed.isSuccess() ? PushResult.success(messageId, result) : parsed;
+    }
 
+    /**
+     * 自定义机器人模式：POST 到 webhookUrl，配置了 appSecret 时作为签名校验密钥
+     * target 为逗号分隔的 open_id (或 all)，仅文本消息会 @ 对应成员
+     */
+    @Override
+    protected PushResult doSendWebhook(PushMessage message, PushConfig config) throws Exception {
+        ObjectNode body = robotBody(message);
+
+        String secret = config.getAppSecret();
+        if (secret != null && !secret.isBlank()) {
+            long timestamp = System.currentTimeMillis() / 1000;
+            body.put("timestamp", String.valueOf(timestamp));
+            body.put("sign", HmacSigner.signAsKey(secret, timestamp));
+        }
+
+        String webhookUrl = config.getWebhookUrl();
+        long retryAfter = robotRetryAfter(webhookUrl);
+        if (retryAfter > 0) {
+            return PushResult.fail("Feishu bot rate limited, retry after " + retryAfter + "ms");
+        }
+        String result = http().post(webhookUrl, Json.mapper().writeValueAsString(body));
+        return parseResult(result);
+    }
+
+    /**
+     * 文本消息按 target 生成 @ 标签，不预编译；签名在发送时追加
+     */
+    @Override
+    protected String webhookTemplateBody(PushMessage message, PushConfig config) throws Exception {
+        if (message.getType() == MessageType.TEXT) {
+            return null;
+        }
+        return Json.mapper().writeValueAsString(robotBody(message));
+    }
+
+    @Override
+    protected PushResult sendWebhookBody(String body, PushConfig config) {
+        String secret = config.getAppSecret();
+        if (secret != null && !secret.isBlank()) {
+            long timestamp = System.currentTimeMillis() / 1000;
+            // 骨架是一个 JSON 对象，在末尾的 } 前追加签名字段 (签名为 Base64，无需转义)
+            body = body.substring(0, body.lastIndexOf('}')) + ",\"timestamp\":\"" + timestamp
+                    + "\",\"sign\":\"" + HmacSigner.signAsKey(secret, timestamp) + "\"}";
+        }
+        String webhookUrl = config.getWebhookUrl();
+        long retryAfter = robotRetryAfter(webhookUrl);
+        if (retryAfter > 0) {
+            return PushResult.fail("Feishu bot rate limited, retry after " + retryAfter + "ms");
+        }
+        return parseResult(http().post(webhookUrl, body));
+    }
+
+    private long robotRetryAfter(String webhookUrl) {
+        return botLimiter.tryAcquire(webhookUrl);
+    }
+
+    private ObjectNode robotBody(PushMessage message) {
+        ObjectNode body = Json.mapper().createObjectNode();
         switch (message.getType()) {
-            case TEXT:
-                buildText(body, message);
-                break;
             case MARKDOWN:
-                buildMarkdown(body, message);
+                body.put("msg_type", "interactive");
+                body.set("card", markdownCard(message));
                 break;
             case TEXT_CARD:
-                buildTextCard(body, message);
-                break;
-            case IMAGE:
-                buildImage(body, message);
+                body.put("msg_type", "interactive");
+                body.set("card", textCard(message));
                 break;
             case NEWS:
-                buildNews(body, message);
+                // 机器人模式没有应用凭证，无法上传图片，只渲染文字
+                body.put("msg_type", "interactive");
+                body.set("card", newsCard(message, Map.of()));
+                break;
+            case IMAGE:
+                Object mediaId = message.getExtras() != null ? message.getExtras().get("media_id") : null;
+                if (mediaId == null) {
+                    throw new IllegalArgumentException("Image message must have 'media_id' in extras (mapped to image_key)");
+                }
+                body.put("msg_type", "image");
+                body.putObject("content").put("image_key", mediaId.toString());
                 break;
+            case TEXT:
             default:
-                buildText(body, message);
+                body.put("msg_type", "text");
+                body.putObject("content").put("text", robotText(message));
         }
+        return body;
+    }
 
-        String jsonBody = MAPPER.writeValueAsString(body);
+    private static String robotText(PushMessage message) {
+        StringBuilder text = new StringBuilder();
+        String target = message.getTarget();
+        if (target != null && !target.isBlank()) {
+            for (String userId : target.split(",")) {
+                if (!userId.isBlank()) {
+                    String id = userId.trim();
+                    text.append("<at user_id=\"").append(id).append("\">")
+                            .append("all".equals(id) ? "所有人" : "").append("</at> ");
+                }
+            }
+        }
+        if (message.getTitle() != null && !message.getTitle().isBlank()) {
+            text.append(message.getTitle()).append("\n");
+        }
+        text.append(requireContent(message));
+        return text.toString();
+    }
 
-        return executeRequest(url, jsonBody, token);
+    private static String requireContent(PushMessage message) {
+        if (message.getContent() == null) {
+            throw new IllegalArgumentException(message.getType() + " message content cannot be null");
+        }
+        return message.getContent();
     }
 
-    // Reuse HttpClient to avoid resource exhaustion
-    private static final HttpClient CLIENT = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .build();
+    /**
+     * 请求异常直接抛出，由 {@link AbstractChannel} 统一处理：超过消息截止时间的记为过期，其余记为失败
+     */
+    private PushResult executeRequest(URI uri, String jsonBody, Map<String, String> headers) {
+        return parseResult(http().post(uri, jsonBody, headers));
+    }
 
-    private PushResult executeRequest(String url, String jsonBody, String token) {
+    /**
+     * 上传图片，返回 image_key
+     * 相同内容只上传一次
+     */
+    @Override
+    public MediaResult upload(MediaSource source, PushConfig config) {
+        if (config == null) {
+            return MediaResult.fail("Config cannot be null");
+        }
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("Content-Type", "application/json; charset=utf-8")
-                    .header("Authorization", "Bearer " + token)
-                    .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
-                    .timeout(Duration.ofSeconds(10))
-                    .build();
-
-            HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            return parseResult(response.body());
-        } catch (Exception e) {
-            log.error("Feishu Send Error", e);
-            return PushResult.fail("Feishu Send Exception: " + e.getMessage());
+            checkConfig(config);
+        } catch (IllegalArgumentException e) {
+            return MediaResult.fail(e.getMessage());
         }
+        return uploadCached(config.getAppKey(), source, IMAGE_TTL_MILLIS, media -> doUpload(media, feishuSession(config)));
+    }
+
+    private MediaResult doUpload(MediaSource source, FeishuSession session) {
+        Map<String, String> headers = session.authorization.get();
+
+        MultipartBody multipart = new MultipartBody()
+                .field("image_type", "message")
+                .file("image", source);
+        String result = http().postMultipart(IMAGE_UPLOAD_URL, multipart, headers);
+        try {
+            JsonNode node = Json.mapper().readTree(result);
+            if (node.path("code").asInt() == 0) {
+                return MediaResult.success(node.path("data").path("image_key").asText(), result);
+            }
+            if (tokenRejected(node.path("code").asText())) {
+                session.authorization.invalidate(headers);
+            }
+            return MediaResult.fail("Feishu Upload Error: " + node.path("msg").asText()
+                    + " (code: " + node.path("code").asInt() + ")", result);
+        } catch (JsonProcessingException e) {
+            return MediaResult.fail("Parse Feishu Upload Response Fail", result);
+        }
+    }
+
+    /**
+     * 通过 batch_get_id 按邮箱、手机号批量查询 open_id (需要应用具有通讯录读取权限)
+     * 单次最多 50 个邮箱与 50 个手机号；非中国大陆手机号需带国际区号
+     */
+    @Override
+    public Map<String, String> lookupUserIds(List<String> contacts, PushConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("Config cannot be null");
+        }
+        checkConfig(config);
+        List<String> emails = new ArrayList<>();
+        List<String> mobiles = new ArrayList<>();
+        for (String contact : contacts) {
+            (contact.indexOf('@') >= 0 ? emails : mobiles).add(contact);
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("emails", emails);
+        body.put("mobiles", mobiles);
+        FeishuSession session = feishuSession(config);
+        Map<String, String> headers = session.authorization.get();
+        String result = http().post(USER_ID_URI, body, headers);
+
+        JsonNode node;
+        try {
+            node = Json.mapper().readTree(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Parse Feishu batch_get_id Response Fail", e);
+        }
+        if (node.path("code").asInt() != 0) {
+            if (tokenRejected(node.path("code").asText())) {
+                session.authorization.invalidate(headers);
+            }
+            throw new IllegalStateException("Feishu batch_get_id Error: " + node.path("msg").asText()
+                    + " (code: " + node.path("code").asInt() + ")");
+        }
+        // 每个查询条件都有一项，查不到时没有 user_id
+        Map<String, String> userIds = new LinkedHashMap<>();
+        for (JsonNode user : node.path("data").path("user_list")) {
+            String contact = user.hasNonNull("email") ? user.get("email").asText() : user.path("mobile").asText(null);
+            if (contact != null) {
+                userIds.put(contact, user.hasNonNull("user_id") ? user.get("user_id").asText() : null);
+            }
+        }
+        return userIds;
+    }
+
+    private static boolean tokenRejected(String code) {
+        return code != null && TOKEN_REJECTED_CODES.contains(code);
     }
 
     @Override
     protected PushResult parseResult(String rawJson) {
         try {
-            JsonNode node = MAPPER.readTree(rawJson);
+            JsonNode node = Json.mapper().readTree(rawJson);
             if (node.path("code").asInt() == 0) {
                 // Success
                 String msgId = node.path("data").path("message_id").asText();
                 return PushResult.success(msgId, rawJson);
             } else {
                 String errorMsg = node.path("msg").asText();
-                return PushResult.fail("Feishu Error: " + errorMsg + " (code: " + node.path("code").asInt() + ")", rawJson);
+                int code = node.path("code").asInt();
+                return PushResult.failWithCode(String.valueOf(code), "Feishu Error: " + errorMsg + " (code: " + code + ")", rawJson);
             }
         } catch (JsonProcessingException e) {
             return PushResult.fail("Parse Feishu Response Fail", rawJson);
@@ -143,10 +605,10 @@ public class FeishuChannel extends AbstractChannel {
         if (message.getTitle() != null && !message.getTitle().isBlank()) {
             text.append(message.getTitle()).append("\n");
         }
-        text.append(message.getContent());
+        text.append(requireContent(message));
 
         content.put("text", text.toString());
-        body.put("content", MAPPER.writeValueAsString(content));
+        body.put("content", Json.mapper().writeValueAsString(content));
     }
 
     private void buildImage(Map<String, Object> body, PushMessage message) throws JsonProcessingException {
@@ -158,14 +620,27 @@ public class FeishuChannel extends AbstractChannel {
         }
         Map<String, String> content = new HashMap<>();
         content.put("image_key", mediaId.toString());
-        body.put("content", MAPPER.writeValueAsString(content));
+        body.put("content", Json.mapper().writeValueAsString(content));
     }
 
     // Markdown in Feishu is best done via Interactive Card
     private void buildMarkdown(Map<String, Object> body, PushMessage message) throws JsonProcessingException {
         body.put("msg_type", "interactive");
+        body.put("content", Json.mapper().writeValueAsString(markdownCard(message)));
+    }
+
+    private void buildTextCard(Map<String, Object> body, PushMessage message) throws JsonProcessingException {
+        body.put("msg_type", "interactive");
+        body.put("content", Json.mapper().writeValueAsString(textCard(message)));
+    }
 
-        ObjectNode card = MAPPER.createObjectNode();
+    private void buildNews(Map<String, Object> body, PushMessage message, Map<String, String> picKeys) throws JsonProcessingException {
+        body.put("msg_type", "interactive");
+        body.put("content", Json.mapper().writeValueAsString(newsCard(message, picKeys)));
+    }
+
+    private ObjectNode markdownCard(PushMessage message) {
+        ObjectNode card = Json.mapper().createObjectNode();
         ObjectNode config = card.putObject("config");
         config.put("wide_screen_mode", true);
 
@@ -184,15 +659,13 @@ public class FeishuChannel extends AbstractChannel {
         div.put("tag", "div");
         ObjectNode text = div.putObject("text");
         text.put("tag", "lark_md");
-        text.put("content", message.getContent());
+        text.put("content", requireContent(message));
 
-        body.put("content", MAPPER.writeValueAsString(card));
+        return card;
     }
 
-    private void buildTextCard(Map<String, Object> body, PushMessage message) throws JsonProcessingException {
-        body.put("msg_type", "interactive");
-
-        ObjectNode card = MAPPER.createObjectNode();
+    private ObjectNode textCard(PushMessage message) {
+        ObjectNode card = Json.mapper().createObjectNode();
         ObjectNode config = card.putObject("config");
         config.put("wide_screen_mode", true);
 
@@ -234,14 +707,12 @@ public class FeishuChannel extends AbstractChannel {
         button.put("url", url);
         button.put("type", "primary");
 
-        body.put("content", MAPPER.writeValueAsString(card));
+        return card;
     }
 
-    private void buildNews(Map<String, Object> body, PushMessage message) throws JsonProcessingException {
+    private ObjectNode newsCard(PushMessage message, Map<String, String> picKeys) {
         // Feishu Card for News (List of articles)
-        body.put("msg_type", "interactive");
-
-        ObjectNode card = MAPPER.createObjectNode();
+        ObjectNode card = Json.mapper().createObjectNode();
         ObjectNode config = card.putObject("config");
         config.put("wide_screen_mode", true);
 
@@ -257,6 +728,17 @@ public class FeishuChannel extends AbstractChannel {
         }
 
         for (PushMessage.Article article : articles) {
+            // Cover image (only when picUrl was resolved to an image_key)
+            String imgKey = article.getPicUrl() != null ? picKeys.get(article.getPicUrl()) : null;
+            if (imgKey != null) {
+                ObjectNode img = elements.addObject();
+                img.put("tag", "img");
+                img.put("img_key", imgKey);
+                ObjectNode alt = img.putObject("alt");
+                alt.put("tag", "plain_text");
+                alt.put("content", article.getTitle() != null ? article.getTitle() : "");
+            }
+
             // Title + Link
             ObjectNode div = elements.addObject();
             div.put("tag", "div");
@@ -269,38 +751,119 @@ public class FeishuChannel extends AbstractChannel {
                     article.getDescription() != null ? article.getDescription() : "");
             text.put("content", mdContent);
 
-            // Note: Feishu Card doesn't support remote image URL easily in `img` tag (needs image_key).
-            // So we skip the image unless we want to do complex uploading.
-            // We just render text.
+            // Note: Feishu Card `img` needs an image_key, not a remote URL.
+            // Images are only rendered when EXTRA_RESOLVE_PIC_URL is enabled.
 
             // Add a separator line
             elements.addObject().put("tag", "hr");
         }
 
-        body.put("content", MAPPER.writeValueAsString(card));
+        return card;
+    }
+
+    /**
+     * 并发下载并上传图文消息中的 picUrl，返回 picUrl -> image_key
+     * 单张图片失败只影响该图片，不影响消息发送；最多等待 15 秒与当前 Deadline，超时的图片不带图发送，
+     * 不等待未完成的上传退出
+     */
+    private Map<String, String> resolvePicKeys(PushMessage message, PushConfig config) {
+        Map<String, Object> extras = message.getExtras();
+        if (extras == null || !Boolean.parseBoolean(String.valueOf(extras.get(EXTRA_RESOLVE_PIC_URL)))
+                || message.getArticles() == null) {
+            return Map.of();
+        }
+
+        Map<String, String> resolved = new ConcurrentHashMap<>();
+        Set<String> pending = new LinkedHashSet<>();
+        for (PushMessage.Article article : message.getArticles()) {
+            String picUrl = article.getPicUrl();
+            if (picUrl == null || picUrl.isBlank()) {
+                continue;
+            }
+            String cached = picKeyCache.get(cacheKeyOf(config, picUrl));
+            if (cached != null) {
+                resolved.put(picUrl, cached);
+            } else {
+                pending.add(picUrl);
+            }
+        }
+        Duration remaining = Deadline.remaining();
+        Duration timeout = remaining != null && remaining.compareTo(PIC_RESOLVE_TIMEOUT) < 0
+                ? remaining : PIC_RESOLVE_TIMEOUT;
+        if (pending.isEmpty() || timeout.isZero()) {
+            return resolved;
+        }
+
+        // 下载与上传都是阻塞 IO，每张图一个虚拟线程
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<?>> futures = new ArrayList<>(pending.size());
+            for (String picUrl : pending) {
+                futures.add(executor.submit(() -> {
+                    String key = uploadPic(picUrl, config);
+                    if (key != null) {
+                        resolved.put(picUrl, key);
+                    }
+                }));
+            }
+            long deadline = System.nanoTime() + timeout.toNanos();
+            for (Future<?> future : futures) {
+                try {
+                    future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    // 失败已在 uploadPic 中记录，超时的不再等待
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // 快照：超时后仍在运行的上传不再修改返回结果
+        return Map.copyOf(resolved);
+    }
+
+    private String uploadPic(String picUrl, PushConfig config) {
+        try {
+            HttpTransport.Download download = http().download(picUrl, MAX_PIC_BYTES);
+            MediaResult result = upload(MediaSource.of(ByteBuffer.wrap(download.data()), fileNameOf(picUrl),
+                    download.contentType()), config);
+            if (!result.isSuccess()) {
+                log.warn("Resolve Feishu image_key fail: url={}, error={}", HttpTransport.redact(picUrl), result.getErrorMsg());
+                return null;
+            }
+            picKeyCache.put(cacheKeyOf(config, picUrl), result.getMediaId(), IMAGE_TTL_MILLIS);
+            return result.getMediaId();
+        } catch (Exception e) {
+            log.warn("Resolve Feishu image_key fail: url={}", HttpTransport.redact(picUrl), e);
+            return null;
+        }
     }
 
+    private static String cacheKeyOf(PushConfig config, String picUrl) {
+        return config.getAppKey() + "|" + picUrl;
+    }
 
-    private String getAccessToken(String appId, String appSecret) {
-        String cacheKey = CACHE_KEY_PREFIX + appId;
-        String cachedToken = TokenCache.get(cacheKey);
-        if (cachedToken != null) {
-            return cachedToken;
+    private static String fileNameOf(String picUrl) {
+        String path = URI.create(picUrl).getPath();
+        if (path == null || path.isEmpty() || path.endsWith("/")) {
+            return "image";
         }
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
 
+    private TokenHolder.Grant fetchToken(String appId, String appSecret) {
         Map<String, String> params = new HashMap<>();
         params.put("app_id", appId);
         params.put("app_secret", appSecret);
 
-        String resultJson = HttpUtils.post(AUTH_URL, params);
+        String resultJson = http().post(AUTH_URL, params);
 
         try {
-            JsonNode node = MAPPER.readTree(resultJson);
+            JsonNode node = Json.mapper().readTree(resultJson);
             if (node.path("code").asInt() == 0) {
-                String token = node.path("tenant_access_token").asText();
-                long expireIn = node.path("expire").asLong(7200);
-                TokenCache.set(cacheKey, token, expireIn);
-                return token;
+                return new TokenHolder.Grant(node.path("tenant_access_token").asText(), node.path("expire").asLong(7200));
             } else {
                 throw new RuntimeException("Get Feishu Token Fail: " + resultJson);
             }
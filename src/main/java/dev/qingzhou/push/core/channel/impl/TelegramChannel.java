@@ -0,0 +1,410 @@
+package dev.qingzhou.push.core.channel.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.qingzhou.push.core.api.ChannelIds;
+import dev.qingzhou.push.core.channel.AbstractChannel;
+import dev.qingzhou.push.core.channel.ContentLimit;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.model.enums.MessageType;
+import dev.qingzhou.push.core.utils.Deadline;
+import dev.qingzhou.push.core.utils.Json;
+import dev.qingzhou.push.core.utils.Pacer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Telegram Bot API 通道
+ * <p>
+ * appKey 为 Bot Token，target 为 chat_id。
+ * 内置节拍器：每个 Bot 全局约 30 条/秒、每个会话 1 条/秒，超出速率的消息排队等待而不是直接失败；
+ * 排到的槽位晚于消息截止时间时直接返回过期，不占用槽位。
+ * 收到 429 时按响应中的 retry_after 暂停整个 Bot (flood wait 按 Bot 计算) 后重试。
+ */
+@Slf4j
+public class TelegramChannel extends AbstractChannel {
+
+    private static final String API_URL = "https://api.telegram.org/bot";
+    private static final URI API_ENDPOINT = URI.create("https://api.telegram.org/");
+
+    private static final Duration GLOBAL_INTERVAL = Duration.ofMillis(34);
+    private static final Duration CHAT_INTERVAL = Duration.ofSeconds(1);
+    private static final int MAX_ATTEMPTS = 3;
+
+    // 消息正文上限 4096 字符 (按解析实体后的文本计算)，标题拼接在正文前
+    private static final ContentLimit TEXT_LIMIT = ContentLimit.chars(4096).withTitle();
+
+    // MarkdownV2 需要转义的字符
+    private static final String SPECIAL_CHARS = "_*[]()~`>#+-=|{}.!\\";
+    private static final Pattern LINK = Pattern.compile("\\[([^\\]\\n]+)]\\(([^)\\s]+)\\)");
+    private static final Pattern HEADING = Pattern.compile("#{1,6}\\s+");
+
+    // Bot Token -> 节拍器 (速率限制按 Bot 计算)
+    private final Map<String, Pacer> pacers = new ConcurrentHashMap<>();
+
+    @Override
+    public String type() {
+        return ChannelIds.TELEGRAM;
+    }
+
+    @Override
+    public int weight() {
+        return 100;
+    }
+
+    @Override
+    protected ContentLimit contentLimit(MessageType type, boolean webhook) {
+        return type == MessageType.TEXT || type == MessageType.MARKDOWN ? TEXT_LIMIT : null;
+    }
+
+    @Override
+    protected void checkConfig(PushConfig config) {
+        if (config.getAppKey() == null || config.getAppKey().isBlank()) {
+            throw new IllegalArgumentException("Telegram Bot Token (appKey) cannot be empty");
+        }
+    }
+
+    @Override
+    protected URI apiEndpoint(PushConfig config) {
+        return API_ENDPOINT;
+    }
+
+    @Override
+    protected PushResult doSend(PushMessage message, PushConfig config) throws Exception {
+        ObjectNode body = Json.mapper().createObjectNode();
+        body.put("chat_id", message.getTarget());
+
+        String method;
+        switch (message.getType()) {
+            case MARKDOWN:
+                method = buildMarkdown(body, message);
+                break;
+            case TEXT_CARD:
+                method = buildTextCard(body, message);
+                break;
+            case IMAGE:
+                method = buildPhoto(body, message);
+                break;
+            case NEWS:
+                method = buildNews(body, message);
+                break;
+            case TEXT:
+            default:
+                method = buildText(body, message);
+        }
+
+        String url = API_URL + config.getAppKey() + "/" + method;
+        String jsonBody = Json.mapper().writeValueAsString(body);
+        Pacer pacer = pacers.computeIfAbsent(config.getAppKey(), k -> new Pacer(GLOBAL_INTERVAL, CHAT_INTERVAL));
+
+        String result = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            if (!pacer.acquire(message.getTarget(), Deadline.remaining())) {
+                return PushResult.expired("Telegram send slot is after the message deadline");
+            }
+            result = http().post(url, jsonBody);
+
+            long retryAfter = retryAfterSeconds(result);
+            // 不足以等到重试窗口的消息不再重试，直接返回 429 结果
+            if (retryAfter <= 0 || !Deadline.allows(Duration.ofSeconds(retryAfter))) {
+                break;
+            }
+            // 429：flood wait 作用于整个 Bot，全局与该会话的节拍一并顺延
+            log.warn("Telegram rate limited, chat={}, retry_after={}s, attempt={}", message.getTarget(), retryAfter, attempt);
+            pacer.pause(null, Duration.ofSeconds(retryAfter));
+            pacer.pause(message.getTarget(), Duration.ofSeconds(retryAfter));
+        }
+        return parseResult(result);
+    }
+
+    /**
+     * 成功示例: {"ok":true,"result":{"message_id":42,...}}
+     * 失败示例: {"ok":false,"error_code":400,"description":"Bad Request: chat not found"}
+     */
+    @Override
+    protected PushResult parseResult(String rawJson) {
+        try {
+            JsonNode node = Json.mapper().readTree(rawJson);
+            if (node.path("ok").asBoolean(false)) {
+                return PushResult.success(node.path("result").path("message_id").asText(), rawJson);
+            }
+            return PushResult.failWithCode(node.path("error_code").asText(null), "Telegram Error: " + node.path("description").asText()
+                    + " (code: " + node.path("error_code").asInt() + ")", rawJson);
+        } catch (JsonProcessingException e) {
+            return PushResult.fail("Parse Telegram Response Fail", rawJson);
+        }
+    }
+
+    private static long retryAfterSeconds(String rawJson) {
+        try {
+            JsonNode node = Json.mapper().readTree(rawJson);
+            if (node.path("error_code").asInt() == 429) {
+                return Math.max(1, node.path("parameters").path("retry_after").asLong(1));
+            }
+        } catch (JsonProcessingException ignored) {
+            // 非 JSON 响应交给 parseResult 处理
+        }
+        return 0;
+    }
+
+    // --- Message Builders (返回 Bot API 方法名) ---
+
+    private String buildText(ObjectNode body, PushMessage message) {
+        if (message.getContent() == null) {
+            throw new IllegalArgumentException("Text message content cannot be null");
+        }
+        StringBuilder text = new StringBuilder();
+        if (message.getTitle() != null && !message.getTitle().isBlank()) {
+            text.append(message.getTitle()).append("\n");
+        }
+        text.append(message.getContent());
+        body.put("text", text.toString());
+        return "sendMessage";
+    }
+
+    private String buildMarkdown(ObjectNode body, PushMessage message) {
+        if (message.getContent() == null) {
+            throw new IllegalArgumentException("Markdown content cannot be null");
+        }
+        body.put("text", boldTitle(message.getTitle()) + toMarkdownV2(message.getContent()));
+        body.put("parse_mode", "MarkdownV2");
+        return "sendMessage";
+    }
+
+    private String buildTextCard(ObjectNode body, PushMessage message) {
+        String title = message.getTitle();
+        if (title == null || title.isBlank()) {
+            throw new IllegalArgumentException("TextCard title cannot be blank");
+        }
+        String description = message.getContent();
+        if (description == null || description.isBlank()) {
+            throw new IllegalArgumentException("TextCard description cannot be blank");
+        }
+        Object url = message.getExtras() != null ? message.getExtras().get("url") : null;
+        if (url == null || url.toString().isBlank()) {
+            throw new IllegalArgumentException("TextCard message must have 'url' in extras");
+        }
+        body.put("text", boldTitle(title) + escapeMarkdownV2(description));
+        body.put("parse_mode", "MarkdownV2");
+        addButtonRow(body.putObject("reply_markup").putArray("inline_keyboard"), "详情", url.toString());
+        return "sendMessage";
+    }
+
+    private String buildPhoto(ObjectNode body, PushMessage message) {
+        // photo 可以是 file_id 或公网 URL
+        Object photo = message.getExtras() != null ? message.getExtras().get("media_id") : null;
+        if (photo == null) {
+            throw new IllegalArgumentException("Image message must have 'media_id' in extras (file_id or URL)");
+        }
+        body.put("photo", photo.toString());
+        String caption = message.getTitle() != null ? message.getTitle() : message.getContent();
+        if (caption != null && !caption.isBlank()) {
+            body.put("caption", caption);
+        }
+        return "sendPhoto";
+    }
+
+    /**
+     * 单条带图的图文用 sendPhoto + 按钮；多条则合并为一条文本，每篇文章一个按钮
+     */
+    private String buildNews(ObjectNode body, PushMessage message) {
+        List<PushMessage.Article> articles = message.getArticles();
+        if (articles == null || articles.isEmpty()) {
+            throw new IllegalArgumentException("News message must have at least one article");
+        }
+        ArrayNode keyboard = body.putObject("reply_markup").putArray("inline_keyboard");
+
+        if (articles.size() == 1 && articles.get(0).getPicUrl() != null && !articles.get(0).getPicUrl().isBlank()) {
+            PushMessage.Article article = articles.get(0);
+            body.put("photo", article.getPicUrl());
+            body.put("caption", boldTitle(article.getTitle()) + escapeMarkdownV2(nullToEmpty(article.getDescription())));
+            body.put("parse_mode", "MarkdownV2");
+            addButtonRow(keyboard, "详情", article.getUrl());
+            removeEmptyKeyboard(body, keyboard);
+            return "sendPhoto";
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (PushMessage.Article article : articles) {
+            if (!text.isEmpty()) {
+                text.append("\n\n");
+            }
+            text.append(boldTitle(article.getTitle())).append(escapeMarkdownV2(nullToEmpty(article.getDescription())));
+            addButtonRow(keyboard, article.getTitle() != null ? article.getTitle() : "详情", article.getUrl());
+        }
+        body.put("text", text.toString());
+        body.put("parse_mode", "MarkdownV2");
+        removeEmptyKeyboard(body, keyboard);
+        return "sendMessage";
+    }
+
+    /**
+     * 没有链接的文章不加按钮：url 为 null 时 Telegram 会拒收整条消息
+     */
+    private static void addButtonRow(ArrayNode keyboard, String text, String url) {
+        if (url == null || url.isBlank()) {
+            return;
+        }
+        ObjectNode button = keyboard.addArray().addObject();
+        button.put("text", text);
+        button.put("url", url);
+    }
+
+    private static void removeEmptyKeyboard(ObjectNode body, ArrayNode keyboard) {
+        if (keyboard.isEmpty()) {
+            body.remove("reply_markup");
+        }
+    }
+
+    private static String boldTitle(String title) {
+        if (title == null || title.isBlank()) {
+            return "";
+        }
+        return "*" + escapeMarkdownV2(title) + "*\n";
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    // --- MarkdownV2 ---
+
+    /**
+     * 按 MarkdownV2 规则转义纯文本
+     */
+    public static String escapeMarkdownV2(String text) {
+        StringBuilder out = new StringBuilder(text.length() + 16);
+        appendEscaped(out, text, SPECIAL_CHARS);
+        return out.toString();
+    }
+
+    /**
+     * 把常见 Markdown 写法转换为 MarkdownV2：
+     * 支持 **粗体**、*斜体* / _斜体_、~~删除线~~、`代码`、```代码块```、[链接](url)、# 标题 与 - 列表，
+     * 其余字符全部转义，避免诸如 "CPU 95.5%" 中的 '.' 导致 Telegram 拒收。
+     */
+    public static String toMarkdownV2(String markdown) {
+        StringBuilder out = new StringBuilder(markdown.length() + 32);
+        int i = 0;
+        int n = markdown.length();
+        boolean lineStart = true;
+        while (i < n) {
+            char c = markdown.charAt(i);
+
+            if (lineStart) {
+                lineStart = false;
+                Matcher heading = HEADING.matcher(markdown).region(i, n);
+                if (heading.lookingAt()) {
+                    int end = lineEnd(markdown, heading.end());
+                    out.append('*');
+                    appendEscaped(out, markdown.substring(heading.end(), end), SPECIAL_CHARS);
+                    out.append('*');
+                    i = end;
+                    continue;
+                }
+                if ((c == '-' || c == '*' || c == '+') && i + 1 < n && markdown.charAt(i + 1) == ' ') {
+                    out.append("• ");
+                    i += 2;
+                    continue;
+                }
+            }
+
+            if (markdown.startsWith("```", i)) {
+                int close = markdown.indexOf("```", i + 3);
+                if (close > 0) {
+                    out.append("```");
+                    appendEscaped(out, markdown.substring(i + 3, close), "`\\");
+                    out.append("```");
+                    i = close + 3;
+                    continue;
+                }
+            }
+            if (c == '`') {
+                int close = markdown.indexOf('`', i + 1);
+                if (close > 0) {
+                    out.append('`');
+                    appendEscaped(out, markdown.substring(i + 1, close), "`\\");
+                    out.append('`');
+                    i = close + 1;
+                    continue;
+                }
+            }
+            int next = -1;
+            if (markdown.startsWith("**", i)) {
+                next = inline(markdown, i, "**", '*', out);
+            } else if (markdown.startsWith("~~", i)) {
+                next = inline(markdown, i, "~~", '~', out);
+            } else if (c == '*' || c == '_') {
+                next = inline(markdown, i, String.valueOf(c), '_', out);
+            }
+            if (next > 0) {
+                i = next;
+                continue;
+            }
+            if (c == '[') {
+                Matcher link = LINK.matcher(markdown).region(i, n);
+                if (link.lookingAt()) {
+                    out.append('[');
+                    appendEscaped(out, link.group(1), SPECIAL_CHARS);
+                    out.append("](");
+                    appendEscaped(out, link.group(2), ")\\");
+                    out.append(')');
+                    i = link.end();
+                    continue;
+                }
+            }
+
+            if (c == '\n') {
+                lineStart = true;
+                out.append(c);
+            } else {
+                appendEscaped(out, String.valueOf(c), SPECIAL_CHARS);
+            }
+            i++;
+        }
+        return out.toString();
+    }
+
+    /**
+     * 处理成对的行内标记
+     * @return 成功时返回新的下标；未匹配时返回 -1
+     */
+    private static int inline(String text, int start, String marker, char v2Marker, StringBuilder out) {
+        int from = start + marker.length();
+        int close = text.indexOf(marker, from);
+        int newline = text.indexOf('\n', from);
+        if (close <= from || (newline >= 0 && newline < close)) {
+            return -1;
+        }
+        out.append(v2Marker);
+        appendEscaped(out, text.substring(from, close), SPECIAL_CHARS);
+        out.append(v2Marker);
+        return close + marker.length();
+    }
+
+    private static int lineEnd(String text, int from) {
+        int end = text.indexOf('\n', from);
+        return end < 0 ? text.length() : end;
+    }
+
+    private static void appendEscaped(StringBuilder out, String text, String specials) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (specials.indexOf(c) >= 0) {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+    }
+}
@@ -2,25 +2,77 @@ package dev.qingzhou.push.core.channel.impl;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.qingzhou.push.core.api.IMediaChannel;
+import dev.qingzhou.push.core.api.IRecipientChannel;
 import dev.qingzhou.push.core.channel.AbstractChannel;
+import dev.qingzhou.push.core.channel.ContentLimit;
+import dev.qingzhou.push.core.model.MediaResult;
+import dev.qingzhou.push.core.model.MediaSource;
 import dev.qingzhou.push.core.model.PushConfig;
 import dev.qingzhou.push.core.model.PushMessage;
 import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.model.enums.MessageType;
 import dev.qingzhou.push.core.api.ChannelIds;
-import dev.qingzhou.push.core.utils.HttpUtils;
-import dev.qingzhou.push.core.utils.TokenCache;
-
+import dev.qingzhou.push.core.utils.Deadline;
+import dev.qingzhou.push.core.utils.Json;
+import dev.qingzhou.push.core.utils.LogThrottle;
+import dev.qingzhou.push.core.utils.MultipartBody;
+import dev.qingzhou.push.core.utils.SlidingWindowLimiter;
+import dev.qingzhou.push.core.utils.TokenHolder;
+import dev.qingzhou.push.core.utils.TokenStore;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-public class WecomChannel extends AbstractChannel {
+@Slf4j
+public class WecomChannel extends AbstractChannel implements IMediaChannel, IRecipientChannel {
 
     private static final String API_URL = "https://qyapi.weixin.qq.com/cgi-bin/message/send?access_token=";
+    private static final String MEDIA_UPLOAD_URL = "https://qyapi.weixin.qq.com/cgi-bin/media/upload?access_token=";
+    private static final String USER_ID_BY_MOBILE_URL = "https://qyapi.weixin.qq.com/cgi-bin/user/getuserid?access_token=";
+    private static final String USER_ID_BY_EMAIL_URL = "https://qyapi.weixin.qq.com/cgi-bin/user/get_userid_by_email?access_token=";
+
+    // 成员不存在、手机号不合法，视为查无此人
+    private static final Set<Integer> USER_NOT_FOUND_CODES = Set.of(46004, 60103);
+
+    // access_token 无效、已过期
+    private static final Set<String> TOKEN_REJECTED_CODES = Set.of("40014", "42001");
+
+    // 临时素材有效期 3 天，预留 1 小时余量
+    // 一组联系方式逐个查询的总等待上限，受调用方 Deadline 进一步收紧
+    private static final Duration LOOKUP_TIMEOUT = Duration.ofSeconds(15);
+
+    private static final long MEDIA_TTL_MILLIS = Duration.ofDays(3).minusHours(1).toMillis();
 
-    // 优化1: 全局复用 ObjectMapper (线程安全且性能更好)
-    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // 群机器人图片最大 2MB
+    private static final long ROBOT_IMAGE_MAX_BYTES = 2L * 1024 * 1024;
+
+    // 正文长度上限 (UTF-8 字节)：文本 2048；Markdown 应用消息 2048、群机器人 4096；文本卡片描述 512
+    private static final ContentLimit TEXT_LIMIT = ContentLimit.bytes(2048).withTitle();
+    private static final ContentLimit APP_MARKDOWN_LIMIT = ContentLimit.bytes(2048);
+    private static final ContentLimit ROBOT_MARKDOWN_LIMIT = ContentLimit.bytes(4096);
+    private static final ContentLimit TEXT_CARD_LIMIT = ContentLimit.bytes(512);
+
+    // 群机器人每个 webhook 每分钟最多 20 条
+    private final SlidingWindowLimiter robotLimiter = new SlidingWindowLimiter(20, Duration.ofMinutes(1));
 
     @Override
     public String type() {
@@ -32,6 +84,25 @@ public class WecomChannel extends AbstractChannel {
         return 100;
     }
 
+    @Override
+    protected boolean supportsWebhook() {
+        return true;
+    }
+
+    @Override
+    protected ContentLimit contentLimit(MessageType type, boolean webhook) {
+        switch (type) {
+            case TEXT:
+                return TEXT_LIMIT;
+            case MARKDOWN:
+                return webhook ? ROBOT_MARKDOWN_LIMIT : APP_MARKDOWN_LIMIT;
+            case TEXT_CARD:
+                return webhook ? null : TEXT_CARD_LIMIT;
+            default:
+                return null;
+        }
+    }
+
     @Override
     protected void checkConfig(PushConfig config) {
         if (config.getAppKey() == null || config.getAppKey().isBlank()) {
@@ -47,37 +118,300 @@ public class WecomChannel extends AbstractChannel {
 
     @Override
     protected PushResult doSend(PushMessage message, PushConfig config) throws Exception {
-        String token = getAccessToken(config.getAppKey(), config.getAppSecret());
+        return wecomSession(config).deliver(message);
+    }
 
-        // 1. 公共参数
-        Map<String, Object> body = new HashMap<>();
-        body.put("touser", message.getTarget());
-        body.put("agentid", config.getAgentId());
+    @Override
+    protected BoundSession createSession(PushConfig config) {
+        return new WecomSession(config);
+    }
+
+    private WecomSession wecomSession(PushConfig config) {
+        return (WecomSession) appSession(config);
+    }
+
+    /**
+     * 应用消息会话：token 缓存 Key 在绑定时哈希一次 (不含明文 secret)，
+     * 发送地址随 token 刷新预先构建，发送时直接复用
+     */
+    private final class WecomSession extends BoundSession {
+
+        private final TokenHolder<Access> access;
+
+        private WecomSession(PushConfig config) {
+            super(config);
+            String corpId = config.getAppKey();
+            String secret = config.getAppSecret();
+            this.access = new TokenHolder<>(tokens(), TokenStore.key(CACHE_KEY_PREFIX, corpId, secret),
+                    () -> fetchToken(corpId, secret),
+                    token -> new Access(token, URI.create(API_URL + token)));
+        }
+
+        @Override
+        protected PushResult deliver(PushMessage message) {
+            return post(buildBody(message));
+        }
+
+        @Override
+        protected String templateBody(PushMessage message) throws JsonProcessingException {
+            return Json.mapper().writeValueAsString(buildBody(message));
+        }
+
+        @Override
+        protected PushResult sendBody(PushMessage shape, String body) {
+            return post(body);
+        }
+
+        /**
+         * token 被平台判定无效时作废并重新申请，重发一次 (该请求未被平台接收)
+         */
+        private PushResult post(Object body) {
+            Access used = access.get();
+            PushResult result = parseResult(http().post(used.sendUri(), body, null));
+            if (tokenRejected(result.getErrorCode())) {
+                access.invalidate(used);
+                result = parseResult(http().post(access.get().sendUri(), body, null));
+            }
+            return result;
+        }
+
+        // 请求体中含 agentid
+        @Override
+        protected String templateScope() {
+            return "app|" + config.getAgentId();
+        }
+
+        private Map<String, Object> buildBody(PushMessage message) {
+            // 1. 公共参数
+            Map<String, Object> body = new HashMap<>();
+            body.put("touser", message.getTarget());
+            body.put("agentid", config.getAgentId());
+
+            // 2. 根据类型组装不同的 body
+            switch (message.getType()) {
+                case TEXT:
+                    buildText(body, message);
+                    break;
+                case MARKDOWN:
+                    buildMarkdown(body, message);
+                    break;
+                case TEXT_CARD:
+                    buildTextCard(body, message);
+                    break;
+                case IMAGE:
+                    buildImage(body, message);
+                    break;
+                case NEWS:
+                    buildNews(body, message);
+                    break;
+                default:
+                    buildText(body, message);
+            }
+            return body;
+        }
+
+        /**
+         * 获取 token，同时建立到 qyapi 的连接
+         */
+        @Override
+        protected void prepare() {
+            access.get();
+        }
+
+        private Access access() {
+            return access.get();
+        }
+
+        private void invalidate(Access used) {
+            access.invalidate(used);
+        }
+    }
+
+    private record Access(String token, URI sendUri) {
+    }
+
+    /**
+     * 群机器人模式：直接 POST 到 webhookUrl，无需 access_token
+     * target 为逗号分隔的 userid (或 @all)，仅文本消息会 @ 对应成员
+     */
+    @Override
+    protected PushResult doSendWebhook(PushMessage message, PushConfig config) throws Exception {
+        Map<String, Object> body = robotBody(message);
+
+        // 消息组装成功后再占用名额，避免非法消息消耗配额
+        long retryAfter = robotLimiter.tryAcquire(config.getWebhookUrl());
+        if (retryAfter > 0) {
+            return robotRateLimited(retryAfter);
+        }
+        String result = http().post(config.getWebhookUrl(), body);
+        return parseResult(result);
+    }
+
+    /**
+     * 文本消息按 target 生成 @ 列表，图片消息读取本地文件，这两类不预编译
+     */
+    @Override
+    protected String webhookTemplateBody(PushMessage message, PushConfig config) throws Exception {
+        if (message.getType() == MessageType.TEXT || message.getType() == MessageType.IMAGE) {
+            return null;
+        }
+        return Json.mapper().writeValueAsString(robotBody(message));
+    }
+
+    @Override
+    protected PushResult sendWebhookBody(String body, PushConfig config) {
+        long retryAfter = robotLimiter.tryAcquire(config.getWebhookUrl());
+        if (retryAfter > 0) {
+            return robotRateLimited(retryAfter);
+        }
+        return parseResult(http().post(config.getWebhookUrl(), body));
+    }
+
+    private PushResult robotRateLimited(long retryAfter) {
+        return PushResult.fail("WeCom robot rate limited (" + robotLimiter.getPermits()
+                + " msg/min), retry after " + retryAfter + "ms");
+    }
 
-        // 2. 根据类型组装不同的 body
+    private Map<String, Object> robotBody(PushMessage message) throws IOException {
+        Map<String, Object> body = new HashMap<>();
         switch (message.getType()) {
             case TEXT:
-                buildText(body, message);
+                buildRobotText(body, message);
                 break;
             case MARKDOWN:
                 buildMarkdown(body, message);
                 break;
             case TEXT_CARD:
-                buildTextCard(body, message);
+                buildRobotTextCard(body, message);
                 break;
             case IMAGE:
-                buildImage(body, message);
+                buildRobotImage(body, message);
                 break;
             case NEWS:
-                buildNews(body,message);
+                buildNews(body, message);
                 break;
             default:
-                buildText(body, message);
+                buildRobotText(body, message);
         }
+        return body;
+    }
 
-        // 3. 发送 (代码不变)
-        String result = HttpUtils.post(API_URL + token, body);
-        return parseResult(result);
+    /**
+     * 上传临时素材，返回 media_id (有效期 3 天)
+     * 相同内容在有效期内只上传一次
+     */
+    @Override
+    public MediaResult upload(MediaSource source, PushConfig config) {
+        if (config == null) {
+            return MediaResult.fail("Config cannot be null");
+        }
+        if (config.getAppKey() == null || config.getAppKey().isBlank()
+                || config.getAppSecret() == null || config.getAppSecret().isBlank()) {
+            return MediaResult.fail("WeCom CorpId (appKey) and Secret cannot be empty");
+        }
+        return uploadCached(config.getAppKey(), source, MEDIA_TTL_MILLIS, media -> doUpload(media, wecomSession(config)));
+    }
+
+    private MediaResult doUpload(MediaSource source, WecomSession session) {
+        Access access = session.access();
+        String token = access.token();
+        // 图片走 image 类型，其余按普通文件上传
+        String mediaType = source.getContentType().startsWith("image/") ? "image" : "file";
+
+        MultipartBody multipart = new MultipartBody().file("media", source, true);
+        String result = http().postMultipart(MEDIA_UPLOAD_URL + token + "&type=" + mediaType, multipart, null);
+        try {
+            JsonNode node = Json.mapper().readTree(result);
+            if (node.path("errcode").asInt() == 0 && node.hasNonNull("media_id")) {
+                return MediaResult.success(node.get("media_id").asText(), result);
+            }
+            if (tokenRejected(node.path("errcode").asText())) {
+                session.invalidate(access);
+            }
+            String errorMsg = node.has("errmsg") ? node.get("errmsg").asText() : result;
+            return MediaResult.fail("WeCom Upload Error: " + errorMsg, result);
+        } catch (JsonProcessingException e) {
+            return MediaResult.fail("Parse Upload Response Fail", result);
+        }
+    }
+
+    /**
+     * 按手机号 (getuserid) 或企业邮箱 (get_userid_by_email) 查询 userid
+     * 企业微信没有批量接口，每个联系方式一个请求，在虚拟线程上并发执行，并发度由传输层的端点限流约束；
+     * 总等待不超过 15 秒与当前 Deadline，届时仍未返回的联系方式按失败处理 (结果中缺少)
+     */
+    @Override
+    public Map<String, String> lookupUserIds(List<String> contacts, PushConfig config) {
+        if (config == null || config.getAppKey() == null || config.getAppKey().isBlank()
+                || config.getAppSecret() == null || config.getAppSecret().isBlank()) {
+            throw new IllegalArgumentException("WeCom CorpId (appKey) and Secret cannot be empty");
+        }
+        long deadline = System.nanoTime() + Deadline.cap(LOOKUP_TIMEOUT).toNanos();
+        WecomSession session = wecomSession(config);
+        Access access = session.access();
+        List<Future<String>> futures = new ArrayList<>(contacts.size());
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        Map<String, String> userIds = new LinkedHashMap<>();
+        int timedOut = 0;
+        try {
+            for (String contact : contacts) {
+                futures.add(executor.submit(() -> lookupUserId(contact, session, access)));
+            }
+            for (int i = 0; i < contacts.size(); i++) {
+                try {
+                    userIds.put(contacts.get(i), futures.get(i).get(Math.max(0, deadline - System.nanoTime()),
+                            TimeUnit.NANOSECONDS));
+                } catch (ExecutionException e) {
+                    // 单个失败不影响其他联系方式，结果中缺少即为失败
+                    LogThrottle.shared().error(log, type() + ":lookup", e.getCause(), "WeCom Lookup Error");
+                } catch (TimeoutException e) {
+                    timedOut++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } finally {
+            // 超时未完成的查询不再等待，也不等待线程退出
+            executor.shutdownNow();
+        }
+        if (timedOut > 0) {
+            LogThrottle.shared().warn(log, type() + ":lookup-timeout", "WeCom Lookup timed out: {} of {} contacts",
+                    timedOut, contacts.size());
+        }
+        return userIds;
+    }
+
+    /**
+     * @return userid，成员不存在时返回 null
+     */
+    private String lookupUserId(String contact, WecomSession session, Access access) {
+        String token = access.token();
+        boolean email = contact.indexOf('@') >= 0;
+        String result = email
+                ? http().post(USER_ID_BY_EMAIL_URL + token, Map.of("email", contact))
+                : http().post(USER_ID_BY_MOBILE_URL + token, Map.of("mobile", contact));
+        JsonNode node;
+        try {
+            node = Json.mapper().readTree(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Parse WeCom Lookup Response Fail", e);
+        }
+        int errcode = node.path("errcode").asInt();
+        if (errcode == 0 && node.hasNonNull("userid")) {
+            return node.get("userid").asText();
+        }
+        if (USER_NOT_FOUND_CODES.contains(errcode)) {
+            return null;
+        }
+        if (tokenRejected(String.valueOf(errcode))) {
+            session.invalidate(access);
+        }
+        throw new IllegalStateException("WeCom Lookup Error: " + node.path("errmsg").asText() + " (errcode: " + errcode + ")");
+    }
+
+    private static boolean tokenRejected(String errcode) {
+        return errcode != null && TOKEN_REJECTED_CODES.contains(errcode);
     }
 
     /**
@@ -89,7 +423,7 @@ public class WecomChannel extends AbstractChannel {
 
     protected PushResult parseResult(String rawJson) {
         try {
-            JsonNode node = MAPPER.readTree(rawJson);
+            JsonNode node = Json.mapper().readTree(rawJson);
 
             // 企微成功的标志：errcode 存在且为 0
             if (node.path("errcode").asInt() == 0) {
@@ -98,7 +432,7 @@ public class WecomChannel extends AbstractChannel {
                 // 失败情况
                 // 优先取 errmsg，如果没有则返回 rawJson
                 String errorMsg = node.has("errmsg") ? node.get("errmsg").asText() : rawJson;
-                return PushResult.fail("WeCom Error: " + errorMsg, rawJson);
+                return PushResult.failWithCode(node.path("errcode").asText(), "WeCom Error: " + errorMsg, rawJson);
             }
         } catch (JsonProcessingException e) {
             // 如果解析 JSON 报错（比如网络层返回了 502 HTML），直接认定为失败
@@ -176,6 +510,66 @@ public class WecomChannel extends AbstractChannel {
         body.put("image", Map.of("media_id", mediaId.toString()));
     }
 
+    private void buildRobotText(Map<String, Object> body, PushMessage message) {
+        buildText(body, message);
+        String target = message.getTarget();
+        if (target == null || target.isBlank()) {
+            return;
+        }
+        List<String> mentioned = new ArrayList<>();
+        for (String userId : target.split(",")) {
+            if (!userId.isBlank()) {
+                mentioned.add(userId.trim());
+            }
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> text = new HashMap<>((Map<String, Object>) body.get("text"));
+        text.put("mentioned_list", mentioned);
+        body.put("text", text);
+    }
+
+    /**
+     * 群机器人没有 textcard，使用模板卡片 (文本通知型)
+     */
+    private void buildRobotTextCard(Map<String, Object> body, PushMessage message) {
+        buildTextCard(body, message);
+        @SuppressWarnings("unchecked")
+        Map<String, String> card = (Map<String, String>) body.remove("textcard");
+
+        Map<String, Object> templateCard = new HashMap<>();
+        templateCard.put("card_type", "text_notice");
+        templateCard.put("main_title", Map.of("title", card.get("title")));
+        templateCard.put("sub_title_text", card.get("description"));
+        templateCard.put("card_action", Map.of("type", 1, "url", card.get("url")));
+        body.put("msgtype", "template_card");
+        body.put("template_card", templateCard);
+    }
+
+    /**
+     * 群机器人图片不支持 media_id，需要图片内容的 base64 与 md5
+     * extras: image_path (本地文件)，或 image_base64 + image_md5
+     */
+    private void buildRobotImage(Map<String, Object> body, PushMessage message) throws IOException {
+        body.put("msgtype", "image");
+        Map<String, Object> extras = message.getExtras();
+        Object imagePath = extras != null ? extras.get("image_path") : null;
+        if (imagePath != null) {
+            Path path = imagePath instanceof Path p ? p : Path.of(imagePath.toString());
+            if (Files.size(path) > ROBOT_IMAGE_MAX_BYTES) {
+                throw new IllegalArgumentException("WeCom robot image cannot exceed 2MB");
+            }
+            byte[] data = Files.readAllBytes(path);
+            body.put("image", Map.of("base64", Base64.encodeBase64String(data), "md5", DigestUtils.md5Hex(data)));
+            return;
+        }
+        Object base64 = extras != null ? extras.get("image_base64") : null;
+        Object md5 = extras != null ? extras.get("image_md5") : null;
+        if (base64 == null || md5 == null) {
+            throw new IllegalArgumentException("WeCom robot image message must have 'image_path' or 'image_base64'/'image_md5' in extras");
+        }
+        body.put("image", Map.of("base64", base64.toString(), "md5", md5.toString()));
+    }
+
     /**
      * 构建图文消息 (news)
      * 结构: { "msgtype": "news", "news": { "articles": [ ... ] } }
@@ -210,37 +604,20 @@ public class WecomChannel extends AbstractChannel {
     // 定义一个缓存 Key 的前缀，避免混淆
     private static final String CACHE_KEY_PREFIX = "wecom_token_";
 
-    private String getAccessToken(String corpId, String secret) {
-        // 1. 生成唯一 Key (企业ID + Secret 才能确定一个 Token)
-        String cacheKey = CACHE_KEY_PREFIX + corpId + "_" + secret;
-
-        // 2. 先查缓存
-        String cachedToken = TokenCache.get(cacheKey);
-        if (cachedToken != null) {
-            return cachedToken; // 命中缓存，直接返回！速度起飞！
-        }
-
-        // ---------------- 以下是未命中的逻辑 ----------------
-
+    private TokenHolder.Grant fetchToken(String corpId, String secret) {
         String baseUrl = "https://qyapi.weixin.qq.com/cgi-bin/gettoken";
         Map<String, Object> params = Map.of(
                 "corpid", corpId,
                 "corpsecret", secret
         );
 
-        String resultJson = HttpUtils.get(baseUrl, params);
+        String resultJson = http().get(baseUrl, params);
 
         try {
-            JsonNode node = MAPPER.readTree(resultJson);
+            JsonNode node = Json.mapper().readTree(resultJson);
             if (node.has("access_token")) {
-                String token = node.get("access_token").asText();
                 // 官方返回的有效期，通常是 7200 (秒)
-                long expiresIn = node.path("expires_in").asLong(7200);
-
-                // 3. 存入缓存 (重要！)
-                TokenCache.set(cacheKey, token, expiresIn);
-
-                return token;
+                return new TokenHolder.Grant(node.get("access_token").asText(), node.path("expires_in").asLong(7200));
             } else {
                 throw new RuntimeException("Get WeCom Token Fail: " + resultJson);
             }
@@ -0,0 +1,189 @@
+package dev.qingzhou.push.core.channel.impl.smtp;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 极简 Markdown -> HTML 渲染 (只覆盖通知场景的常用语法)
+ * <p>
+ * 支持：# 标题、段落、**粗体**、*斜体*、~~删除线~~、`代码`、```代码块```、[链接](url)、
+ * 无序/有序列表、&gt; 引用、--- 分隔线。所有文本先做 HTML 转义。
+ */
+public final class MarkdownHtml {
+
+    private static final Pattern HEADING = Pattern.compile("^(#{1,6})\\s+(.*)$");
+    private static final Pattern ORDERED = Pattern.compile("^\\d+[.)]\\s+(.*)$");
+    private static final Pattern UNORDERED = Pattern.compile("^[-*+]\\s+(.*)$");
+    private static final Pattern HR = Pattern.compile("^(-{3,}|\\*{3,}|_{3,})$");
+
+    private static final Pattern CODE = Pattern.compile("`([^`]+)`");
+    // 只渲染 http(s)/mailto 链接，避免 javascript: 之类的地址
+    private static final Pattern LINK = Pattern.compile("\\[([^\\]]+)]\\(((?:https?://|mailto:)[^)\\s]+)\\)");
+    private static final Pattern BOLD = Pattern.compile("\\*\\*(.+?)\\*\\*");
+    private static final Pattern ITALIC = Pattern.compile("(?<![*\\w])[*_](?!\\s)(.+?)(?<!\\s)[*_](?![*\\w])");
+    private static final Pattern STRIKE = Pattern.compile("~~(.+?)~~");
+
+    private MarkdownHtml() {
+    }
+
+    public static String render(String markdown) {
+        StringBuilder html = new StringBuilder(markdown.length() * 2);
+        String[] lines = markdown.replace("\r\n", "\n").split("\n", -1);
+
+        String list = null;          // 当前列表标签 ul / ol
+        boolean paragraph = false;
+        boolean quote = false;
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            String trimmed = line.trim();
+
+            if (trimmed.startsWith("```")) {
+                list = closeList(html, list);
+                paragraph = closeParagraph(html, paragraph);
+                quote = closeQuote(html, quote);
+                html.append("<pre><code>");
+                int j = i + 1;
+                while (j < lines.length && !lines[j].trim().startsWith("```")) {
+                    html.append(escape(lines[j])).append('\n');
+                    j++;
+                }
+                html.append("</code></pre>\n");
+                i = j;
+                continue;
+            }
+
+            if (trimmed.isEmpty()) {
+                list = closeList(html, list);
+                paragraph = closeParagraph(html, paragraph);
+                quote = closeQuote(html, quote);
+                continue;
+            }
+
+            Matcher m;
+            if ((m = HEADING.matcher(trimmed)).matches()) {
+                list = closeList(html, list);
+                paragraph = closeParagraph(html, paragraph);
+                quote = closeQuote(html, quote);
+                int level = m.group(1).length();
+                html.append("<h").append(level).append('>').append(inline(m.group(2)))
+                        .append("</h").append(level).append(">\n");
+            } else if (HR.matcher(trimmed).matches()) {
+                list = closeList(html, list);
+                paragraph = closeParagraph(html, paragraph);
+                quote = closeQuote(html, quote);
+                html.append("<hr/>\n");
+            } else if ((m = UNORDERED.matcher(trimmed)).matches() || ORDERED.matcher(trimmed).matches()) {
+                String tag = UNORDERED.matcher(trimmed).matches() ? "ul" : "ol";
+                if (!tag.equals(list)) {
+                    list = closeList(html, list);
+                    paragraph = closeParagraph(html, paragraph);
+                    html.append('<').append(tag).append(">\n");
+                    list = tag;
+                }
+                Matcher item = "ul".equals(tag) ? m : ORDERED.matcher(trimmed);
+                item.matches();
+                html.append("<li>").append(inline(item.group(1))).append("</li>\n");
+            } else if (trimmed.startsWith(">")) {
+                list = closeList(html, list);
+                paragraph = closeParagraph(html, paragraph);
+                if (!quote) {
+                    html.append("<blockquote>");
+                    quote = true;
+                } else {
+                    html.append("<br/>");
+                }
+                html.append(inline(trimmed.substring(1).trim()));
+            } else {
+                list = closeList(html, list);
+                quote = closeQuote(html, quote);
+                if (!paragraph) {
+                    html.append("<p>");
+                    paragraph = true;
+                } else {
+                    html.append("<br/>");
+                }
+                html.append(inline(trimmed));
+            }
+        }
+        closeList(html, list);
+        closeParagraph(html, paragraph);
+        closeQuote(html, quote);
+        return html.toString();
+    }
+
+    /**
+     * 纯文本转 HTML：转义并保留换行
+     */
+    public static String text(String text) {
+        return escape(text).replace("\n", "<br/>");
+    }
+
+    public static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static String inline(String text) {
+        String escaped = escape(text);
+        // 代码片段内不再做其他替换：先抽出占位
+        StringBuilder codes = new StringBuilder();
+        Matcher code = CODE.matcher(escaped);
+        StringBuilder sb = new StringBuilder();
+        int index = 0;
+        while (code.find()) {
+            code.appendReplacement(sb, "\u0000" + index++ + "\u0000");
+            codes.append(code.group(1)).append('\u0001');
+        }
+        code.appendTail(sb);
+        String result = sb.toString();
+
+        result = LINK.matcher(result).replaceAll("<a href=\"$2\">$1</a>");
+        result = BOLD.matcher(result).replaceAll("<strong>$1</strong>");
+        result = STRIKE.matcher(result).replaceAll("<del>$1</del>");
+        result = ITALIC.matcher(result).replaceAll("<em>$1</em>");
+
+        if (index > 0) {
+            String[] parts = codes.toString().split("\u0001", -1);
+            for (int i = 0; i < index; i++) {
+                result = result.replace("\u0000" + i + "\u0000", "<code>" + parts[i] + "</code>");
+            }
+        }
+        return result;
+    }
+
+    private static String closeList(StringBuilder html, String list) {
+        if (list != null) {
+            html.append("</").append(list).append(">\n");
+        }
+        return null;
+    }
+
+    private static boolean closeParagraph(StringBuilder html, boolean paragraph) {
+        if (paragraph) {
+            html.append("</p>\n");
+        }
+        return false;
+    }
+
+    private static boolean closeQuote(StringBuilder html, boolean quote) {
+        if (quote) {
+            html.append("</blockquote>\n");
+        }
+        return false;
+    }
+}
@@ -0,0 +1,101 @@
+package dev.qingzhou.push.core.channel.impl.smtp;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 生成最小可用的 MIME 邮件
+ * <p>
+ * 正文统一使用 UTF-8 + base64 (76 列换行)，无需关心行长与点号转义；
+ * 同时提供 HTML 时输出 multipart/alternative，纯文本作为备选。
+ */
+public final class MimeWriter {
+
+    private static final Base64.Encoder MIME_BASE64 =
+            Base64.getMimeEncoder(76, new byte[]{'\r', '\n'});
+
+    private MimeWriter() {
+    }
+
+    /**
+     * @param messageId 不含尖括号的 Message-ID
+     * @param html 可为 null，表示纯文本邮件
+     */
+    public static byte[] write(String messageId, String from, List<String> to, String subject,
+                               String text, String html) {
+        StringBuilder head = new StringBuilder(512);
+        header(head, "From", "<" + from + ">");
+        header(head, "To", String.join(", ", to));
+        header(head, "Subject", encodeWord(subject));
+        header(head, "Date", ZonedDateTime.now().format(DateTimeFormatter.RFC_1123_DATE_TIME));
+        header(head, "Message-ID", "<" + messageId + ">");
+        header(head, "MIME-Version", "1.0");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024 + (text.length() + (html != null ? html.length() : 0)) * 2);
+        if (html == null) {
+            header(head, "Content-Type", "text/plain; charset=UTF-8");
+            header(head, "Content-Transfer-Encoding", "base64");
+            head.append("\r\n");
+            writeAscii(out, head);
+            writeBody(out, text);
+            return out.toByteArray();
+        }
+
+        String boundary = "=_pushcore_" + UUID.randomUUID().toString().replace("-", "");
+        header(head, "Content-Type", "multipart/alternative; boundary=\"" + boundary + "\"");
+        head.append("\r\n");
+        writeAscii(out, head);
+
+        writePart(out, boundary, "text/plain; charset=UTF-8", text);
+        writePart(out, boundary, "text/html; charset=UTF-8", html);
+        writeAscii(out, "--" + boundary + "--\r\n");
+        return out.toByteArray();
+    }
+
+    /**
+     * RFC 2047 编码 (仅在含非 ASCII 字符时)
+     */
+    static String encodeWord(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean ascii = true;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c > 126 || c < 32) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii) {
+            return value;
+        }
+        return "=?UTF-8?B?" + Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8)) + "?=";
+    }
+
+    private static void writePart(ByteArrayOutputStream out, String boundary, String contentType, String body) {
+        writeAscii(out, "--" + boundary + "\r\n"
+                + "Content-Type: " + contentType + "\r\n"
+                + "Content-Transfer-Encoding: base64\r\n\r\n");
+        writeBody(out, body);
+    }
+
+    private static void writeBody(ByteArrayOutputStream out, String body) {
+        out.writeBytes(MIME_BASE64.encode(body.getBytes(StandardCharsets.UTF_8)));
+        writeAscii(out, "\r\n");
+    }
+
+    private static void header(StringBuilder head, String name, String value) {
+        // 去掉换行，防止头部注入
+        head.append(name).append(": ").append(value.replace('\r', ' ').replace('\n', ' ')).append("\r\n");
+    }
+
+    private static void writeAscii(ByteArrayOutputStream out, CharSequence text) {
+        out.writeBytes(text.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,453 @@
+package dev.qingzhou.push.core.channel.impl.smtp;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一条已认证的 SMTP 会话，可连续投递多封邮件
+ * <p>
+ * 服务器声明 PIPELINING 时，MAIL FROM / RCPT TO / DATA 一次性写出再统一读取应答，
+ * 每封邮件只需两次往返。非线程安全，由 {@link SmtpPool} 保证同一时刻只有一个使用者。
+ */
+@Slf4j
+public class SmtpConnection implements Closeable {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    // EHLO 使用的本机名，解析一次即可
+    private static volatile String localName;
+
+    private final SmtpServer server;
+    private final int timeoutMillis;
+
+    private Socket socket;
+    private InputStream in;
+    private OutputStream out;
+    private final Set<String> extensions = new HashSet<>();
+
+    private final long createdAt = System.currentTimeMillis();
+    private long lastUsedAt = createdAt;
+    private int delivered;
+    private boolean broken;
+
+    private final SSLSocketFactory tlsFactory;
+
+    SmtpConnection(SmtpServer server, int timeoutMillis) {
+        this(server, timeoutMillis, (SSLSocketFactory) SSLSocketFactory.getDefault());
+    }
+
+    /**
+     * @param tlsFactory SMTPS / STARTTLS 使用的 TLS 工厂 (测试中信任自签名证书)
+     */
+    SmtpConnection(SmtpServer server, int timeoutMillis, SSLSocketFactory tlsFactory) {
+        this.server = server;
+        this.timeoutMillis = timeoutMillis;
+        this.tlsFactory = tlsFactory;
+    }
+
+    /**
+     * 校验信封地址 (MAIL FROM / RCPT TO 的 addr-spec)
+     * 地址原样写入命令行，含 CR / LF 会被解析成额外的 SMTP 命令，含尖括号会提前闭合路径
+     * @throws IllegalArgumentException 地址为空、含控制字符、空白、尖括号，或不是 local@domain 形式
+     */
+    public static String checkAddress(String address) {
+        if (address == null || address.isEmpty()) {
+            throw new IllegalArgumentException("Email address cannot be empty");
+        }
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            if (c <= ' ' || c == 0x7f || c == '<' || c == '>') {
+                throw new IllegalArgumentException("Illegal character in email address: " + printable(address));
+            }
+        }
+        int at = address.lastIndexOf('@');
+        if (at <= 0 || at == address.length() - 1) {
+            throw new IllegalArgumentException("Invalid email address: " + printable(address));
+        }
+        return address;
+    }
+
+    private static String printable(String address) {
+        return address.replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    /**
+     * 建立连接、协商 TLS 并完成认证
+     */
+    void open(String username, String password) throws IOException {
+        try {
+            if (server.security() == SmtpServer.Security.SMTPS) {
+                socket = tlsSocket(null);
+            } else {
+                socket = new Socket();
+                socket.connect(new InetSocketAddress(server.host(), server.port()), timeoutMillis);
+            }
+            socket.setSoTimeout(timeoutMillis);
+            bindStreams();
+
+            expect(readReply(), 220);
+            ehlo();
+
+            if (server.security() == SmtpServer.Security.STARTTLS) {
+                if (!extensions.contains("STARTTLS")) {
+                    throw new IOException("SMTP server does not support STARTTLS: " + server.host());
+                }
+                command("STARTTLS", 220);
+                socket = tlsSocket(socket);
+                socket.setSoTimeout(timeoutMillis);
+                bindStreams();
+                // TLS 之后必须重新 EHLO，扩展列表可能变化
+                ehlo();
+            }
+
+            if (username != null && !username.isBlank()) {
+                authenticate(username, password != null ? password : "");
+            }
+        } catch (IOException | RuntimeException e) {
+            closeQuietly();
+            throw e;
+        }
+    }
+
+    /**
+     * 投递一封邮件
+     * @param mime 已编码的完整 MIME 内容 (CRLF 换行)
+     * @return 服务器对 DATA 结束的应答与被拒绝的收件人；全部收件人被拒绝时抛出 {@link SmtpException}
+     */
+    SmtpDelivery send(String from, List<String> recipients, byte[] mime) throws IOException {
+        // 写出任何命令之前校验，非法地址不影响连接状态
+        checkAddress(from);
+        recipients.forEach(SmtpConnection::checkAddress);
+        lastUsedAt = System.currentTimeMillis();
+        try {
+            SmtpDelivery delivery = supportsPipelining()
+                    ? sendPipelined(from, recipients, mime) : sendLockstep(from, recipients, mime);
+            delivered++;
+            return delivery;
+        } catch (SmtpException e) {
+            // 协议层错误：清理事务状态，连接仍可复用
+            reset();
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            broken = true;
+            throw e;
+        }
+    }
+
+    private SmtpDelivery sendPipelined(String from, List<String> recipients, byte[] mime) throws IOException {
+        writeLine("MAIL FROM:<" + from + ">");
+        for (String rcpt : recipients) {
+            writeLine("RCPT TO:<" + rcpt + ">");
+        }
+        writeLine("DATA");
+        out.flush();
+
+        Reply mail = readReply();
+        int accepted = 0;
+        Reply firstRejected = null;
+        Map<String, String> rejected = new LinkedHashMap<>();
+        for (String recipient : recipients) {
+            Reply rcpt = readReply();
+            if (rcpt.code == 250 || rcpt.code == 251) {
+                accepted++;
+            } else {
+                rejected.put(recipient, rcpt.code + " " + rcpt.text);
+                if (firstRejected == null) {
+                    firstRejected = rcpt;
+                }
+            }
+        }
+        Reply data = readReply();
+
+        if (data.code == 354) {
+            if (mail.code != 250 || accepted == 0) {
+                // 已进入 DATA 但事务无效：发送空内容结束，再报告真正的错误
+                writeRaw(new byte[]{'.', '\r', '\n'});
+                out.flush();
+                readReply();
+                Reply cause = mail.code != 250 ? mail : firstRejected;
+                throw new SmtpException(cause.code, "SMTP rejected: " + cause.text);
+            }
+            return new SmtpDelivery(finishData(mime), rejected);
+        }
+        Reply cause = mail.code != 250 ? mail : (accepted == 0 && firstRejected != null ? firstRejected : data);
+        throw new SmtpException(cause.code, "SMTP rejected: " + cause.text);
+    }
+
+    private SmtpDelivery sendLockstep(String from, List<String> recipients, byte[] mime) throws IOException {
+        command("MAIL FROM:<" + from + ">", 250);
+        int accepted = 0;
+        Reply firstRejected = null;
+        Map<String, String> rejected = new LinkedHashMap<>();
+        for (String rcpt : recipients) {
+            writeLine("RCPT TO:<" + rcpt + ">");
+            out.flush();
+            Reply reply = readReply();
+            if (reply.code == 250 || reply.code == 251) {
+                accepted++;
+            } else {
+                rejected.put(rcpt, reply.code + " " + reply.text);
+                if (firstRejected == null) {
+                    firstRejected = reply;
+                }
+            }
+        }
+        if (accepted == 0) {
+            throw new SmtpException(firstRejected.code, "SMTP rejected: " + firstRejected.text);
+        }
+        command("DATA", 354);
+        return new SmtpDelivery(finishData(mime), rejected);
+    }
+
+    private String finishData(byte[] mime) throws IOException {
+        writeDotStuffed(mime);
+        writeRaw(new byte[]{'.', '\r', '\n'});
+        out.flush();
+        Reply reply = readReply();
+        expect(reply, 250);
+        return reply.text;
+    }
+
+    /**
+     * 空闲一段时间的连接在复用前用 NOOP 探活
+     */
+    boolean probe() {
+        try {
+            command("NOOP", 250);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            broken = true;
+            return false;
+        }
+    }
+
+    boolean isBroken() {
+        return broken || socket == null || socket.isClosed();
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    int getDelivered() {
+        return delivered;
+    }
+
+    @Override
+    public void close() {
+        if (socket != null && !socket.isClosed() && !broken) {
+            try {
+                writeLine("QUIT");
+                out.flush();
+                readReply();
+            } catch (IOException | RuntimeException ignored) {
+                // 关闭阶段的错误无需处理
+            }
+        }
+        closeQuietly();
+    }
+
+    // --- protocol helpers ---
+
+    private void ehlo() throws IOException {
+        writeLine("EHLO " + localName());
+        out.flush();
+        Reply reply = readReply();
+        expect(reply, 250);
+        extensions.clear();
+        for (String line : reply.lines) {
+            String upper = line.toUpperCase(Locale.ROOT);
+            extensions.add(upper);
+            int space = upper.indexOf(' ');
+            if (space > 0) {
+                extensions.add(upper.substring(0, space));
+            }
+        }
+    }
+
+    private static String localName() {
+        String name = localName;
+        if (name == null) {
+            try {
+                name = InetAddress.getLocalHost().getCanonicalHostName();
+            } catch (IOException e) {
+                name = "localhost";
+            }
+            localName = name;
+        }
+        return name;
+    }
+
+    private void authenticate(String username, String password) throws IOException {
+        Base64.Encoder base64 = Base64.getEncoder();
+        if (supportsAuth("PLAIN") || !supportsAuth("LOGIN")) {
+            String token = base64.encodeToString(("\0" + username + "\0" + password).getBytes(StandardCharsets.UTF_8));
+            command("AUTH PLAIN " + token, 235);
+            return;
+        }
+        command("AUTH LOGIN", 334);
+        command(base64.encodeToString(username.getBytes(StandardCharsets.UTF_8)), 334);
+        command(base64.encodeToString(password.getBytes(StandardCharsets.UTF_8)), 235);
+    }
+
+    private boolean supportsAuth(String mechanism) {
+        for (String ext : extensions) {
+            if ((ext.startsWith("AUTH ") || ext.startsWith("AUTH=")) && ext.contains(mechanism)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean supportsPipelining() {
+        return extensions.contains("PIPELINING");
+    }
+
+    private void reset() {
+        try {
+            command("RSET", 250);
+        } catch (IOException | RuntimeException e) {
+            broken = true;
+        }
+    }
+
+    private Reply command(String line, int expected) throws IOException {
+        writeLine(line);
+        out.flush();
+        Reply reply = readReply();
+        expect(reply, expected);
+        return reply;
+    }
+
+    private static void expect(Reply reply, int expected) {
+        if (reply.code != expected) {
+            throw new SmtpException(reply.code, "SMTP unexpected reply: " + reply.code + " " + reply.text);
+        }
+    }
+
+    private void writeLine(String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write(CRLF);
+    }
+
+    private void writeRaw(byte[] data) throws IOException {
+        out.write(data);
+    }
+
+    /**
+     * 行首的 '.' 需要双写 (RFC 5321 4.5.2)，末尾补齐 CRLF
+     */
+    private void writeDotStuffed(byte[] mime) throws IOException {
+        boolean lineStart = true;
+        int from = 0;
+        for (int i = 0; i < mime.length; i++) {
+            if (lineStart && mime[i] == '.') {
+                out.write(mime, from, i - from);
+                out.write('.');
+                from = i;
+            }
+            lineStart = mime[i] == '\n';
+        }
+        out.write(mime, from, mime.length - from);
+        if (mime.length < 2 || mime[mime.length - 2] != '\r' || mime[mime.length - 1] != '\n') {
+            out.write(CRLF);
+        }
+    }
+
+    private Reply readReply() throws IOException {
+        Reply reply = new Reply();
+        while (true) {
+            String line = readLine();
+            if (line.length() < 3) {
+                throw new IOException("Malformed SMTP reply: " + line);
+            }
+            reply.code = Integer.parseInt(line.substring(0, 3));
+            String text = line.length() > 4 ? line.substring(4) : "";
+            reply.lines.add(text);
+            if (line.length() == 3 || line.charAt(3) == ' ') {
+                reply.text = String.join(" ", reply.lines);
+                return reply;
+            }
+        }
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                byte[] line = buffer.toByteArray();
+                int len = line.length > 0 && line[line.length - 1] == '\r' ? line.length - 1 : line.length;
+                return new String(line, 0, len, StandardCharsets.UTF_8);
+            }
+            buffer.write(b);
+        }
+        throw new EOFException("SMTP connection closed by server");
+    }
+
+    private Socket tlsSocket(Socket plain) throws IOException {
+        SSLSocketFactory factory = tlsFactory;
+        SSLSocket tls;
+        if (plain == null) {
+            tls = (SSLSocket) factory.createSocket();
+            tls.connect(new InetSocketAddress(server.host(), server.port()), timeoutMillis);
+        } else {
+            tls = (SSLSocket) factory.createSocket(plain, server.host(), server.port(), true);
+        }
+        SSLParameters params = tls.getSSLParameters();
+        params.setEndpointIdentificationAlgorithm("HTTPS");
+        tls.setSSLParameters(params);
+        tls.setSoTimeout(timeoutMillis);
+        tls.startHandshake();
+        return tls;
+    }
+
+    private void bindStreams() throws IOException {
+        in = new BufferedInputStream(socket.getInputStream());
+        out = new BufferedOutputStream(socket.getOutputStream(), 16 * 1024);
+    }
+
+    private void closeQuietly() {
+        broken = true;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Close SMTP socket fail", e);
+            }
+        }
+    }
+
+    private static final class Reply {
+        private int code;
+        private String text;
+        private final List<String> lines = new ArrayList<>(2);
+    }
+}
@@ -0,0 +1,23 @@
+package dev.qingzhou.push.core.channel.impl.smtp;
+
+import java.util.Map;
+
+/**
+ * 一封邮件的投递结果
+ * @param reply 服务器对 DATA 结束的应答 (通常包含队列 ID)
+ * @param rejected 被 RCPT TO 拒绝的收件人 -> 服务器应答 (如 "550 no such user")，按收件人顺序；全部接受时为空。
+ *                 其余收件人已投递
+ */
+public record SmtpDelivery(String reply, Map<String, String> rejected) {
+
+    public SmtpDelivery {
+        rejected = rejected != null ? rejected : Map.of();
+    }
+
+    /**
+     * 是否有收件人被拒绝
+     */
+    public boolean partial() {
+        return !rejected.isEmpty();
+    }
+}
@@ -0,0 +1,26 @@
+package dev.qingzhou.push.core.channel.impl.smtp;
+
+import lombok.Getter;
+
+/**
+ * SMTP 服务器返回的错误应答 (连接仍可继续使用)
+ */
+@Getter
+public class SmtpException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int code;
+
+    public SmtpException(int code, String message) {
+        super(message);
+        this.code = code;
+    }
+
+    /**
+     * 5xx 为永久失败，重试无意义
+     */
+    public boolean isPermanent() {
+        return code >= 500;
+    }
+}
@@ -0,0 +1,181 @@
+package dev.qingzhou.push.core.channel.impl.smtp;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个 SMTP 服务器 + 账号的连接池
+ * <p>
+ * 已认证的会话按 LIFO 复用 (最近用过的连接最不容易被服务器断开)，
+ * 每条会话投递一定数量的邮件或存活一定时间后主动退役。
+ */
+@Slf4j
+public class SmtpPool implements Closeable {
+
+    private final SmtpServer server;
+    private final String username;
+    private final String password;
+    private final Settings settings;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<SmtpConnection> idle = new LinkedBlockingDeque<>();
+    private volatile boolean closed;
+
+    public SmtpPool(SmtpServer server, String username, String password, Settings settings) {
+        this.server = server;
+        this.username = username;
+        this.password = password;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxConnections(), true);
+    }
+
+    /**
+     * 借出连接投递一封邮件后归还
+     * 复用的连接若已被服务器断开，会自动换一条新连接重试一次
+     * @return 部分收件人被拒绝时见 {@link SmtpDelivery#rejected()}；全部被拒绝时抛出 {@link SmtpException}
+     */
+    public SmtpDelivery send(String from, List<String> recipients, byte[] mime) throws IOException, InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("SMTP pool closed");
+        }
+        SmtpConnection.checkAddress(from);
+        recipients.forEach(SmtpConnection::checkAddress);
+        if (!permits.tryAcquire(settings.borrowTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IOException("Timeout waiting for SMTP connection: " + server.host());
+        }
+        try {
+            SmtpConnection conn = takeIdle();
+            boolean reused = conn != null;
+            if (conn == null) {
+                conn = create();
+            }
+            try {
+                SmtpDelivery delivery = conn.send(from, recipients, mime);
+                giveBack(conn);
+                return delivery;
+            } catch (SmtpException e) {
+                giveBack(conn);
+                throw e;
+            } catch (RuntimeException e) {
+                conn.close();
+                throw e;
+            } catch (IOException e) {
+                conn.close();
+                if (!reused) {
+                    throw e;
+                }
+                log.debug("Pooled SMTP connection broken, retry with a new one: {}", server.host(), e);
+                SmtpConnection fresh = create();
+                try {
+                    SmtpDelivery delivery = fresh.send(from, recipients, mime);
+                    giveBack(fresh);
+                    return delivery;
+                } catch (SmtpException ex) {
+                    giveBack(fresh);
+                    throw ex;
+                } catch (IOException | RuntimeException ex) {
+                    fresh.close();
+                    throw ex;
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 没有空闲连接时新建一条已认证的连接放入池中，供之后的投递直接复用
+     */
+    public void warmUp() throws IOException, InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("SMTP pool closed");
+        }
+        if (!idle.isEmpty()) {
+            return;
+        }
+        if (!permits.tryAcquire(settings.borrowTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IOException("Timeout waiting for SMTP connection: " + server.host());
+        }
+        try {
+            giveBack(create());
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int idleCount() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        SmtpConnection conn;
+        while ((conn = idle.pollFirst()) != null) {
+            conn.close();
+        }
+    }
+
+    private SmtpConnection takeIdle() {
+        SmtpConnection conn;
+        long now = System.currentTimeMillis();
+        while ((conn = idle.pollFirst()) != null) {
+            if (expired(conn, now)) {
+                conn.close();
+                continue;
+            }
+            if (now - conn.getLastUsedAt() > settings.probeAfterIdleMillis() && !conn.probe()) {
+                conn.close();
+                continue;
+            }
+            return conn;
+        }
+        return null;
+    }
+
+    private SmtpConnection create() throws IOException {
+        SmtpConnection conn = new SmtpConnection(server, settings.timeoutMillis());
+        conn.open(username, password);
+        return conn;
+    }
+
+    private void giveBack(SmtpConnection conn) {
+        if (closed || conn.isBroken() || expired(conn, System.currentTimeMillis())) {
+            conn.close();
+            return;
+        }
+        idle.offerFirst(conn);
+    }
+
+    private boolean expired(SmtpConnection conn, long now) {
+        return conn.isBroken()
+                || conn.getDelivered() >= settings.maxMessagesPerConnection()
+                || now - conn.getCreatedAt() > settings.maxLifetimeMillis()
+                || now - conn.getLastUsedAt() > settings.maxIdleMillis();
+    }
+
+    /**
+     * 连接池参数
+     * @param maxConnections 每个服务器 + 账号的最大并发连接数
+     * @param maxMessagesPerConnection 单条会话最多投递的邮件数 (多数服务商有此限制)
+     * @param maxIdleMillis 空闲超过该时长的连接直接关闭
+     * @param probeAfterIdleMillis 空闲超过该时长的连接复用前先 NOOP 探活
+     * @param maxLifetimeMillis 连接最长存活时间
+     * @param timeoutMillis 连接与读写超时
+     * @param borrowTimeoutMillis 等待可用连接的最长时间
+     */
+    public record Settings(int maxConnections, int maxMessagesPerConnection, long maxIdleMillis,
+                           long probeAfterIdleMillis, long maxLifetimeMillis, int timeoutMillis,
+                           long borrowTimeoutMillis) {
+
+        public static Settings defaults() {
+            return new Settings(4, 100, 60_000, 10_000, 10 * 60_000, 10_000, 30_000);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package dev.qingzhou.push.core.channel.impl.smtp;
+
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * SMTP 服务器地址
+ * <p>
+ * 由 URI 解析：
+ * <ul>
+ *     <li>smtps://host:465 —— 隐式 TLS</li>
+ *     <li>smtp://host:587 —— 明文连接后强制 STARTTLS</li>
+ *     <li>smtp+plain://host:25 —— 不加密，仅用于内网中继或本地测试</li>
+ * </ul>
+ */
+public record SmtpServer(String host, int port, Security security) {
+
+    public enum Security {
+        SMTPS,
+        STARTTLS,
+        NONE
+    }
+
+    public static SmtpServer parse(String uri) {
+        if (uri == null || uri.isBlank()) {
+            throw new IllegalArgumentException("SMTP server uri cannot be empty");
+        }
+        URI parsed = URI.create(uri.trim());
+        String scheme = parsed.getScheme() != null ? parsed.getScheme().toLowerCase(Locale.ROOT) : "";
+        String host = parsed.getHost();
+        if (host == null || host.isBlank()) {
+            throw new IllegalArgumentException("SMTP server host cannot be empty: " + uri);
+        }
+        return switch (scheme) {
+            case "smtps" -> new SmtpServer(host, parsed.getPort() > 0 ? parsed.getPort() : 465, Security.SMTPS);
+            case "smtp" -> new SmtpServer(host, parsed.getPort() > 0 ? parsed.getPort() : 587, Security.STARTTLS);
+            case "smtp+plain" -> new SmtpServer(host, parsed.getPort() > 0 ? parsed.getPort() : 25, Security.NONE);
+            default -> throw new IllegalArgumentException("Unsupported SMTP scheme: " + uri);
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package dev.qingzhou.push.core.deadletter;
+
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 最终发送失败的消息
+ * @param configRef 配置引用名，重放时通过 {@link dev.qingzhou.push.core.api.ConfigResolver} 取回配置；
+ *                  直接传入 PushConfig 发送的消息为 null，无法重放 (不保存凭证)
+ * @param errorCode 最近一次失败的平台错误码
+ * @param attempts 历次发送记录，按时间顺序
+ */
+public record DeadLetter(String id, String channelType, PushMessage message, String configRef,
+                         String errorCode, String errorMsg, List<Attempt> attempts, long createdAt) {
+
+    public static DeadLetter of(String channelType, PushMessage message, String configRef, PushResult result) {
+        long now = System.currentTimeMillis();
+        return new DeadLetter(UUID.randomUUID().toString(), channelType, message, configRef,
+                result.getErrorCode(), result.getErrorMsg(), List.of(Attempt.of(now, result)), now);
+    }
+
+    /**
+     * 追加一次失败的重放记录
+     */
+    public DeadLetter retried(PushResult result) {
+        List<Attempt> history = new ArrayList<>(attempts != null ? attempts : List.of());
+        history.add(Attempt.of(System.currentTimeMillis(), result));
+        return new DeadLetter(id, channelType, message, configRef, result.getErrorCode(), result.getErrorMsg(),
+                List.copyOf(history), createdAt);
+    }
+
+    public int attemptCount() {
+        return attempts != null ? attempts.size() : 0;
+    }
+
+    /**
+     * @param at 发送时间 (epoch 毫秒)
+     */
+    public record Attempt(long at, String errorCode, String errorMsg) {
+
+        static Attempt of(long at, PushResult result) {
+            return new Attempt(at, result.getErrorCode(), result.getErrorMsg());
+        }
+    }
+}
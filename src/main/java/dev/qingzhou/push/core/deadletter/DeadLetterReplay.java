@@ -0,0 +1,211 @@
+package dev.qingzhou.push.core.deadletter;
+
+import dev.qingzhou.push.core.api.ConfigResolver;
+import dev.qingzhou.push.core.api.PushClient;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.utils.Deadline;
+import dev.qingzhou.push.core.utils.Pacer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 死信批量重放
+ * <p>
+ * 在调用线程上逐条顺序发送，并按 ratePerSecond 限速：同一时刻最多一条重放请求在途，
+ * 不会挤占正常发送的连接与平台配额。成功或已过期的死信被删除，仍失败的追加一次发送记录后保留。
+ * 死信按页读取 (每页 {@value #PAGE_SIZE} 条)，积压再多也只在内存中保留一页内容与已处理的 id。
+ * <pre>
+ * DeadLetterReplay.ReplayReport report = DeadLetterReplay.builder()
+ *         .client(client)
+ *         .sink(sink)
+ *         .filter(letter -&gt; ChannelIds.WECOM.equals(letter.channelType()) &amp;&amp; "-1".equals(letter.errorCode()))
+ *         .ratePerSecond(2)
+ *         .build()
+ *         .run();
+ * </pre>
+ * 直接传入 PushConfig 发送的死信没有配置引用名，无法重放，计入 skipped。
+ */
+@Slf4j
+public class DeadLetterReplay {
+
+    static final int PAGE_SIZE = 100;
+
+    private final PushClient client;
+    private final DeadLetterSink sink;
+    private final ConfigResolver configResolver;
+    private final Predicate<DeadLetter> filter;
+    private final Duration interval;
+    private final int maxEntries;
+
+    private DeadLetterReplay(Builder builder) {
+        this.client = builder.client != null ? builder.client : PushClient.defaultClient();
+        this.sink = builder.sink != null ? builder.sink : client.deadLetterSink();
+        if (sink == null) {
+            throw new IllegalArgumentException("Dead letter sink is required");
+        }
+        this.configResolver = builder.configResolver != null ? builder.configResolver : client.configResolver();
+        if (configResolver == null) {
+            throw new IllegalArgumentException("ConfigResolver is required to replay dead letters");
+        }
+        this.filter = builder.filter;
+        this.interval = Duration.ofNanos((long) (1_000_000_000L / builder.ratePerSecond));
+        this.maxEntries = builder.maxEntries;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 阻塞执行一轮重放
+     */
+    public ReplayReport run() {
+        Pacer pacer = new Pacer(interval, Duration.ZERO);
+        // 已处理的 id：跳过与失败的死信仍留在存储中 (失败的被重写到末尾)，下一页不能再读到
+        Set<String> seen = new HashSet<>();
+        Predicate<DeadLetter> unseen = letter -> !seen.contains(letter.id());
+        Predicate<DeadLetter> pageFilter = filter != null ? unseen.and(filter) : unseen;
+        int matched = 0;
+        int succeeded = 0;
+        int failed = 0;
+        int expired = 0;
+        int skipped = 0;
+        replay:
+        while (matched < maxEntries) {
+            List<DeadLetter> page = sink.read(pageFilter, Math.min(PAGE_SIZE, maxEntries - matched));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (DeadLetter letter : page) {
+                if (Thread.currentThread().isInterrupted()) {
+                    break replay;
+                }
+                seen.add(letter.id());
+                matched++;
+                if (Deadline.passed(letter.message().getExpireAt())) {
+                    sink.remove(letter.id());
+                    expired++;
+                    continue;
+                }
+                PushConfig config = letter.configRef() != null ? configResolver.resolve(letter.configRef()) : null;
+                if (config == null) {
+                    skipped++;
+                    continue;
+                }
+                try {
+                    pacer.acquire("");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break replay;
+                }
+
+                PushResult result;
+                try {
+                    result = client.getChannel(letter.channelType()).send(letter.message(), config);
+                } catch (Exception e) {
+                    result = PushResult.fail(e.getMessage());
+                }
+                if (result.isSuccess()) {
+                    sink.remove(letter.id());
+                    succeeded++;
+                } else if (result.isExpired()) {
+                    sink.remove(letter.id());
+                    expired++;
+                } else {
+                    sink.write(letter.retried(result));
+                    failed++;
+                }
+            }
+        }
+        ReplayReport report = new ReplayReport(matched, succeeded, failed, expired, skipped);
+        log.info("Dead letter replay finished: {}", report);
+        return report;
+    }
+
+    /**
+     * @param matched 本轮处理的死信数 (满足过滤条件，且不超过 maxEntries)
+     * @param succeeded 重放成功并删除
+     * @param failed 仍失败，保留并记录本次尝试
+     * @param expired 已过截止时间，删除
+     * @param skipped 没有配置引用名或引用名无法解析，保留
+     */
+    public record ReplayReport(int matched, int succeeded, int failed, int expired, int skipped) {
+    }
+
+    public static final class Builder {
+
+        private PushClient client;
+        private DeadLetterSink sink;
+        private ConfigResolver configResolver;
+        private Predicate<DeadLetter> filter;
+        private double ratePerSecond = 5;
+        private int maxEntries = Integer.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        /**
+         * 重放使用的客户端，默认 {@link PushClient#defaultClient()}
+         */
+        public Builder client(PushClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * 死信来源，默认使用客户端配置的 sink
+         */
+        public Builder sink(DeadLetterSink sink) {
+            this.sink = sink;
+            return this;
+        }
+
+        /**
+         * 默认使用客户端配置的 ConfigResolver
+         */
+        public Builder configResolver(ConfigResolver configResolver) {
+            this.configResolver = configResolver;
+            return this;
+        }
+
+        /**
+         * 只重放满足条件的死信 (如按通道、错误码、时间)，默认全部
+         */
+        public Builder filter(Predicate<DeadLetter> filter) {
+            this.filter = filter;
+            return this;
+        }
+
+        /**
+         * 每秒最多重放条数，默认 5
+         */
+        public Builder ratePerSecond(double ratePerSecond) {
+            if (ratePerSecond <= 0) {
+                throw new IllegalArgumentException("ratePerSecond must be positive");
+            }
+            this.ratePerSecond = ratePerSecond;
+            return this;
+        }
+
+        /**
+         * 本轮最多重放条数
+         */
+        public Builder maxEntries(int maxEntries) {
+            if (maxEntries <= 0) {
+                throw new IllegalArgumentException("maxEntries must be positive");
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        public DeadLetterReplay build() {
+            return new DeadLetterReplay(this);
+        }
+    }
+}
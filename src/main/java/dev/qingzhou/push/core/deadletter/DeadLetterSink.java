@@ -0,0 +1,32 @@
+package dev.qingzhou.push.core.deadletter;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 死信存储：{@link dev.qingzhou.push.core.api.PushClient} 配置后，发送失败 (过期除外) 的消息写入这里，
+ * 之后可通过 {@link DeadLetterReplay} 按条件限速重放
+ * <p>
+ * 实现需线程安全；默认实现为本地追加日志 {@link FileDeadLetterSink}，也可接入数据库或消息队列。
+ */
+public interface DeadLetterSink extends AutoCloseable {
+
+    /**
+     * 写入死信，id 已存在时覆盖 (重放失败后更新发送记录)
+     */
+    void write(DeadLetter letter);
+
+    void remove(String id);
+
+    /**
+     * 按写入顺序读取满足条件的死信
+     * @param max 最多返回条数
+     */
+    List<DeadLetter> read(Predicate<DeadLetter> filter, int max);
+
+    int size();
+
+    @Override
+    default void close() {
+    }
+}
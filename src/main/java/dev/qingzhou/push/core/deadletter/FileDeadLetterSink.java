@@ -0,0 +1,310 @@
+package dev.qingzhou.push.core.deadletter;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import dev.qingzhou.push.core.utils.Json;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 基于追加日志的 {@link DeadLetterSink}
+ * <p>
+ * 写入、覆盖、删除都只在文件末尾追加一行 JSON (JSONL)。内存中只保留 id -> 最新记录偏移的索引，
+ * 死信内容在读取时才从文件解析，积压大量死信也不占用堆内存。
+ * 被覆盖或删除的记录多于存活记录时压缩重写；进程崩溃留下的半行在打开时截掉。
+ */
+@Slf4j
+public class FileDeadLetterSink implements DeadLetterSink {
+
+    private static final int MIN_COMPACT_GARBAGE = 1024;
+
+    private final Path file;
+    private final boolean fsync;
+    // id -> 最新 add 记录的起始偏移
+    private final Map<String, Long> index = new HashMap<>();
+    private FileChannel channel;
+    private long end;
+    private int garbage;
+    private boolean closed;
+
+    public FileDeadLetterSink(Path file) {
+        this(file, false);
+    }
+
+    /**
+     * @param fsync 每次写入后是否强制刷盘
+     */
+    public FileDeadLetterSink(Path file, boolean fsync) {
+        this.file = file;
+        this.fsync = fsync;
+    }
+
+    @Override
+    public synchronized void write(DeadLetter letter) {
+        if (letter == null || letter.id() == null) {
+            throw new IllegalArgumentException("Dead letter id cannot be null");
+        }
+        open();
+        long offset = append(new LogRecord(LogRecord.ADD, letter.id(), letter));
+        if (index.put(letter.id(), offset) != null) {
+            garbage++;
+        }
+        compactIfNeeded();
+    }
+
+    @Override
+    public synchronized void remove(String id) {
+        open();
+        if (index.remove(id) == null) {
+            return;
+        }
+        append(new LogRecord(LogRecord.REMOVE, id, null));
+        garbage += 2;
+        compactIfNeeded();
+    }
+
+    @Override
+    public synchronized List<DeadLetter> read(Predicate<DeadLetter> filter, int max) {
+        open();
+        List<DeadLetter> letters = new ArrayList<>();
+        if (max <= 0 || index.isEmpty()) {
+            return letters;
+        }
+        try {
+            scan((offset, line) -> {
+                if (letters.size() >= max) {
+                    return false;
+                }
+                LogRecord record = parse(line, LogRecord.class, offset);
+                if (record != null && record.letter() != null && LogRecord.ADD.equals(record.op())
+                        && Long.valueOf(offset).equals(index.get(record.id()))
+                        && (filter == null || filter.test(record.letter()))) {
+                    letters.add(record.letter());
+                }
+                return true;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Read dead letters failed: " + file, e);
+        }
+        return letters;
+    }
+
+    @Override
+    public synchronized int size() {
+        open();
+        return index.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        closeChannel();
+    }
+
+    /**
+     * 首次使用时回放日志建立索引
+     */
+    private void open() {
+        if (closed) {
+            throw new IllegalStateException("Dead letter sink closed: " + file);
+        }
+        if (channel != null) {
+            return;
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            index.clear();
+            garbage = 0;
+            long goodEnd = 0;
+            if (Files.exists(file)) {
+                goodEnd = rebuildIndex();
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (channel.size() > goodEnd) {
+                log.warn("Truncate incomplete dead letter record: file={}, offset={}", file, goodEnd);
+                channel.truncate(goodEnd);
+            }
+            end = goodEnd;
+        } catch (IOException e) {
+            closeChannel();
+            throw new UncheckedIOException("Open dead letter sink failed: " + file, e);
+        }
+    }
+
+    /**
+     * @return 最后一个完整行之后的偏移
+     */
+    private long rebuildIndex() throws IOException {
+        long[] goodEnd = {0};
+        scan((offset, line) -> {
+            goodEnd[0] = offset + line.length + 1;
+            Header header = parse(line, Header.class, offset);
+            if (header == null) {
+                return true;
+            }
+            if (LogRecord.ADD.equals(header.op())) {
+                if (index.put(header.id(), offset) != null) {
+                    garbage++;
+                }
+            } else if (LogRecord.REMOVE.equals(header.op())) {
+                index.remove(header.id());
+                garbage += 2;
+            }
+            return true;
+        });
+        return goodEnd[0];
+    }
+
+    private void compactIfNeeded() {
+        if (garbage <= Math.max(MIN_COMPACT_GARBAGE, index.size())) {
+            return;
+        }
+        try {
+            compact();
+        } catch (IOException e) {
+            log.warn("Compact dead letter sink failed: {}", file, e);
+        }
+    }
+
+    /**
+     * 只把存活记录的原始行复制到临时文件，再原子替换
+     */
+    private void compact() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Map<String, Long> compacted = new HashMap<>();
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long[] position = {0};
+            scan((offset, line) -> {
+                Header header = parse(line, Header.class, offset);
+                if (header != null && LogRecord.ADD.equals(header.op())
+                        && Long.valueOf(offset).equals(index.get(header.id()))) {
+                    compacted.put(header.id(), position[0]);
+                    position[0] += writeLine(out, line);
+                }
+                return true;
+            });
+            out.force(true);
+        }
+        closeChannel();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        index.clear();
+        index.putAll(compacted);
+        garbage = 0;
+        channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        end = channel.size();
+    }
+
+    private long append(LogRecord record) {
+        try {
+            long offset = end;
+            end += writeLine(channel.position(end), Json.mapper().writeValueAsBytes(record));
+            if (fsync) {
+                channel.force(false);
+            }
+            return offset;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Write dead letter failed: " + file, e);
+        }
+    }
+
+    private static long writeLine(FileChannel out, byte[] line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        return line.length + 1L;
+    }
+
+    /**
+     * 顺序扫描完整的行 (不含换行符)，visitor 返回 false 时停止；末尾没有换行的半行不会回调
+     */
+    private void scan(LineVisitor visitor) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        ByteArrayOutputStream pending = new ByteArrayOutputStream(512);
+        long base = 0;
+        long lineStart = 0;
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                int from = 0;
+                for (int i = 0; i < n; i++) {
+                    if (buffer[i] != '\n') {
+                        continue;
+                    }
+                    byte[] line;
+                    if (pending.size() == 0) {
+                        line = Arrays.copyOfRange(buffer, from, i);
+                    } else {
+                        pending.write(buffer, from, i - from);
+                        line = pending.toByteArray();
+                        pending.reset();
+                    }
+                    if (line.length > 0 && !visitor.visit(lineStart, line)) {
+                        return;
+                    }
+                    from = i + 1;
+                    lineStart = base + from;
+                }
+                pending.write(buffer, from, n - from);
+                base += n;
+            }
+        }
+    }
+
+    private <T> T parse(byte[] line, Class<T> type, long offset) {
+        try {
+            return Json.mapper().readValue(line, type);
+        } catch (JsonProcessingException e) {
+            log.warn("Skip corrupted dead letter record: file={}, offset={}", file, offset);
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Close dead letter sink fail", e);
+            }
+            channel = null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface LineVisitor {
+        boolean visit(long offset, byte[] line) throws IOException;
+    }
+
+    private record LogRecord(String op, String id, DeadLetter letter) {
+        static final String ADD = "add";
+        static final String REMOVE = "remove";
+    }
+
+    // 建立索引时只解析 op / id，跳过死信内容
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record Header(String op, String id) {
+    }
+}
@@ -0,0 +1,355 @@
+package dev.qingzhou.push.core.dispatch;
+
+import dev.qingzhou.push.core.api.ChannelSession;
+import dev.qingzhou.push.core.api.PushClient;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按接收目标保序的异步发送
+ * <p>
+ * 消息按 (通道, appKey / webhook, target) 哈希到固定数量的通道 (lane)，每个 lane 一个队列、一个虚拟线程顺序消费：
+ * 同一目标的消息严格按提交顺序送达 (如先 "告警" 后 "恢复")，不同目标之间并行。
+ * <pre>
+ * try (OrderedDispatcher dispatcher = OrderedDispatcher.builder().lanes(128).build()) {
+ *     dispatcher.submit(ChannelIds.WECOM, firing, config);
+ *     dispatcher.submit(ChannelIds.WECOM, resolved, config); // 一定在 firing 之后送达
+ * }
+ * </pre>
+ * 同一 lane 上的不同目标会互相排队，lane 数越多队头阻塞越少；可通过 {@link #laneMetrics()} 观察各 lane 积压。
+ */
+@Slf4j
+public class OrderedDispatcher implements AutoCloseable {
+
+    private final String name;
+    private final PushClient client;
+    private final Duration closeTimeout;
+    private final Lane[] lanes;
+    private volatile boolean closed;
+
+    private OrderedDispatcher(Builder builder) {
+        this.name = builder.name;
+        this.client = builder.client != null ? builder.client : PushClient.defaultClient();
+        this.closeTimeout = builder.closeTimeout;
+        this.lanes = new Lane[builder.lanes];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(i, builder.laneCapacity);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 提交发送，同一目标按提交顺序送达
+     * @return 发送结果；lane 队列已满或已关闭时直接返回失败结果
+     */
+    public CompletableFuture<PushResult> submit(String channelType, PushMessage message, PushConfig config) {
+        if (config == null) {
+            return CompletableFuture.completedFuture(PushResult.fail("Config cannot be null"));
+        }
+        String app = config.getAppKey() != null ? config.getAppKey() : config.getWebhookUrl();
+        return enqueue(laneKey(channelType, app, message), new Task(channelType, message, config, null));
+    }
+
+    /**
+     * 通过已绑定的会话提交，排序键与 {@link #submit(String, PushMessage, PushConfig)} 相同
+     */
+    public CompletableFuture<PushResult> submit(ChannelSession session, PushMessage message) {
+        if (session == null) {
+            return CompletableFuture.completedFuture(PushResult.fail("Session cannot be null"));
+        }
+        PushConfig config = session.config();
+        String app = config.getAppKey() != null ? config.getAppKey() : config.getWebhookUrl();
+        return enqueue(laneKey(session.type(), app, message), new Task(session.type(), message, null, session));
+    }
+
+    /**
+     * 各 lane 的积压与处理量
+     */
+    public List<LaneMetrics> laneMetrics() {
+        List<LaneMetrics> metrics = new ArrayList<>(lanes.length);
+        for (Lane lane : lanes) {
+            metrics.add(lane.metrics());
+        }
+        return metrics;
+    }
+
+    /**
+     * 所有 lane 中等待发送的消息总数
+     */
+    public int queuedCount() {
+        int total = 0;
+        for (Lane lane : lanes) {
+            total += lane.queue.size();
+        }
+        return total;
+    }
+
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * 停止接收新消息，等待已入队的消息发送完毕；超过 closeTimeout 仍未发送的以失败结束
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long deadline = System.nanoTime() + closeTimeout.toNanos();
+        for (Lane lane : lanes) {
+            lane.stop(deadline);
+        }
+        for (Lane lane : lanes) {
+            lane.awaitStop(deadline);
+        }
+    }
+
+    private CompletableFuture<PushResult> enqueue(String key, Task task) {
+        if (closed) {
+            return CompletableFuture.completedFuture(PushResult.fail("Dispatcher closed: " + name));
+        }
+        Lane lane = lanes[Math.floorMod(spread(key.hashCode()), lanes.length)];
+        if (!lane.offer(task)) {
+            return CompletableFuture.completedFuture(PushResult.fail("Dispatch lane " + lane.index + " is full"));
+        }
+        // 与 close 并发时 lane 可能已停止消费，此时自行取回并结束
+        if (closed && lane.stopped && lane.queue.remove(task)) {
+            task.result.complete(PushResult.fail("Dispatcher closed: " + name));
+        }
+        return task.result;
+    }
+
+    private static String laneKey(String channelType, String app, PushMessage message) {
+        String target = message != null ? message.getTarget() : null;
+        return channelType + '\0' + app + '\0' + target;
+    }
+
+    // 打散低位，避免相近的 target 聚集到同一 lane
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    /**
+     * @param depth 当前排队数
+     * @param maxDepth 排队数峰值
+     * @param delivered 已处理的消息数
+     */
+    public record LaneMetrics(int lane, int depth, int maxDepth, long delivered) {
+    }
+
+    private final class Task {
+        private final String channelType;
+        private final PushMessage message;
+        private final PushConfig config;
+        private final ChannelSession session;
+        private final CompletableFuture<PushResult> result = new CompletableFuture<>();
+
+        Task(String channelType, PushMessage message, PushConfig config, ChannelSession session) {
+            this.channelType = channelType;
+            this.message = message;
+            this.config = config;
+            this.session = session;
+        }
+
+        /**
+         * 不向 lane 抛出任何异常 (包括 Error)，否则消费线程退出，之后入队的消息永远没有结果
+         */
+        void run() {
+            PushResult pushResult = null;
+            try {
+                pushResult = session != null ? session.send(message) : client.send(channelType, message, config);
+            } catch (Throwable t) {
+                log.error("Dispatch Send Error", t);
+                pushResult = PushResult.fail(t.getMessage() != null ? t.getMessage() : t.toString());
+            } finally {
+                result.complete(pushResult != null ? pushResult : PushResult.fail("Dispatch send returned no result"));
+            }
+        }
+    }
+
+    /**
+     * 消费线程无论以何种方式结束 (结束标记、中断、close 超时)，都会在退出前把队列中剩余的消息以失败结束
+     */
+    private final class Lane implements Runnable {
+
+        private final Task stop = new Task(null, null, null, null);
+        private final int index;
+        private final BlockingQueue<Task> queue;
+        private final AtomicInteger maxDepth = new AtomicInteger();
+        private final LongAdder delivered = new LongAdder();
+        private final Thread consumer;
+        // 消费线程不再取新消息：正常结束、被中断或 close 超时
+        private volatile boolean stopped;
+
+        Lane(int index, int capacity) {
+            this.index = index;
+            this.queue = capacity > 0 ? new LinkedBlockingQueue<>(capacity) : new LinkedBlockingQueue<>();
+            this.consumer = Thread.ofVirtual().name(name + "-lane-" + index).start(this);
+        }
+
+        boolean offer(Task task) {
+            if (!queue.offer(task)) {
+                return false;
+            }
+            maxDepth.accumulateAndGet(queue.size(), Math::max);
+            return true;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!stopped) {
+                    Task task = queue.take();
+                    if (task == stop) {
+                        break;
+                    }
+                    task.run();
+                    delivered.increment();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stopped = true;
+                failPending();
+            }
+        }
+
+        void stop(long deadlineNanos) {
+            // 队列满时也要放入结束标记，但不超过 close 的等待时间
+            try {
+                if (!queue.offer(stop, deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    log.warn("Dispatch lane {} did not drain in time, {} messages dropped", index, queue.size());
+                    halt();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                halt();
+            }
+        }
+
+        void awaitStop(long deadlineNanos) {
+            if (stopped) {
+                failPending();
+                return;
+            }
+            try {
+                long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0 || !consumer.join(Duration.ofNanos(remaining))) {
+                    log.warn("Dispatch lane {} did not drain in time, {} messages dropped", index, queue.size());
+                    halt();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                halt();
+            }
+        }
+
+        /**
+         * 发送中的消息可能不响应中断：标记停止后由本线程先结束积压，消费线程发完手头这条后退出
+         */
+        private void halt() {
+            stopped = true;
+            consumer.interrupt();
+            failPending();
+        }
+
+        private void failPending() {
+            Task task;
+            while ((task = queue.poll()) != null) {
+                if (task != stop) {
+                    task.result.complete(PushResult.fail("Dispatcher closed before send: " + name));
+                }
+            }
+        }
+
+        LaneMetrics metrics() {
+            int depth = queue.size();
+            return new LaneMetrics(index, depth, Math.max(depth, maxDepth.get()), delivered.sum());
+        }
+    }
+
+    public static final class Builder {
+
+        private String name = "push-dispatcher";
+        private PushClient client;
+        private int lanes = 64;
+        private int laneCapacity = 10_000;
+        private Duration closeTimeout = Duration.ofSeconds(30);
+
+        private Builder() {
+        }
+
+        public Builder name(String name) {
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("Dispatcher name cannot be blank");
+            }
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * 发送使用的客户端，默认 {@link PushClient#defaultClient()}
+         */
+        public Builder client(PushClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * lane 数量 (即最大并行度)，默认 64
+         */
+        public Builder lanes(int lanes) {
+            if (lanes <= 0) {
+                throw new IllegalArgumentException("lanes must be positive");
+            }
+            this.lanes = lanes;
+            return this;
+        }
+
+        /**
+         * 每个 lane 的队列容量，默认 10000，0 表示不限；队列满时提交直接返回失败
+         */
+        public Builder laneCapacity(int laneCapacity) {
+            if (laneCapacity < 0) {
+                throw new IllegalArgumentException("laneCapacity cannot be negative");
+            }
+            this.laneCapacity = laneCapacity;
+            return this;
+        }
+
+        /**
+         * close() 等待队列发送完毕的最长时间
+         */
+        public Builder closeTimeout(Duration closeTimeout) {
+            if (closeTimeout == null || closeTimeout.isNegative()) {
+                throw new IllegalArgumentException("closeTimeout cannot be null or negative");
+            }
+            this.closeTimeout = closeTimeout;
+            return this;
+        }
+
+        public OrderedDispatcher build() {
+            return new OrderedDispatcher(this);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package dev.qingzhou.push.core.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class MediaResult {
+    private boolean success;
+    private String mediaId;   // 企微 media_id / 飞书 image_key
+    private boolean cached;   // 是否命中本地缓存 (未发生上传)
+    private String errorMsg;  // 错误信息
+    private String rawResult; // 原始响应 JSON
+
+    public static MediaResult success(String mediaId, String rawResult) {
+        return MediaResult.builder().success(true).mediaId(mediaId).rawResult(rawResult).build();
+    }
+
+    public static MediaResult cached(String mediaId) {
+        return MediaResult.builder().success(true).mediaId(mediaId).cached(true).build();
+    }
+
+    public static MediaResult fail(String errorMsg, String rawResult) {
+        return MediaResult.builder().success(false).errorMsg(errorMsg).rawResult(rawResult).build();
+    }
+
+    public static MediaResult fail(String errorMsg) {
+        return fail(errorMsg, null);
+    }
+}
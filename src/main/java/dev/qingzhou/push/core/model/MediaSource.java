@@ -0,0 +1,142 @@
+package dev.qingzhou.push.core.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+/**
+ * 待上传的媒体文件
+ * <p>
+ * 支持 {@link Path} 与 {@link ByteBuffer} 两种来源，上传时以流方式写出，不会把整个文件读入堆内存。
+ */
+@Getter
+public final class MediaSource {
+
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    // 调用方 buffer 的副本：共享内容与底层数组，position/limit 独立
+    @Getter(AccessLevel.NONE)
+    private final ByteBuffer buffer;
+    private final String fileName;
+    private final String contentType;
+
+    // 内容哈希只计算一次
+    @Getter(AccessLevel.NONE)
+    private volatile String contentHash;
+
+    private MediaSource(Path path, ByteBuffer buffer, String fileName, String contentType) {
+        this.path = path;
+        this.buffer = buffer;
+        this.fileName = fileName;
+        this.contentType = contentType != null ? contentType : guessContentType(fileName);
+    }
+
+    public static MediaSource of(@NonNull Path path) {
+        Path name = path.getFileName();
+        return new MediaSource(path, null, name != null ? name.toString() : "file", null);
+    }
+
+    public static MediaSource of(@NonNull Path path, String contentType) {
+        Path name = path.getFileName();
+        return new MediaSource(path, null, name != null ? name.toString() : "file", contentType);
+    }
+
+    /**
+     * 注意：buffer 的 position/limit 之间的内容即为文件内容，调用方不应在上传完成前修改它
+     */
+    public static MediaSource of(@NonNull ByteBuffer buffer, @NonNull String fileName) {
+        return new MediaSource(null, buffer.duplicate(), fileName, null);
+    }
+
+    public static MediaSource of(@NonNull ByteBuffer buffer, @NonNull String fileName, String contentType) {
+        return new MediaSource(null, buffer.duplicate(), fileName, contentType);
+    }
+
+    /**
+     * 内容视图，每次返回新的副本，读取不影响其他使用者；堆内 buffer 保留底层数组 (hasArray)，上传时不复制
+     */
+    public ByteBuffer getBuffer() {
+        return buffer != null ? buffer.duplicate() : null;
+    }
+
+    public boolean isFile() {
+        return path != null;
+    }
+
+    /**
+     * 文件字节数
+     */
+    public long size() {
+        if (path == null) {
+            return buffer.remaining();
+        }
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Read media size fail: " + path, e);
+        }
+    }
+
+    /**
+     * 内容的 SHA-256 (十六进制)，用于上传结果缓存
+     */
+    public String contentHash() {
+        String hash = contentHash;
+        if (hash == null) {
+            hash = computeHash();
+            contentHash = hash;
+        }
+        return hash;
+    }
+
+    private String computeHash() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        if (path == null) {
+            digest.update(buffer.duplicate());
+            return Hex.encodeHexString(digest.digest());
+        }
+        // 直接内存分块读取，避免整文件进堆
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer chunk = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+            while (channel.read(chunk) != -1) {
+                chunk.flip();
+                digest.update(chunk);
+                chunk.clear();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Read media fail: " + path, e);
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    private static String guessContentType(String fileName) {
+        if (fileName == null) {
+            return "application/octet-stream";
+        }
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".png")) return "image/png";
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) return "image/jpeg";
+        if (lower.endsWith(".gif")) return "image/gif";
+        if (lower.endsWith(".webp")) return "image/webp";
+        if (lower.endsWith(".bmp")) return "image/bmp";
+        return "application/octet-stream";
+    }
+}
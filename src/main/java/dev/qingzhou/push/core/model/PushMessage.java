@@ -7,17 +7,23 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.NonNull; // 引入 Lombok 的 NonNull
 
+import java.time.Duration;
 import java.util.Collections; // 引入 Collections 处理空 List
 import java.util.List;
 import java.util.Map;
 import java.util.Objects; // 引入 Objects 做原生校验
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class PushMessage {
 
+    /**
+     * extras 键：正文超过平台长度限制时自动拆成多条按顺序发送 (仅 TEXT / MARKDOWN)，值为 true 时开启
+     */
+    public static final String EXTRA_AUTO_SPLIT = "auto_split";
+
     /**
      * 接收目标 (必填)
      */
@@ -31,6 +37,20 @@ public class PushMessage {
     private Map<String, Object> extras;
     private List<Article> articles;
 
+    /**
+     * 截止时间 (epoch 毫秒，可选)：过期后不再发送，返回 {@link PushResult#isExpired()} 为 true 的结果；
+     * 发送中的 HTTP 请求超时也收紧到剩余时间
+     */
+    private Long expireAt;
+
+    /**
+     * 兼容新增 expireAt 之前的全参构造
+     */
+    public PushMessage(String target, MessageType type, String title, String content,
+                       Map<String, Object> extras, List<Article> articles) {
+        this(target, type, title, content, extras, articles, null);
+    }
+
     // ==========================================
     // 静态工厂方法 (增强校验版)
     // ==========================================
@@ -116,6 +136,19 @@ public class PushMessage {
                 .build();
     }
 
+    public static class PushMessageBuilder {
+        /**
+         * 从现在起 ttl 后过期，等价于 expireAt(now + ttl)
+         */
+        public PushMessageBuilder ttl(Duration ttl) {
+            if (ttl == null || ttl.isNegative()) {
+                throw new IllegalArgumentException("TTL cannot be null or negative");
+            }
+            this.expireAt = System.currentTimeMillis() + ttl.toMillis();
+            return this;
+        }
+    }
+
     /**
      * 内部辅助校验方法
      */
@@ -3,13 +3,18 @@ package dev.qingzhou.push.core.model;
 import lombok.Builder;
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 @Builder
 public class PushResult {
     private boolean success;
     private String msgId;     // 渠道返回的消息ID (便于追踪)
     private String errorMsg;  // 错误信息
+    private String errorCode; // 渠道返回的错误码 (如企微 errcode、飞书 code)，本地失败时为 null
     private String rawResult; // 原始响应 JSON
+    private List<PushResult> parts; // 自动拆分发送时各段的结果 (按顺序)，未拆分时为 null
+    private boolean expired;  // 超过消息截止时间而未发送 (或发送中超时)，区别于平台返回的失败
 
     public static PushResult success(String msgId, String rawResult) {
         return PushResult.builder().success(true).msgId(msgId).rawResult(rawResult).build();
@@ -22,4 +27,40 @@ public class PushResult {
     public static PushResult fail(String errorMsg) {
         return fail(errorMsg, null);
     }
+
+    /**
+     * 渠道返回的业务失败，附带平台错误码
+     */
+    public static PushResult failWithCode(String errorCode, String errorMsg, String rawResult) {
+        return PushResult.builder().success(false).errorCode(errorCode).errorMsg(errorMsg).rawResult(rawResult).build();
+    }
+
+    public static PushResult expired(String errorMsg) {
+        return PushResult.builder().success(false).expired(true).errorMsg(errorMsg).build();
+    }
+
+    /**
+     * 拆分发送的汇总结果：全部成功才算成功，msgId 取第一段；
+     * 某段失败后不再发送后续段，errorMsg 指明失败位置
+     * @param parts 已发送各段的结果
+     * @param total 总段数
+     */
+    public static PushResult composite(List<PushResult> parts, int total) {
+        PushResult first = parts.isEmpty() ? null : parts.get(0);
+        PushResult last = parts.isEmpty() ? null : parts.get(parts.size() - 1);
+        boolean success = parts.size() == total && parts.stream().allMatch(PushResult::isSuccess);
+        String errorMsg = null;
+        if (!success && last != null) {
+            errorMsg = "Part " + parts.size() + "/" + total + " failed: " + last.getErrorMsg();
+        }
+        return PushResult.builder()
+                .success(success)
+                .msgId(first != null ? first.getMsgId() : null)
+                .errorMsg(errorMsg)
+                .errorCode(success || last == null ? null : last.getErrorCode())
+                .rawResult(success ? null : last != null ? last.getRawResult() : null)
+                .parts(List.copyOf(parts))
+                .expired(!success && last != null && last.isExpired())
+                .build();
+    }
 }
\ No newline at end of file
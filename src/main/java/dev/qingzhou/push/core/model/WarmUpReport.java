@@ -0,0 +1,32 @@
+package dev.qingzhou.push.core.model;
+
+import java.util.List;
+
+/**
+ * 预热结果，见 {@link dev.qingzhou.push.core.api.PushClient#warmUp}
+ * @param entries 各项预热结果：Jackson 初始化在前，其后按传入顺序排列各配置
+ * @param elapsedMillis 总耗时
+ */
+public record WarmUpReport(List<Entry> entries, long elapsedMillis) {
+
+    public static final String JSON = "json";
+
+    /**
+     * 全部预热成功，可以放行流量
+     */
+    public boolean ready() {
+        return entries.stream().allMatch(Entry::success);
+    }
+
+    public List<Entry> failures() {
+        return entries.stream().filter(entry -> !entry.success()).toList();
+    }
+
+    /**
+     * @param channelType 通道类型，Jackson 初始化为 {@link #JSON}
+     * @param index 配置在该通道配置列表中的序号 (不输出凭证)
+     * @param error 失败原因，成功时为 null
+     */
+    public record Entry(String channelType, int index, boolean success, String error, long elapsedMillis) {
+    }
+}
@@ -0,0 +1,391 @@
+package dev.qingzhou.push.core.recipient;
+
+import dev.qingzhou.push.core.api.IPushChannel;
+import dev.qingzhou.push.core.api.IRecipientChannel;
+import dev.qingzhou.push.core.api.PushClient;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.utils.LogThrottle;
+import dev.qingzhou.push.core.utils.LruCache;
+import dev.qingzhou.push.core.utils.TokenStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 把邮箱、手机号解析成平台用户 ID (飞书 open_id、企业微信 userid)，用于批量发送与跨通道路由
+ * <p>
+ * 结果按 通道 + 应用 + 联系方式 缓存 (有界 LRU + TTL)，查无此人的结果以较短的 TTL 负缓存；查询失败不缓存。
+ * 未命中缓存的联系方式先放入所在应用的批次，batchWindow 结束或攒满一批时统一查询一次
+ * (飞书 batch_get_id 一次最多 50 个)，同一联系方式的并发解析只查询一次。
+ * <pre>
+ * RecipientResolver resolver = RecipientResolver.builder().client(client).build();
+ * RecipientResolver.Resolution resolution = resolver.resolve(ChannelIds.WECOM, wecomConfig,
+ *         List.of("alice@example.com", "13800000000"));
+ * String touser = String.join("|", resolution.userIds().values());
+ * </pre>
+ * 需要通道实现 {@link IRecipientChannel}，目前为企业微信与飞书。
+ */
+@Slf4j
+public class RecipientResolver implements AutoCloseable {
+
+    private final PushClient client;
+    private final LruCache<String, Cached> cache;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final long batchWindowMillis;
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("push-recipient-", 0).factory());
+    // 通道 + 应用 -> 正在攒批的查询
+    private final Map<String, Batch> batches = new HashMap<>();
+    // 缓存 Key -> 未完成的查询
+    private final Map<String, CompletableFuture<String>> inflight = new ConcurrentHashMap<>();
+    private final LongAdder lookups = new LongAdder();
+    private volatile boolean closed;
+
+    private RecipientResolver(Builder builder) {
+        this.client = builder.client != null ? builder.client : PushClient.defaultClient();
+        this.cache = new LruCache<>(builder.cacheSize);
+        this.ttlMillis = builder.ttl.toMillis();
+        this.negativeTtlMillis = builder.negativeTtl.toMillis();
+        this.batchWindowMillis = builder.batchWindow.toMillis();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 阻塞解析单个联系方式
+     * @return 用户 ID，平台确认不存在时返回 null
+     * @throws IllegalStateException 查询失败
+     */
+    public String resolve(String channelType, PushConfig config, String contact) {
+        try {
+            return resolveAsync(channelType, config, List.of(contact)).get(contact).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IllegalStateException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * 阻塞解析一组联系方式，未命中缓存的合并到同一批查询
+     */
+    public Resolution resolve(String channelType, PushConfig config, Collection<String> contacts) {
+        Map<String, String> userIds = new LinkedHashMap<>();
+        List<String> notFound = new ArrayList<>();
+        Map<String, String> failed = new LinkedHashMap<>();
+        resolveAsync(channelType, config, contacts).forEach((contact, future) -> {
+            try {
+                String userId = future.join();
+                if (userId != null) {
+                    userIds.put(contact, userId);
+                } else {
+                    notFound.add(contact);
+                }
+            } catch (CompletionException e) {
+                failed.put(contact, e.getCause().getMessage());
+            }
+        });
+        return new Resolution(userIds, notFound, failed);
+    }
+
+    /**
+     * 异步解析，立即返回
+     * @return 联系方式 (原样) -> 用户 ID 的 future，查无此人时结果为 null，查询失败时异常完成
+     * @throws IllegalArgumentException 通道不支持查询、配置或联系方式为空
+     */
+    public Map<String, CompletableFuture<String>> resolveAsync(String channelType, PushConfig config,
+                                                              Collection<String> contacts) {
+        IRecipientChannel channel = recipientChannel(channelType);
+        if (config == null || config.getAppKey() == null || config.getAppKey().isBlank()) {
+            throw new IllegalArgumentException("Config with appKey is required to resolve recipients");
+        }
+        if (closed) {
+            throw new IllegalStateException("Recipient resolver closed");
+        }
+        String scope = TokenStore.key(channelType + "_recipient_", config.getAppKey(), config.getAppSecret());
+        Map<String, CompletableFuture<String>> results = new LinkedHashMap<>();
+        List<Batch> full = new ArrayList<>();
+        for (String raw : contacts) {
+            if (results.containsKey(raw)) {
+                continue;
+            }
+            String contact = normalize(raw);
+            String key = scope + "|" + contact;
+            Cached cached = cache.get(key);
+            if (cached != null) {
+                results.put(raw, CompletableFuture.completedFuture(cached.userId()));
+                continue;
+            }
+            CompletableFuture<String> future = inflight.get(key);
+            if (future == null) {
+                synchronized (batches) {
+                    future = inflight.get(key);
+                    if (future == null) {
+                        future = new CompletableFuture<>();
+                        inflight.put(key, future);
+                        Batch batch = batches.get(scope);
+                        if (batch == null) {
+                            batch = new Batch(scope, channel, config);
+                            batches.put(scope, batch);
+                            schedule(batch);
+                        }
+                        batch.add(contact, key, future);
+                        if (batch.size() >= channel.lookupBatchSize()) {
+                            batches.remove(scope);
+                            full.add(batch);
+                        }
+                    }
+                }
+            }
+            results.put(raw, future);
+        }
+        for (Batch batch : full) {
+            submit(batch);
+        }
+        return results;
+    }
+
+    /**
+     * 删除缓存的结果 (如成员离职、换绑手机号后)
+     */
+    public void invalidate(String channelType, PushConfig config, String contact) {
+        cache.remove(TokenStore.key(channelType + "_recipient_", config.getAppKey(), config.getAppSecret())
+                + "|" + normalize(contact));
+    }
+
+    /**
+     * 已向平台发起的批量查询次数
+     */
+    public long lookups() {
+        return lookups.sum();
+    }
+
+    /**
+     * 停止接收新的解析，尚未发出的批次以失败结束，进行中的查询继续完成
+     */
+    @Override
+    public void close() {
+        closed = true;
+        List<Batch> pending;
+        synchronized (batches) {
+            pending = new ArrayList<>(batches.values());
+            batches.clear();
+        }
+        for (Batch batch : pending) {
+            batch.fail(new IllegalStateException("Recipient resolver closed"));
+        }
+        executor.shutdown();
+    }
+
+    private IRecipientChannel recipientChannel(String channelType) {
+        IPushChannel channel = client.getChannel(channelType);
+        if (channel instanceof IRecipientChannel recipientChannel) {
+            return recipientChannel;
+        }
+        throw new IllegalArgumentException("Channel does not support recipient lookup: " + channelType);
+    }
+
+    /**
+     * 邮箱转小写，手机号去掉空格与连字符
+     */
+    private static String normalize(String contact) {
+        if (contact == null || contact.isBlank()) {
+            throw new IllegalArgumentException("Contact cannot be blank");
+        }
+        String trimmed = contact.trim();
+        return trimmed.indexOf('@') >= 0
+                ? trimmed.toLowerCase(Locale.ROOT)
+                : trimmed.replace(" ", "").replace("-", "");
+    }
+
+    /**
+     * batchWindow 结束时发出仍未攒满的批次
+     */
+    private void schedule(Batch batch) {
+        CompletableFuture.delayedExecutor(batchWindowMillis, TimeUnit.MILLISECONDS).execute(() -> {
+            synchronized (batches) {
+                if (batches.get(batch.scope) != batch) {
+                    // 已攒满发出或已关闭
+                    return;
+                }
+                batches.remove(batch.scope);
+            }
+            submit(batch);
+        });
+    }
+
+    private void submit(Batch batch) {
+        try {
+            executor.execute(() -> lookup(batch));
+        } catch (RejectedExecutionException e) {
+            batch.fail(new IllegalStateException("Recipient resolver closed"));
+        }
+    }
+
+    private void lookup(Batch batch) {
+        lookups.increment();
+        Map<String, String> found;
+        RuntimeException error = null;
+        try {
+            found = batch.channel.lookupUserIds(batch.contacts, batch.config);
+        } catch (RuntimeException e) {
+            LogThrottle.shared().error(log, "recipient", e, "Lookup recipients fail: size={}", batch.size());
+            found = Map.of();
+            error = e;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            String contact = batch.contacts.get(i);
+            String key = batch.keys.get(i);
+            CompletableFuture<String> future = batch.futures.get(i);
+            if (found.containsKey(contact)) {
+                String userId = found.get(contact);
+                cache.put(key, new Cached(userId), userId != null ? ttlMillis : negativeTtlMillis);
+                inflight.remove(key);
+                future.complete(userId);
+            } else {
+                inflight.remove(key);
+                future.completeExceptionally(new IllegalStateException("Lookup recipient fail: " + contact
+                        + (error != null ? " (" + error.getMessage() + ")" : "")));
+            }
+        }
+    }
+
+    /**
+     * @param userId 为 null 表示查无此人
+     */
+    private record Cached(String userId) {
+    }
+
+    private final class Batch {
+
+        private final String scope;
+        private final IRecipientChannel channel;
+        private final PushConfig config;
+        private final List<String> contacts = new ArrayList<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<CompletableFuture<String>> futures = new ArrayList<>();
+
+        private Batch(String scope, IRecipientChannel channel, PushConfig config) {
+            this.scope = scope;
+            this.channel = channel;
+            this.config = config;
+        }
+
+        private void add(String contact, String key, CompletableFuture<String> future) {
+            contacts.add(contact);
+            keys.add(key);
+            futures.add(future);
+        }
+
+        private int size() {
+            return contacts.size();
+        }
+
+        private void fail(RuntimeException error) {
+            for (int i = 0; i < size(); i++) {
+                inflight.remove(keys.get(i));
+                futures.get(i).completeExceptionally(error);
+            }
+        }
+    }
+
+    /**
+     * @param userIds 联系方式 (原样) -> 用户 ID，按传入顺序
+     * @param notFound 平台确认不存在的联系方式
+     * @param failed 查询失败的联系方式 -> 原因，下次解析会重新查询
+     */
+    public record Resolution(Map<String, String> userIds, List<String> notFound, Map<String, String> failed) {
+
+        /**
+         * 全部解析成功
+         */
+        public boolean complete() {
+            return notFound.isEmpty() && failed.isEmpty();
+        }
+    }
+
+    public static final class Builder {
+
+        private PushClient client;
+        private int cacheSize = 10_000;
+        private Duration ttl = Duration.ofHours(12);
+        private Duration negativeTtl = Duration.ofMinutes(10);
+        private Duration batchWindow = Duration.ofMillis(20);
+
+        private Builder() {
+        }
+
+        /**
+         * 查找通道使用的客户端，默认 {@link PushClient#defaultClient()}
+         */
+        public Builder client(PushClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * 最多缓存的联系方式数，默认 10000
+         */
+        public Builder cacheSize(int cacheSize) {
+            if (cacheSize <= 0) {
+                throw new IllegalArgumentException("cacheSize must be positive");
+            }
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        /**
+         * 解析成功的缓存时间，默认 12 小时
+         */
+        public Builder ttl(Duration ttl) {
+            this.ttl = requirePositive(ttl, "ttl");
+            return this;
+        }
+
+        /**
+         * 查无此人的缓存时间，默认 10 分钟；过期后重新查询，新入职成员能在该时间内生效
+         */
+        public Builder negativeTtl(Duration negativeTtl) {
+            this.negativeTtl = requirePositive(negativeTtl, "negativeTtl");
+            return this;
+        }
+
+        /**
+         * 攒批等待时间，默认 20 毫秒；ZERO 表示立即发出，只合并已经提交的查询
+         */
+        public Builder batchWindow(Duration batchWindow) {
+            if (batchWindow == null || batchWindow.isNegative()) {
+                throw new IllegalArgumentException("batchWindow cannot be negative");
+            }
+            this.batchWindow = batchWindow;
+            return this;
+        }
+
+        public RecipientResolver build() {
+            return new RecipientResolver(this);
+        }
+
+        private static Duration requirePositive(Duration value, String name) {
+            if (value == null || value.isNegative() || value.isZero()) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package dev.qingzhou.push.core.schedule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import dev.qingzhou.push.core.utils.Json;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于追加日志的 {@link ScheduleStore}
+ * <p>
+ * 每次登记 / 删除追加一行 JSON (JSONL)，不做随机写；启动时回放日志得到未完成的记录并压缩重写，
+ * 运行中删除的记录多于存活记录时也会压缩。进程崩溃导致的半行会被跳过。
+ */
+@Slf4j
+public class FileScheduleStore implements ScheduleStore {
+
+    private static final int MIN_COMPACT_GARBAGE = 1024;
+
+    private final Path file;
+    private final boolean fsync;
+    private final Map<String, ScheduledEntry> live = new LinkedHashMap<>();
+    private FileChannel channel;
+    private int garbage;
+
+    public FileScheduleStore(Path file) {
+        this(file, false);
+    }
+
+    /**
+     * @param fsync 每次写入后是否强制刷盘 (更安全，但每条记录多一次磁盘同步)
+     */
+    public FileScheduleStore(Path file, boolean fsync) {
+        this.file = file;
+        this.fsync = fsync;
+    }
+
+    @Override
+    public synchronized List<ScheduledEntry> loadAll() {
+        try {
+            if (Files.exists(file)) {
+                replay();
+            }
+            compact();
+            return new ArrayList<>(live.values());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Load schedule store failed: " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void add(ScheduledEntry entry) {
+        live.put(entry.id(), entry);
+        append(new LogRecord(LogRecord.ADD, entry.id(), entry));
+    }
+
+    @Override
+    public synchronized void remove(String id) {
+        if (live.remove(id) == null) {
+            return;
+        }
+        append(new LogRecord(LogRecord.REMOVE, id, null));
+        if (++garbage > Math.max(MIN_COMPACT_GARBAGE, live.size())) {
+            try {
+                compact();
+            } catch (IOException e) {
+                log.warn("Compact schedule store failed: {}", file, e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeChannel();
+    }
+
+    private void replay() throws IOException {
+        live.clear();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                LogRecord record;
+                try {
+                    record = Json.mapper().readValue(line, LogRecord.class);
+                } catch (JsonProcessingException e) {
+                    log.warn("Skip corrupted schedule record: file={}, line={}", file, lineNo);
+                    continue;
+                }
+                if (LogRecord.ADD.equals(record.op()) && record.entry() != null) {
+                    live.put(record.id(), record.entry());
+                } else if (LogRecord.REMOVE.equals(record.op())) {
+                    live.remove(record.id());
+                }
+            }
+        }
+    }
+
+    /**
+     * 只写存活记录到临时文件，再原子替换
+     */
+    private void compact() throws IOException {
+        closeChannel();
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (ScheduledEntry entry : live.values()) {
+                write(out, new LogRecord(LogRecord.ADD, entry.id(), entry));
+            }
+            out.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        garbage = 0;
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void append(LogRecord record) {
+        try {
+            if (channel == null) {
+                compact();
+            }
+            write(channel, record);
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Write schedule store failed: " + file, e);
+        }
+    }
+
+    private static void write(FileChannel out, LogRecord record) throws IOException {
+        byte[] line = (Json.mapper().writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Close schedule store fail", e);
+            }
+            channel = null;
+        }
+    }
+
+    private record LogRecord(String op, String id, ScheduledEntry entry) {
+        static final String ADD = "add";
+        static final String REMOVE = "remove";
+    }
+}
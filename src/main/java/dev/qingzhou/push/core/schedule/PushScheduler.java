@@ -0,0 +1,278 @@
+package dev.qingzhou.push.core.schedule;
+
+import dev.qingzhou.push.core.api.ConfigResolver;
+import dev.qingzhou.push.core.api.PushClient;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 定时 / 延迟发送
+ * <p>
+ * 基于分层时间轮 ({@link WheelTimer})：登记与取消 O(1)，几十万条待发送消息只占一个后台线程。
+ * 到期后在虚拟线程上通过 {@link PushClient} 发送。
+ * <pre>
+ * PushScheduler scheduler = PushScheduler.builder()
+ *         .store(new FileScheduleStore(Path.of("data/schedules.jsonl")))
+ *         .configResolver(ref -&gt; configs.get(ref))
+ *         .build();
+ * // 5 分钟内无人确认则通知值班
+ * ScheduledPush escalation = scheduler.scheduleAfter(ChannelIds.WECOM, message, "oncall-wecom", Duration.ofMinutes(5));
+ * // 确认后取消
+ * escalation.cancel();
+ * </pre>
+ * 直接传入 PushConfig 的记录只保存在内存中；传入配置引用名的记录会写入 {@link ScheduleStore}，
+ * 重启后由 {@link ConfigResolver} 取回配置继续发送，过期未发的记录在启动时立即发送。
+ */
+@Slf4j
+public class PushScheduler implements AutoCloseable {
+
+    private final PushClient client;
+    private final ScheduleStore store;
+    private final ConfigResolver configResolver;
+    private final ExecutorService executor;
+    private final WheelTimer timer;
+    private final Map<String, ScheduledPush> pending = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private PushScheduler(Builder builder) {
+        this.client = builder.client != null ? builder.client : PushClient.defaultClient();
+        this.store = builder.store;
+        this.configResolver = builder.configResolver;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(builder.name + "-", 0).factory());
+        this.timer = new WheelTimer(builder.name, builder.tickMillis, builder.wheelSize, executor);
+
+        if (store != null) {
+            int restored = 0;
+            for (ScheduledEntry entry : store.loadAll()) {
+                arm(entry.id(), entry.channelType(), entry.message(), null, entry.configRef(),
+                        Instant.ofEpochMilli(entry.fireAtEpochMillis()));
+                restored++;
+            }
+            if (restored > 0) {
+                log.info("Restored {} scheduled pushes", restored);
+            }
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 在指定时间发送 (仅内存，不持久化)
+     */
+    public ScheduledPush schedule(String channelType, PushMessage message, PushConfig config, Instant fireAt) {
+        if (config == null) {
+            throw new IllegalArgumentException("Config cannot be null");
+        }
+        return submit(channelType, message, config, null, fireAt);
+    }
+
+    /**
+     * 在指定时间发送，配置在发送时通过 {@link ConfigResolver} 解析；配置了 store 时持久化
+     */
+    public ScheduledPush schedule(String channelType, PushMessage message, String configRef, Instant fireAt) {
+        if (configRef == null || configRef.isBlank()) {
+            throw new IllegalArgumentException("Config ref cannot be blank");
+        }
+        if (configResolver == null) {
+            throw new IllegalStateException("ConfigResolver is required for scheduling by config ref");
+        }
+        return submit(channelType, message, null, configRef, fireAt);
+    }
+
+    public ScheduledPush scheduleAfter(String channelType, PushMessage message, PushConfig config, Duration delay) {
+        return schedule(channelType, message, config, fireAtAfter(delay));
+    }
+
+    public ScheduledPush scheduleAfter(String channelType, PushMessage message, String configRef, Duration delay) {
+        return schedule(channelType, message, configRef, fireAtAfter(delay));
+    }
+
+    /**
+     * @return 待发送的记录，不存在 (已发送、已取消) 时返回 null
+     */
+    public ScheduledPush get(String id) {
+        return pending.get(id);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 停止调度；已持久化但未发送的记录保留在 store 中，下次启动时恢复
+     */
+    @Override
+    public void close() {
+        closed = true;
+        timer.close();
+        executor.close();
+        if (store != null) {
+            try {
+                store.close();
+            } catch (Exception e) {
+                log.warn("Close schedule store fail", e);
+            }
+        }
+    }
+
+    private ScheduledPush submit(String channelType, PushMessage message, PushConfig config, String configRef,
+                                 Instant fireAt) {
+        if (closed) {
+            throw new IllegalStateException("Scheduler closed");
+        }
+        if (channelType == null || channelType.isBlank()) {
+            throw new IllegalArgumentException("Channel type cannot be blank");
+        }
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+        if (fireAt == null) {
+            throw new IllegalArgumentException("Fire time cannot be null");
+        }
+        String id = UUID.randomUUID().toString();
+        if (store != null && configRef != null) {
+            store.add(new ScheduledEntry(id, channelType, message, configRef, fireAt.toEpochMilli()));
+        }
+        return arm(id, channelType, message, config, configRef, fireAt);
+    }
+
+    private ScheduledPush arm(String id, String channelType, PushMessage message, PushConfig config,
+                              String configRef, Instant fireAt) {
+        boolean persisted = store != null && configRef != null;
+        ScheduledPush handle = new ScheduledPush(id, channelType, fireAt, () -> finish(id, persisted));
+        pending.put(id, handle);
+        long delay = fireAt.toEpochMilli() - System.currentTimeMillis();
+        handle.bind(timer.schedule(() -> fire(handle, message, config, configRef, persisted), delay));
+        return handle;
+    }
+
+    private void fire(ScheduledPush handle, PushMessage message, PushConfig config, String configRef,
+                      boolean persisted) {
+        if (!handle.fire()) {
+            return;
+        }
+        PushResult result;
+        try {
+            PushConfig resolved = config != null ? config : resolve(configRef);
+            result = resolved == null
+                    ? PushResult.fail("Config not found for ref: " + configRef)
+                    : client.send(handle.channelType(), message, resolved, configRef);
+        } catch (Exception e) {
+            log.error("Scheduled Send Error", e);
+            result = PushResult.fail(e.getMessage());
+        }
+        finish(handle.id(), persisted);
+        handle.complete(result);
+    }
+
+    private PushConfig resolve(String configRef) {
+        if (configResolver == null) {
+            throw new IllegalStateException("No ConfigResolver to resolve config ref: " + configRef);
+        }
+        return configResolver.resolve(configRef);
+    }
+
+    private void finish(String id, boolean persisted) {
+        pending.remove(id);
+        if (persisted) {
+            try {
+                store.remove(id);
+            } catch (Exception e) {
+                log.warn("Remove scheduled push from store fail: {}", id, e);
+            }
+        }
+    }
+
+    private static Instant fireAtAfter(Duration delay) {
+        if (delay == null || delay.isNegative()) {
+            throw new IllegalArgumentException("Delay cannot be null or negative");
+        }
+        return Instant.now().plus(delay);
+    }
+
+    public static final class Builder {
+
+        private String name = "push-scheduler";
+        private PushClient client;
+        private ScheduleStore store;
+        private ConfigResolver configResolver;
+        private long tickMillis = 100;
+        private int wheelSize = 512;
+
+        private Builder() {
+        }
+
+        public Builder name(String name) {
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("Scheduler name cannot be blank");
+            }
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * 发送使用的客户端，默认 {@link PushClient#defaultClient()}
+         */
+        public Builder client(PushClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * 持久化按配置引用名登记的记录，必须同时配置 {@link #configResolver(ConfigResolver)}
+         */
+        public Builder store(ScheduleStore store) {
+            this.store = store;
+            return this;
+        }
+
+        public Builder configResolver(ConfigResolver configResolver) {
+            this.configResolver = configResolver;
+            return this;
+        }
+
+        /**
+         * 定时精度，默认 100ms
+         */
+        public Builder tickMillis(long tickMillis) {
+            if (tickMillis <= 0) {
+                throw new IllegalArgumentException("tickMillis must be positive");
+            }
+            this.tickMillis = tickMillis;
+            return this;
+        }
+
+        /**
+         * 每层时间轮的格数，默认 512 (100ms 精度时三层即可覆盖约 155 天)
+         */
+        public Builder wheelSize(int wheelSize) {
+            if (wheelSize <= 1) {
+                throw new IllegalArgumentException("wheelSize must be > 1");
+            }
+            this.wheelSize = wheelSize;
+            return this;
+        }
+
+        /**
+         * @throws IllegalStateException 配置了 store 但没有 configResolver (恢复的记录无法解析配置)
+         */
+        public PushScheduler build() {
+            if (store != null && configResolver == null) {
+                throw new IllegalStateException("ConfigResolver is required when a ScheduleStore is configured");
+            }
+            return new PushScheduler(this);
+        }
+    }
+}
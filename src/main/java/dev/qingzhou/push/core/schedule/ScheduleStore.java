@@ -0,0 +1,25 @@
+package dev.qingzhou.push.core.schedule;
+
+import java.util.List;
+
+/**
+ * 定时发送的持久化存储，保证进程重启后未发送的记录可以恢复
+ * <p>
+ * {@link PushScheduler} 在登记时调用 {@link #add}，发送完成或取消后调用 {@link #remove}；
+ * 发送成功但 remove 之前进程退出的记录会在重启后再次发送 (至少一次)。
+ */
+public interface ScheduleStore extends AutoCloseable {
+
+    void add(ScheduledEntry entry);
+
+    void remove(String id);
+
+    /**
+     * 启动时读取全部未完成的记录
+     */
+    List<ScheduledEntry> loadAll();
+
+    @Override
+    default void close() {
+    }
+}
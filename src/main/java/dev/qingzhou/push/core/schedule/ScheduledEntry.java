@@ -0,0 +1,13 @@
+package dev.qingzhou.push.core.schedule;
+
+import dev.qingzhou.push.core.model.PushMessage;
+
+/**
+ * 可持久化的定时发送记录
+ * 只保存配置引用名 (见 {@link dev.qingzhou.push.core.api.ConfigResolver})，不保存凭证
+ *
+ * @param fireAtEpochMillis 计划发送的墙钟时间
+ */
+public record ScheduledEntry(String id, String channelType, PushMessage message, String configRef,
+                             long fireAtEpochMillis) {
+}
@@ -0,0 +1,90 @@
+package dev.qingzhou.push.core.schedule;
+
+import dev.qingzhou.push.core.model.PushResult;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 定时发送的句柄：可查询状态、取消，或等待发送结果
+ */
+public final class ScheduledPush {
+
+    private static final int PENDING = 0;
+    private static final int FIRED = 1;
+    private static final int CANCELLED = 2;
+
+    private final String id;
+    private final String channelType;
+    private final Instant fireAt;
+    private final CompletableFuture<PushResult> result = new CompletableFuture<>();
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+    private final Runnable onCancel;
+    private volatile WheelTimer.Timeout timeout;
+
+    ScheduledPush(String id, String channelType, Instant fireAt, Runnable onCancel) {
+        this.id = id;
+        this.channelType = channelType;
+        this.fireAt = fireAt;
+        this.onCancel = onCancel;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String channelType() {
+        return channelType;
+    }
+
+    public Instant fireAt() {
+        return fireAt;
+    }
+
+    /**
+     * 发送结果；取消后以 CancellationException 结束
+     */
+    public CompletableFuture<PushResult> result() {
+        return result;
+    }
+
+    /**
+     * @return 是否成功取消 (已开始发送或已取消时返回 false)
+     */
+    public boolean cancel() {
+        if (!state.compareAndSet(PENDING, CANCELLED)) {
+            return false;
+        }
+        WheelTimer.Timeout current = timeout;
+        if (current != null) {
+            current.cancel();
+        }
+        onCancel.run();
+        result.cancel(false);
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return state.get() == CANCELLED;
+    }
+
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    void bind(WheelTimer.Timeout timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * 到期时抢占执行权，与 cancel 互斥
+     */
+    boolean fire() {
+        return state.compareAndSet(PENDING, FIRED);
+    }
+
+    void complete(PushResult pushResult) {
+        result.complete(pushResult);
+    }
+}
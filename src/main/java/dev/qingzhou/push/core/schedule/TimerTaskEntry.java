@@ -0,0 +1,49 @@
+package dev.qingzhou.push.core.schedule;
+
+/**
+ * 时间轮中的一个任务节点，同时作为取消句柄
+ * 节点挂在某个 {@link TimerTaskList} 的双向链表上，取消即从链表摘除，O(1)
+ */
+final class TimerTaskEntry implements WheelTimer.Timeout {
+
+    final Runnable task;
+    final long expirationMs;
+
+    // 所在的桶，由桶在持锁时维护
+    volatile TimerTaskList list;
+    TimerTaskEntry next;
+    TimerTaskEntry prev;
+
+    private volatile boolean cancelled;
+
+    TimerTaskEntry(Runnable task, long expirationMs) {
+        this.task = task;
+        this.expirationMs = expirationMs;
+    }
+
+    @Override
+    public boolean cancel() {
+        if (cancelled) {
+            return false;
+        }
+        cancelled = true;
+        remove();
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 节点可能正被时间轮从一个桶移到另一个桶，list 会变化，重试直到真正摘除
+     */
+    void remove() {
+        TimerTaskList current = list;
+        while (current != null) {
+            current.remove(this);
+            current = list;
+        }
+    }
+}
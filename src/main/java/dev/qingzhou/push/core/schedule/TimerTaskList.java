@@ -0,0 +1,94 @@
+package dev.qingzhou.push.core.schedule;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 时间轮的一个桶：带哨兵的双向链表
+ * 桶本身放进 DelayQueue，按桶的到期时间唤醒，而不是每个任务一个延迟节点
+ */
+final class TimerTaskList implements Delayed {
+
+    private final AtomicInteger taskCounter;
+    private final TimerTaskEntry root = new TimerTaskEntry(null, -1);
+    // 桶当前代表的到期时间，-1 表示空闲
+    private final AtomicLong expiration = new AtomicLong(-1);
+
+    TimerTaskList(AtomicInteger taskCounter) {
+        this.taskCounter = taskCounter;
+        root.next = root;
+        root.prev = root;
+    }
+
+    /**
+     * @return 到期时间是否变化 (变化时需要重新放入 DelayQueue)
+     */
+    boolean setExpiration(long expirationMs) {
+        return expiration.getAndSet(expirationMs) != expirationMs;
+    }
+
+    long getExpiration() {
+        return expiration.get();
+    }
+
+    void add(TimerTaskEntry entry) {
+        boolean done = false;
+        while (!done) {
+            // 先从原来的桶摘除 (如果有)，再加入本桶
+            entry.remove();
+            synchronized (this) {
+                synchronized (entry) {
+                    if (entry.list == null) {
+                        TimerTaskEntry tail = root.prev;
+                        entry.next = root;
+                        entry.prev = tail;
+                        entry.list = this;
+                        tail.next = entry;
+                        root.prev = entry;
+                        taskCounter.incrementAndGet();
+                        done = true;
+                    }
+                }
+            }
+        }
+    }
+
+    synchronized void remove(TimerTaskEntry entry) {
+        synchronized (entry) {
+            if (entry.list == this) {
+                entry.next.prev = entry.prev;
+                entry.prev.next = entry.next;
+                entry.next = null;
+                entry.prev = null;
+                entry.list = null;
+                taskCounter.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 取出全部任务交给 consumer (重新插入更低层的轮或直接执行)，并把桶重置为空闲
+     */
+    synchronized void flush(Consumer<TimerTaskEntry> consumer) {
+        TimerTaskEntry head = root.next;
+        while (head != root) {
+            remove(head);
+            consumer.accept(head);
+            head = root.next;
+        }
+        expiration.set(-1);
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(Math.max(getExpiration() - WheelTimer.nowMillis(), 0), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        return Long.compare(getExpiration(), ((TimerTaskList) other).getExpiration());
+    }
+}
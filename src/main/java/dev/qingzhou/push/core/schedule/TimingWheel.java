@@ -0,0 +1,87 @@
+package dev.qingzhou.push.core.schedule;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分层时间轮的一层
+ * <p>
+ * 每层 wheelSize 个桶，上一层的 tick 等于本层的一圈 (tickMs * wheelSize)。
+ * 超出本层范围的任务放进上一层 (按需创建)，随着时钟推进再逐层下沉，
+ * 因此插入与取消都是 O(1)，DelayQueue 中只有非空的桶。
+ * 非线程安全的部分 (advanceClock / 创建上层) 由 {@link WheelTimer} 的读写锁保护。
+ */
+final class TimingWheel {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final AtomicInteger taskCounter;
+    private final DelayQueue<TimerTaskList> queue;
+    private final TimerTaskList[] buckets;
+
+    // 本层当前时间，始终是 tickMs 的整数倍
+    private long currentTime;
+    private volatile TimingWheel overflowWheel;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs, AtomicInteger taskCounter, DelayQueue<TimerTaskList> queue) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.interval = tickMs * wheelSize;
+        this.taskCounter = taskCounter;
+        this.queue = queue;
+        this.buckets = new TimerTaskList[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new TimerTaskList(taskCounter);
+        }
+        this.currentTime = startMs - (startMs % tickMs);
+    }
+
+    /**
+     * @return false 表示任务已取消或已到期，调用方应直接执行 (或丢弃)
+     */
+    boolean add(TimerTaskEntry entry) {
+        long expiration = entry.expirationMs;
+        if (entry.isCancelled()) {
+            return false;
+        }
+        if (expiration < currentTime + tickMs) {
+            return false;
+        }
+        if (expiration < currentTime + interval) {
+            long virtualId = expiration / tickMs;
+            TimerTaskList bucket = buckets[(int) (virtualId % wheelSize)];
+            bucket.add(entry);
+            // 桶被复用于新的一圈时到期时间会变化，需要重新入队
+            if (bucket.setExpiration(virtualId * tickMs)) {
+                queue.offer(bucket);
+            }
+            return true;
+        }
+        return overflowWheel().add(entry);
+    }
+
+    void advanceClock(long timeMs) {
+        if (timeMs >= currentTime + tickMs) {
+            currentTime = timeMs - (timeMs % tickMs);
+            TimingWheel overflow = overflowWheel;
+            if (overflow != null) {
+                overflow.advanceClock(currentTime);
+            }
+        }
+    }
+
+    private TimingWheel overflowWheel() {
+        TimingWheel overflow = overflowWheel;
+        if (overflow == null) {
+            synchronized (this) {
+                overflow = overflowWheel;
+                if (overflow == null) {
+                    overflow = new TimingWheel(interval, wheelSize, currentTime, taskCounter, queue);
+                    overflowWheel = overflow;
+                }
+            }
+        }
+        return overflow;
+    }
+}
@@ -0,0 +1,147 @@
+package dev.qingzhou.push.core.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 基于分层时间轮的定时器
+ * <p>
+ * 插入、取消 O(1)；DelayQueue 只保存非空的桶 (数量与 wheelSize 同级)，
+ * 几十万个待执行任务也只有一个后台线程在等待。到期任务交给 executor 执行，
+ * 精度为一个 tick。使用单调时钟，不受系统时间调整影响。
+ */
+@Slf4j
+public class WheelTimer implements AutoCloseable {
+
+    private static final long REAPER_POLL_MILLIS = 200;
+    // nanoTime 可能为负，以类加载时刻为原点保证时间轮的桶下标非负
+    private static final long ORIGIN_NANOS = System.nanoTime();
+
+    private final DelayQueue<TimerTaskList> queue = new DelayQueue<>();
+    private final AtomicInteger taskCounter = new AtomicInteger();
+    private final TimingWheel wheel;
+    private final Executor executor;
+    // 插入走读锁可并发；推进时钟 (桶降级) 走写锁
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Thread reaper;
+    private volatile boolean running = true;
+
+    /**
+     * @param tickMillis 最底层一格的时长，即定时精度
+     * @param wheelSize 每层格数
+     * @param executor 执行到期任务，不能是会阻塞提交者的执行器
+     */
+    public WheelTimer(String name, long tickMillis, int wheelSize, Executor executor) {
+        if (tickMillis <= 0 || wheelSize <= 1) {
+            throw new IllegalArgumentException("tickMillis must be positive and wheelSize must be > 1");
+        }
+        this.executor = executor;
+        this.wheel = new TimingWheel(tickMillis, wheelSize, nowMillis(), taskCounter, queue);
+        this.reaper = Thread.ofPlatform().daemon().name(name + "-reaper").unstarted(this::reap);
+        this.reaper.start();
+    }
+
+    /**
+     * @param delayMillis 小于等于 0 时立即执行
+     */
+    public Timeout schedule(Runnable task, long delayMillis) {
+        if (!running) {
+            throw new IllegalStateException("Timer closed");
+        }
+        TimerTaskEntry entry = new TimerTaskEntry(task, nowMillis() + Math.max(0, delayMillis));
+        lock.readLock().lock();
+        try {
+            addEntry(entry);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return entry;
+    }
+
+    /**
+     * 尚未到期且未取消的任务数
+     */
+    public int size() {
+        return taskCounter.get();
+    }
+
+    /**
+     * 停止后台线程，未到期的任务不再执行
+     */
+    @Override
+    public void close() {
+        running = false;
+        reaper.interrupt();
+        try {
+            reaper.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static long nowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - ORIGIN_NANOS);
+    }
+
+    private void reap() {
+        while (running) {
+            try {
+                advanceClock(REAPER_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return;
+                }
+            } catch (Throwable t) {
+                log.error("Timer reaper error", t);
+            }
+        }
+    }
+
+    private void advanceClock(long timeoutMillis) throws InterruptedException {
+        TimerTaskList bucket = queue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        if (bucket == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            while (bucket != null) {
+                wheel.advanceClock(bucket.getExpiration());
+                // 高层桶的任务降级到低层，底层桶的任务此时已到期直接执行
+                bucket.flush(this::addEntry);
+                bucket = queue.poll();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addEntry(TimerTaskEntry entry) {
+        if (!wheel.add(entry) && !entry.isCancelled()) {
+            try {
+                executor.execute(entry.task);
+            } catch (RejectedExecutionException e) {
+                log.warn("Timer task rejected, executor is shut down");
+            }
+        }
+    }
+
+    /**
+     * 定时任务句柄
+     */
+    public interface Timeout {
+
+        /**
+         * 从时间轮摘除，O(1)；任务已开始执行时无法中断
+         * @return 是否由本次调用取消 (重复取消返回 false)
+         */
+        boolean cancel();
+
+        boolean isCancelled();
+    }
+}
@@ -0,0 +1,130 @@
+package dev.qingzhou.push.core.template;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import dev.qingzhou.push.core.model.PushMessage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 模板编译后的请求体骨架：预先转义好的 JSON 片段 + 变量槽位
+ * <p>
+ * 编译时用哨兵值代替每个变量与 target，交给通道按正常流程构建一次请求体，再在 JSON 中定位哨兵切分片段。
+ * 哨兵中含一个双引号，序列化后其前面的反斜杠个数 (2^n - 1) 给出该位置的转义层数，
+ * 因此飞书卡片这类 "JSON 作为字符串嵌入 JSON" 的请求体也能正确转义变量值。
+ * 通道对字段做了转义以外的变换 (如按逗号拆分 target) 时无法定位哨兵，编译返回 null，调用方退回普通发送。
+ */
+public final class JsonSkeleton {
+
+    private static final JsonStringEncoder ENCODER = JsonStringEncoder.getInstance();
+    private static final String MARK = "PUSHTPL";
+    // 槽位 0 为 target
+    private static final int TARGET = 0;
+
+    private final String[] fragments;
+    private final int[] slots;
+    private final int[] depths;
+    private final String[] names;
+    private final int literalLength;
+
+    private JsonSkeleton(List<String> fragments, List<Integer> slots, List<Integer> depths, String[] names) {
+        this.fragments = fragments.toArray(String[]::new);
+        this.slots = slots.stream().mapToInt(Integer::intValue).toArray();
+        this.depths = depths.stream().mapToInt(Integer::intValue).toArray();
+        this.names = names;
+        this.literalLength = fragments.stream().mapToInt(String::length).sum();
+    }
+
+    /**
+     * 由通道构建请求体
+     */
+    @FunctionalInterface
+    public interface BodyBuilder {
+        /**
+         * @return 请求体 JSON，通道不支持该消息的预编译时返回 null
+         */
+        String build(PushMessage message) throws Exception;
+    }
+
+    /**
+     * @return 骨架，通道不支持或变量无法定位时返回 null
+     */
+    public static JsonSkeleton compile(MessageTemplate template, BodyBuilder builder) throws Exception {
+        String nonce = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+        String prefix = MARK + nonce + "V";
+        String[] names = new String[template.variables().size() + 1];
+        Map<String, String> sentinels = new HashMap<>();
+        int index = 1;
+        for (String name : template.variables()) {
+            names[index] = name;
+            sentinels.put(name, prefix + index + "\"E");
+            index++;
+        }
+        PushMessage probe = template.apply(prefix + TARGET + "\"E", sentinels::get, null);
+        String json = builder.build(probe);
+        if (json == null) {
+            return null;
+        }
+
+        List<String> fragments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        Matcher matcher = Pattern.compile(prefix + "(\\d+)(\\\\*)\"E").matcher(json);
+        int from = 0;
+        while (matcher.find()) {
+            int backslashes = matcher.group(2).length();
+            // 每转义一层，引号前的反斜杠变为 2n + 1 个
+            if (backslashes == 0 || Integer.bitCount(backslashes + 1) != 1) {
+                return null;
+            }
+            fragments.add(json.substring(from, matcher.start()));
+            slots.add(Integer.parseInt(matcher.group(1)));
+            depths.add(Integer.numberOfTrailingZeros(backslashes + 1));
+            from = matcher.end();
+        }
+        fragments.add(json.substring(from));
+        for (String fragment : fragments) {
+            // 哨兵被拆开或改写过
+            if (fragment.contains(MARK + nonce)) {
+                return null;
+            }
+        }
+        return new JsonSkeleton(fragments, slots, depths, names);
+    }
+
+    /**
+     * 写入变量值得到完整请求体
+     * @throws IllegalArgumentException 缺少变量
+     */
+    public String render(String target, Map<String, ?> values) {
+        String[] resolved = new String[names.length];
+        int valueLength = 0;
+        for (int slot : slots) {
+            if (resolved[slot] == null) {
+                resolved[slot] = slot == TARGET
+                        ? (target != null ? target : "")
+                        : MessageTemplate.valueOf(values, names[slot]);
+                valueLength += resolved[slot].length();
+            }
+        }
+        StringBuilder out = new StringBuilder(literalLength + valueLength + 16);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(fragments[i]);
+            appendEscaped(out, resolved[slots[i]], depths[i]);
+        }
+        return out.append(fragments[slots.length]).toString();
+    }
+
+    private static void appendEscaped(StringBuilder out, String value, int depth) {
+        String escaped = value;
+        for (int i = 1; i < depth; i++) {
+            escaped = new String(ENCODER.quoteAsString(escaped));
+        }
+        ENCODER.quoteAsString(escaped, out);
+    }
+}
@@ -0,0 +1,275 @@
+package dev.qingzhou.push.core.template;
+
+import dev.qingzhou.push.core.model.PushMessage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 消息模板：以一条 {@link PushMessage} 为原型，title、content、extras 中的字符串值以及图文字段可以包含 ${name} 占位符
+ * <p>
+ * 模板只解析一次；支持预编译的通道 (企业微信、飞书) 会把它编译成请求体骨架 {@link JsonSkeleton} 并按 id 缓存，
+ * 之后每次发送只把变量值转义后写入骨架，不再构建消息对象与 JSON 树。
+ * <pre>
+ * static final MessageTemplate DB_ALERT = MessageTemplate.of("db-alert", PushMessage.builder()
+ *         .type(MessageType.MARKDOWN)
+ *         .title("${service} 告警")
+ *         .content("**实例**: ${instance}\n**状态**: ${status}")
+ *         .build());
+ *
+ * session.send(DB_ALERT, "userId", Map.of("service", "order", "instance", "db-1", "status", "down"));
+ * </pre>
+ * 同一 id 应始终对应同一模板内容：编译缓存按 id 命中后只用 equals 校验一次。
+ * <p>
+ * 模板会长期复用，原型不能携带绝对的 expireAt；需要过期时用 {@link #of(String, PushMessage, Duration)}
+ * 指定 ttl，每次发送时从当时起算截止时间。
+ */
+public final class MessageTemplate {
+
+    private final String id;
+    private final PushMessage prototype;
+    private final Long ttlMillis;
+    private final Text title;
+    private final Text content;
+    private final Map<String, Text> extras;
+    private final List<ArticleText> articles;
+    private final Set<String> variables;
+
+    private MessageTemplate(String id, PushMessage prototype, Long ttlMillis) {
+        this.id = id;
+        this.prototype = prototype;
+        this.ttlMillis = ttlMillis;
+        Set<String> names = new LinkedHashSet<>();
+        this.title = Text.parse(prototype.getTitle(), names);
+        this.content = Text.parse(prototype.getContent(), names);
+        Map<String, Text> extraTexts = new HashMap<>();
+        if (prototype.getExtras() != null) {
+            prototype.getExtras().forEach((key, value) -> {
+                if (value instanceof String text) {
+                    extraTexts.put(key, Text.parse(text, names));
+                }
+            });
+        }
+        this.extras = extraTexts;
+        List<ArticleText> articleTexts = new ArrayList<>();
+        if (prototype.getArticles() != null) {
+            for (PushMessage.Article article : prototype.getArticles()) {
+                articleTexts.add(new ArticleText(Text.parse(article.getTitle(), names),
+                        Text.parse(article.getDescription(), names), Text.parse(article.getUrl(), names),
+                        Text.parse(article.getPicUrl(), names)));
+            }
+        }
+        this.articles = articleTexts;
+        this.variables = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * @param prototype 消息原型，target 在发送时指定；原型会被复制，之后修改不影响模板
+     * @throws IllegalArgumentException 原型设置了 expireAt
+     */
+    public static MessageTemplate of(String id, PushMessage prototype) {
+        return create(id, prototype, null);
+    }
+
+    /**
+     * @param ttl 每次发送时从当时起算的有效期，相当于对渲染出的消息调用 ttl(ttl)
+     */
+    public static MessageTemplate of(String id, PushMessage prototype, Duration ttl) {
+        if (ttl == null || ttl.isNegative()) {
+            throw new IllegalArgumentException("TTL cannot be null or negative");
+        }
+        return create(id, prototype, ttl.toMillis());
+    }
+
+    private static MessageTemplate create(String id, PushMessage prototype, Long ttlMillis) {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("Template id cannot be blank");
+        }
+        if (prototype == null || prototype.getType() == null) {
+            throw new IllegalArgumentException("Template prototype and its type cannot be null");
+        }
+        if (prototype.getExpireAt() != null) {
+            // 绝对截止时间在模板创建后就固定了，复用时所有消息都会同时过期
+            throw new IllegalArgumentException("Template prototype cannot carry expireAt, use a template ttl instead");
+        }
+        PushMessage copy = prototype.toBuilder()
+                .extras(prototype.getExtras() != null ? new HashMap<>(prototype.getExtras()) : null)
+                .articles(prototype.getArticles() != null ? List.copyOf(prototype.getArticles()) : null)
+                .build();
+        return new MessageTemplate(id, copy, ttlMillis);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /**
+     * 原型 (含未替换的占位符)，不要修改
+     */
+    public PushMessage prototype() {
+        return prototype;
+    }
+
+    /**
+     * @return 有效期，未设置时为 null
+     */
+    public Duration ttl() {
+        return ttlMillis != null ? Duration.ofMillis(ttlMillis) : null;
+    }
+
+    /**
+     * 按当前时间计算的本次发送截止时间 (epoch 毫秒)，未设置 ttl 时为 null
+     */
+    public Long expireAt() {
+        return ttlMillis != null ? System.currentTimeMillis() + ttlMillis : null;
+    }
+
+    /**
+     * 模板中出现的变量名，按首次出现的顺序
+     */
+    public Set<String> variables() {
+        return variables;
+    }
+
+    /**
+     * 渲染成普通消息，用于不支持预编译的通道、死信记录等
+     * @throws IllegalArgumentException 缺少变量
+     */
+    public PushMessage render(String target, Map<String, ?> values) {
+        return render(target, values, expireAt());
+    }
+
+    /**
+     * @param expireAt 本次发送的截止时间，调用方已按 {@link #expireAt()} 算好时传入，保证排队与发送共用同一个截止时间
+     */
+    public PushMessage render(String target, Map<String, ?> values, Long expireAt) {
+        return apply(target, name -> valueOf(values, name), expireAt);
+    }
+
+    /**
+     * 只渲染类型、target、title 与 content，用于预编译发送前的长度校验与审计
+     * @throws IllegalArgumentException 缺少变量
+     */
+    public PushMessage renderText(String target, Map<String, ?> values) {
+        Function<String, String> valueOf = name -> valueOf(values, name);
+        return PushMessage.builder()
+                .type(prototype.getType())
+                .target(target)
+                .title(title.render(valueOf))
+                .content(content.render(valueOf))
+                .build();
+    }
+
+    /**
+     * 用 valueOf 替换全部占位符
+     */
+    PushMessage apply(String target, Function<String, String> valueOf, Long expireAt) {
+        PushMessage.PushMessageBuilder builder = prototype.toBuilder()
+                .target(target)
+                .expireAt(expireAt)
+                .title(title.render(valueOf))
+                .content(content.render(valueOf));
+        if (prototype.getExtras() != null) {
+            Map<String, Object> rendered = new HashMap<>(prototype.getExtras());
+            extras.forEach((key, text) -> rendered.put(key, text.render(valueOf)));
+            builder.extras(rendered);
+        }
+        if (prototype.getArticles() != null) {
+            List<PushMessage.Article> rendered = new ArrayList<>(articles.size());
+            for (ArticleText article : articles) {
+                rendered.add(new PushMessage.Article(article.title().render(valueOf),
+                        article.description().render(valueOf), article.url().render(valueOf),
+                        article.picUrl().render(valueOf)));
+            }
+            builder.articles(rendered);
+        }
+        return builder.build();
+    }
+
+    static String valueOf(Map<String, ?> values, String name) {
+        Object value = values != null ? values.get(name) : null;
+        if (value == null) {
+            throw new IllegalArgumentException("Missing template variable: " + name);
+        }
+        return value.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof MessageTemplate other && id.equals(other.id) && prototype.equals(other.prototype)
+                && Objects.equals(ttlMillis, other.ttlMillis);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, prototype, ttlMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "MessageTemplate(id=" + id + ", type=" + prototype.getType() + ", ttl=" + ttl()
+                + ", variables=" + variables + ")";
+    }
+
+    private record ArticleText(Text title, Text description, Text url, Text picUrl) {
+    }
+
+    /**
+     * 解析后的文本：literals 比 names 多一个，依次交替拼接
+     */
+    private record Text(String[] literals, String[] names) {
+
+        private static final Text NULL = new Text(null, null);
+
+        static Text parse(String source, Set<String> variables) {
+            if (source == null) {
+                return NULL;
+            }
+            List<String> literals = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            int from = 0;
+            int start;
+            while ((start = source.indexOf("${", from)) >= 0) {
+                int end = source.indexOf('}', start + 2);
+                if (end < 0) {
+                    break;
+                }
+                String name = source.substring(start + 2, end).trim();
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("Empty template variable at index " + start);
+                }
+                literals.add(source.substring(from, start));
+                names.add(name);
+                variables.add(name);
+                from = end + 1;
+            }
+            literals.add(source.substring(from));
+            return new Text(literals.toArray(String[]::new), names.toArray(String[]::new));
+        }
+
+        String render(Function<String, String> valueOf) {
+            if (literals == null) {
+                return null;
+            }
+            if (names.length == 0) {
+                return literals[0];
+            }
+            StringBuilder out = new StringBuilder();
+            for (int i = 0; i < names.length; i++) {
+                out.append(literals[i]).append(valueOf.apply(names[i]));
+            }
+            return out.append(literals[names.length]).toString();
+        }
+    }
+}
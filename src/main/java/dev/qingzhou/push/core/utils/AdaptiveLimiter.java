@@ -0,0 +1,193 @@
+package dev.qingzhou.push.core.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自适应并发限制 (单个上游端点)
+ * <p>
+ * AIMD：请求成功且并发接近上限时上限增加 1/limit (约每个 RTT +1)；出现丢弃 (超时、IO 异常、429、5xx)
+ * 或平均 RTT 明显高于基线 (上游排队征兆) 时上限乘以 backoffRatio，每个 RTT 最多收缩一次。
+ * 基线取最近两个窗口 (各 30 秒) 内的最小 RTT，上游整体变慢时会跟随抬升。
+ * 超过上限的请求排队等待，等待超时则拒绝。
+ */
+public class AdaptiveLimiter {
+
+    private static final double RTT_ALPHA = 0.1;
+    private static final long BASELINE_WINDOW_NANOS = 30_000_000_000L;
+
+    private final String endpoint;
+    private final Settings settings;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+    private int inflight;
+    private int queued;
+    // RTT 指数滑动平均 (纳秒)，0 表示尚无样本
+    private double rtt;
+    // 上一窗口与当前窗口的最小 RTT
+    private long previousMinRtt = Long.MAX_VALUE;
+    private long windowMinRtt = Long.MAX_VALUE;
+    private long windowStartNanos = System.nanoTime();
+    private long lastDecreaseNanos;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public AdaptiveLimiter(String endpoint, Settings settings) {
+        this.endpoint = endpoint;
+        this.settings = settings;
+        this.limit = settings.initialLimit();
+    }
+
+    /**
+     * 获取一个并发名额，达到上限时最多等待 timeout
+     * @return false 表示等待超时被拒绝
+     */
+    public boolean acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            if (inflight < currentLimit()) {
+                inflight++;
+                return true;
+            }
+            queued++;
+            try {
+                while (inflight >= currentLimit()) {
+                    if (nanos <= 0) {
+                        rejected.increment();
+                        return false;
+                    }
+                    nanos = available.awaitNanos(nanos);
+                }
+                inflight++;
+                return true;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 归还名额并记录结果
+     * @param rttNanos 请求耗时，仅在 SUCCESS 时参与计算
+     */
+    public void release(Outcome outcome, long rttNanos) {
+        lock.lock();
+        try {
+            inflight--;
+            switch (outcome) {
+                case SUCCESS -> onSuccess(rttNanos);
+                case DROPPED -> {
+                    dropped.increment();
+                    decrease();
+                }
+                case IGNORED -> {
+                }
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Metrics metrics() {
+        lock.lock();
+        try {
+            return new Metrics(endpoint, currentLimit(), inflight, queued, rejected.sum(), dropped.sum(),
+                    rtt / 1_000_000.0, baselineRtt() == Long.MAX_VALUE ? 0 : baselineRtt() / 1_000_000.0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onSuccess(long rttNanos) {
+        long now = System.nanoTime();
+        if (now - windowStartNanos > BASELINE_WINDOW_NANOS) {
+            previousMinRtt = windowMinRtt;
+            windowMinRtt = Long.MAX_VALUE;
+            windowStartNanos = now;
+        }
+        windowMinRtt = Math.min(windowMinRtt, rttNanos);
+        rtt = rtt == 0 ? rttNanos : rtt + RTT_ALPHA * (rttNanos - rtt);
+
+        if (rtt > baselineRtt() * settings.rttTolerance()) {
+            decrease();
+            return;
+        }
+        // 并发远低于上限时说明瓶颈不在上游，不继续放大
+        if ((inflight + 1) * 2 >= currentLimit()) {
+            limit = Math.min(settings.maxLimit(), limit + 1.0 / limit);
+        }
+    }
+
+    private long baselineRtt() {
+        return Math.min(previousMinRtt, windowMinRtt);
+    }
+
+    private void decrease() {
+        long now = System.nanoTime();
+        // 同一轮拥塞会让多个在途请求同时失败，一个 RTT 内只收缩一次
+        if (lastDecreaseNanos != 0 && now - lastDecreaseNanos < (long) rtt) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        limit = Math.max(settings.minLimit(), limit * settings.backoffRatio());
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * 请求结果分类
+     */
+    public enum Outcome {
+        /** 正常响应，RTT 计入统计 */
+        SUCCESS,
+        /** 超时、连接失败、429、5xx：上游过载的信号 */
+        DROPPED,
+        /** 与上游容量无关的失败 (如本地中断、参数错误)，不影响上限 */
+        IGNORED
+    }
+
+    /**
+     * @param initialLimit 初始并发上限
+     * @param minLimit 收缩下限
+     * @param maxLimit 增长上限
+     * @param backoffRatio 收缩系数 (0, 1)
+     * @param rttTolerance 平均 RTT 超过基线的倍数时视为拥塞
+     */
+    public record Settings(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double rttTolerance) {
+
+        public Settings {
+            if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("Require 1 <= minLimit <= initialLimit <= maxLimit");
+            }
+            if (backoffRatio <= 0 || backoffRatio >= 1) {
+                throw new IllegalArgumentException("backoffRatio must be in (0, 1)");
+            }
+            if (rttTolerance <= 1) {
+                throw new IllegalArgumentException("rttTolerance must be > 1");
+            }
+        }
+
+        public static Settings defaults() {
+            return new Settings(20, 2, 256, 0.9, 2.0);
+        }
+    }
+
+    /**
+     * @param rttMillis 平均 RTT
+     * @param baselineRttMillis 基线 (近期最小) RTT
+     */
+    public record Metrics(String endpoint, int limit, int inflight, int queued, long rejected, long dropped,
+                          double rttMillis, double baselineRttMillis) {
+    }
+}
@@ -0,0 +1,102 @@
+package dev.qingzhou.push.core.utils;
+
+import java.time.Duration;
+
+/**
+ * 当前线程上正在发送的消息的截止时间
+ * <p>
+ * 由通道在发送期间通过 {@link #enter(Long)} 设置，{@link HttpTransport} 据此把请求超时收紧到剩余时间，
+ * 获取 token、上传素材等同一线程上的请求都受同一截止时间约束。内部使用单调时钟，不受系统时间调整影响。
+ */
+public final class Deadline {
+
+    // 换算成纳秒时防止溢出
+    private static final long MAX_MILLIS = Duration.ofDays(365).toMillis();
+
+    private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+    private static final Scope NOOP = () -> {
+    };
+
+    private Deadline() {
+    }
+
+    /**
+     * 进入截止时间作用域，已有更早的截止时间时保留更早的
+     * @param expireAt 截止时间 (epoch 毫秒)，为 null 时不做任何事
+     */
+    public static Scope enter(Long expireAt) {
+        if (expireAt == null) {
+            return NOOP;
+        }
+        Long previous = CURRENT.get();
+        long millis = Math.max(0, Math.min(expireAt - System.currentTimeMillis(), MAX_MILLIS));
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        if (previous != null && previous - deadline <= 0) {
+            return NOOP;
+        }
+        CURRENT.set(deadline);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * @return 剩余时间，没有截止时间时返回 null，已过期时返回 {@link Duration#ZERO}
+     */
+    public static Duration remaining() {
+        Long deadline = CURRENT.get();
+        if (deadline == null) {
+            return null;
+        }
+        long nanos = deadline - System.nanoTime();
+        return nanos > 0 ? Duration.ofNanos(nanos) : Duration.ZERO;
+    }
+
+    /**
+     * 把超时收紧到剩余时间
+     * @throws IllegalStateException 已过截止时间
+     */
+    public static Duration cap(Duration timeout) {
+        Duration remaining = remaining();
+        if (remaining == null) {
+            return timeout;
+        }
+        if (remaining.isZero()) {
+            throw new IllegalStateException("Deadline exceeded");
+        }
+        return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+
+    /**
+     * 剩余时间是否还够等待 wait
+     */
+    public static boolean allows(Duration wait) {
+        Duration remaining = remaining();
+        return remaining == null || remaining.compareTo(wait) > 0;
+    }
+
+    /**
+     * 当前作用域的截止时间是否已过
+     */
+    public static boolean exceeded() {
+        Duration remaining = remaining();
+        return remaining != null && remaining.isZero();
+    }
+
+    /**
+     * 截止时间 (epoch 毫秒) 是否已过
+     */
+    public static boolean passed(Long expireAt) {
+        return expireAt != null && expireAt <= System.currentTimeMillis();
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,215 @@
+package dev.qingzhou.push.core.utils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 可复用的 HmacSHA256 签名器
+ * <p>
+ * 与 {@link SignUtils#sign} 算法相同，但每个 secret 只初始化一次 {@link Mac}，之后 clone 原型复用；
+ * 输入拼接、Base64 与 URL 编码都写入复用的缓冲区，每次签名只分配最终返回的 String。
+ * <p>
+ * Mac 与缓冲区放在每个签名器自己的小池子里借还，而不是 ThreadLocal：
+ * 虚拟线程每次发送都是新线程，ThreadLocal 等于每次重新创建。池空时临时新建，池满时归还的实例直接丢弃。
+ */
+public final class HmacSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_CACHED_SECRETS = 256;
+    private static final int MAC_LENGTH = 32;
+    // Base64(32 bytes) = 44 chars，URL 编码后最多膨胀 3 倍
+    private static final int MAX_OUTPUT_CHARS = 44 * 3;
+
+    private static final char[] BASE64 =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    // secret 数量通常极少，超限时淘汰最久未用的，常用的签名器不受影响
+    private static final LruCache<String, HmacSigner> SIGNERS = new LruCache<>(MAX_CACHED_SECRETS);
+
+    // 池容量按 CPU 数：同时在签名的线程不会多于载体线程数
+    private static final int POOL_SIZE = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final BlockingQueue<Mac> KEYED_MACS = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private final byte[] secretBytes;
+    private final Mac prototype;
+    private final BlockingQueue<Slot> slots = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private HmacSigner(String secret) {
+        this.secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(new SecretKeySpec(secretBytes, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Init HmacSHA256 fail", e);
+        }
+    }
+
+    /**
+     * 获取 secret 对应的签名器 (按 secret 缓存)
+     */
+    public static HmacSigner of(String secret) {
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalArgumentException("Sign secret cannot be empty");
+        }
+        return SIGNERS.computeIfAbsent(secret, HmacSigner::new, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * 钉钉机器人加签
+     * 算法：URLEncode(Base64(HmacSHA256(Secret, timestamp + "\n" + Secret)))
+     */
+    public String signWithTimestamp(long timestamp) {
+        if (timestamp < 0) {
+            throw new IllegalArgumentException("timestamp cannot be negative");
+        }
+        Slot slot = slots.poll();
+        if (slot == null) {
+            slot = new Slot(copyPrototype());
+        }
+        try {
+            byte[] input = slot.input(20 + 1 + secretBytes.length);
+            int len = writeDecimal(timestamp, input);
+            input[len++] = '\n';
+            System.arraycopy(secretBytes, 0, input, len, secretBytes.length);
+            len += secretBytes.length;
+
+            slot.mac.update(input, 0, len);
+            slot.mac.doFinal(slot.digest, 0);
+            int outLen = base64UrlEncoded(slot.digest, slot.output);
+            return new String(slot.output, 0, outLen);
+        } catch (GeneralSecurityException e) {
+            // 出错的 Mac 状态未知，不再归还
+            slot = null;
+            throw new IllegalStateException("Sign Error", e);
+        } finally {
+            if (slot != null) {
+                slots.offer(slot);
+            }
+        }
+    }
+
+    /**
+     * 飞书自定义机器人签名
+     * 算法：Base64(HmacSHA256(timestamp + "\n" + Secret, 空数据))
+     * 密钥随时间戳变化，无法缓存 Mac 原型，这里只复用池中的 Mac 实例
+     */
+    public static String signAsKey(String secret, long timestampSeconds) {
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalArgumentException("Sign secret cannot be empty");
+        }
+        byte[] key = (timestampSeconds + "\n" + secret).getBytes(StandardCharsets.UTF_8);
+        Mac mac = KEYED_MACS.poll();
+        try {
+            if (mac == null) {
+                mac = Mac.getInstance(ALGORITHM);
+            }
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+            String sign = Base64.getEncoder().encodeToString(mac.doFinal());
+            KEYED_MACS.offer(mac);
+            return sign;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Sign Error", e);
+        }
+    }
+
+    private Mac copyPrototype() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            // 部分 Provider 不支持 clone，退化为每个池槽位重新初始化一次
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(new SecretKeySpec(secretBytes, ALGORITHM));
+                return mac;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("Init HmacSHA256 fail", ex);
+            }
+        }
+    }
+
+    private static int writeDecimal(long value, byte[] out) {
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        for (int i = digits - 1; i >= 0; i--) {
+            out[i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        return digits;
+    }
+
+    /**
+     * 标准 Base64 (带 padding)，同时把 + / = 按 URL 编码写出
+     */
+    private static int base64UrlEncoded(byte[] data, char[] out) {
+        int pos = 0;
+        int i = 0;
+        int full = data.length - data.length % 3;
+        while (i < full) {
+            int bits = (data[i++] & 0xff) << 16 | (data[i++] & 0xff) << 8 | (data[i++] & 0xff);
+            pos = put(out, pos, BASE64[(bits >>> 18) & 0x3f]);
+            pos = put(out, pos, BASE64[(bits >>> 12) & 0x3f]);
+            pos = put(out, pos, BASE64[(bits >>> 6) & 0x3f]);
+            pos = put(out, pos, BASE64[bits & 0x3f]);
+        }
+        int rest = data.length - full;
+        if (rest > 0) {
+            int bits = (data[i] & 0xff) << 16 | (rest == 2 ? (data[i + 1] & 0xff) << 8 : 0);
+            pos = put(out, pos, BASE64[(bits >>> 18) & 0x3f]);
+            pos = put(out, pos, BASE64[(bits >>> 12) & 0x3f]);
+            pos = rest == 2 ? put(out, pos, BASE64[(bits >>> 6) & 0x3f]) : put(out, pos, '=');
+            pos = put(out, pos, '=');
+        }
+        return pos;
+    }
+
+    private static int put(char[] out, int pos, char c) {
+        switch (c) {
+            case '+' -> {
+                out[pos++] = '%';
+                out[pos++] = '2';
+                out[pos++] = 'B';
+            }
+            case '/' -> {
+                out[pos++] = '%';
+                out[pos++] = '2';
+                out[pos++] = 'F';
+            }
+            case '=' -> {
+                out[pos++] = '%';
+                out[pos++] = '3';
+                out[pos++] = 'D';
+            }
+            default -> out[pos++] = c;
+        }
+        return pos;
+    }
+
+    /**
+     * 池中的一个槽位：已初始化的 Mac 与配套的复用缓冲区，同一时刻只被一个线程借用
+     */
+    private static final class Slot {
+        private final Mac mac;
+        private byte[] input = new byte[128];
+        private final byte[] digest = new byte[MAC_LENGTH];
+        private final char[] output = new char[MAX_OUTPUT_CHARS];
+
+        private Slot(Mac mac) {
+            this.mac = mac;
+        }
+
+        private byte[] input(int required) {
+            if (input.length < required) {
+                input = new byte[Math.max(required, input.length * 2)];
+            }
+            return input;
+        }
+    }
+}
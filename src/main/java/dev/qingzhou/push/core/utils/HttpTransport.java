@@ -0,0 +1,434 @@
+package dev.qingzhou.push.core.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * HTTP 传输层实例：持有自己的 HttpClient (连接池) 与超时配置
+ * <p>
+ * 每个 {@link dev.qingzhou.push.core.api.PushClient} 拥有独立的实例，互不共享连接与超时；
+ * {@link HttpUtils} 的静态方法委托给 {@link #shared()}。
+ * <p>
+ * 每个上游端点 (host:port) 有一个 {@link AdaptiveLimiter}，按延迟与错误率自动调整并发上限，
+ * 超出上限的请求在请求超时时间内排队。素材上传占用名额但不计入 RTT 基线；下载远程资源不经限流器。
+ * <p>
+ * 当前线程处于 {@link Deadline} 作用域内时，请求超时收紧为 min(配置超时, 剩余时间)。
+ */
+@Slf4j
+public class HttpTransport implements AutoCloseable {
+
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    // 上传素材体积较大，单独放宽超时
+    public static final Duration DEFAULT_UPLOAD_TIMEOUT = Duration.ofSeconds(60);
+
+    private static final int MAX_LOGGED_BODY = 512;
+    private static final Pattern SECRET_PATH_SEGMENT = Pattern.compile("(/bot|/hook/)[^/?#]+");
+    private static final int MAX_WARMED_HOSTS = 256;
+
+    private final Duration connectTimeout;
+    private final Duration requestTimeout;
+    private final Duration uploadTimeout;
+    private final ProxySelector proxy;
+    private final AdaptiveLimiter.Settings limitSettings;
+    private final Map<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+    // preconnect 成功过的主机根地址，由 keepAlive() 定期刷新
+    private final Set<URI> warmedHosts = ConcurrentHashMap.newKeySet();
+
+    // 首次请求时才创建 (会启动选择器线程)，只构建不发送的场景没有开销
+    private volatile HttpClient client;
+    private boolean closed;
+
+    public HttpTransport() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT, DEFAULT_UPLOAD_TIMEOUT, null);
+    }
+
+    /**
+     * @param proxy 代理 (如访问 Telegram)，为 null 时直连
+     */
+    public HttpTransport(Duration connectTimeout, Duration requestTimeout, Duration uploadTimeout, ProxySelector proxy) {
+        this(connectTimeout, requestTimeout, uploadTimeout, proxy, AdaptiveLimiter.Settings.defaults());
+    }
+
+    /**
+     * @param limitSettings 端点自适应并发限制参数，为 null 时不限制
+     */
+    public HttpTransport(Duration connectTimeout, Duration requestTimeout, Duration uploadTimeout, ProxySelector proxy,
+                         AdaptiveLimiter.Settings limitSettings) {
+        this.connectTimeout = connectTimeout;
+        this.requestTimeout = requestTimeout;
+        this.uploadTimeout = uploadTimeout;
+        this.proxy = proxy;
+        this.limitSettings = limitSettings;
+    }
+
+    /**
+     * 进程级默认实例，供静态工具类与默认 PushClient 使用
+     */
+    public static HttpTransport shared() {
+        return Holder.SHARED;
+    }
+
+    public String get(String url) {
+        return get(url, null);
+    }
+
+    /**
+     * GET 请求，参数拼接到 URL 上
+     */
+    public String get(String url, Map<String, Object> params) {
+        try {
+            String fullUrl = url;
+            if (params != null && !params.isEmpty()) {
+                String queryString = params.entrySet().stream()
+                        .map(entry -> encode(entry.getKey()) + "=" + encode(String.valueOf(entry.getValue())))
+                        .collect(Collectors.joining("&"));
+                fullUrl += (url.contains("?") ? "&" : "?") + queryString;
+            }
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(fullUrl))
+                    .timeout(Deadline.cap(requestTimeout))
+                    .GET()
+                    .build();
+            return execute(request);
+        } catch (Exception e) {
+            throw failure("GET Request", url, e);
+        }
+    }
+
+    public String post(String url, Object body) {
+        return post(url, body, null);
+    }
+
+    /**
+     * POST 请求 (JSON Body)
+     * @param headers 额外请求头 (如 Authorization)，可为 null
+     */
+    public String post(String url, Object body, Map<String, String> headers) {
+        try {
+            return post(URI.create(url), body, headers);
+        } catch (IllegalArgumentException e) {
+            throw failure("POST Request", url, e);
+        }
+    }
+
+    /**
+     * POST 请求，使用预先构建的 URI (会话热路径)
+     */
+    public String post(URI uri, Object body, Map<String, String> headers) {
+        return sendJson("POST", uri, body, headers);
+    }
+
+    /**
+     * PATCH 请求 (JSON Body)，用于更新已发送的消息 (如飞书卡片)
+     * @param headers 额外请求头 (如 Authorization)，可为 null
+     */
+    public String patch(URI uri, Object body, Map<String, String> headers) {
+        return sendJson("PATCH", uri, body, headers);
+    }
+
+    private String sendJson(String method, URI uri, Object body, Map<String, String> headers) {
+        try {
+            String jsonBody = body instanceof String ? (String) body : Json.mapper().writeValueAsString(body);
+
+            HttpRequest.Builder builder = HttpRequest.newBuilder()
+                    .uri(uri)
+                    .timeout(Deadline.cap(requestTimeout))
+                    .header("Content-Type", "application/json; charset=utf-8")
+                    .method(method, HttpRequest.BodyPublishers.ofString(jsonBody));
+            if (headers != null) {
+                headers.forEach(builder::header);
+            }
+            return execute(builder.build());
+        } catch (Exception e) {
+            throw failure(method + " Request", uri.toString(), e);
+        }
+    }
+
+    /**
+     * multipart/form-data 上传，文件内容以流方式写出
+     * @param headers 额外请求头 (如 Authorization)，可为 null
+     */
+    public String postMultipart(String url, MultipartBody body, Map<String, String> headers) {
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .timeout(Deadline.cap(uploadTimeout))
+                    .header("Content-Type", body.contentType())
+                    .POST(body.build());
+            if (headers != null) {
+                headers.forEach(builder::header);
+            }
+            return execute(builder.build(), false);
+        } catch (Exception e) {
+            throw failure("Multipart Request", url, e);
+        }
+    }
+
+    /**
+     * 下载远程资源 (如图片)，超过 maxBytes 时中止并抛错
+     * 地址由消息指定，可能是任意主机，不经端点限流器 (也不为其创建限流器)
+     */
+    public Download download(String url, long maxBytes) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .timeout(Deadline.cap(uploadTimeout))
+                    .GET()
+                    .build();
+            HttpResponse<InputStream> response = client().send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream in = response.body()) {
+                if (response.statusCode() >= 400) {
+                    throw new IllegalStateException("HTTP " + response.statusCode());
+                }
+                long declared = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+                if (declared > maxBytes) {
+                    throw new IllegalStateException("Resource too large: " + declared + " bytes");
+                }
+                byte[] data = in.readNBytes((int) Math.min(maxBytes + 1, Integer.MAX_VALUE - 8));
+                if (data.length > maxBytes) {
+                    throw new IllegalStateException("Resource too large: > " + maxBytes + " bytes");
+                }
+                String contentType = response.headers().firstValue("Content-Type").orElse(null);
+                return new Download(data, contentType);
+            }
+        } catch (Exception e) {
+            throw failure("Download", url, e);
+        }
+    }
+
+    public record Download(byte[] data, String contentType) {
+    }
+
+    /**
+     * 预先完成 DNS 解析与 TCP / TLS 握手，连接保留在连接池中供之后的请求复用
+     * 只发送一个 HEAD 请求，不关心响应状态；成功后记住该主机，供 {@link #keepAlive()} 刷新。
+     * <p>
+     * 空闲连接在 HttpClient 的空闲超时后关闭 (JDK 21 默认 30 秒，服务端也可能更早断开)，
+     * 需要长期保持时由 {@link dev.qingzhou.push.core.api.PushClient.Builder#keepAlive(Duration)} 定期调用 keepAlive()。
+     */
+    public void preconnect(URI uri) {
+        URI root = URI.create(uri.getScheme() + "://" + uri.getRawAuthority() + "/");
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(root)
+                    .timeout(Deadline.cap(requestTimeout))
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .build();
+            client().send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Preconnect Interrupted: " + root, e);
+        } catch (Exception e) {
+            throw new RuntimeException("Preconnect Failed: " + root, e);
+        }
+        if (warmedHosts.size() < MAX_WARMED_HOSTS) {
+            warmedHosts.add(root);
+        }
+    }
+
+    /**
+     * 对 preconnect 过的每个主机重新发送一次 HEAD，在空闲超时前刷新连接池中的连接；单个主机失败只记录日志
+     * @return 刷新成功的主机数
+     */
+    public int keepAlive() {
+        int refreshed = 0;
+        for (URI root : warmedHosts) {
+            try {
+                preconnect(root);
+                refreshed++;
+            } catch (RuntimeException e) {
+                LogThrottle.shared().warn(log, "keep-alive|" + root, "Keep alive fail: host={}, error={}",
+                        root, String.valueOf(e.getCause()));
+            }
+        }
+        return refreshed;
+    }
+
+    /**
+     * preconnect 过、会被 {@link #keepAlive()} 刷新的主机
+     */
+    public Set<URI> warmedHosts() {
+        return Set.copyOf(warmedHosts);
+    }
+
+    /**
+     * 各端点的并发限制指标 (当前上限、在途、排队、拒绝数、RTT)，按端点排序
+     */
+    public Map<String, AdaptiveLimiter.Metrics> limiterMetrics() {
+        Map<String, AdaptiveLimiter.Metrics> metrics = new TreeMap<>();
+        limiters.forEach((endpoint, limiter) -> metrics.put(endpoint, limiter.metrics()));
+        return metrics;
+    }
+
+    /**
+     * 关闭底层 HttpClient，等待进行中的请求结束
+     */
+    @Override
+    public void close() {
+        HttpClient current;
+        synchronized (this) {
+            closed = true;
+            current = client;
+        }
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private HttpClient client() {
+        HttpClient current = client;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("HTTP transport closed");
+            }
+            if (client == null) {
+                HttpClient.Builder builder = HttpClient.newBuilder().connectTimeout(connectTimeout);
+                if (proxy != null) {
+                    builder.proxy(proxy);
+                }
+                client = builder.build();
+            }
+            return client;
+        }
+    }
+
+    private String execute(HttpRequest request) throws Exception {
+        return execute(request, true);
+    }
+
+    /**
+     * @param sampleRtt 成功时耗时是否计入限流器的 RTT 基线；上传耗时取决于文件大小，不代表端点负载
+     */
+    private String execute(HttpRequest request, boolean sampleRtt) throws Exception {
+        HttpResponse<String> response = send(request, HttpResponse.BodyHandlers.ofString(), sampleRtt);
+
+        // 4xx/5xx 仍返回响应体：各平台的错误信息都在 JSON 里，由通道自行解析
+        // 按 状态码 + 端点 限流记录；URL 脱敏 (见 redact)，响应体截断
+        if (response.statusCode() >= 400) {
+            URI uri = request.uri();
+            LogThrottle.shared().warn(log, "http|" + response.statusCode() + "|" + endpoint(uri),
+                    "HTTP Error: Status={}, Url={}, Body={}",
+                    response.statusCode(), redact(uri), abbreviate(response.body()));
+        }
+        return response.body();
+    }
+
+    /**
+     * 可写入日志与异常信息的 URL：去掉查询串 (access_token、key 等)，
+     * 并遮盖路径中的凭据段 (Telegram 的 /bot&lt;token&gt;/、飞书 / 钉钉机器人的 /hook/&lt;id&gt;)
+     */
+    public static String redact(URI uri) {
+        return uri == null ? null : redact(uri.toString());
+    }
+
+    public static String redact(String url) {
+        if (url == null) {
+            return null;
+        }
+        int end = url.length();
+        int query = url.indexOf('?');
+        if (query >= 0) end = query;
+        int fragment = url.indexOf('#');
+        if (fragment >= 0 && fragment < end) end = fragment;
+        String path = url.substring(0, end);
+        path = SECRET_PATH_SEGMENT.matcher(path).replaceAll("$1***");
+        return end < url.length() ? path + "?***" : path;
+    }
+
+    /**
+     * 请求失败的异常信息只带脱敏后的 URL；URI 解析失败的信息里有完整 URL，不作为 cause 保留
+     */
+    private static RuntimeException failure(String what, String url, Exception e) {
+        if (e instanceof IllegalArgumentException) {
+            return new RuntimeException(what + " Failed: invalid url " + redact(url));
+        }
+        return new RuntimeException(what + " Failed: " + redact(url), e);
+    }
+
+    private static String abbreviate(String body) {
+        if (body == null || body.length() <= MAX_LOGGED_BODY) {
+            return body;
+        }
+        return body.substring(0, MAX_LOGGED_BODY) + "...(" + body.length() + " chars)";
+    }
+
+    /**
+     * 经端点限流器发送：名额等待不超过请求超时，超时、IO 异常、429 与 5xx 视为上游过载
+     * @param sampleRtt 为 false 时成功请求按 IGNORED 归还名额，不影响 RTT 基线
+     */
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler, boolean sampleRtt)
+            throws IOException, InterruptedException {
+        AdaptiveLimiter limiter = limiterFor(request.uri());
+        if (limiter == null) {
+            return client().send(request, handler);
+        }
+        long wait = request.timeout().orElse(requestTimeout).toNanos();
+        if (!limiter.acquire(wait, TimeUnit.NANOSECONDS)) {
+            throw new IOException("Concurrency limit reached for endpoint: " + endpoint(request.uri()));
+        }
+        AdaptiveLimiter.Outcome outcome = AdaptiveLimiter.Outcome.IGNORED;
+        long start = System.nanoTime();
+        try {
+            HttpResponse<T> response = client().send(request, handler);
+            int status = response.statusCode();
+            if (status == 429 || status >= 500) {
+                outcome = AdaptiveLimiter.Outcome.DROPPED;
+            } else if (sampleRtt) {
+                outcome = AdaptiveLimiter.Outcome.SUCCESS;
+            }
+            return response;
+        } catch (IOException e) {
+            // 因消息截止时间收紧超时导致的失败、大文件上传超时都不代表上游过载
+            outcome = Deadline.exceeded() || (!sampleRtt && e instanceof HttpTimeoutException)
+                    ? AdaptiveLimiter.Outcome.IGNORED
+                    : AdaptiveLimiter.Outcome.DROPPED;
+            throw e;
+        } finally {
+            limiter.release(outcome, System.nanoTime() - start);
+        }
+    }
+
+    private AdaptiveLimiter limiterFor(URI uri) {
+        if (limitSettings == null || uri.getHost() == null) {
+            return null;
+        }
+        return limiters.computeIfAbsent(endpoint(uri), key -> new AdaptiveLimiter(key, limitSettings));
+    }
+
+    private static String endpoint(URI uri) {
+        int port = uri.getPort() != -1 ? uri.getPort() : "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        return uri.getHost() + ":" + port;
+    }
+
+    private static String encode(String value) {
+        if (value == null) return "";
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static final class Holder {
+        private static final HttpTransport SHARED = new HttpTransport();
+    }
+}
@@ -1,108 +1,48 @@
 package dev.qingzhou.push.core.utils;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.extern.slf4j.Slf4j;
-
-import java.net.URI;
-import java.net.URLEncoder;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-@Slf4j
+/**
+ * 静态 HTTP 工具，委托给进程级默认的 {@link HttpTransport#shared()}
+ * 需要独立超时 / 连接池时请通过 {@link dev.qingzhou.push.core.api.PushClient} 使用各自的 HttpTransport
+ */
 public class HttpUtils {
 
-    // ???????????? Client (Java 11+ HttpClient ??????????????????)
-    private static final HttpClient CLIENT = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            // .proxy(ProxySelector.of(new InetSocketAddress("127.0.0.1", 7890))) // ?????????????????????Telegram????????????????????????
-            .build();
-
-    private static final ObjectMapper MAPPER = new ObjectMapper();
-    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
-
     /**
-     * ??????GET ?????? (?????????)
+     * GET 请求 (无参数)
      */
     public static String get(String url) {
-        return get(url, null);
+        return HttpTransport.shared().get(url);
     }
 
     /**
-     * ??????GET ?????? (???????????????????????? URL ??????)
-     * @param url ??????URL
-     * @param params ??????Map (Key-Value)
+     * GET 请求 (参数拼接到 URL 上)
+     * @param url 请求URL
+     * @param params 参数Map (Key-Value)
      */
     public static String get(String url, Map<String, Object> params) {
-        try {
-            // 1. ??????????????????
-            String fullUrl = url;
-            if (params != null && !params.isEmpty()) {
-                String queryString = params.entrySet().stream()
-                        .map(entry -> encode(entry.getKey()) + "=" + encode(String.valueOf(entry.getValue())))
-                        .collect(Collectors.joining("&"));
-
-                // ?????????URL ?????????????????? '?'
-                fullUrl += (url.contains("?") ? "&" : "?") + queryString;
-            }
-
-            // 2. ????????????
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(fullUrl))
-                    .timeout(REQUEST_TIMEOUT)
-                    .GET()
-                    .build();
-
-            // 3. ??????
-            return execute(request);
-        } catch (Exception e) {
-            throw new RuntimeException("GET Request Failed: " + url, e);
-        }
+        return HttpTransport.shared().get(url, params);
     }
 
     /**
-     * ??????POST ?????? (JSON Body)
+     * POST 请求 (JSON Body)
      */
     public static String post(String url, Object body) {
-        try {
-            String jsonBody = body instanceof String ? (String) body : MAPPER.writeValueAsString(body);
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .timeout(REQUEST_TIMEOUT)
-                    .header("Content-Type", "application/json; charset=utf-8")
-                    .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
-                    .build();
-
-            return execute(request);
-        } catch (Exception e) {
-            throw new RuntimeException("POST Request Failed: " + url, e);
-        }
+        return HttpTransport.shared().post(url, body);
     }
 
     /**
-     * ??????????????????
+     * multipart/form-data 上传，文件内容以流方式写出
+     * @param headers 额外请求头 (如 Authorization)，可为 null
      */
-    private static String execute(HttpRequest request) throws Exception {
-        HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-
-        // ?????????????????????????????????????????????????????? API ?????? 400 ???????????? JSON ????????????????????????????????????
-        if (response.statusCode() >= 400) {
-            log.warn("HTTP Error: Status={}, Url={}, Body={}",
-                    response.statusCode(), request.uri(), response.body());
-        }
-        return response.body();
+    public static String postMultipart(String url, MultipartBody body, Map<String, String> headers) {
+        return HttpTransport.shared().postMultipart(url, body, headers);
     }
 
     /**
-     * URL ??????????????????
+     * 下载远程资源 (如图片)，超过 maxBytes 时中止并抛错
      */
-    private static String encode(String value) {
-        if (value == null) return "";
-        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    public static HttpTransport.Download download(String url, long maxBytes) {
+        return HttpTransport.shared().download(url, maxBytes);
     }
 }
@@ -0,0 +1,59 @@
+package dev.qingzhou.push.core.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.model.enums.MessageType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 进程内共享的 ObjectMapper (线程安全)
+ * Jackson 的类加载与初始化开销较大，放在持有类中首次使用时才创建，
+ * 只加载通道类 (如 CLI / Serverless 冷启动) 不会触发。
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    public static ObjectMapper mapper() {
+        return Holder.MAPPER;
+    }
+
+    /**
+     * 预热：对每种消息类型做一次序列化与反序列化，提前构建并缓存各模型类的序列化器，
+     * 同时触发请求体 (Map / ObjectNode) 与响应解析 (readTree) 路径上的类加载
+     */
+    public static void warmUp() {
+        ObjectMapper mapper = mapper();
+        try {
+            for (MessageType type : MessageType.values()) {
+                PushMessage message = PushMessage.builder()
+                        .target("warm-up")
+                        .type(type)
+                        .title("warm-up")
+                        .content("warm-up")
+                        .extras(Map.of("url", "https://example.com"))
+                        .articles(List.of(PushMessage.Article.builder().title("warm-up").url("https://example.com").build()))
+                        .expireAt(0L)
+                        .build();
+                mapper.readValue(mapper.writeValueAsString(message), PushMessage.class);
+            }
+            mapper.writeValueAsString(PushResult.success("warm-up", null));
+            ObjectNode body = mapper.createObjectNode();
+            body.putObject("content").put("text", "warm-up");
+            mapper.writeValueAsString(Map.of("body", body, "list", List.of(1)));
+            mapper.readTree("{\"code\":0,\"data\":{\"message_id\":\"warm-up\"}}");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Json warm up failed", e);
+        }
+    }
+
+    private static final class Holder {
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+    }
+}
@@ -0,0 +1,189 @@
+package dev.qingzhou.push.core.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 错误日志限流：上游故障时大量相同错误只记录少量明细，其余计数后周期性汇总
+ * <p>
+ * 按 key (如 通道 + 异常类型 / HTTP 状态码 + 端点) 去重：每个时间窗口内只输出第一条明细，
+ * 之后的同类错误只计数，窗口结束时输出一行汇总 "N similar ... suppressed"。
+ * 堆栈同样按 key 采样，每个 stackInterval 内最多打印一次，其余明细只附带异常的 toString。
+ * <p>
+ * 被抑制的错误不做字符串格式化，开销只有一次计数器自增。key 数量有上限，超出后并入同一个 key。
+ */
+public final class LogThrottle {
+
+    public static final Duration DEFAULT_WINDOW = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_STACK_INTERVAL = Duration.ofMinutes(5);
+
+    private static final int MAX_KEYS = 1024;
+    private static final String OVERFLOW_KEY = "(other)";
+    // 连续多少个窗口没有出现的 key 被清理
+    private static final int IDLE_WINDOWS = 30;
+
+    private static final LogThrottle SHARED = new LogThrottle(DEFAULT_WINDOW, DEFAULT_STACK_INTERVAL);
+
+    private final long windowNanos;
+    private final long stackIntervalNanos;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean flusherStarted = new AtomicBoolean();
+
+    public LogThrottle(Duration window, Duration stackInterval) {
+        if (window == null || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        if (stackInterval == null || stackInterval.isNegative()) {
+            throw new IllegalArgumentException("Stack interval cannot be negative");
+        }
+        this.windowNanos = window.toNanos();
+        this.stackIntervalNanos = stackInterval.toNanos();
+    }
+
+    /**
+     * 通道与传输层共用的实例
+     */
+    public static LogThrottle shared() {
+        return SHARED;
+    }
+
+    /**
+     * 按异常类型去重的 key：scope|异常类|根因类
+     */
+    public static String keyOf(String scope, Throwable e) {
+        if (e == null) {
+            return scope;
+        }
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String key = scope + "|" + e.getClass().getName();
+        return root == e ? key : key + "|" + root.getClass().getName();
+    }
+
+    /**
+     * 按 {@link #keyOf(String, Throwable)} 去重记录 ERROR
+     */
+    public void error(Logger log, String scope, Throwable e, String format, Object... args) {
+        log(log, Level.ERROR, keyOf(scope, e), e, format, args);
+    }
+
+    public void warn(Logger log, String key, String format, Object... args) {
+        log(log, Level.WARN, key, null, format, args);
+    }
+
+    /**
+     * @param e 可为 null；不在采样内时只附带 e.toString()
+     */
+    public void log(Logger log, Level level, String key, Throwable e, String format, Object... args) {
+        if (!log.isEnabledForLevel(level)) {
+            return;
+        }
+        Entry entry = entry(key, log, level);
+        long now = System.nanoTime();
+        long start = entry.windowStart.get();
+        if (now - start < windowNanos || !entry.windowStart.compareAndSet(start, now)) {
+            entry.suppressed.incrementAndGet();
+            return;
+        }
+        // 新窗口的第一条：先补上一窗口的汇总，再输出明细
+        entry.summarize(windowNanos);
+        if (e == null) {
+            log.atLevel(level).log(format, args);
+            return;
+        }
+        long lastStack = entry.lastStack;
+        if (now - lastStack >= stackIntervalNanos || lastStack == Long.MIN_VALUE) {
+            entry.lastStack = now;
+            log.atLevel(level).setCause(e).log(format, args);
+        } else {
+            Object[] withError = Arrays.copyOf(args, args.length + 1);
+            withError[args.length] = e.toString();
+            log.atLevel(level).log(format + " ({})", withError);
+        }
+    }
+
+    /**
+     * 立即输出所有待汇总的计数 (如进程退出前)
+     */
+    public void flush() {
+        for (Entry entry : entries.values()) {
+            entry.summarize(windowNanos);
+        }
+    }
+
+    private Entry entry(String key, Logger log, Level level) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        if (entries.size() >= MAX_KEYS) {
+            key = OVERFLOW_KEY;
+        }
+        entry = entries.computeIfAbsent(key, k -> new Entry(k, log, level, System.nanoTime() - windowNanos));
+        startFlusher();
+        return entry;
+    }
+
+    /**
+     * 窗口结束后没有新错误时，由后台虚拟线程补发汇总并清理长期空闲的 key
+     */
+    private void startFlusher() {
+        if (!flusherStarted.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("push-log-throttle").start(() -> {
+            long sleepMillis = Math.max(1, windowNanos / 1_000_000L);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long now = System.nanoTime();
+                entries.values().removeIf(entry -> {
+                    long idle = now - entry.windowStart.get();
+                    if (idle >= windowNanos) {
+                        entry.summarize(windowNanos);
+                    }
+                    return idle >= windowNanos * IDLE_WINDOWS && entry.suppressed.get() == 0;
+                });
+            }
+        });
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private final Logger log;
+        private final Level level;
+        private final AtomicLong windowStart;
+        private final AtomicLong suppressed = new AtomicLong();
+        // 仅用于采样，并发下偶尔多打一次堆栈可以接受
+        private volatile long lastStack = Long.MIN_VALUE;
+
+        private Entry(String key, Logger log, Level level, long windowStart) {
+            this.key = key;
+            this.log = log;
+            this.level = level;
+            this.windowStart = new AtomicLong(windowStart);
+        }
+
+        private void summarize(long windowNanos) {
+            long count = suppressed.getAndSet(0);
+            if (count > 0) {
+                log.atLevel(level).log("{} similar errors suppressed in last {}s: {}",
+                        count, String.format("%.1f", windowNanos / 1e9), key);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package dev.qingzhou.push.core.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 有界的 LRU 缓存，每个条目可单独设置过期时间
+ * <p>
+ * 只用于 push-core 内部的小规模缓存 (media_id、image_key 等)，
+ * 以一把锁保护，不追求极致并发。
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final LinkedHashMap<K, Entry<V>> map;
+    // 按容量淘汰的值，只在持锁时读写，由 computeIfAbsent 在锁外交给回调
+    private final List<V> evicted = new ArrayList<>(1);
+
+    public LruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= LruCache.this.maxSize) {
+                    return false;
+                }
+                evicted.add(eldest.getValue().value());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @return 缓存值，不存在或已过期时返回 null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() > entry.expireAt) {
+            map.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value, long ttlMillis) {
+        putEntry(key, value, ttlMillis);
+        evicted.clear();
+    }
+
+    /**
+     * 取出缓存值，不存在或已过期时用 loader 创建并放入 (创建在锁内执行，应当很轻)
+     * @param onEvict 因容量被淘汰的值的回调 (如关闭连接池)，在锁外调用；为 null 时忽略
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader, long ttlMillis,
+                             Consumer<? super V> onEvict) {
+        V value;
+        List<V> removed;
+        synchronized (this) {
+            value = get(key);
+            if (value != null) {
+                return value;
+            }
+            value = loader.apply(key);
+            putEntry(key, value, ttlMillis);
+            removed = evicted.isEmpty() ? List.of() : List.copyOf(evicted);
+            evicted.clear();
+        }
+        if (onEvict != null) {
+            removed.forEach(onEvict);
+        }
+        return value;
+    }
+
+    /**
+     * 当前所有未过期的值
+     */
+    public synchronized List<V> values() {
+        long now = System.currentTimeMillis();
+        List<V> values = new ArrayList<>(map.size());
+        for (Entry<V> entry : map.values()) {
+            if (now <= entry.expireAt) {
+                values.add(entry.value);
+            }
+        }
+        return values;
+    }
+
+    private void putEntry(K key, V value, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        // 超长的 ttl (如 Long.MAX_VALUE 表示不过期) 不溢出
+        long expireAt = ttlMillis > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + ttlMillis;
+        map.put(key, new Entry<>(value, expireAt));
+    }
+
+    public synchronized V remove(K key) {
+        Entry<V> entry = map.remove(key);
+        return entry != null ? entry.value : null;
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    private record Entry<V>(V value, long expireAt) {
+    }
+}
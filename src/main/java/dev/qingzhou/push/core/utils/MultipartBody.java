@@ -0,0 +1,138 @@
+package dev.qingzhou.push.core.utils;
+
+import dev.qingzhou.push.core.model.MediaSource;
+
+import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * multipart/form-data 请求体
+ * <p>
+ * 文件部分直接使用 {@link HttpRequest.BodyPublishers#ofFile} 或 ByteBuffer 切片输出，
+ * 只有分隔符与表单头会落在堆上。
+ */
+public class MultipartBody {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final String boundary = "----pushcore" + UUID.randomUUID().toString().replace("-", "");
+    private final List<HttpRequest.BodyPublisher> parts = new ArrayList<>();
+
+    public MultipartBody field(String name, String value) {
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n";
+        parts.add(HttpRequest.BodyPublishers.ofString(head, StandardCharsets.UTF_8));
+        return this;
+    }
+
+    public MultipartBody file(String name, MediaSource source) {
+        return file(name, source, false);
+    }
+
+    /**
+     * @param withLength 是否在 Content-Disposition 中附带 filelength 参数 (企业微信素材上传要求，其他平台不识别)
+     */
+    public MultipartBody file(String name, MediaSource source, boolean withLength) {
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + source.getFileName() + "\""
+                + (withLength ? "; filelength=" + source.size() : "") + "\r\n"
+                + "Content-Type: " + source.getContentType() + "\r\n\r\n";
+        parts.add(HttpRequest.BodyPublishers.ofString(head, StandardCharsets.UTF_8));
+        parts.add(publisherOf(source));
+        parts.add(HttpRequest.BodyPublishers.ofString("\r\n", StandardCharsets.UTF_8));
+        return this;
+    }
+
+    public String contentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    public HttpRequest.BodyPublisher build() {
+        List<HttpRequest.BodyPublisher> all = new ArrayList<>(parts);
+        all.add(HttpRequest.BodyPublishers.ofString("--" + boundary + "--\r\n", StandardCharsets.UTF_8));
+        return HttpRequest.BodyPublishers.concat(all.toArray(new HttpRequest.BodyPublisher[0]));
+    }
+
+    private static HttpRequest.BodyPublisher publisherOf(MediaSource source) {
+        if (source.isFile()) {
+            try {
+                return HttpRequest.BodyPublishers.ofFile(source.getPath());
+            } catch (FileNotFoundException e) {
+                throw new UncheckedIOException("Media file not found: " + source.getPath(), e);
+            }
+        }
+        ByteBuffer buffer = source.getBuffer();
+        if (buffer.hasArray()) {
+            // 堆内 buffer 直接引用底层数组，不复制
+            return HttpRequest.BodyPublishers.ofByteArray(buffer.array(),
+                    buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        return HttpRequest.BodyPublishers.fromPublisher(new ByteBufferPublisher(buffer), buffer.remaining());
+    }
+
+    /**
+     * 按块切片发布直接内存或只读 buffer (无法取得底层数组)
+     */
+    private static final class ByteBufferPublisher implements Flow.Publisher<ByteBuffer> {
+
+        private final ByteBuffer source;
+
+        private ByteBufferPublisher(ByteBuffer source) {
+            this.source = source;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            ByteBuffer view = source.duplicate();
+            AtomicLong demand = new AtomicLong();
+            AtomicBoolean done = new AtomicBoolean();
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    if (n <= 0) {
+                        done.set(true);
+                        subscriber.onError(new IllegalArgumentException("non-positive request: " + n));
+                        return;
+                    }
+                    // 只有把需求从 0 拉起的线程负责发送，避免并发 onNext
+                    if (demand.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b) > 0) {
+                        return;
+                    }
+                    do {
+                        if (done.get()) {
+                            return;
+                        }
+                        if (!view.hasRemaining()) {
+                            if (done.compareAndSet(false, true)) {
+                                subscriber.onComplete();
+                            }
+                            return;
+                        }
+                        int len = Math.min(CHUNK_SIZE, view.remaining());
+                        ByteBuffer slice = view.slice(view.position(), len);
+                        view.position(view.position() + len);
+                        subscriber.onNext(slice);
+                    } while (demand.decrementAndGet() > 0);
+                    if (!view.hasRemaining() && done.compareAndSet(false, true)) {
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    done.set(true);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package dev.qingzhou.push.core.utils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 发送节拍器：同时满足"全局最小间隔"与"单 key 最小间隔"
+ * <p>
+ * 调用方先 {@link #reserve(String)} 预约发送时间槽，再等待返回的时长后发送。
+ * 预约按调用顺序排队，超过速率的请求会被延后而不是失败。
+ * 平台返回 retry_after 时用 {@link #pause} 把对应槽位整体后移。
+ * 有截止时间的消息用 {@link #acquire(String, Duration)}：槽位晚于截止时间时不占用，避免过期消息拖慢后面的消息。
+ */
+public class Pacer {
+
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private final long globalIntervalNanos;
+    private final long keyIntervalNanos;
+
+    // 以下状态均由 this 保护
+    private long nextGlobal;
+    private final Map<String, Long> nextByKey = new HashMap<>();
+
+    public Pacer(Duration globalInterval, Duration keyInterval) {
+        this.globalIntervalNanos = globalInterval.toNanos();
+        this.keyIntervalNanos = keyInterval.toNanos();
+        this.nextGlobal = System.nanoTime();
+    }
+
+    /**
+     * 预约一个发送槽位
+     * @return 需要等待的纳秒数 (0 表示可立即发送)
+     */
+    public long reserve(String key) {
+        return tryReserve(key, Long.MAX_VALUE);
+    }
+
+    /**
+     * 预约一个发送槽位，需要等待超过 maxWaitNanos 时不预约
+     * @return 需要等待的纳秒数；超过 maxWaitNanos 时返回 -1，且不占用任何槽位
+     */
+    public synchronized long tryReserve(String key, long maxWaitNanos) {
+        long now = System.nanoTime();
+        long start = Math.max(now, nextGlobal);
+        Long keyNext = nextByKey.get(key);
+        if (keyNext != null && keyNext - start > 0) {
+            start = keyNext;
+        }
+        if (start - now > maxWaitNanos) {
+            return -1;
+        }
+        nextGlobal = start + globalIntervalNanos;
+        nextByKey.put(key, start + keyIntervalNanos);
+        if (nextByKey.size() > CLEANUP_THRESHOLD) {
+            cleanup(now);
+        }
+        return start - now;
+    }
+
+    /**
+     * 预约并阻塞到槽位时间
+     */
+    public void acquire(String key) throws InterruptedException {
+        acquire(key, null);
+    }
+
+    /**
+     * 预约并阻塞到槽位时间，最多等待 maxWait
+     * @param maxWait 为 null 时不限制
+     * @return 槽位晚于 maxWait 时立即返回 false，不占用槽位
+     */
+    public boolean acquire(String key, Duration maxWait) throws InterruptedException {
+        long waitNanos = tryReserve(key, maxWait != null ? maxWait.toNanos() : Long.MAX_VALUE);
+        if (waitNanos < 0) {
+            return false;
+        }
+        if (waitNanos > 0) {
+            Thread.sleep(Duration.ofNanos(waitNanos));
+        }
+        return true;
+    }
+
+    /**
+     * 平台要求退避：key 为 null 时暂停全局，否则只暂停该 key
+     */
+    public synchronized void pause(String key, Duration delay) {
+        long until = System.nanoTime() + delay.toNanos();
+        if (key == null) {
+            if (until - nextGlobal > 0) {
+                nextGlobal = until;
+            }
+            return;
+        }
+        Long keyNext = nextByKey.get(key);
+        if (keyNext == null || until - keyNext > 0) {
+            nextByKey.put(key, until);
+        }
+    }
+
+    private void cleanup(long now) {
+        Iterator<Long> it = nextByKey.values().iterator();
+        while (it.hasNext()) {
+            if (it.next() - now <= 0) {
+                it.remove();
+            }
+        }
+    }
+}
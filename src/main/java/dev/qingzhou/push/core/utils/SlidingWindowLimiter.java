@@ -0,0 +1,127 @@
+package dev.qingzhou.push.core.utils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按 key 的滑动窗口限流器 (精确记录窗口内每次请求的时间)
+ * <p>
+ * 用于群机器人这类"每分钟 N 条"的平台限制：超限时本地直接拒绝，不再浪费一次网络往返。
+ * 可以用 {@link #and(int, Duration)} 叠加多条规则 (如每秒 5 条且每分钟 100 条)，所有规则都有余量时才占用名额。
+ * <p>
+ * key 的数量只受最近一个窗口内活跃的 key 约束：超过 {@value #SWEEP_THRESHOLD} 个时，
+ * 每个窗口周期最多清理一次已空闲的 key。
+ */
+public class SlidingWindowLimiter {
+
+    private static final int SWEEP_THRESHOLD = 256;
+
+    private final int[] permits;
+    private final long[] windowMillis;
+    private final long maxWindowMillis;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private volatile long lastSweep;
+
+    public SlidingWindowLimiter(int permits, Duration window) {
+        this(new int[]{permits}, new long[]{window.toMillis()});
+    }
+
+    private SlidingWindowLimiter(int[] permits, long[] windowMillis) {
+        for (int i = 0; i < permits.length; i++) {
+            if (permits[i] <= 0) {
+                throw new IllegalArgumentException("permits must be positive");
+            }
+            if (windowMillis[i] <= 0) {
+                throw new IllegalArgumentException("window must be positive");
+            }
+        }
+        this.permits = permits;
+        this.windowMillis = windowMillis;
+        this.maxWindowMillis = Arrays.stream(windowMillis).max().orElseThrow();
+    }
+
+    /**
+     * 叠加一条规则，返回新的限流器
+     */
+    public SlidingWindowLimiter and(int permits, Duration window) {
+        int[] morePermits = Arrays.copyOf(this.permits, this.permits.length + 1);
+        long[] moreWindows = Arrays.copyOf(this.windowMillis, this.windowMillis.length + 1);
+        morePermits[this.permits.length] = permits;
+        moreWindows[this.windowMillis.length] = window.toMillis();
+        return new SlidingWindowLimiter(morePermits, moreWindows);
+    }
+
+    /**
+     * 尝试占用一个名额：任一规则已满时不占用任何规则的名额
+     * @return 0 表示成功；大于 0 表示被限流，值为最早可重试的等待毫秒数
+     */
+    public long tryAcquire(String key) {
+        long now = System.currentTimeMillis();
+        Window window = windows.get(key);
+        if (window == null) {
+            sweep(now);
+            window = windows.computeIfAbsent(key, k -> new Window(permits));
+        }
+        return window.tryAcquire(now, windowMillis);
+    }
+
+    /**
+     * 第一条规则的名额数
+     */
+    public int getPermits() {
+        return permits[0];
+    }
+
+    /**
+     * 删除最长窗口内没有请求的 key
+     */
+    private void sweep(long now) {
+        if (windows.size() < SWEEP_THRESHOLD || now - lastSweep < maxWindowMillis) {
+            return;
+        }
+        lastSweep = now;
+        windows.values().removeIf(window -> window.idle(now, maxWindowMillis));
+    }
+
+    /**
+     * 每条规则一个环形数组，记录最近 permits 次请求的时间，最旧的一条仍在窗口内即表示已满
+     */
+    private static final class Window {
+        private final long[][] stamps;
+        private final int[] next;
+
+        private Window(int[] permits) {
+            this.stamps = new long[permits.length][];
+            for (int i = 0; i < permits.length; i++) {
+                stamps[i] = new long[permits[i]];
+            }
+            this.next = new int[permits.length];
+        }
+
+        private synchronized long tryAcquire(long now, long[] windowMillis) {
+            long wait = 0;
+            for (int i = 0; i < stamps.length; i++) {
+                long oldest = stamps[i][next[i]];
+                if (oldest != 0 && now - oldest < windowMillis[i]) {
+                    wait = Math.max(wait, windowMillis[i] - (now - oldest));
+                }
+            }
+            if (wait > 0) {
+                return wait;
+            }
+            for (int i = 0; i < stamps.length; i++) {
+                stamps[i][next[i]] = now;
+                next[i] = (next[i] + 1) % stamps[i].length;
+            }
+            return 0;
+        }
+
+        // 各规则同时记录，看第一条规则的最新时间即可
+        private synchronized boolean idle(long now, long maxWindowMillis) {
+            long newest = stamps[0][(next[0] + stamps[0].length - 1) % stamps[0].length];
+            return newest == 0 || now - newest >= maxWindowMillis;
+        }
+    }
+}
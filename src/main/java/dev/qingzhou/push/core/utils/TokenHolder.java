@@ -0,0 +1,79 @@
+package dev.qingzhou.push.core.utils;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 会话内的 token 持有者
+ * <p>
+ * 缓存当前 token 以及由 token 预先构建的值 (如带 access_token 的发送地址、Authorization 头)，
+ * 未过期时只读一个 volatile 字段；过期后先查 {@link TokenStore} (其他会话可能已刷新)，仍没有才调用 fetcher。
+ *
+ * @param <T> 由 token 构建的值
+ */
+public final class TokenHolder<T> {
+
+    private final TokenStore store;
+    private final String key;
+    private final Supplier<Grant> fetcher;
+    private final Function<String, T> derive;
+
+    private volatile Snapshot<T> current;
+
+    /**
+     * @param key 已哈希的缓存 Key，见 {@link TokenStore#key(String, String...)}
+     * @param fetcher 向平台申请新 token
+     * @param derive 由 token 构建热路径上直接使用的值
+     */
+    public TokenHolder(TokenStore store, String key, Supplier<Grant> fetcher, Function<String, T> derive) {
+        this.store = store;
+        this.key = key;
+        this.fetcher = fetcher;
+        this.derive = derive;
+    }
+
+    public T get() {
+        Snapshot<T> snapshot = current;
+        if (snapshot != null && System.currentTimeMillis() <= snapshot.expireAt) {
+            return snapshot.value;
+        }
+        return refresh();
+    }
+
+    /**
+     * 平台返回 token 失效 (如 secret 被重置、token 被提前作废) 时调用，下次 {@link #get()} 重新申请
+     * @param stale 失败请求所用的值 ({@link #get()} 的返回值)；已被刷新过时不再作废，避免并发请求反复申请
+     */
+    public synchronized void invalidate(T stale) {
+        Snapshot<T> snapshot = current;
+        if (snapshot == null || snapshot.value != stale) {
+            return;
+        }
+        current = null;
+        store.remove(key, snapshot.token);
+    }
+
+    private synchronized T refresh() {
+        Snapshot<T> snapshot = current;
+        if (snapshot != null && System.currentTimeMillis() <= snapshot.expireAt) {
+            return snapshot.value;
+        }
+        TokenStore.Token token = store.lookup(key);
+        if (token == null) {
+            Grant grant = fetcher.get();
+            token = store.set(key, grant.token(), grant.expiresInSeconds());
+        }
+        snapshot = new Snapshot<>(derive.apply(token.value()), token.value(), token.expireAt());
+        current = snapshot;
+        return snapshot.value;
+    }
+
+    /**
+     * 平台返回的 token 与有效期
+     */
+    public record Grant(String token, long expiresInSeconds) {
+    }
+
+    private record Snapshot<T>(T value, String token, long expireAt) {
+    }
+}
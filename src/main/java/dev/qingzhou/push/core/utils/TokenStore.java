@@ -0,0 +1,94 @@
+package dev.qingzhou.push.core.utils;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内存 Token 缓存实例
+ * 每个 {@link dev.qingzhou.push.core.api.PushClient} 持有自己的 TokenStore，租户之间互不可见；
+ * {@link TokenCache} 的静态方法委托给 {@link #shared()}。
+ */
+public class TokenStore {
+
+    // 提前过期的秒数，避免临界点拿到刚好失效的 token
+    private static final long SAFETY_MARGIN_SECONDS = 200;
+
+    private final Map<String, Token> cache = new ConcurrentHashMap<>();
+
+    public static TokenStore shared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * 生成缓存 Key：凭证部分做 SHA-256，避免密钥以明文出现在 Key 中
+     * @param prefix 通道前缀，如 wecom_token_
+     * @param parts 确定一个 token 的凭证 (如 corpId、secret)
+     */
+    public static String key(String prefix, String... parts) {
+        return prefix + DigestUtils.sha256Hex(String.join("\0", parts));
+    }
+
+    /**
+     * @return token 或 null (如果不存在或已过期)
+     */
+    public String get(String key) {
+        Token token = lookup(key);
+        return token != null ? token.value() : null;
+    }
+
+    /**
+     * 与 {@link #get(String)} 相同，但同时返回过期时间
+     */
+    public Token lookup(String key) {
+        Token token = cache.get(key);
+        if (token == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() > token.expireAt()) {
+            cache.remove(key, token);
+            return null;
+        }
+        return token;
+    }
+
+    /**
+     * @param expireSeconds 平台返回的有效期(秒)，实际缓存时间会扣除安全余量
+     */
+    public Token set(String key, String token, long expireSeconds) {
+        long safeExpireSeconds = Math.max(1, expireSeconds - SAFETY_MARGIN_SECONDS);
+        Token entry = new Token(token, System.currentTimeMillis() + safeExpireSeconds * 1000);
+        cache.put(key, entry);
+        return entry;
+    }
+
+    public void remove(String key) {
+        cache.remove(key);
+    }
+
+    /**
+     * 仅当缓存的仍是该 token 时删除，避免删掉其他会话刚刷新的新 token
+     */
+    public void remove(String key, String token) {
+        cache.computeIfPresent(key, (k, entry) -> entry.value().equals(token) ? null : entry);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * @param expireAt 本地判定过期的时间戳 (毫秒，已扣除安全余量)
+     */
+    public record Token(String value, long expireAt) {
+    }
+
+    private static final class Holder {
+        private static final TokenStore SHARED = new TokenStore();
+    }
+}
@@ -0,0 +1,130 @@
+package dev.qingzhou.push.core.api;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.model.enums.MessageType;
+import dev.qingzhou.push.core.template.MessageTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PushClientTest {
+
+    private static final PushConfig CONFIG = PushConfig.builder().appKey("k").build();
+    private static final MessageTemplate ALERT = MessageTemplate.of("alert", PushMessage.builder()
+            .type(MessageType.TEXT)
+            .content("${status}")
+            .build(), Duration.ofMillis(200));
+
+    @Test
+    void templateTtlCoversWaitForSendPermit() throws Exception {
+        BlockingChannel channel = new BlockingChannel();
+        try (PushClient client = PushClient.builder().name("ttl").loadServices(false).maxConcurrentSends(1)
+                .channel(channel).build()) {
+            CompletableFuture<PushResult> holder = client.sendAsync("blocking", PushMessage.text("u1", "hold"), CONFIG);
+            assertTrue(channel.entered.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            PushResult result = client.send("blocking", ALERT, "u2", Map.of("status", "down"), CONFIG);
+            long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(result.isExpired(), String.valueOf(result));
+            assertTrue(waitedMillis < 2_000, "waited " + waitedMillis + "ms");
+            channel.release.countDown();
+            assertTrue(holder.get(5, TimeUnit.SECONDS).isSuccess());
+            assertEquals(1, channel.received.size());
+        }
+    }
+
+    @Test
+    void templateDeadlineIsPassedToChannel() {
+        BlockingChannel channel = new BlockingChannel();
+        channel.release.countDown();
+        try (PushClient client = PushClient.builder().name("deadline").loadServices(false).maxConcurrentSends(1)
+                .channel(channel).build()) {
+            long before = System.currentTimeMillis();
+            assertTrue(client.send("blocking", ALERT, "u1", Map.of("status", "down"), CONFIG).isSuccess());
+
+            Long expireAt = channel.received.get(0).getExpireAt();
+            assertTrue(expireAt >= before + 200 && expireAt <= System.currentTimeMillis() + 200, "expireAt " + expireAt);
+            assertFalse(channel.received.get(0).getContent().contains("${"));
+        }
+    }
+
+    @Test
+    void keepAlivePingsWarmedHostsUntilClose() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        AtomicInteger heads = new AtomicInteger();
+        server.createContext("/", exchange -> {
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                heads.incrementAndGet();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            URI host = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/api");
+            PushClient client = PushClient.builder().name("keep-alive").loadServices(false)
+                    .keepAlive(Duration.ofMillis(50)).build();
+            client.transport().preconnect(host);
+            assertEquals(1, client.transport().warmedHosts().size());
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (heads.get() < 4 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(heads.get() >= 4, "heads " + heads.get());
+
+            client.close();
+            int afterClose = heads.get();
+            Thread.sleep(200);
+            assertEquals(afterClose, heads.get());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * 第一条消息阻塞到 release，占住并发名额
+     */
+    private static final class BlockingChannel implements IPushChannel {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<PushMessage> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String type() {
+            return "blocking";
+        }
+
+        @Override
+        public PushResult send(PushMessage message, PushConfig config) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(message);
+            return PushResult.success(null, null);
+        }
+    }
+}
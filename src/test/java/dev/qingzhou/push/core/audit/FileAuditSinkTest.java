@@ -0,0 +1,109 @@
+package dev.qingzhou.push.core.audit;
+
+import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.model.enums.MessageType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileAuditSinkTest {
+
+    private static final PushResult OK = PushResult.success("m1", null);
+
+    @Test
+    void closeWritesBufferedRecords(@TempDir Path dir) throws Exception {
+        FileAuditSink sink = FileAuditSink.builder().directory(dir).linger(Duration.ofSeconds(1)).build();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(sink.record(record(i)));
+        }
+
+        sink.close();
+
+        assertEquals(100, sink.written());
+        assertEquals(0, sink.dropped());
+        assertEquals(100, lines(dir));
+        assertFalse(sink.record(record(100)));
+        assertEquals(1, sink.dropped());
+    }
+
+    @Test
+    void recordsRacingCloseAreWrittenOrCounted(@TempDir Path dir) throws Exception {
+        for (int round = 0; round < 10; round++) {
+            Path roundDir = dir.resolve("round-" + round);
+            FileAuditSink sink = FileAuditSink.builder().directory(roundDir).bufferSize(1024).fsyncInterval(null)
+                    .linger(Duration.ofMillis(1)).build();
+            AtomicLong attempts = new AtomicLong();
+            AtomicBoolean stop = new AtomicBoolean();
+            CountDownLatch started = new CountDownLatch(4);
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                producers.add(Thread.ofPlatform().start(() -> {
+                    started.countDown();
+                    // 关闭之后再继续提交一段时间，覆盖写线程退出前后的窗口
+                    int afterClose = 0;
+                    while (afterClose < 1_000) {
+                        sink.record(record(attempts.incrementAndGet()));
+                        if (stop.get()) {
+                            afterClose++;
+                        }
+                    }
+                }));
+            }
+            started.await();
+            Thread.sleep(5);
+            sink.close();
+            stop.set(true);
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            assertEquals(attempts.get(), sink.written() + sink.dropped(), "round " + round);
+            assertEquals(sink.written(), lines(roundDir), "round " + round);
+        }
+    }
+
+    @Test
+    void hashCoversTypeTitleAndContent() {
+        AuditRecord a = AuditRecord.of("wecom", "u1", MessageType.TEXT, "t", "c", OK, System.nanoTime());
+        AuditRecord b = AuditRecord.of("feishu", "u2", MessageType.TEXT, "t", "c", OK, System.nanoTime());
+
+        assertEquals(a.messageHash(), b.messageHash());
+        assertFalse(a.messageHash().equals(
+                AuditRecord.of("wecom", "u1", MessageType.MARKDOWN, "t", "c", OK, 0).messageHash()));
+        assertFalse(a.messageHash().equals(
+                AuditRecord.of("wecom", "u1", MessageType.TEXT, null, "t\0c", OK, 0).messageHash()));
+    }
+
+    private static AuditRecord record(long i) {
+        return AuditRecord.of("wecom", "u1", MessageType.TEXT, null, "hello " + i, OK, System.nanoTime());
+    }
+
+    private static long lines(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return 0;
+        }
+        long count = 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                try (Stream<String> lines = Files.lines(file)) {
+                    count += lines.count();
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,57 @@
+package dev.qingzhou.push.core.bench;
+
+import dev.qingzhou.push.core.utils.HmacSigner;
+import dev.qingzhou.push.core.utils.SignUtils;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * HmacSigner 与 SignUtils.sign 的对比基准 (钉钉加签场景)
+ * <p>
+ * 不参与 mvn test，需要时 mvn test-compile 后直接运行 main。
+ */
+public class SignBenchmark {
+
+    private static final String SECRET = "SEC0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcd";
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    public static void main(String[] args) {
+        long timestamp = System.currentTimeMillis();
+
+        // 结果一致性校验
+        String expected = SignUtils.sign(SECRET, timestamp + "\n" + SECRET);
+        String actual = HmacSigner.of(SECRET).signWithTimestamp(timestamp);
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("Signature mismatch: " + expected + " vs " + actual);
+        }
+
+        for (int round = 0; round < 3; round++) {
+            run("SignUtils.sign", WARMUP, ITERATIONS, ts -> SignUtils.sign(SECRET, ts + "\n" + SECRET));
+            run("HmacSigner", WARMUP, ITERATIONS, ts -> HmacSigner.of(SECRET).signWithTimestamp(ts));
+        }
+    }
+
+    private static void run(String name, int warmup, int iterations, Signer signer) {
+        long sink = 0;
+        for (int i = 0; i < warmup; i++) {
+            sink += signer.sign(1_700_000_000_000L + i).length();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += signer.sign(1_700_000_000_000L + i).length();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocBefore;
+        System.out.printf("%-16s %8.1f ns/op %8.1f B/op (sink=%d)%n",
+                name, (double) elapsed / iterations, (double) allocated / iterations, sink);
+    }
+
+    @FunctionalInterface
+    private interface Signer {
+        String sign(long timestamp);
+    }
+}
@@ -0,0 +1,82 @@
+package dev.qingzhou.push.core.bench;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.qingzhou.push.core.api.ChannelIds;
+import dev.qingzhou.push.core.api.IPushChannel;
+import dev.qingzhou.push.core.api.PushChannelFactory;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 冷启动基准：从 JVM 启动到第一条消息发送完成的耗时 (time-to-first-send)
+ * <p>
+ * 用钉钉机器人通道发送到本地 HttpServer，排除网络因素。每次运行只测一次冷启动，
+ * 需要多次取样时重复启动 JVM，例如：
+ * <pre>
+ * mvn test-compile
+ * for i in 1 2 3 4 5; do java -cp target/classes:target/test-classes:&lt;deps&gt; dev.qingzhou.push.core.bench.StartupBenchmark; done
+ * </pre>
+ * 不参与 mvn test。
+ */
+public class StartupBenchmark {
+
+    private static final byte[] OK = "{\"errcode\":0,\"errmsg\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+        long mainStart = System.nanoTime();
+        long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/robot/send", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, OK.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(OK);
+            }
+        });
+        server.start();
+        long serverReady = System.nanoTime();
+
+        try {
+            PushConfig config = PushConfig.builder()
+                    .webhookUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/robot/send?access_token=bench")
+                    .build();
+
+            IPushChannel channel = PushChannelFactory.getChannel(ChannelIds.DINGTALK);
+            long channelReady = System.nanoTime();
+
+            PushResult first = channel.send(PushMessage.text("", "cold start"), config);
+            long firstSent = System.nanoTime();
+            if (!first.isSuccess()) {
+                throw new IllegalStateException("First send failed: " + first.getErrorMsg());
+            }
+            long firstSentWall = System.currentTimeMillis();
+
+            PushResult second = channel.send(PushMessage.text("", "warm"), config);
+            long secondSent = System.nanoTime();
+            if (!second.isSuccess()) {
+                throw new IllegalStateException("Second send failed: " + second.getErrorMsg());
+            }
+
+            System.out.printf("jvm start -> first send done : %6d ms%n", firstSentWall - jvmStartMillis);
+            System.out.printf("main -> first send done      : %6.1f ms%n", millis(firstSent - mainStart));
+            System.out.printf("  local server start         : %6.1f ms%n", millis(serverReady - mainStart));
+            System.out.printf("  getChannel (SPI load)      : %6.1f ms%n", millis(channelReady - serverReady));
+            System.out.printf("  first send                 : %6.1f ms%n", millis(firstSent - channelReady));
+            System.out.printf("second send                  : %6.1f ms%n", millis(secondSent - firstSent));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,186 @@
+package dev.qingzhou.push.core.channel;
+
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.model.enums.MessageType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentSplitterTest {
+
+    @Test
+    void textSplitsAtLineBoundaries() {
+        List<String> parts = ContentSplitter.split("aaa\nbbb\nccc\n", false, 8, ContentLimit.chars(8));
+
+        assertEquals(List.of("aaa\nbbb", "ccc"), parts);
+    }
+
+    @Test
+    void markdownKeepsParagraphsTogether() {
+        List<String> parts = ContentSplitter.split("# T\n\npara one\n\npara two\n", true, 15, ContentLimit.chars(15));
+
+        assertEquals(List.of("# T\n\npara one", "para two"), parts);
+    }
+
+    @Test
+    void shortCodeBlockStaysInOnePart() {
+        String content = "intro\n\n```\ncode\n```\n\noutro\n";
+        List<String> parts = ContentSplitter.split(content, true, 16, ContentLimit.chars(16));
+
+        assertEquals(List.of("intro", "```\ncode\n```", "outro"), parts);
+    }
+
+    @Test
+    void longCodeBlockIsRewrappedInEveryPart() {
+        String content = "```java\nline1\nline2\nline3\nline4\n```\n";
+        List<String> parts = ContentSplitter.split(content, true, 25, ContentLimit.chars(25));
+
+        assertEquals(List.of("```java\nline1\nline2\n```", "```java\nline3\nline4\n```"), parts);
+        parts.forEach(part -> assertTrue(part.length() <= 25, part));
+    }
+
+    @Test
+    void unclosedFenceIsClosedInEveryPart() {
+        String content = "~~~\nalpha\nbravo\ncharlie\n";
+        List<String> parts = ContentSplitter.split(content, true, 16, ContentLimit.chars(16));
+
+        assertEquals(List.of("~~~\nalpha\n~~~", "~~~\nbravo\n~~~", "~~~\ncharlie\n~~~"), parts);
+    }
+
+    @Test
+    void hardCutNeverSplitsSurrogatePairsByBytes() {
+        String content = "😀".repeat(10);
+        List<String> parts = ContentSplitter.split(content, false, 10, ContentLimit.bytes(10));
+
+        assertEquals(5, parts.size());
+        assertWholeCodePoints(parts);
+        parts.forEach(part -> assertEquals(8, ContentLimit.utf8Length(part)));
+        assertEquals(content, String.join("", parts));
+    }
+
+    @Test
+    void hardCutNeverSplitsSurrogatePairsByChars() {
+        String content = "a" + "😀".repeat(4);
+        List<String> parts = ContentSplitter.split(content, false, 4, ContentLimit.chars(4));
+
+        assertEquals(List.of("a😀", "😀😀", "😀"), parts);
+        assertWholeCodePoints(parts);
+    }
+
+    @Test
+    void longLineFallsBackToHardCut() {
+        List<String> parts = ContentSplitter.split("short\n" + "x".repeat(25), false, 10, ContentLimit.chars(10));
+
+        assertEquals(List.of("short", "x".repeat(10), "x".repeat(10), "x".repeat(5)), parts);
+    }
+
+    @Test
+    void autoSplitReservesTitleInEveryPart() {
+        RecordingChannel channel = new RecordingChannel(ContentLimit.chars(20).withTitle());
+        PushMessage message = PushMessage.builder()
+                .type(MessageType.TEXT)
+                .target("u")
+                .title("Title")
+                .content("line one\nline two\nline three\n")
+                .extras(Map.of(PushMessage.EXTRA_AUTO_SPLIT, true))
+                .build();
+
+        PushResult result = channel.send(message, new PushConfig());
+
+        assertTrue(result.isSuccess());
+        assertEquals(List.of("line one", "line two", "line three"), channel.contents());
+        for (PushMessage part : channel.delivered) {
+            assertEquals("Title", part.getTitle());
+            assertTrue(part.getTitle().length() + 1 + part.getContent().length() <= 20, part.getContent());
+        }
+        assertEquals(3, result.getParts().size());
+        assertEquals("msg-1", result.getMsgId());
+    }
+
+    @Test
+    void autoSplitFailsWhenTitleLeavesNoBudget() {
+        RecordingChannel channel = new RecordingChannel(ContentLimit.chars(10).withTitle());
+        PushMessage message = PushMessage.builder()
+                .type(MessageType.TEXT)
+                .target("u")
+                .title("A very long title")
+                .content("content that does not fit")
+                .extras(Map.of(PushMessage.EXTRA_AUTO_SPLIT, "true"))
+                .build();
+
+        PushResult result = channel.send(message, new PushConfig());
+
+        assertFalse(result.isSuccess());
+        assertTrue(result.getErrorMsg().contains("title too long"), result.getErrorMsg());
+        assertTrue(channel.delivered.isEmpty());
+    }
+
+    @Test
+    void overLimitWithoutAutoSplitIsRejected() {
+        RecordingChannel channel = new RecordingChannel(ContentLimit.chars(10));
+        PushMessage message = PushMessage.builder().type(MessageType.TEXT).target("u").content("x".repeat(11)).build();
+
+        PushResult result = channel.send(message, new PushConfig());
+
+        assertFalse(result.isSuccess());
+        assertEquals("test TEXT content too long: 11 chars (max 10)", result.getErrorMsg());
+        assertTrue(channel.delivered.isEmpty());
+    }
+
+    private static void assertWholeCodePoints(List<String> parts) {
+        for (String part : parts) {
+            assertFalse(Character.isLowSurrogate(part.charAt(0)), part);
+            assertFalse(Character.isHighSurrogate(part.charAt(part.length() - 1)), part);
+        }
+    }
+
+    /**
+     * 记录每次实际发送的消息
+     */
+    private static final class RecordingChannel extends AbstractChannel {
+
+        private final ContentLimit limit;
+        private final List<PushMessage> delivered = new ArrayList<>();
+
+        private RecordingChannel(ContentLimit limit) {
+            this.limit = limit;
+        }
+
+        private List<String> contents() {
+            return delivered.stream().map(PushMessage::getContent).toList();
+        }
+
+        @Override
+        public String type() {
+            return "test";
+        }
+
+        @Override
+        protected ContentLimit contentLimit(MessageType type, boolean webhook) {
+            return limit;
+        }
+
+        @Override
+        protected void checkConfig(PushConfig config) {
+        }
+
+        @Override
+        protected PushResult doSend(PushMessage message, PushConfig config) {
+            delivered.add(message);
+            return PushResult.success("msg-" + delivered.size(), null);
+        }
+
+        @Override
+        protected PushResult parseResult(String rawJson) {
+            return PushResult.success(null, rawJson);
+        }
+    }
+}
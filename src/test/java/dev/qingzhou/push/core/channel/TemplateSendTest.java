@@ -0,0 +1,149 @@
+package dev.qingzhou.push.core.channel;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.qingzhou.push.core.audit.AuditRecord;
+import dev.qingzhou.push.core.audit.AuditSink;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.model.enums.MessageType;
+import dev.qingzhou.push.core.template.MessageTemplate;
+import dev.qingzhou.push.core.utils.HttpTransport;
+import dev.qingzhou.push.core.utils.Json;
+import dev.qingzhou.push.core.utils.TokenStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TemplateSendTest {
+
+    private static final PushConfig WEBHOOK = PushConfig.builder().webhookUrl("https://hook.example.com/x").build();
+    private static final MessageTemplate ALERT = MessageTemplate.of("alert", PushMessage.builder()
+            .type(MessageType.MARKDOWN)
+            .title("${service} 告警")
+            .content("**状态**: ${status}")
+            .build());
+
+    private final List<AuditRecord> audits = new CopyOnWriteArrayList<>();
+    private WebhookChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        channel = new WebhookChannel(ContentLimit.bytes(64));
+        channel.init(new ChannelContext(new HttpTransport(), new TokenStore(), new AuditSink() {
+            @Override
+            public boolean record(AuditRecord record) {
+                return audits.add(record);
+            }
+
+            @Override
+            public long dropped() {
+                return 0;
+            }
+        }));
+    }
+
+    @Test
+    void skeletonSendAuditsSameHashAsPlainMessage() {
+        Map<String, String> values = Map.of("service", "order", "status", "down");
+
+        assertTrue(channel.send(ALERT, null, values, WEBHOOK).isSuccess());
+        assertTrue(channel.send(ALERT.render(null, values), WEBHOOK).isSuccess());
+
+        assertEquals(1, channel.bodies.size(), "first send uses the compiled skeleton");
+        assertEquals(1, channel.delivered.size());
+        assertEquals(2, audits.size());
+        assertEquals(audits.get(1).messageHash(), audits.get(0).messageHash());
+    }
+
+    @Test
+    void overLongTemplateFallsBackToLengthCheck() {
+        PushResult result = channel.send(ALERT, null, Map.of("service", "order", "status", "x".repeat(100)), WEBHOOK);
+
+        assertFalse(result.isSuccess());
+        assertTrue(result.getErrorMsg().contains("too long"), result.getErrorMsg());
+        assertTrue(channel.bodies.isEmpty());
+        assertTrue(channel.delivered.isEmpty());
+    }
+
+    @Test
+    void ttlIsAppliedPerSend() throws Exception {
+        MessageTemplate expiring = MessageTemplate.of("expiring", ALERT.prototype(), Duration.ofMillis(200));
+        Map<String, String> values = Map.of("service", "order", "status", "down");
+        assertTrue(channel.send(expiring, null, values, WEBHOOK).isSuccess());
+
+        Thread.sleep(300);
+
+        PushResult later = channel.send(expiring, null, values, WEBHOOK);
+        assertTrue(later.isSuccess(), String.valueOf(later.getErrorMsg()));
+        assertEquals(2, channel.bodies.size());
+    }
+
+    private static final class WebhookChannel extends AbstractChannel {
+
+        private final ContentLimit limit;
+        private final List<String> bodies = new ArrayList<>();
+        private final List<PushMessage> delivered = new ArrayList<>();
+
+        private WebhookChannel(ContentLimit limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public String type() {
+            return "test";
+        }
+
+        @Override
+        protected ContentLimit contentLimit(MessageType type, boolean webhook) {
+            return limit;
+        }
+
+        @Override
+        protected boolean supportsWebhook() {
+            return true;
+        }
+
+        @Override
+        protected void checkConfig(PushConfig config) {
+        }
+
+        @Override
+        protected PushResult doSend(PushMessage message, PushConfig config) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected PushResult doSendWebhook(PushMessage message, PushConfig config) {
+            delivered.add(message);
+            return PushResult.success(null, null);
+        }
+
+        @Override
+        protected String webhookTemplateBody(PushMessage message, PushConfig config) throws Exception {
+            ObjectNode body = Json.mapper().createObjectNode();
+            body.putObject("markdown").put("content", message.getTitle() + "\n" + message.getContent());
+            return Json.mapper().writeValueAsString(body);
+        }
+
+        @Override
+        protected PushResult sendWebhookBody(String body, PushConfig config) {
+            bodies.add(body);
+            return PushResult.success(null, body);
+        }
+
+        @Override
+        protected PushResult parseResult(String rawJson) {
+            return PushResult.success(null, rawJson);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package dev.qingzhou.push.core.channel.impl;
+
+import dev.qingzhou.push.core.channel.impl.smtp.FakeSmtpServer;
+import dev.qingzhou.push.core.channel.impl.smtp.SmtpPool;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailChannelTest {
+
+    private static final SmtpPool.Settings SETTINGS = new SmtpPool.Settings(2, 100, 60_000, 10_000, 60_000,
+            2_000, 2_000);
+
+    @Test
+    void rejectedRecipientsFailTheSend() throws Exception {
+        try (FakeSmtpServer server = FakeSmtpServer.plain(true);
+             EmailChannel channel = new EmailChannel(SETTINGS)) {
+            PushResult result = channel.send(PushMessage.text("a@example.com, nobody@example.com", "hello"),
+                    config(server, null, null));
+
+            assertFalse(result.isSuccess());
+            assertEquals("550", result.getErrorCode());
+            assertTrue(result.getErrorMsg().contains("nobody@example.com"), result.getErrorMsg());
+            assertEquals(List.of("a@example.com"), server.mails.get(0).recipients());
+        }
+    }
+
+    @Test
+    void rotatedPasswordOpensNewPool() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer(true, "PLAIN", null, "bot@example.com", "new-secret");
+             EmailChannel channel = new EmailChannel(SETTINGS)) {
+            PushMessage message = PushMessage.text("a@example.com", "hello");
+
+            assertFalse(channel.send(message, config(server, "bot@example.com", "old-secret")).isSuccess());
+            PushResult rotated = channel.send(message, config(server, "bot@example.com", "new-secret"));
+
+            assertTrue(rotated.isSuccess(), rotated.getErrorMsg());
+            assertEquals(1, server.mails.size());
+        }
+    }
+
+    private static PushConfig config(FakeSmtpServer server, String username, String password) {
+        return PushConfig.builder()
+                .webhookUrl("smtp+plain://localhost:" + server.port())
+                .appKey(username)
+                .appSecret(password)
+                .agentId("bot@example.com")
+                .build();
+    }
+}
@@ -0,0 +1,192 @@
+package dev.qingzhou.push.core.channel.impl;
+
+import dev.qingzhou.push.core.channel.ChannelContext;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.utils.Deadline;
+import dev.qingzhou.push.core.utils.HttpTransport;
+import dev.qingzhou.push.core.utils.MultipartBody;
+import dev.qingzhou.push.core.utils.TokenStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeishuChannelTest {
+
+    private static final PushConfig CONFIG = PushConfig.builder().appKey("cli_app").appSecret("secret").build();
+    private static final String SLOW_PIC = "https://img.example.com/slow.png";
+    private static final String FAST_PIC = "https://img.example.com/fast.png";
+
+    private final FakeFeishu feishu = new FakeFeishu();
+    private FeishuChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        channel = new FeishuChannel();
+        channel.init(new ChannelContext(feishu, new TokenStore()));
+    }
+
+    @Test
+    void picResolveStopsAtDeadline() {
+        // 预热 token 与 JSON，截止时间只覆盖图片解析与发送
+        assertTrue(channel.send(PushMessage.text("ou_1", "warm up"), CONFIG).isSuccess());
+
+        PushMessage news = PushMessage.news("ou_1", List.of(
+                PushMessage.Article.builder().title("快").url("https://example.com/1").picUrl(FAST_PIC).build(),
+                PushMessage.Article.builder().title("慢").url("https://example.com/2").picUrl(SLOW_PIC).build()));
+        news.setExtras(Map.of(FeishuChannel.EXTRA_RESOLVE_PIC_URL, true));
+
+        long start = System.nanoTime();
+        PushResult result;
+        try (Deadline.Scope ignored = Deadline.enter(System.currentTimeMillis() + 1_000)) {
+            result = channel.send(news, CONFIG);
+        }
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+        assertTrue(result.isSuccess(), result.getErrorMsg());
+        String body = feishu.sends.get(feishu.sends.size() - 1);
+        // 只有下载完成的图片出现在卡片里
+        assertEquals(1, body.split("img_key", -1).length - 1, body);
+        feishu.releaseSlow.countDown();
+    }
+
+    @Test
+    void alertCardIsCreatedPatchedAndSkippedWhenUnchanged() {
+        PushResult created = channel.send(alert("ou_1", "disk-1", "使用率 91%"), CONFIG);
+        PushResult unchanged = channel.send(alert("ou_1", "disk-1", "使用率 91%"), CONFIG);
+        PushResult updated = channel.send(alert("ou_1", "disk-1", "使用率 97%"), CONFIG);
+
+        assertTrue(created.isSuccess(), created.getErrorMsg());
+        assertEquals(1, feishu.sends.size());
+        assertTrue(feishu.sends.get(0).contains("update_multi"), feishu.sends.get(0));
+
+        assertTrue(unchanged.isSuccess());
+        assertEquals(created.getMsgId(), unchanged.getMsgId());
+        assertNull(unchanged.getRawResult());
+
+        assertTrue(updated.isSuccess(), updated.getErrorMsg());
+        assertEquals(created.getMsgId(), updated.getMsgId());
+        assertEquals(1, feishu.sends.size());
+        assertEquals(1, feishu.patches.size());
+        assertTrue(feishu.patches.get(0).startsWith("/open-apis/im/v1/messages/" + created.getMsgId() + " "));
+        assertTrue(feishu.patches.get(0).contains("97%"));
+    }
+
+    @Test
+    void failedPatchFallsBackToNewCard() {
+        PushResult first = channel.send(alert("ou_1", "disk-1", "使用率 91%"), CONFIG);
+        feishu.patchResponse = "{\"code\":230031,\"msg\":\"The message is too old to be updated\"}";
+
+        PushResult recreated = channel.send(alert("ou_1", "disk-1", "使用率 97%"), CONFIG);
+
+        assertTrue(recreated.isSuccess(), recreated.getErrorMsg());
+        assertNotEquals(first.getMsgId(), recreated.getMsgId());
+        assertEquals(1, feishu.patches.size());
+        assertEquals(2, feishu.sends.size());
+
+        // 之后的更新作用在新卡片上
+        feishu.patchResponse = "{\"code\":0,\"msg\":\"ok\"}";
+        assertEquals(recreated.getMsgId(), channel.send(alert("ou_1", "disk-1", "已恢复"), CONFIG).getMsgId());
+        assertTrue(feishu.patches.get(1).contains("/" + recreated.getMsgId() + " "));
+        assertEquals(2, feishu.sends.size());
+    }
+
+    @Test
+    void rateLimitedPatchKeepsExistingCard() {
+        PushResult first = channel.send(alert("ou_1", "disk-1", "使用率 91%"), CONFIG);
+        feishu.patchResponse = "{\"code\":99991400,\"msg\":\"request trigger frequency limit\"}";
+
+        PushResult limited = channel.send(alert("ou_1", "disk-1", "使用率 97%"), CONFIG);
+
+        assertFalse(limited.isSuccess());
+        assertEquals("99991400", limited.getErrorCode());
+        assertEquals(1, feishu.sends.size());
+
+        // 限流解除后仍更新原卡片，并且不会因为上次失败而跳过
+        feishu.patchResponse = "{\"code\":0,\"msg\":\"ok\"}";
+        assertTrue(channel.send(alert("ou_1", "disk-1", "使用率 97%"), CONFIG).isSuccess());
+        assertEquals(2, feishu.patches.size());
+        assertTrue(feishu.patches.get(1).contains("/" + first.getMsgId() + " "));
+        assertEquals(1, feishu.sends.size());
+    }
+
+    @Test
+    void alertKeyIsScopedByTarget() {
+        channel.send(alert("ou_1", "disk-1", "使用率 91%"), CONFIG);
+        channel.send(alert("ou_2", "disk-1", "使用率 91%"), CONFIG);
+        channel.send(alert("ou_1", "disk-2", "使用率 91%"), CONFIG);
+
+        assertEquals(3, feishu.sends.size());
+        assertTrue(feishu.patches.isEmpty());
+    }
+
+    private static PushMessage alert(String target, String alertKey, String content) {
+        PushMessage message = PushMessage.markdown(target, "磁盘告警", content);
+        message.setExtras(Map.of(FeishuChannel.EXTRA_ALERT_KEY, alertKey));
+        return message;
+    }
+
+    /**
+     * 仿飞书开放平台：token、发送、更新、图片上传与下载；slow 图片的下载一直阻塞且不响应中断
+     */
+    static final class FakeFeishu extends HttpTransport {
+
+        final List<String> sends = new CopyOnWriteArrayList<>();
+        final List<String> patches = new CopyOnWriteArrayList<>();
+        final CountDownLatch releaseSlow = new CountDownLatch(1);
+        volatile String patchResponse = "{\"code\":0,\"msg\":\"ok\"}";
+        private int messageIds;
+
+        @Override
+        public String post(String url, Object body) {
+            return "{\"code\":0,\"tenant_access_token\":\"t-1\",\"expire\":7200}";
+        }
+
+        @Override
+        public String post(URI uri, Object body, Map<String, String> headers) {
+            sends.add(String.valueOf(body));
+            synchronized (this) {
+                return "{\"code\":0,\"data\":{\"message_id\":\"om_" + (++messageIds) + "\"}}";
+            }
+        }
+
+        @Override
+        public String patch(URI uri, Object body, Map<String, String> headers) {
+            patches.add(uri.getPath() + " " + body);
+            return patchResponse;
+        }
+
+        @Override
+        public String postMultipart(String url, MultipartBody body, Map<String, String> headers) {
+            return "{\"code\":0,\"data\":{\"image_key\":\"img_1\"}}";
+        }
+
+        @Override
+        public Download download(String url, long maxBytes) {
+            if (url.equals(SLOW_PIC)) {
+                while (true) {
+                    try {
+                        releaseSlow.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        // 模拟不响应中断的下载
+                    }
+                }
+            }
+            return new Download(new byte[]{1, 2, 3}, "image/png");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package dev.qingzhou.push.core.channel.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.qingzhou.push.core.channel.ChannelContext;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import dev.qingzhou.push.core.model.enums.MessageType;
+import dev.qingzhou.push.core.utils.Deadline;
+import dev.qingzhou.push.core.utils.HttpTransport;
+import dev.qingzhou.push.core.utils.Json;
+import dev.qingzhou.push.core.utils.TokenStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TelegramChannelTest {
+
+    private static final PushConfig CONFIG = PushConfig.builder().appKey("123:abc").build();
+    private static final String OK = "{\"ok\":true,\"result\":{\"message_id\":42}}";
+
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private TelegramChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        channel = new TelegramChannel();
+        channel.init(new ChannelContext(new HttpTransport() {
+            @Override
+            public String post(String url, Object body) {
+                bodies.add((String) body);
+                return OK;
+            }
+        }, new TokenStore()));
+    }
+
+    @Test
+    void escapesEverySpecialCharacter() {
+        assertEquals("CPU 95\\.5% \\(p99\\) \\- a\\_b \\*x\\* \\[1\\] \\{\\} \\#\\+\\=\\|\\!\\>\\~\\`\\\\",
+                TelegramChannel.escapeMarkdownV2("CPU 95.5% (p99) - a_b *x* [1] {} #+=|!>~`\\"));
+        assertEquals("中文 😀", TelegramChannel.escapeMarkdownV2("中文 😀"));
+    }
+
+    @Test
+    void convertsCommonMarkdown() {
+        assertEquals("*粗体* _斜体_ _斜体_ ~删除~", TelegramChannel.toMarkdownV2("**粗体** *斜体* _斜体_ ~~删除~~"));
+        assertEquals("*标题 v1\\.2*\n• 第一项\n• 第二项", TelegramChannel.toMarkdownV2("## 标题 v1.2\n- 第一项\n* 第二项"));
+        assertEquals("[查看 \\(详情\\)](https://example.com/a?b=1)",
+                TelegramChannel.toMarkdownV2("[查看 (详情)](https://example.com/a?b=1)"));
+    }
+
+    @Test
+    void codeKeepsContentExceptBacktickAndBackslash() {
+        assertEquals("`a.b_c*d \\\\`", TelegramChannel.toMarkdownV2("`a.b_c*d \\`"));
+        assertEquals("```\nx = 1.5 * y;\n```", TelegramChannel.toMarkdownV2("```\nx = 1.5 * y;\n```"));
+    }
+
+    @Test
+    void unmatchedMarkersAreEscaped() {
+        assertEquals("2 \\* 3 \\= 6 a\\_b", TelegramChannel.toMarkdownV2("2 * 3 = 6 a_b"));
+        assertEquals("\\*\\*跨\n行\\*\\*", TelegramChannel.toMarkdownV2("**跨\n行**"));
+    }
+
+    @Test
+    void articlesWithoutUrlGetNoButton() throws Exception {
+        // 工厂方法会校验 url，builder 与模板渲染不会
+        PushMessage message = news(
+                PushMessage.Article.builder().title("有链接").url("https://example.com/a").build(),
+                PushMessage.Article.builder().title("无链接").build());
+
+        assertTrue(channel.send(message, CONFIG).isSuccess());
+
+        JsonNode keyboard = Json.mapper().readTree(bodies.get(0)).get("reply_markup").get("inline_keyboard");
+        assertEquals(1, keyboard.size());
+        assertEquals("https://example.com/a", keyboard.get(0).get(0).get("url").asText());
+    }
+
+    @Test
+    void singleArticleWithoutUrlHasNoKeyboard() throws Exception {
+        PushMessage message = news(PushMessage.Article.builder().title("无链接").picUrl("https://example.com/p.png").build());
+
+        assertTrue(channel.send(message, CONFIG).isSuccess());
+
+        assertFalse(Json.mapper().readTree(bodies.get(0)).has("reply_markup"));
+    }
+
+    @Test
+    void slotAfterDeadlineExpiresWithoutSending() {
+        assertTrue(channel.send(PushMessage.text("42", "first"), CONFIG).isSuccess());
+
+        // 同一会话 1 秒一条，200 ms 内等不到下一个槽位
+        PushResult result;
+        try (Deadline.Scope ignored = Deadline.enter(System.currentTimeMillis() + 200)) {
+            result = channel.send(PushMessage.text("42", "second"), CONFIG);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+        assertTrue(result.isExpired(), String.valueOf(result));
+        assertEquals(1, bodies.size());
+    }
+
+    private static PushMessage news(PushMessage.Article... articles) {
+        return PushMessage.builder().type(MessageType.NEWS).target("42").articles(List.of(articles)).build();
+    }
+}
@@ -0,0 +1,64 @@
+package dev.qingzhou.push.core.channel.impl;
+
+import dev.qingzhou.push.core.channel.ChannelContext;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.utils.Deadline;
+import dev.qingzhou.push.core.utils.HttpTransport;
+import dev.qingzhou.push.core.utils.TokenStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WecomChannelTest {
+
+    private static final PushConfig CONFIG = PushConfig.builder().appKey("corp").appSecret("secret").agentId("1").build();
+
+    @Test
+    void lookupStopsWaitingAtDeadline() {
+        CountDownLatch never = new CountDownLatch(1);
+        WecomChannel channel = new WecomChannel();
+        channel.init(new ChannelContext(new HttpTransport() {
+            @Override
+            public String get(String url, Map<String, Object> params) {
+                return "{\"errcode\":0,\"access_token\":\"t\",\"expires_in\":7200}";
+            }
+
+            @Override
+            public String post(String url, Object body) {
+                if (((Map<?, ?>) body).containsValue("slow@example.com")) {
+                    try {
+                        never.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return "{\"errcode\":0,\"userid\":\"fast\"}";
+            }
+        }, new TokenStore()));
+
+        // 先取一次 token 并预热 JSON 解析，截止时间只覆盖查询本身
+        assertEquals(Map.of("fast@example.com", "fast"), channel.lookupUserIds(List.of("fast@example.com"), CONFIG));
+
+        long start = System.nanoTime();
+        Map<String, String> userIds;
+        try (Deadline.Scope ignored = Deadline.enter(System.currentTimeMillis() + 300)) {
+            userIds = channel.lookupUserIds(List.of("fast@example.com", "slow@example.com"), CONFIG);
+        }
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+        assertEquals(Map.of("fast@example.com", "fast"), userIds);
+    }
+
+    @Test
+    void lookupRejectsMissingConfig() {
+        assertThrows(IllegalArgumentException.class, () -> new WecomChannel().lookupUserIds(List.of("a@b.c"), null));
+        assertThrows(IllegalArgumentException.class, () -> new FeishuChannel().lookupUserIds(List.of("a@b.c"), null));
+    }
+}
@@ -0,0 +1,252 @@
+package dev.qingzhou.push.core.channel.impl.smtp;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 进程内的 SMTP 替身，只实现客户端会用到的命令
+ * <p>
+ * 声明 PIPELINING 时，MAIL FROM / RCPT TO 的应答压到收到 DATA 后才一起写出：
+ * 逐条等待应答的客户端会一直读超时，从而验证客户端确实在批量发送。
+ * 收件人以 nobody@ 开头时拒绝 (550)。
+ */
+public final class FakeSmtpServer implements Closeable {
+
+    public record Command(String line, boolean secure) {
+    }
+
+    public record Mail(String from, List<String> recipients, String data, boolean secure) {
+    }
+
+    public final List<Command> commands = new CopyOnWriteArrayList<>();
+    public final List<Mail> mails = new CopyOnWriteArrayList<>();
+    public final AtomicInteger connections = new AtomicInteger();
+
+    private final boolean pipelining;
+    private final String auth;
+    private final SSLContext tls;
+    private final String username;
+    private final String password;
+    private final ServerSocket serverSocket;
+
+    /**
+     * @param auth 声明的 AUTH 机制 (如 "PLAIN LOGIN")，为 null 时不要求认证
+     * @param tls 为 null 时不声明 STARTTLS
+     */
+    public FakeSmtpServer(boolean pipelining, String auth, SSLContext tls, String username, String password)
+            throws IOException {
+        this.pipelining = pipelining;
+        this.auth = auth;
+        this.tls = tls;
+        this.username = username;
+        this.password = password;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getByName("localhost"));
+        Thread.ofPlatform().daemon().name("fake-smtp-accept").start(this::accept);
+    }
+
+    public static FakeSmtpServer plain(boolean pipelining) throws IOException {
+        return new FakeSmtpServer(pipelining, null, null, null, null);
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    SmtpServer address(SmtpServer.Security security) {
+        return new SmtpServer("localhost", port(), security);
+    }
+
+    public long count(String verb) {
+        return commands.stream().filter(c -> c.line().toUpperCase().startsWith(verb)).count();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                Thread.ofPlatform().daemon().name("fake-smtp-session").start(() -> new Session(socket).run());
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private final class Session {
+        private Socket socket;
+        private BufferedReader in;
+        private OutputStream out;
+        private boolean secure;
+        private boolean authenticated;
+        private String from;
+        private final List<String> recipients = new ArrayList<>();
+        private final StringBuilder deferred = new StringBuilder();
+
+        private Session(Socket socket) {
+            this.socket = socket;
+        }
+
+        private void run() {
+            try (Socket ignored = socket) {
+                bind();
+                reply("220 fake ESMTP ready");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    commands.add(new Command(line, secure));
+                    if (!handle(line)) {
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                // 客户端断开
+            }
+        }
+
+        private boolean handle(String line) throws IOException {
+            String upper = line.toUpperCase();
+            if (upper.startsWith("EHLO")) {
+                List<String> ext = new ArrayList<>(List.of("fake"));
+                if (pipelining) ext.add("PIPELINING");
+                if (tls != null && !secure) ext.add("STARTTLS");
+                if (auth != null) ext.add("AUTH " + auth);
+                ext.add("SIZE 10485760");
+                StringBuilder text = new StringBuilder();
+                for (int i = 0; i < ext.size(); i++) {
+                    text.append("250").append(i == ext.size() - 1 ? ' ' : '-').append(ext.get(i)).append("\r\n");
+                }
+                write(text.toString());
+            } else if (upper.equals("STARTTLS")) {
+                reply("220 go ahead");
+                SSLSocket upgraded = (SSLSocket) tls.getSocketFactory()
+                        .createSocket(socket, socket.getInetAddress().getHostAddress(), socket.getPort(), true);
+                upgraded.setUseClientMode(false);
+                upgraded.startHandshake();
+                socket = upgraded;
+                secure = true;
+                bind();
+            } else if (upper.startsWith("AUTH PLAIN ")) {
+                String[] parts = decode(line.substring(11)).split("\0", -1);
+                authenticated = parts.length == 3 && parts[1].equals(username) && parts[2].equals(password);
+                reply(authenticated ? "235 ok" : "535 bad credentials");
+            } else if (upper.equals("AUTH LOGIN")) {
+                reply("334 VXNlcm5hbWU6");
+                String user = decode(in.readLine());
+                reply("334 UGFzc3dvcmQ6");
+                String pass = decode(in.readLine());
+                authenticated = user.equals(username) && pass.equals(password);
+                reply(authenticated ? "235 ok" : "535 bad credentials");
+            } else if (upper.startsWith("MAIL FROM:")) {
+                if (auth != null && !authenticated) {
+                    envelope("530 authentication required");
+                } else {
+                    from = path(line);
+                    envelope("250 sender ok");
+                }
+            } else if (upper.startsWith("RCPT TO:")) {
+                String rcpt = path(line);
+                if (from == null || rcpt.startsWith("nobody@")) {
+                    envelope("550 no such user");
+                } else {
+                    recipients.add(rcpt);
+                    envelope("250 recipient ok");
+                }
+            } else if (upper.equals("DATA")) {
+                boolean valid = from != null && !recipients.isEmpty();
+                envelope(valid ? "354 end with ." : "503 no valid recipients");
+                flushDeferred();
+                if (valid) {
+                    String data = readData();
+                    mails.add(new Mail(from, List.copyOf(recipients), data, secure));
+                    reply("250 ok queued as " + mails.size());
+                }
+                resetEnvelope();
+            } else if (upper.equals("RSET")) {
+                resetEnvelope();
+                reply("250 reset");
+            } else if (upper.equals("NOOP")) {
+                reply("250 ok");
+            } else if (upper.equals("QUIT")) {
+                reply("221 bye");
+                return false;
+            } else {
+                reply("502 not implemented");
+            }
+            return true;
+        }
+
+        /**
+         * 开启 PIPELINING 时信封命令的应答延后到 DATA 一起写出
+         */
+        private void envelope(String text) throws IOException {
+            if (pipelining) {
+                deferred.append(text).append("\r\n");
+            } else {
+                reply(text);
+            }
+        }
+
+        private void flushDeferred() throws IOException {
+            if (!deferred.isEmpty()) {
+                write(deferred.toString());
+                deferred.setLength(0);
+            }
+        }
+
+        private String readData() throws IOException {
+            StringBuilder data = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null && !line.equals(".")) {
+                data.append(line.startsWith("..") ? line.substring(1) : line).append("\r\n");
+            }
+            return data.toString();
+        }
+
+        private void resetEnvelope() {
+            from = null;
+            recipients.clear();
+        }
+
+        private void bind() throws IOException {
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = socket.getOutputStream();
+        }
+
+        private void reply(String text) throws IOException {
+            write(text + "\r\n");
+        }
+
+        private void write(String text) throws IOException {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+
+        private String path(String line) {
+            int open = line.indexOf('<');
+            int close = line.lastIndexOf('>');
+            return open >= 0 && close > open ? line.substring(open + 1, close) : "";
+        }
+
+        private String decode(String base64) {
+            return new String(Base64.getDecoder().decode(base64.trim()), StandardCharsets.UTF_8);
+        }
+    }
+}
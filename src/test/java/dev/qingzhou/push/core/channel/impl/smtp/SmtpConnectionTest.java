@@ -0,0 +1,245 @@
+package dev.qingzhou.push.core.channel.impl.smtp;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SmtpConnectionTest {
+
+    private static final int TIMEOUT_MILLIS = 2_000;
+    private static final char[] STORE_PASSWORD = "changeit".toCharArray();
+
+    private static SSLContext tls;
+
+    @BeforeAll
+    static void createCertificate(@TempDir Path dir) throws Exception {
+        // 自签名证书：服务端用作身份，客户端直接信任
+        Path store = dir.resolve("smtp.p12");
+        Process keytool = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                "-genkeypair", "-alias", "smtp", "-keyalg", "EC", "-groupname", "secp256r1",
+                "-dname", "CN=localhost", "-ext", "SAN=dns:localhost,ip:127.0.0.1,ip:::1",
+                "-validity", "1", "-storetype", "PKCS12", "-keystore", store.toString(),
+                "-storepass", new String(STORE_PASSWORD))
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(keytool.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(0, keytool.waitFor(), output);
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(store)) {
+            keyStore.load(in, STORE_PASSWORD);
+        }
+        KeyManagerFactory keys = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keys.init(keyStore, STORE_PASSWORD);
+        TrustManagerFactory trust = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trust.init(keyStore);
+        tls = SSLContext.getInstance("TLS");
+        tls.init(keys.getKeyManagers(), trust.getTrustManagers(), null);
+    }
+
+    @Test
+    void pipelinedSendWritesEnvelopeBeforeReadingReplies() throws Exception {
+        try (FakeSmtpServer server = FakeSmtpServer.plain(true);
+             SmtpPool pool = pool(server, null, null, 100)) {
+            SmtpDelivery delivery = pool.send("bot@example.com", List.of("a@example.com", "b@example.com"),
+                    mime("hello"));
+
+            assertTrue(delivery.reply().contains("queued"), delivery.reply());
+            assertFalse(delivery.partial());
+            assertEquals(1, server.mails.size());
+            assertEquals(List.of("a@example.com", "b@example.com"), server.mails.get(0).recipients());
+            assertEquals(List.of("MAIL FROM:<bot@example.com>", "RCPT TO:<a@example.com>",
+                    "RCPT TO:<b@example.com>", "DATA"), envelopeCommands(server));
+        }
+    }
+
+    @Test
+    void pipelinedRejectionKeepsSessionUsable() throws Exception {
+        try (FakeSmtpServer server = FakeSmtpServer.plain(true);
+             SmtpPool pool = pool(server, null, null, 100)) {
+            SmtpException e = assertThrows(SmtpException.class,
+                    () -> pool.send("bot@example.com", List.of("nobody@example.com"), mime("lost")));
+            assertEquals(550, e.getCode());
+            assertTrue(e.isPermanent());
+
+            pool.send("bot@example.com", List.of("a@example.com"), mime("delivered"));
+
+            assertEquals(1, server.connections.get());
+            assertEquals(1, server.count("RSET"));
+            assertEquals(1, server.mails.size());
+            assertTrue(server.mails.get(0).data().contains("\r\n\r\n"));
+        }
+    }
+
+    @Test
+    void lockstepSendSkipsRejectedRecipients() throws Exception {
+        try (FakeSmtpServer server = FakeSmtpServer.plain(false);
+             SmtpPool pool = pool(server, null, null, 100)) {
+            SmtpDelivery delivery = pool.send("bot@example.com", List.of("nobody@example.com", "a@example.com"),
+                    mime(".leading dot"));
+
+            assertEquals(List.of("a@example.com"), server.mails.get(0).recipients());
+            assertEquals(Map.of("nobody@example.com", "550 no such user"), delivery.rejected());
+            assertEquals(0, server.count("RSET"));
+        }
+    }
+
+    @Test
+    void pipelinedSendReportsRejectedRecipients() throws Exception {
+        try (FakeSmtpServer server = FakeSmtpServer.plain(true);
+             SmtpPool pool = pool(server, null, null, 100)) {
+            SmtpDelivery delivery = pool.send("bot@example.com",
+                    List.of("a@example.com", "nobody@example.com", "nobody@example.org"), mime("partial"));
+
+            assertTrue(delivery.partial());
+            assertEquals(List.of("nobody@example.com", "nobody@example.org"),
+                    List.copyOf(delivery.rejected().keySet()));
+            assertEquals(List.of("a@example.com"), server.mails.get(0).recipients());
+        }
+    }
+
+    @Test
+    void reusesAuthenticatedSessionAcrossMessages() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer(true, "PLAIN LOGIN", null, "bot", "secret");
+             SmtpPool pool = pool(server, "bot", "secret", 100)) {
+            pool.warmUp();
+            for (int i = 0; i < 3; i++) {
+                pool.send("bot@example.com", List.of("a@example.com"), mime("message " + i));
+            }
+
+            assertEquals(1, server.connections.get());
+            assertEquals(1, server.count("EHLO"));
+            assertEquals(1, server.count("AUTH"));
+            assertEquals(3, server.mails.size());
+            assertEquals(1, pool.idleCount());
+        }
+    }
+
+    @Test
+    void retiresSessionAfterMaxMessages() throws Exception {
+        try (FakeSmtpServer server = FakeSmtpServer.plain(true);
+             SmtpPool pool = pool(server, null, null, 2)) {
+            for (int i = 0; i < 3; i++) {
+                pool.send("bot@example.com", List.of("a@example.com"), mime("message " + i));
+            }
+
+            assertEquals(2, server.connections.get());
+            assertEquals(1, server.count("QUIT"));
+        }
+    }
+
+    @Test
+    void prefersAuthPlain() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer(false, "LOGIN PLAIN", null, "bot", "secret");
+             SmtpPool pool = pool(server, "bot", "secret", 100)) {
+            pool.send("bot@example.com", List.of("a@example.com"), mime("plain"));
+
+            assertEquals(1, server.count("AUTH PLAIN "));
+            assertEquals(1, server.mails.size());
+        }
+    }
+
+    @Test
+    void fallsBackToAuthLogin() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer(false, "LOGIN", null, "bot", "secret");
+             SmtpPool pool = pool(server, "bot", "secret", 100)) {
+            pool.send("bot@example.com", List.of("a@example.com"), mime("login"));
+
+            assertEquals(1, server.count("AUTH LOGIN"));
+            assertEquals(1, server.mails.size());
+        }
+    }
+
+    @Test
+    void wrongPasswordFailsOpen() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer(true, "PLAIN", null, "bot", "secret");
+             SmtpPool pool = pool(server, "bot", "wrong", 100)) {
+            SmtpException e = assertThrows(SmtpException.class, pool::warmUp);
+
+            assertEquals(535, e.getCode());
+            assertEquals(0, pool.idleCount());
+            assertEquals(0, server.mails.size());
+        }
+    }
+
+    @Test
+    void startTlsUpgradesBeforeAuthentication() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer(true, "PLAIN", tls, "bot", "secret");
+             SmtpConnection conn = new SmtpConnection(server.address(SmtpServer.Security.STARTTLS),
+                     TIMEOUT_MILLIS, tls.getSocketFactory())) {
+            conn.open("bot", "secret");
+            conn.send("bot@example.com", List.of("a@example.com"), mime("secret"));
+
+            // TLS 之后重新 EHLO，认证与投递都在加密通道上
+            assertEquals(2, server.count("EHLO"));
+            assertTrue(server.commands.stream()
+                    .filter(c -> c.line().startsWith("AUTH"))
+                    .allMatch(FakeSmtpServer.Command::secure));
+            assertTrue(server.mails.get(0).secure());
+        }
+    }
+
+    @Test
+    void startTlsRequiredButNotOffered() throws Exception {
+        try (FakeSmtpServer server = FakeSmtpServer.plain(true);
+             SmtpConnection conn = new SmtpConnection(server.address(SmtpServer.Security.STARTTLS),
+                     TIMEOUT_MILLIS, tls.getSocketFactory())) {
+            IOException e = assertThrows(IOException.class, () -> conn.open(null, null));
+
+            assertTrue(e.getMessage().contains("STARTTLS"), e.getMessage());
+            assertEquals(0, server.count("STARTTLS"));
+        }
+    }
+
+    @Test
+    void rejectsInjectedEnvelopeAddresses() throws Exception {
+        try (FakeSmtpServer server = FakeSmtpServer.plain(true);
+             SmtpPool pool = pool(server, null, null, 100)) {
+            for (String address : List.of("a@example.com>\r\nRCPT TO:<evil@example.com", "<a@example.com>",
+                    "a@example.com\nDATA", "a @example.com", "example.com", "a@", "")) {
+                assertThrows(IllegalArgumentException.class,
+                        () -> pool.send("bot@example.com", List.of(address), mime("x")), address);
+                assertThrows(IllegalArgumentException.class,
+                        () -> pool.send(address, List.of("a@example.com"), mime("x")), address);
+            }
+
+            assertEquals(0, server.connections.get());
+        }
+    }
+
+    private static SmtpPool pool(FakeSmtpServer server, String username, String password, int maxMessages) {
+        SmtpPool.Settings settings = new SmtpPool.Settings(2, maxMessages, 60_000, 10_000, 60_000,
+                TIMEOUT_MILLIS, TIMEOUT_MILLIS);
+        return new SmtpPool(server.address(SmtpServer.Security.NONE), username, password, settings);
+    }
+
+    private static byte[] mime(String text) {
+        return MimeWriter.write("test@example.com", "bot@example.com", List.of("a@example.com"), "subject",
+                text, null);
+    }
+
+    private static List<String> envelopeCommands(FakeSmtpServer server) {
+        return server.commands.stream()
+                .map(FakeSmtpServer.Command::line)
+                .filter(line -> line.startsWith("MAIL") || line.startsWith("RCPT") || line.equals("DATA"))
+                .toList();
+    }
+}
@@ -0,0 +1,118 @@
+package dev.qingzhou.push.core.deadletter;
+
+import dev.qingzhou.push.core.api.IPushChannel;
+import dev.qingzhou.push.core.api.PushClient;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadLetterReplayTest {
+
+    private static final PushConfig CONFIG = PushConfig.builder().appKey("k").build();
+
+    @Test
+    void replaysInBoundedPagesWithoutRevisitingLetters(@TempDir Path dir) {
+        PagingSink sink = new PagingSink(new FileDeadLetterSink(dir.resolve("dead.jsonl")));
+        int total = DeadLetterReplay.PAGE_SIZE * 2 + 50;
+        for (int i = 0; i < total; i++) {
+            // 每 3 条一条成功、一条失败、一条无引用名
+            String content = i % 3 == 0 ? "ok" : "fail";
+            String ref = i % 3 == 2 ? null : "oncall";
+            sink.write(DeadLetter.of("flaky", PushMessage.text("u" + i, content), ref, PushResult.fail("down")));
+        }
+        FlakyChannel channel = new FlakyChannel();
+        try (PushClient client = PushClient.builder().name("replay").loadServices(false).channel(channel).build()) {
+            DeadLetterReplay.ReplayReport report = DeadLetterReplay.builder()
+                    .client(client).sink(sink).configResolver(ref -> CONFIG).ratePerSecond(1_000_000)
+                    .build().run();
+
+            assertEquals(total, report.matched());
+            assertEquals(84, report.succeeded());
+            assertEquals(83, report.failed());
+            assertEquals(83, report.skipped());
+            assertEquals(167, channel.sends.get(), "each replayable letter is sent exactly once");
+            assertEquals(total - 84, sink.size());
+            assertTrue(sink.maxPage <= DeadLetterReplay.PAGE_SIZE, "page " + sink.maxPage);
+        }
+    }
+
+    @Test
+    void maxEntriesLimitsOneRun(@TempDir Path dir) {
+        PagingSink sink = new PagingSink(new FileDeadLetterSink(dir.resolve("dead.jsonl")));
+        for (int i = 0; i < 150; i++) {
+            sink.write(DeadLetter.of("flaky", PushMessage.text("u" + i, "fail"), "oncall", PushResult.fail("down")));
+        }
+        try (PushClient client = PushClient.builder().name("replay-max").loadServices(false)
+                .channel(new FlakyChannel()).build()) {
+            DeadLetterReplay.ReplayReport report = DeadLetterReplay.builder()
+                    .client(client).sink(sink).configResolver(ref -> CONFIG).ratePerSecond(1_000_000)
+                    .maxEntries(120).build().run();
+
+            assertEquals(120, report.matched());
+            assertEquals(120, report.failed());
+            assertEquals(150, sink.size());
+        }
+    }
+
+    /**
+     * 记录单次读取的最大条数
+     */
+    private static final class PagingSink implements DeadLetterSink {
+
+        private final DeadLetterSink delegate;
+        private int maxPage;
+
+        private PagingSink(DeadLetterSink delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(DeadLetter letter) {
+            delegate.write(letter);
+        }
+
+        @Override
+        public void remove(String id) {
+            delegate.remove(id);
+        }
+
+        @Override
+        public List<DeadLetter> read(Predicate<DeadLetter> filter, int max) {
+            List<DeadLetter> page = new ArrayList<>(delegate.read(filter, max));
+            maxPage = Math.max(maxPage, max);
+            return page;
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+    }
+
+    private static final class FlakyChannel implements IPushChannel {
+
+        private final AtomicInteger sends = new AtomicInteger();
+
+        @Override
+        public String type() {
+            return "flaky";
+        }
+
+        @Override
+        public PushResult send(PushMessage message, PushConfig config) {
+            sends.incrementAndGet();
+            return "ok".equals(message.getContent()) ? PushResult.success(null, null) : PushResult.fail("still down");
+        }
+    }
+}
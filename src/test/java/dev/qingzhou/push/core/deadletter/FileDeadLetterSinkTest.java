@@ -0,0 +1,123 @@
+package dev.qingzhou.push.core.deadletter;
+
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileDeadLetterSinkTest {
+
+    private static final PushResult FAILED = PushResult.failWithCode("45009", "api freq out of limit", null);
+
+    @Test
+    void tornLastLineIsTruncatedOnOpen(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("dead.jsonl");
+        try (FileDeadLetterSink sink = new FileDeadLetterSink(file)) {
+            sink.write(letter("a"));
+            sink.write(letter("b"));
+        }
+        long intact = Files.size(file);
+        // 模拟写到一半时进程崩溃
+        Files.writeString(file, "{\"op\":\"add\",\"id\":\"c\",\"letter\":{\"id\":\"c\",\"chan", StandardOpenOption.APPEND);
+
+        try (FileDeadLetterSink sink = new FileDeadLetterSink(file)) {
+            assertEquals(2, sink.size());
+            assertEquals(intact, Files.size(file));
+
+            sink.write(letter("d"));
+            assertEquals(List.of("a", "b", "d"), ids(sink.read(null, 10)));
+        }
+        try (FileDeadLetterSink sink = new FileDeadLetterSink(file)) {
+            assertEquals(List.of("a", "b", "d"), ids(sink.read(null, 10)));
+        }
+    }
+
+    @Test
+    void overwriteKeepsLatestRecordById(@TempDir Path dir) {
+        Path file = dir.resolve("dead.jsonl");
+        DeadLetter first = letter("a");
+        try (FileDeadLetterSink sink = new FileDeadLetterSink(file)) {
+            sink.write(first);
+            sink.write(letter("b"));
+            sink.write(first.retried(PushResult.fail("still down")));
+
+            List<DeadLetter> letters = sink.read(null, 10);
+            assertEquals(2, sink.size());
+            // 覆盖后排到末尾，只保留最新一条
+            assertEquals(List.of("b", "a"), ids(letters));
+            assertEquals(2, letters.get(1).attemptCount());
+            assertEquals("still down", letters.get(1).errorMsg());
+        }
+        try (FileDeadLetterSink sink = new FileDeadLetterSink(file)) {
+            List<DeadLetter> letters = sink.read(letter -> letter.id().equals("a"), 10);
+            assertEquals(1, letters.size());
+            assertEquals(2, letters.get(0).attemptCount());
+        }
+    }
+
+    @Test
+    void removedLettersStayRemovedAfterReopen(@TempDir Path dir) {
+        Path file = dir.resolve("dead.jsonl");
+        try (FileDeadLetterSink sink = new FileDeadLetterSink(file)) {
+            sink.write(letter("a"));
+            sink.write(letter("b"));
+            sink.remove("a");
+            sink.remove("missing");
+        }
+        try (FileDeadLetterSink sink = new FileDeadLetterSink(file)) {
+            assertEquals(List.of("b"), ids(sink.read(null, 10)));
+        }
+    }
+
+    @Test
+    void compactionRewritesOnlyLiveRecords(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("dead.jsonl");
+        try (FileDeadLetterSink sink = new FileDeadLetterSink(file)) {
+            DeadLetter kept = letter("kept");
+            sink.write(kept);
+            DeadLetter hot = letter("hot");
+            for (int i = 0; i < 600; i++) {
+                sink.write(letter("gone-" + i));
+                sink.remove("gone-" + i);
+                hot = hot.retried(FAILED);
+                sink.write(hot);
+            }
+
+            // 共追加 1801 行，垃圾超过 1024 时压缩过一次
+            assertTrue(lines(file) < 900, "lines " + lines(file));
+            assertEquals(List.of("kept", "hot"), ids(sink.read(null, 10)));
+            assertEquals(601, sink.read(letter -> letter.id().equals("hot"), 1).get(0).attemptCount());
+
+            // 压缩后继续追加，偏移索引仍然正确
+            sink.write(letter("after"));
+            assertEquals(List.of("kept", "hot", "after"), ids(sink.read(null, 10)));
+        }
+        try (FileDeadLetterSink sink = new FileDeadLetterSink(file)) {
+            assertEquals(List.of("kept", "hot", "after"), ids(sink.read(null, 10)));
+            assertEquals(0, Files.list(dir).filter(p -> p.toString().endsWith(".tmp")).count());
+        }
+    }
+
+    private static DeadLetter letter(String id) {
+        return new DeadLetter(id, "wecom", PushMessage.text("u1", "hello " + id), "oncall", FAILED.getErrorCode(),
+                FAILED.getErrorMsg(), List.of(new DeadLetter.Attempt(1L, FAILED.getErrorCode(), FAILED.getErrorMsg())),
+                1L);
+    }
+
+    private static List<String> ids(List<DeadLetter> letters) {
+        return letters.stream().map(DeadLetter::id).toList();
+    }
+
+    private static long lines(Path file) throws Exception {
+        return Files.readAllLines(file, StandardCharsets.UTF_8).size();
+    }
+}
@@ -0,0 +1,156 @@
+package dev.qingzhou.push.core.dispatch;
+
+import dev.qingzhou.push.core.api.IPushChannel;
+import dev.qingzhou.push.core.api.PushClient;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderedDispatcherTest {
+
+    private static final PushConfig CONFIG = PushConfig.builder().appKey("k").build();
+
+    @Test
+    void deliversEachTargetInSubmitOrder() throws Exception {
+        RecordingChannel channel = new RecordingChannel();
+        try (PushClient client = client(channel);
+             OrderedDispatcher dispatcher = OrderedDispatcher.builder().client(client).lanes(4).build()) {
+            List<CompletableFuture<PushResult>> results = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                for (int t = 0; t < 8; t++) {
+                    results.add(dispatcher.submit("recording", PushMessage.text("user-" + t, String.valueOf(i)), CONFIG));
+                }
+            }
+            for (CompletableFuture<PushResult> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS).isSuccess());
+            }
+
+            assertEquals(8, channel.byTarget.size());
+            for (List<String> contents : channel.byTarget.values()) {
+                assertEquals(50, contents.size());
+                for (int i = 0; i < 50; i++) {
+                    assertEquals(String.valueOf(i), contents.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    void closeDrainsQueuedMessages() throws Exception {
+        RecordingChannel channel = new RecordingChannel();
+        try (PushClient client = client(channel)) {
+            OrderedDispatcher dispatcher = OrderedDispatcher.builder().client(client).lanes(2).build();
+            List<CompletableFuture<PushResult>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                results.add(dispatcher.submit("recording", PushMessage.text("u" + i % 3, "m" + i), CONFIG));
+            }
+
+            dispatcher.close();
+
+            for (CompletableFuture<PushResult> result : results) {
+                assertTrue(result.isDone());
+                assertTrue(result.get().isSuccess());
+            }
+            assertFalse(dispatcher.submit("recording", PushMessage.text("u1", "late"), CONFIG).get().isSuccess());
+        }
+    }
+
+    @Test
+    void closeTimeoutFailsQueuedMessagesWhileSendIsStuck() throws Exception {
+        StuckChannel channel = new StuckChannel();
+        try (PushClient client = client(channel)) {
+            OrderedDispatcher dispatcher = OrderedDispatcher.builder().client(client).lanes(1).laneCapacity(2)
+                    .closeTimeout(Duration.ofMillis(100)).build();
+            CompletableFuture<PushResult> stuck = dispatcher.submit("stuck", PushMessage.text("u1", "first"), CONFIG);
+            assertTrue(channel.entered.await(5, TimeUnit.SECONDS));
+            CompletableFuture<PushResult> queued1 = dispatcher.submit("stuck", PushMessage.text("u2", "second"), CONFIG);
+            CompletableFuture<PushResult> queued2 = dispatcher.submit("stuck", PushMessage.text("u3", "third"), CONFIG);
+
+            // 队列已满且发送不响应中断：close 仍在超时内返回
+            long start = System.nanoTime();
+            dispatcher.close();
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+
+            assertFalse(queued1.get(1, TimeUnit.SECONDS).isSuccess());
+            assertFalse(queued2.get(1, TimeUnit.SECONDS).isSuccess());
+            assertFalse(stuck.isDone());
+
+            channel.release.countDown();
+            assertTrue(stuck.get(5, TimeUnit.SECONDS).isSuccess());
+            assertEquals(1, channel.sent.size());
+        }
+    }
+
+    private static PushClient client(IPushChannel channel) {
+        return PushClient.builder().name("dispatch-" + channel.type()).loadServices(false).channel(channel).build();
+    }
+
+    private static final class RecordingChannel implements IPushChannel {
+
+        private final Map<String, List<String>> byTarget = new ConcurrentHashMap<>();
+
+        @Override
+        public String type() {
+            return "recording";
+        }
+
+        @Override
+        public PushResult send(PushMessage message, PushConfig config) {
+            if (ThreadLocalRandom.current().nextInt(4) == 0) {
+                Thread.yield();
+            }
+            byTarget.computeIfAbsent(message.getTarget(), k -> new CopyOnWriteArrayList<>()).add(message.getContent());
+            return PushResult.success(null, null);
+        }
+    }
+
+    /**
+     * 阻塞到 release 且忽略中断，模拟不响应中断的 HTTP 调用
+     */
+    private static final class StuckChannel implements IPushChannel {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<PushMessage> sent = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String type() {
+            return "stuck";
+        }
+
+        @Override
+        public PushResult send(PushMessage message, PushConfig config) {
+            entered.countDown();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    release.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            sent.add(message);
+            return PushResult.success(null, null);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package dev.qingzhou.push.core.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PushResultTest {
+
+    @Test
+    void compositeSucceedsWhenAllPartsSucceed() {
+        List<PushResult> parts = new ArrayList<>(List.of(
+                PushResult.success("m1", "{\"a\":1}"),
+                PushResult.success("m2", "{\"a\":2}")));
+
+        PushResult result = PushResult.composite(parts, 2);
+
+        assertTrue(result.isSuccess());
+        assertEquals("m1", result.getMsgId());
+        assertNull(result.getErrorMsg());
+        assertNull(result.getErrorCode());
+        assertNull(result.getRawResult());
+        assertFalse(result.isExpired());
+        assertEquals(parts, result.getParts());
+        // 各段结果是副本，不随传入列表变化
+        parts.clear();
+        assertEquals(2, result.getParts().size());
+        assertThrows(UnsupportedOperationException.class, () -> result.getParts().add(null));
+    }
+
+    @Test
+    void compositeReportsFailedPart() {
+        List<PushResult> parts = List.of(
+                PushResult.success("m1", null),
+                PushResult.failWithCode("45009", "WeCom Error: api freq out of limit", "{\"errcode\":45009}"));
+
+        PushResult result = PushResult.composite(parts, 3);
+
+        assertFalse(result.isSuccess());
+        assertEquals("m1", result.getMsgId());
+        assertEquals("Part 2/3 failed: WeCom Error: api freq out of limit", result.getErrorMsg());
+        assertEquals("45009", result.getErrorCode());
+        assertEquals("{\"errcode\":45009}", result.getRawResult());
+        assertFalse(result.isExpired());
+        assertEquals(2, result.getParts().size());
+    }
+
+    @Test
+    void compositeFailingOnFirstPartHasNoMsgId() {
+        PushResult result = PushResult.composite(List.of(PushResult.fail("boom")), 2);
+
+        assertFalse(result.isSuccess());
+        assertNull(result.getMsgId());
+        assertEquals("Part 1/2 failed: boom", result.getErrorMsg());
+        assertNull(result.getErrorCode());
+    }
+
+    @Test
+    void compositeIsExpiredWhenLastPartExpired() {
+        PushResult result = PushResult.composite(List.of(
+                PushResult.success("m1", null),
+                PushResult.expired("message expired before send")), 2);
+
+        assertFalse(result.isSuccess());
+        assertTrue(result.isExpired());
+        assertEquals("Part 2/2 failed: message expired before send", result.getErrorMsg());
+    }
+}
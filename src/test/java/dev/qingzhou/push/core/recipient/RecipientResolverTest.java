@@ -0,0 +1,185 @@
+package dev.qingzhou.push.core.recipient;
+
+import dev.qingzhou.push.core.api.IPushChannel;
+import dev.qingzhou.push.core.api.IRecipientChannel;
+import dev.qingzhou.push.core.api.PushClient;
+import dev.qingzhou.push.core.model.PushConfig;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.PushResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecipientResolverTest {
+
+    private static final PushConfig CONFIG = PushConfig.builder().appKey("app").appSecret("secret").build();
+
+    private final DirectoryChannel channel = new DirectoryChannel(3);
+    private final PushClient client = PushClient.builder().name("recipient").loadServices(false).channel(channel).build();
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void concurrentResolvesShareOneBatch() throws Exception {
+        try (RecipientResolver resolver = resolver(Duration.ofMillis(200), Duration.ofMinutes(10))) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<CompletableFuture<RecipientResolver.Resolution>> callers = new ArrayList<>();
+            for (String contact : List.of("alice@example.com", "13800000000")) {
+                callers.add(CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return resolver.resolve("directory", CONFIG, List.of(contact, "ALICE@example.com "));
+                }));
+            }
+            start.countDown();
+
+            assertEquals("u-alice", callers.get(0).get(5, TimeUnit.SECONDS).userIds().get("alice@example.com"));
+            assertEquals("u-mobile", callers.get(1).get(5, TimeUnit.SECONDS).userIds().get("13800000000"));
+            assertEquals(1, resolver.lookups());
+            assertEquals(List.of(List.of("13800000000", "alice@example.com")), sorted(channel.calls));
+        }
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForWindow() {
+        try (RecipientResolver resolver = resolver(Duration.ofMinutes(1), Duration.ofMinutes(10))) {
+            long start = System.nanoTime();
+            Map<String, CompletableFuture<String>> futures = resolver.resolveAsync("directory", CONFIG,
+                    List.of("a@x.com", "b@x.com", "c@x.com", "d@x.com", "e@x.com", "f@x.com"));
+            futures.values().forEach(CompletableFuture::join);
+
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            assertEquals(2, resolver.lookups());
+            assertEquals(List.of(3, 3), channel.calls.stream().map(List::size).toList());
+        }
+    }
+
+    @Test
+    void notFoundIsCachedForNegativeTtl() throws Exception {
+        try (RecipientResolver resolver = resolver(Duration.ZERO, Duration.ofMillis(200))) {
+            assertNull(resolver.resolve("directory", CONFIG, "ghost@example.com"));
+            assertNull(resolver.resolve("directory", CONFIG, "ghost@example.com"));
+            assertEquals("u-alice", resolver.resolve("directory", CONFIG, "alice@example.com"));
+            assertEquals(2, resolver.lookups());
+
+            Thread.sleep(300);
+
+            assertNull(resolver.resolve("directory", CONFIG, "ghost@example.com"));
+            assertEquals("u-alice", resolver.resolve("directory", CONFIG, "alice@example.com"));
+            assertEquals(3, resolver.lookups(), "only the negative entry expired");
+        }
+    }
+
+    @Test
+    void failedLookupsAreNotCached() {
+        try (RecipientResolver resolver = resolver(Duration.ZERO, Duration.ofMinutes(10))) {
+            RecipientResolver.Resolution first = resolver.resolve("directory", CONFIG, List.of("flaky@example.com"));
+            assertTrue(first.failed().containsKey("flaky@example.com"));
+
+            channel.directory.put("flaky@example.com", "u-flaky");
+            assertEquals("u-flaky", resolver.resolve("directory", CONFIG, "flaky@example.com"));
+            assertEquals(2, resolver.lookups());
+        }
+    }
+
+    @Test
+    void differentSecretsDoNotShareCache() {
+        try (RecipientResolver resolver = resolver(Duration.ZERO, Duration.ofMinutes(10))) {
+            resolver.resolve("directory", CONFIG, "alice@example.com");
+            resolver.resolve("directory", CONFIG.toBuilder().appSecret("rotated").build(), "alice@example.com");
+
+            assertEquals(2, resolver.lookups());
+        }
+    }
+
+    @Test
+    void closeFailsPendingBatch() {
+        RecipientResolver resolver = resolver(Duration.ofMinutes(1), Duration.ofMinutes(10));
+        CompletableFuture<String> pending = resolver.resolveAsync("directory", CONFIG, List.of("alice@example.com"))
+                .get("alice@example.com");
+
+        resolver.close();
+
+        assertThrows(Exception.class, pending::join);
+        assertEquals(0, resolver.lookups());
+        assertThrows(IllegalStateException.class, () -> resolver.resolve("directory", CONFIG, "alice@example.com"));
+    }
+
+    private RecipientResolver resolver(Duration batchWindow, Duration negativeTtl) {
+        return RecipientResolver.builder().client(client).batchWindow(batchWindow).negativeTtl(negativeTtl).build();
+    }
+
+    private static List<List<String>> sorted(List<List<String>> calls) {
+        return calls.stream().map(call -> call.stream().sorted().toList()).toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 通讯录：ghost 查无此人，flaky 未登记时查询失败 (结果中缺少)，其余按首字母生成 ID
+     */
+    private static final class DirectoryChannel implements IPushChannel, IRecipientChannel {
+
+        private final int batchSize;
+        private final Map<String, String> directory = new HashMap<>(Map.of(
+                "alice@example.com", "u-alice", "13800000000", "u-mobile"));
+        private final List<List<String>> calls = new CopyOnWriteArrayList<>();
+
+        private DirectoryChannel(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public String type() {
+            return "directory";
+        }
+
+        @Override
+        public PushResult send(PushMessage message, PushConfig config) {
+            return PushResult.success(null, null);
+        }
+
+        @Override
+        public synchronized Map<String, String> lookupUserIds(List<String> contacts, PushConfig config) {
+            assertSame(CONFIG.getAppKey(), config.getAppKey());
+            calls.add(List.copyOf(contacts));
+            Map<String, String> found = new HashMap<>();
+            for (String contact : contacts) {
+                if (contact.startsWith("ghost")) {
+                    found.put(contact, null);
+                } else if (directory.containsKey(contact) || !contact.startsWith("flaky")) {
+                    found.put(contact, directory.getOrDefault(contact, "u-" + contact.charAt(0)));
+                }
+            }
+            return found;
+        }
+
+        @Override
+        public int lookupBatchSize() {
+            return batchSize;
+        }
+    }
+}
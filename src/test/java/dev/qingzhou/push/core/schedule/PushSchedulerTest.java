@@ -0,0 +1,19 @@
+package dev.qingzhou.push.core.schedule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PushSchedulerTest {
+
+    @Test
+    void storeWithoutConfigResolverIsRejected(@TempDir Path dir) {
+        PushScheduler.Builder builder = PushScheduler.builder()
+                .store(new FileScheduleStore(dir.resolve("schedules.jsonl")));
+
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+}
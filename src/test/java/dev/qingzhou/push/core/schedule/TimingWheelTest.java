@@ -0,0 +1,139 @@
+package dev.qingzhou.push.core.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private final AtomicInteger counter = new AtomicInteger();
+    private final DelayQueue<TimerTaskList> queue = new DelayQueue<>();
+    // 底层 10ms * 4 格 = 40ms，第二层 40ms * 4 格 = 160ms，第三层 640ms
+    private final TimingWheel wheel = new TimingWheel(10, 4, 0, counter, queue);
+
+    @Test
+    void expiredEntryIsNotAdded() {
+        assertFalse(wheel.add(entry(0)));
+        assertFalse(wheel.add(entry(9)));
+        assertEquals(0, counter.get());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void entryWithinFirstLevelLandsInTickBucket() {
+        assertTrue(wheel.add(entry(25)));
+
+        assertEquals(1, counter.get());
+        assertEquals(20, queue.peek().getExpiration());
+    }
+
+    @Test
+    void entriesInSameBucketShareOneQueueNode() {
+        wheel.add(entry(21));
+        wheel.add(entry(29));
+
+        assertEquals(2, counter.get());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void cascadesDownThroughOverflowWheels() {
+        TimerTaskEntry entry = entry(530);
+        assertTrue(wheel.add(entry));
+        // 超出第二层，进入第三层 (tick 160ms) 的 480ms 桶
+        assertEquals(480, queue.peek().getExpiration());
+
+        assertEquals(List.of(), advance());
+        // 降级到第二层 (tick 40ms) 的 520ms 桶
+        assertEquals(520, queue.peek().getExpiration());
+
+        assertEquals(List.of(), advance());
+        // 降级到底层的 530ms 桶
+        assertEquals(530, queue.peek().getExpiration());
+        assertEquals(1, counter.get());
+
+        assertEquals(List.of(entry), advance());
+        assertEquals(0, counter.get());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void cancelRemovesEntryFromBucket() {
+        TimerTaskEntry entry = entry(200);
+        wheel.add(entry);
+
+        assertTrue(entry.cancel());
+        assertFalse(entry.cancel());
+        assertTrue(entry.isCancelled());
+        assertNull(entry.list);
+        assertEquals(0, counter.get());
+
+        // 桶仍在队列中，但推进时没有任务
+        assertEquals(List.of(), advance());
+        assertFalse(wheel.add(entry));
+    }
+
+    @Test
+    void cancelAfterCascadeRemovesFromLowerBucket() {
+        TimerTaskEntry entry = entry(530);
+        wheel.add(entry);
+        advance();
+        TimerTaskList lower = entry.list;
+
+        assertTrue(entry.cancel());
+        assertNull(entry.list);
+        assertEquals(0, counter.get());
+        List<TimerTaskEntry> flushed = new ArrayList<>();
+        lower.flush(flushed::add);
+        assertEquals(List.of(), flushed);
+    }
+
+    @Test
+    void bucketIsReusedForNextRound() {
+        TimerTaskEntry first = entry(15);
+        wheel.add(first);
+        TimerTaskList bucket = queue.peek();
+        assertEquals(List.of(first), advance());
+        TimerTaskEntry filler = entry(45);
+        wheel.add(filler);
+        assertEquals(List.of(filler), advance());
+
+        // 时钟到 40ms 后，10ms 对应的格子在下一圈代表 50ms
+        TimerTaskEntry second = entry(55);
+        assertTrue(wheel.add(second));
+        assertSame(bucket, second.list);
+        assertEquals(50, bucket.getExpiration());
+    }
+
+    private static TimerTaskEntry entry(long expirationMs) {
+        return new TimerTaskEntry(() -> { }, expirationMs);
+    }
+
+    /**
+     * 模拟 WheelTimer 的一次推进：取队首的桶，推进时钟后重新插入，返回已到期的任务
+     */
+    private List<TimerTaskEntry> advance() {
+        TimerTaskList bucket = queue.poll();
+        if (bucket == null) {
+            bucket = queue.peek();
+            queue.remove(bucket);
+        }
+        List<TimerTaskEntry> expired = new ArrayList<>();
+        wheel.advanceClock(bucket.getExpiration());
+        bucket.flush(entry -> {
+            if (!wheel.add(entry) && !entry.isCancelled()) {
+                expired.add(entry);
+            }
+        });
+        return expired;
+    }
+}
@@ -0,0 +1,107 @@
+package dev.qingzhou.push.core.schedule;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WheelTimerTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // 10ms * 4 格：几百毫秒的延迟就会经过两层溢出轮
+    private final WheelTimer timer = new WheelTimer("test", 10, 4, executor);
+
+    @AfterEach
+    void close() {
+        timer.close();
+        executor.close();
+    }
+
+    @Test
+    void zeroDelayRunsImmediately() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        timer.schedule(fired::countDown, 0);
+
+        assertTrue(fired.await(1, TimeUnit.SECONDS));
+        assertEquals(0, timer.size());
+    }
+
+    @Test
+    void firesNoEarlierThanDelayAfterCascade() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        long[] elapsed = new long[1];
+        timer.schedule(() -> {
+            elapsed[0] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            fired.countDown();
+        }, 300);
+
+        assertEquals(1, timer.size());
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        // 精度为一个 tick
+        assertTrue(elapsed[0] >= 290, "fired after " + elapsed[0] + "ms");
+    }
+
+    @Test
+    void firesInDelayOrderAcrossLevels() throws InterruptedException {
+        List<Long> delays = List.of(450L, 20L, 170L, 60L, 700L, 35L);
+        List<Long> order = new CopyOnWriteArrayList<>();
+        CountDownLatch fired = new CountDownLatch(delays.size());
+        for (long delay : delays) {
+            timer.schedule(() -> {
+                order.add(delay);
+                fired.countDown();
+            }, delay);
+        }
+
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(20L, 35L, 60L, 170L, 450L, 700L), order);
+    }
+
+    @Test
+    void cancelledTaskNeverRuns() throws InterruptedException {
+        CountDownLatch cancelled = new CountDownLatch(1);
+        CountDownLatch kept = new CountDownLatch(1);
+        WheelTimer.Timeout timeout = timer.schedule(cancelled::countDown, 100);
+        timer.schedule(kept::countDown, 150);
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertEquals(1, timer.size());
+        assertTrue(kept.await(5, TimeUnit.SECONDS));
+        assertFalse(cancelled.await(50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void cancelAfterCascadeStillPreventsRun() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        WheelTimer.Timeout timeout = timer.schedule(fired::countDown, 400);
+        // 此时任务已从高层轮降级到更低层的桶
+        Thread.sleep(250);
+
+        assertTrue(timeout.cancel());
+        assertEquals(0, timer.size());
+        assertFalse(fired.await(400, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void closedTimerRejectsNewTasks() {
+        timer.close();
+
+        try {
+            timer.schedule(() -> { }, 10);
+        } catch (IllegalStateException e) {
+            return;
+        }
+        throw new AssertionError("schedule after close should fail");
+    }
+}
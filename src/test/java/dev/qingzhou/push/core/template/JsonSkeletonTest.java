@@ -0,0 +1,128 @@
+package dev.qingzhou.push.core.template;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.enums.MessageType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonSkeletonTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // 需要多层转义的取值：引号、反斜杠、控制字符、非 ASCII、看起来像占位符的文本
+    private static final String NASTY = "say \"hi\" \\ C:\\path\\n\n\ttab \u0001 中文 😀 ${status} </script>";
+
+    private static final MessageTemplate ALERT = MessageTemplate.of("alert", PushMessage.builder()
+            .type(MessageType.MARKDOWN)
+            .title("${service} 告警")
+            .content("**实例**: ${instance}\n**状态**: ${status}")
+            .build());
+
+    @Test
+    void rendersPlainBodyLikeBuilder() throws Exception {
+        JsonSkeleton skeleton = JsonSkeleton.compile(ALERT, JsonSkeletonTest::plainBody);
+        Map<String, String> values = Map.of("service", NASTY, "instance", "db-1", "status", "down");
+
+        String body = skeleton.render("user\"1", values);
+
+        assertEquals(plainBody(ALERT.render("user\"1", values)), body);
+        JsonNode json = MAPPER.readTree(body);
+        assertEquals("user\"1", json.get("touser").asText());
+        assertEquals(NASTY + " 告警", json.get("title").asText());
+    }
+
+    @Test
+    void escapesValuesEmbeddedInStringifiedJson() throws Exception {
+        JsonSkeleton skeleton = JsonSkeleton.compile(ALERT, JsonSkeletonTest::cardBody);
+        Map<String, String> values = Map.of("service", "order", "instance", NASTY, "status", "\"}");
+
+        String body = skeleton.render("ou_1", values);
+
+        assertEquals(cardBody(ALERT.render("ou_1", values)), body);
+        JsonNode card = MAPPER.readTree(MAPPER.readTree(body).get("content").asText());
+        assertEquals("**实例**: " + NASTY + "\n**状态**: \"}", card.get("elements").get(0).get("text").asText());
+        assertEquals("order 告警", card.get("header").get("title").asText());
+    }
+
+    @Test
+    void escapesThreeLevelsDeep() throws Exception {
+        JsonSkeleton skeleton = JsonSkeleton.compile(ALERT, message -> {
+            ObjectNode outer = MAPPER.createObjectNode();
+            outer.put("touser", message.getTarget());
+            outer.put("payload", MAPPER.writeValueAsString(MAPPER.createObjectNode()
+                    .put("card", cardBody(message))));
+            return MAPPER.writeValueAsString(outer);
+        });
+        Map<String, String> values = Map.of("service", "order", "instance", NASTY, "status", "down");
+
+        String body = skeleton.render("ou_1", values);
+
+        JsonNode payload = MAPPER.readTree(MAPPER.readTree(body).get("payload").asText());
+        JsonNode card = MAPPER.readTree(MAPPER.readTree(payload.get("card").asText()).get("content").asText());
+        assertEquals("**实例**: " + NASTY + "\n**状态**: down", card.get("elements").get(0).get("text").asText());
+    }
+
+    @Test
+    void sameVariableAtDifferentDepths() throws Exception {
+        // 同一变量既出现在外层字段，又出现在嵌入的卡片里
+        JsonSkeleton skeleton = JsonSkeleton.compile(ALERT, message -> {
+            ObjectNode outer = (ObjectNode) MAPPER.readTree(cardBody(message));
+            outer.put("summary", message.getTitle());
+            return MAPPER.writeValueAsString(outer);
+        });
+
+        String body = skeleton.render("ou_1", Map.of("service", NASTY, "instance", "db-1", "status", "down"));
+
+        JsonNode json = MAPPER.readTree(body);
+        assertEquals(NASTY + " 告警", json.get("summary").asText());
+        assertEquals(NASTY + " 告警",
+                MAPPER.readTree(json.get("content").asText()).get("header").get("title").asText());
+    }
+
+    @Test
+    void transformedFieldIsNotCompiled() throws Exception {
+        // 改写了引号，哨兵残留在片段里
+        assertNull(JsonSkeleton.compile(ALERT, message -> MAPPER.writeValueAsString(
+                MAPPER.createObjectNode().put("title", message.getTitle().replace('"', '\'')))));
+        assertNull(JsonSkeleton.compile(ALERT, message -> null));
+    }
+
+    @Test
+    void missingVariableFails() throws Exception {
+        JsonSkeleton skeleton = JsonSkeleton.compile(ALERT, JsonSkeletonTest::plainBody);
+        assertNotNull(skeleton);
+
+        assertThrows(IllegalArgumentException.class, () -> skeleton.render("u1", Map.of("service", "order")));
+    }
+
+    private static String plainBody(PushMessage message) throws Exception {
+        ObjectNode body = MAPPER.createObjectNode();
+        body.put("touser", message.getTarget());
+        body.put("title", message.getTitle());
+        body.putObject("markdown").put("content", message.getContent());
+        return MAPPER.writeValueAsString(body);
+    }
+
+    /**
+     * 仿飞书卡片：卡片 JSON 序列化成字符串后作为 content 字段
+     */
+    private static String cardBody(PushMessage message) throws Exception {
+        ObjectNode card = MAPPER.createObjectNode();
+        card.putObject("header").put("title", message.getTitle());
+        card.putArray("elements").addObject().put("tag", "markdown").put("text", message.getContent());
+        ObjectNode body = MAPPER.createObjectNode();
+        body.put("receive_id", message.getTarget());
+        body.put("msg_type", "interactive");
+        body.put("content", MAPPER.writeValueAsString(card));
+        return MAPPER.writeValueAsString(body);
+    }
+}
@@ -0,0 +1,73 @@
+package dev.qingzhou.push.core.template;
+
+import dev.qingzhou.push.core.model.PushMessage;
+import dev.qingzhou.push.core.model.enums.MessageType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageTemplateTest {
+
+    private static final PushMessage PROTOTYPE = PushMessage.builder()
+            .type(MessageType.TEXT)
+            .title("${service}")
+            .content("${status}")
+            .build();
+
+    @Test
+    void expiryIsTakenAtSendTime() throws Exception {
+        MessageTemplate template = MessageTemplate.of("ttl", PROTOTYPE, Duration.ofMillis(50));
+        long first = template.expireAt();
+        Thread.sleep(80);
+        Map<String, String> values = Map.of("service", "order", "status", "down");
+
+        long before = System.currentTimeMillis();
+        PushMessage rendered = template.render("u1", values);
+
+        assertTrue(rendered.getExpireAt() >= before + 50, "rendered after the first ttl elapsed");
+        assertTrue(rendered.getExpireAt() > first);
+        assertEquals(first, template.render("u1", values, first).getExpireAt());
+    }
+
+    @Test
+    void noTtlMeansNoExpiry() {
+        MessageTemplate template = MessageTemplate.of("plain", PROTOTYPE);
+
+        assertNull(template.expireAt());
+        assertNull(template.render("u1", Map.of("service", "order", "status", "down")).getExpireAt());
+    }
+
+    @Test
+    void rejectsAbsoluteExpiryOnPrototype() {
+        PushMessage expiring = PROTOTYPE.toBuilder().ttl(Duration.ofMinutes(1)).build();
+
+        assertThrows(IllegalArgumentException.class, () -> MessageTemplate.of("abs", expiring));
+    }
+
+    @Test
+    void ttlIsPartOfIdentity() {
+        assertNotEquals(MessageTemplate.of("t", PROTOTYPE), MessageTemplate.of("t", PROTOTYPE, Duration.ofMinutes(1)));
+        assertEquals(MessageTemplate.of("t", PROTOTYPE, Duration.ofMinutes(1)),
+                MessageTemplate.of("t", PROTOTYPE, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void renderTextOnlyFillsTitleAndContent() {
+        MessageTemplate template = MessageTemplate.of("text", PROTOTYPE.toBuilder()
+                .extras(Map.of("note", "${missing}"))
+                .build());
+
+        PushMessage text = template.renderText("u1", Map.of("service", "order", "status", "down"));
+
+        assertEquals("order", text.getTitle());
+        assertEquals("down", text.getContent());
+        assertNull(text.getExtras());
+    }
+}
@@ -0,0 +1,109 @@
+package dev.qingzhou.push.core.utils;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HmacSignerTest {
+
+    private static final String[] SECRETS = {
+            "a",
+            "SEC0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcd",
+            "含中文的 secret ✓",
+            "x".repeat(300),
+    };
+
+    @Test
+    void matchesSignUtilsAcrossTimestampsAndSecrets() {
+        Random random = new Random(42);
+        List<String> secrets = new ArrayList<>(List.of(SECRETS));
+        for (int i = 0; i < 20; i++) {
+            secrets.add(randomSecret(random));
+        }
+        long[] edges = {0, 1, 9, 10, 99, 1_000, Integer.MAX_VALUE, 1_700_000_000_000L, Long.MAX_VALUE};
+        for (String secret : secrets) {
+            HmacSigner signer = HmacSigner.of(secret);
+            for (long timestamp : edges) {
+                assertEquals(SignUtils.sign(secret, timestamp + "\n" + secret), signer.signWithTimestamp(timestamp),
+                        "secret=" + secret + ", timestamp=" + timestamp);
+            }
+            // 覆盖 Base64 中出现 '+' '/' 与末尾 '=' 的各种组合
+            for (int i = 0; i < 500; i++) {
+                long timestamp = 1_700_000_000_000L + random.nextInt(1_000_000_000);
+                assertEquals(SignUtils.sign(secret, timestamp + "\n" + secret), signer.signWithTimestamp(timestamp));
+            }
+        }
+    }
+
+    @Test
+    void signAsKeyMatchesReference() throws Exception {
+        Random random = new Random(7);
+        for (String secret : SECRETS) {
+            for (int i = 0; i < 100; i++) {
+                long timestamp = 1_700_000_000L + random.nextInt(100_000_000);
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(new SecretKeySpec((timestamp + "\n" + secret).getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+                assertEquals(Base64.getEncoder().encodeToString(mac.doFinal()), HmacSigner.signAsKey(secret, timestamp));
+            }
+        }
+    }
+
+    @Test
+    void concurrentVirtualThreadsShareThePool() throws Exception {
+        String secret = SECRETS[1];
+        HmacSigner signer = HmacSigner.of(secret);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 200; t++) {
+                long base = 1_700_000_000_000L + t * 1_000L;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        assertEquals(SignUtils.sign(secret, (base + i) + "\n" + secret), signer.signWithTimestamp(base + i));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    @Test
+    void recentlyUsedSignerSurvivesManySecrets() {
+        HmacSigner hot = HmacSigner.of("hot-secret");
+        for (int i = 0; i < 1_000; i++) {
+            HmacSigner.of("cold-" + i);
+            assertSame(hot, HmacSigner.of("hot-secret"));
+        }
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> HmacSigner.of(""));
+        assertThrows(IllegalArgumentException.class, () -> HmacSigner.of("s").signWithTimestamp(-1));
+        assertThrows(IllegalArgumentException.class, () -> HmacSigner.signAsKey(null, 1));
+    }
+
+    private static String randomSecret(Random random) {
+        StringBuilder secret = new StringBuilder();
+        int length = 1 + random.nextInt(80);
+        for (int i = 0; i < length; i++) {
+            secret.append((char) (0x20 + random.nextInt(0x5f)));
+        }
+        return secret.toString();
+    }
+}
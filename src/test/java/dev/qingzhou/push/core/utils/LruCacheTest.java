@@ -0,0 +1,53 @@
+package dev.qingzhou.push.core.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LruCacheTest {
+
+    @Test
+    void evictsOnlyLeastRecentlyUsedEntry() {
+        LruCache<String, Integer> cache = new LruCache<>(3);
+        cache.put("a", 1, Long.MAX_VALUE);
+        cache.put("b", 2, Long.MAX_VALUE);
+        cache.put("c", 3, Long.MAX_VALUE);
+        assertEquals(1, cache.get("a"));
+
+        cache.put("d", 4, Long.MAX_VALUE);
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.get("a"));
+        assertEquals(3, cache.get("c"));
+        assertEquals(4, cache.get("d"));
+    }
+
+    @Test
+    void computeIfAbsentReportsEvictedValues() {
+        LruCache<String, String> cache = new LruCache<>(2);
+        List<String> evicted = new ArrayList<>();
+
+        assertEquals("A", cache.computeIfAbsent("a", String::toUpperCase, Long.MAX_VALUE, evicted::add));
+        assertEquals("B", cache.computeIfAbsent("b", String::toUpperCase, Long.MAX_VALUE, evicted::add));
+        assertEquals("A", cache.computeIfAbsent("a", k -> "other", Long.MAX_VALUE, evicted::add));
+        cache.computeIfAbsent("c", String::toUpperCase, Long.MAX_VALUE, evicted::add);
+
+        assertEquals(List.of("B"), evicted);
+        assertEquals(List.of("A", "C"), cache.values());
+    }
+
+    @Test
+    void expiredEntryIsReloaded() throws Exception {
+        LruCache<String, String> cache = new LruCache<>(2);
+        cache.put("a", "old", 1);
+        Thread.sleep(5);
+
+        assertNull(cache.get("a"));
+        assertEquals("new", cache.computeIfAbsent("a", k -> "new", Long.MAX_VALUE, null));
+    }
+}
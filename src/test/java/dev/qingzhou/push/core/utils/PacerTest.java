@@ -0,0 +1,61 @@
+package dev.qingzhou.push.core.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PacerTest {
+
+    private static final long MILLI = 1_000_000L;
+
+    @Test
+    void spacesSlotsPerKeyAndGlobally() {
+        Pacer pacer = new Pacer(Duration.ofMillis(10), Duration.ofSeconds(1));
+
+        assertEquals(0, pacer.reserve("a"));
+        long otherKey = pacer.reserve("b");
+        long sameKey = pacer.reserve("a");
+
+        assertTrue(otherKey > 5 * MILLI && otherKey <= 10 * MILLI, "other key waits " + otherKey);
+        assertTrue(sameKey > 900 * MILLI && sameKey <= 1_000 * MILLI, "same key waits " + sameKey);
+    }
+
+    @Test
+    void slotAfterBudgetIsNotBooked() throws Exception {
+        Pacer pacer = new Pacer(Duration.ofMillis(10), Duration.ofSeconds(1));
+        assertTrue(pacer.acquire("a", Duration.ofMillis(100)));
+
+        assertFalse(pacer.acquire("a", Duration.ofMillis(100)));
+        assertEquals(-1, pacer.tryReserve("a", 100 * MILLI));
+
+        // 被拒绝的预约没有占用槽位：全局槽位未后移，同 key 的下一个槽位仍是 1 秒后
+        assertTrue(pacer.reserve("b") <= 20 * MILLI);
+        long sameKey = pacer.reserve("a");
+        assertTrue(sameKey <= 1_000 * MILLI, "same key waits " + sameKey);
+    }
+
+    @Test
+    void globalPauseDelaysEveryKey() {
+        Pacer pacer = new Pacer(Duration.ofMillis(10), Duration.ofMillis(10));
+
+        pacer.pause(null, Duration.ofSeconds(2));
+
+        assertTrue(pacer.reserve("a") > 1_900 * MILLI);
+        assertTrue(pacer.reserve("b") > 1_900 * MILLI);
+        assertEquals(-1, pacer.tryReserve("c", Duration.ofSeconds(1).toNanos()));
+    }
+
+    @Test
+    void keyPauseOnlyDelaysThatKey() {
+        Pacer pacer = new Pacer(Duration.ofMillis(10), Duration.ofMillis(10));
+
+        pacer.pause("a", Duration.ofSeconds(2));
+
+        assertTrue(pacer.reserve("b") <= 20 * MILLI);
+        assertTrue(pacer.reserve("a") > 1_900 * MILLI);
+    }
+}